@@ -0,0 +1,29 @@
+#!/bin/sh
+
+path_src="src/main/java/com"
+path_bench_src="src/bench/java/com"
+path_bin="bench-bin"
+path_export_jar="SecsBenchmarks.jar"
+main_class="com.shimizukenta.secsbench.SecsBenchmarks"
+version="8"
+
+# remove bin files
+rm -Rf ${path_bin}
+
+# mkdir bin
+mkdir ${path_bin}
+
+# compile-src
+javac -d ${path_bin} \
+--release ${version} \
+$(find ${path_src} ${path_bench_src} -name "*.java")
+
+
+# jar
+jar -c \
+-f ${path_export_jar} \
+-e ${main_class} \
+-C ${path_bin} .
+
+# run
+# java -jar SecsBenchmarks.jar -o result.json [regex...]
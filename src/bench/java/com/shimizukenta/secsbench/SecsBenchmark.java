@@ -0,0 +1,42 @@
+package com.shimizukenta.secsbench;
+
+/**
+ * This interface is one benchmark of {@link SecsBenchmarkRunner}.
+ * 
+ * <p>
+ * {@link #setup()} and {@link #teardown()} are called once per benchmark, outside of measurement.<br />
+ * {@link #operation()} is measured, returned value is consumed to prevent dead-code elimination.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public interface SecsBenchmark {
+	
+	/**
+	 * Prepare inputs, called before warmup.
+	 * 
+	 * @throws Exception
+	 */
+	default public void setup() throws Exception {
+		/* Nothing */
+	}
+	
+	/**
+	 * Measured operation.
+	 * 
+	 * @return result of operation
+	 * @throws Exception
+	 */
+	public Object operation() throws Exception;
+	
+	/**
+	 * Release resources, called after measurement.
+	 * 
+	 * @throws Exception
+	 */
+	default public void teardown() throws Exception {
+		/* Nothing */
+	}
+	
+}
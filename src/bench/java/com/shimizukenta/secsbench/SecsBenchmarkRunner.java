@@ -0,0 +1,281 @@
+package com.shimizukenta.secsbench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * This class is runner of {@link SecsBenchmark}, warmup and measurement by fixed-time iterations.
+ * 
+ * <p>
+ * Score is throughput (ops/s), error is standard deviation of iterations.<br />
+ * Allocation per operation is measured if JVM supports thread-allocated-bytes.<br />
+ * Results are written as JSON lines sorted by name, to diff across commits.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class SecsBenchmarkRunner {
+	
+	private final Map<String, SecsBenchmark> benchmarks = new LinkedHashMap<>();
+	
+	private int warmupIterations;
+	private int measurementIterations;
+	private long iterationMillis;
+	
+	/* sink of results, prevent dead-code elimination */
+	private volatile int sink;
+	
+	public SecsBenchmarkRunner() {
+		this.warmupIterations = 3;
+		this.measurementIterations = 5;
+		this.iterationMillis = 1000L;
+		this.sink = 0;
+	}
+	
+	public void warmupIterations(int n) {
+		this.warmupIterations = n;
+	}
+	
+	public void measurementIterations(int n) {
+		this.measurementIterations = n;
+	}
+	
+	public void iterationMillis(long ms) {
+		this.iterationMillis = ms;
+	}
+	
+	/**
+	 * Add benchmark.
+	 * 
+	 * @param name unique name, dot separated
+	 * @param benchmark
+	 */
+	public void add(String name, SecsBenchmark benchmark) {
+		benchmarks.put(name, benchmark);
+	}
+	
+	/**
+	 * Returns names of benchmarks.
+	 * 
+	 * @return names of benchmarks
+	 */
+	public List<String> names() {
+		return Collections.unmodifiableList(new ArrayList<>(benchmarks.keySet()));
+	}
+	
+	/**
+	 * Run benchmarks which name matches filter.
+	 * 
+	 * @param filter regex, find in name
+	 * @return results
+	 * @throws InterruptedException
+	 */
+	public List<Result> run(Pattern filter) throws InterruptedException {
+		
+		final List<Result> results = new ArrayList<>();
+		
+		for ( Map.Entry<String, SecsBenchmark> e : benchmarks.entrySet() ) {
+			
+			if ( ! filter.matcher(e.getKey()).find() ) {
+				continue;
+			}
+			
+			try {
+				Result r = run(e.getKey(), e.getValue());
+				System.out.println(r.toLine());
+				results.add(r);
+			}
+			catch ( InterruptedException ex ) {
+				throw ex;
+			}
+			catch ( Exception ex ) {
+				System.out.println(e.getKey() + ": failed: " + ex);
+			}
+		}
+		
+		return results;
+	}
+	
+	private Result run(String name, SecsBenchmark bm) throws Exception {
+		
+		bm.setup();
+		
+		try {
+			for ( int i = 0; i < warmupIterations; ++i ) {
+				iteration(bm);
+			}
+			
+			final double[] scores = new double[measurementIterations];
+			long ops = 0L;
+			long nanos = 0L;
+			long allocBytes = 0L;
+			
+			for ( int i = 0; i < measurementIterations; ++i ) {
+				Iteration it = iteration(bm);
+				scores[i] = (double)it.ops * 1000000000.0D / (double)it.nanos;
+				ops += it.ops;
+				nanos += it.nanos;
+				allocBytes += it.allocBytes;
+			}
+			
+			double mean = 0.0D;
+			for ( double s : scores ) {
+				mean += s;
+			}
+			mean /= (double)scores.length;
+			
+			double var = 0.0D;
+			for ( double s : scores ) {
+				var += (s - mean) * (s - mean);
+			}
+			
+			double error = scores.length > 1 ? Math.sqrt(var / (double)(scores.length - 1)) : 0.0D;
+			
+			return new Result(
+					name,
+					mean,
+					error,
+					(ops > 0L ? (double)nanos / (double)ops : 0.0D),
+					(ops > 0L && allocBytes >= 0L ? (double)allocBytes / (double)ops : -1.0D));
+		}
+		finally {
+			bm.teardown();
+		}
+	}
+	
+	private Iteration iteration(SecsBenchmark bm) throws Exception {
+		
+		final long limit = iterationMillis * 1000000L;
+		final long tid = Thread.currentThread().getId();
+		final long alloc0 = allocatedBytes(tid);
+		final long start = System.nanoTime();
+		
+		long ops = 0L;
+		long elapsed;
+		int h = 0;
+		
+		do {
+			Object o = bm.operation();
+			if ( o != null ) {
+				h ^= System.identityHashCode(o);
+			}
+			++ ops;
+			elapsed = System.nanoTime() - start;
+		} while ( elapsed < limit );
+		
+		final long alloc1 = allocatedBytes(tid);
+		
+		this.sink ^= h;
+		
+		return new Iteration(ops, elapsed, ((alloc0 < 0L || alloc1 < 0L) ? -1L : (alloc1 - alloc0)));
+	}
+	
+	private static long allocatedBytes(long tid) {
+		
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		
+		if ( bean instanceof com.sun.management.ThreadMXBean ) {
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(tid);
+		}
+		
+		return -1L;
+	}
+	
+	/**
+	 * Write results as JSON lines.
+	 * 
+	 * @param path
+	 * @param results
+	 * @throws IOException
+	 */
+	public static void write(Path path, List<Result> results) throws IOException {
+		
+		final List<String> lines = new ArrayList<>();
+		
+		results.stream()
+		.sorted((a, b) -> a.name.compareTo(b.name))
+		.map(Result::toJson)
+		.forEach(lines::add);
+		
+		Files.write(path, lines, StandardCharsets.UTF_8);
+	}
+	
+	private static class Iteration {
+		
+		private final long ops;
+		private final long nanos;
+		private final long allocBytes;
+		
+		private Iteration(long ops, long nanos, long allocBytes) {
+			this.ops = ops;
+			this.nanos = nanos;
+			this.allocBytes = allocBytes;
+		}
+	}
+	
+	/**
+	 * This class is result of one benchmark.
+	 *
+	 */
+	public static class Result {
+		
+		private final String name;
+		private final double score;
+		private final double error;
+		private final double nanosPerOp;
+		private final double allocBytesPerOp;
+		
+		private Result(String name, double score, double error, double nanosPerOp, double allocBytesPerOp) {
+			this.name = name;
+			this.score = score;
+			this.error = error;
+			this.nanosPerOp = nanosPerOp;
+			this.allocBytesPerOp = allocBytesPerOp;
+		}
+		
+		public String name() {
+			return name;
+		}
+		
+		public double score() {
+			return score;
+		}
+		
+		public double error() {
+			return error;
+		}
+		
+		public double nanosPerOp() {
+			return nanosPerOp;
+		}
+		
+		public double allocBytesPerOp() {
+			return allocBytesPerOp;
+		}
+		
+		public String toLine() {
+			return String.format(Locale.ROOT,
+					"%-40s %16.3f +- %12.3f ops/s %14.1f ns/op %14.1f B/op",
+					name, score, error, nanosPerOp, allocBytesPerOp);
+		}
+		
+		public String toJson() {
+			return String.format(Locale.ROOT,
+					"{\"benchmark\":\"%s\",\"score\":%.3f,\"error\":%.3f,\"unit\":\"ops/s\",\"nsPerOp\":%.1f,\"allocBytesPerOp\":%.1f}",
+					name, score, error, nanosPerOp, allocBytesPerOp);
+		}
+	}
+	
+}
@@ -0,0 +1,516 @@
+package com.shimizukenta.secsbench;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.shimizukenta.jsonhub.JsonHubJsonParser;
+import com.shimizukenta.secs.SecsCommunicator;
+import com.shimizukenta.secs.SecsException;
+import com.shimizukenta.secs.hsmsss.HsmsSsCommunicator;
+import com.shimizukenta.secs.hsmsss.HsmsSsCommunicatorConfig;
+import com.shimizukenta.secs.hsmsss.HsmsSsProtocol;
+import com.shimizukenta.secs.secs1.Secs1Message;
+import com.shimizukenta.secs.secs1.Secs1MessageBlock;
+import com.shimizukenta.secs.secs1.Secs1MessageBlockConverter;
+import com.shimizukenta.secs.secs1ontcpip.Secs1OnTcpIpCommunicator;
+import com.shimizukenta.secs.secs1ontcpip.Secs1OnTcpIpCommunicatorConfig;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2ByteBuffersBuilder;
+import com.shimizukenta.secs.secs2.Secs2BytesParser;
+import com.shimizukenta.secs.secs2.Secs2Writer;
+import com.shimizukenta.secssimulator.TcpIpAdapter;
+import com.shimizukenta.secssimulator.extendsml.ExtendSmlMessageParser;
+
+/**
+ * This class is benchmark suite of SECS hot paths.
+ * 
+ * <p>
+ * Usage: {@code java -cp bin:bench-bin com.shimizukenta.secsbench.SecsBenchmarks [options] [regex...]}<br />
+ * {@code -wi N} warmup iterations, {@code -i N} measurement iterations, {@code -r ms} iteration time,<br />
+ * {@code -o path} write JSON lines result, {@code -l} list benchmarks.<br />
+ * System property {@code secsbench.sml-template} is path of SML corpus (default {@code src/sml-template}),
+ * {@code secsbench.port} is HSMS loopback port (default {@code 25100}).<br />
+ * SECS-I loopback cases run with TCP_NODELAY on and off ({@code .nagle}),
+ * {@code handshake} is one-way S1F1, time of ENQ/EOT/block/ACK.<br />
+ * SML corpus includes simulator extended items, parsed by {@link ExtendSmlMessageParser}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class SecsBenchmarks {
+	
+	private SecsBenchmarks() {
+		/* Nothing */
+	}
+	
+	public static void main(String[] args) {
+		
+		try {
+			final SecsBenchmarkRunner runner = new SecsBenchmarkRunner();
+			final List<String> filters = new ArrayList<>();
+			Path output = null;
+			boolean list = false;
+			
+			for ( int i = 0; i < args.length; ++i ) {
+				
+				String a = args[i];
+				
+				if ( a.equals("-wi") ) {
+					
+					runner.warmupIterations(Integer.parseInt(args[++i]));
+					
+				} else if ( a.equals("-i") ) {
+					
+					runner.measurementIterations(Integer.parseInt(args[++i]));
+					
+				} else if ( a.equals("-r") ) {
+					
+					runner.iterationMillis(Long.parseLong(args[++i]));
+					
+				} else if ( a.equals("-o") ) {
+					
+					output = Paths.get(args[++i]);
+					
+				} else if ( a.equals("-l") ) {
+					
+					list = true;
+					
+				} else {
+					
+					filters.add(a);
+				}
+			}
+			
+			addAll(runner);
+			
+			if ( list ) {
+				runner.names().forEach(System.out::println);
+				return;
+			}
+			
+			Pattern filter = Pattern.compile(filters.isEmpty() ? "" : String.join("|", filters));
+			
+			List<SecsBenchmarkRunner.Result> results = runner.run(filter);
+			
+			if ( output != null ) {
+				SecsBenchmarkRunner.write(output, results);
+				System.out.println("wrote: " + output);
+			}
+		}
+		catch ( InterruptedException ignore ) {
+		}
+		catch ( Throwable t ) {
+			t.printStackTrace();
+		}
+	}
+	
+	private static final byte[] HEAD = new byte[] {
+			(byte)0x00, (byte)0x0A, (byte)0x81, (byte)0x01,
+			(byte)0x00, (byte)0x00,
+			(byte)0x00, (byte)0x00, (byte)0x00, (byte)0x01
+	};
+	
+	private static Secs2 smallBody() {
+		return Secs2.list(
+				Secs2.ascii("MDLN-A"),
+				Secs2.ascii("SOFTREV-1"),
+				Secs2.uint4(1L),
+				Secs2.binary((byte)0x01));
+	}
+	
+	/* about 40KB */
+	private static Secs2 mediumBody() {
+		
+		List<Secs2> ll = new ArrayList<>();
+		
+		for ( int i = 0; i < 1000; ++i ) {
+			ll.add(Secs2.list(
+					Secs2.uint4(i),
+					Secs2.ascii("VALUE-" + i),
+					Secs2.float8((double)i)));
+		}
+		
+		return Secs2.list(ll);
+	}
+	
+	/* about 4MB */
+	private static Secs2 largeBody() {
+		
+		byte[] bs = new byte[4 * 1024 * 1024];
+		
+		for ( int i = 0; i < bs.length; ++i ) {
+			bs[i] = (byte)i;
+		}
+		
+		long[] vv = new long[50000];
+		
+		for ( int i = 0; i < vv.length; ++i ) {
+			vv[i] = i;
+		}
+		
+		return Secs2.list(Secs2.binary(bs), Secs2.uint4(vv));
+	}
+	
+	private static List<ByteBuffer> duplicate(List<ByteBuffer> buffers) {
+		return buffers.stream()
+				.map(ByteBuffer::duplicate)
+				.collect(Collectors.toList());
+	}
+	
+	private static void addAll(SecsBenchmarkRunner runner) {
+		
+		addSecs2(runner, "small", SecsBenchmarks::smallBody);
+		addSecs2(runner, "medium", SecsBenchmarks::mediumBody);
+		addSecs2(runner, "large", SecsBenchmarks::largeBody);
+		
+		addSecs1(runner, "small", SecsBenchmarks::smallBody);
+		addSecs1(runner, "medium", SecsBenchmarks::mediumBody);
+		
+		addSecs2Writer(runner);
+		
+		addSml(runner);
+		addHsmsLoopback(runner, "s1f1", true);
+		addHsmsLoopback(runner, "s1f1.nagle", false);
+		
+		addSecs1Loopback(runner, "s1f1", true, true);
+		addSecs1Loopback(runner, "s1f1.nagle", false, true);
+		addSecs1Loopback(runner, "handshake", true, false);
+		addSecs1Loopback(runner, "handshake.nagle", false, false);
+	}
+	
+	private static interface BodySupplier {
+		public Secs2 get();
+	}
+	
+	private static void addSecs2(SecsBenchmarkRunner runner, String size, BodySupplier supplier) {
+		
+		runner.add("secs2.build." + size, new SecsBenchmark() {
+			
+			private Secs2 body;
+			
+			@Override
+			public void setup() {
+				body = supplier.get();
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return Secs2ByteBuffersBuilder.build(1024, body).getByteBuffers();
+			}
+		});
+		
+		runner.add("secs2.parse." + size, new SecsBenchmark() {
+			
+			private List<ByteBuffer> buffers;
+			
+			@Override
+			public void setup() throws Exception {
+				buffers = Secs2ByteBuffersBuilder.build(1024, supplier.get()).getByteBuffers();
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return Secs2BytesParser.getInstance().parse(duplicate(buffers));
+			}
+		});
+		
+		runner.add("secs2.toJson." + size, new SecsBenchmark() {
+			
+			private Secs2 body;
+			
+			@Override
+			public void setup() {
+				body = supplier.get();
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return body.toJson();
+			}
+		});
+		
+		runner.add("jsonhub.parse." + size, new SecsBenchmark() {
+			
+			private String json;
+			
+			@Override
+			public void setup() {
+				json = supplier.get().toJson();
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return JsonHubJsonParser.getInstance().parse(json);
+			}
+		});
+	}
+	
+	private static void addSecs1(SecsBenchmarkRunner runner, String size, BodySupplier supplier) {
+		
+		runner.add("secs1.toBlocks." + size, new SecsBenchmark() {
+			
+			private Secs1Message msg;
+			
+			@Override
+			public void setup() {
+				msg = new Secs1Message(HEAD, supplier.get());
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return Secs1MessageBlockConverter.toBlocks(msg);
+			}
+		});
+		
+		runner.add("secs1.roundTrip." + size, new SecsBenchmark() {
+			
+			private Secs1Message msg;
+			
+			@Override
+			public void setup() {
+				msg = new Secs1Message(HEAD, supplier.get());
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				List<Secs1MessageBlock> blocks = Secs1MessageBlockConverter.toBlocks(msg);
+				return Secs1MessageBlockConverter.toSecs1Message(blocks);
+			}
+		});
+	}
+	
+	private static void addSecs2Writer(SecsBenchmarkRunner runner) {
+		
+		runner.add("secs2.treeAndBuild.medium", new SecsBenchmark() {
+			
+			@Override
+			public Object operation() throws Exception {
+				return Secs2ByteBuffersBuilder.build(1024, mediumBody()).getByteBuffers();
+			}
+		});
+		
+		runner.add("secs2.writerAndBuild.medium", new SecsBenchmark() {
+			
+			@Override
+			public Object operation() throws Exception {
+				
+				Secs2Writer w = Secs2Writer.newInstance();
+				
+				w.beginList(1000);
+				
+				for ( int i = 0; i < 1000; ++i ) {
+					w.beginList(3)
+					.uint4(i)
+					.ascii("VALUE-" + i)
+					.float8((double)i)
+					.end();
+				}
+				
+				w.end();
+				
+				return Secs2ByteBuffersBuilder.build(1024, w.toSecs2()).getByteBuffers();
+			}
+		});
+	}
+	
+	private static void addSml(SecsBenchmarkRunner runner) {
+		
+		runner.add("sml.parse.template", new SecsBenchmark() {
+			
+			private final List<String> corpus = new ArrayList<>();
+			private int index;
+			
+			@Override
+			public void setup() throws IOException {
+				
+				Path dir = Paths.get(System.getProperty("secsbench.sml-template", "src/sml-template"));
+				
+				try (
+						Stream<Path> s = Files.walk(dir);
+						) {
+					
+					List<Path> paths = s
+							.filter(p -> p.toString().endsWith(".sml"))
+							.sorted()
+							.collect(Collectors.toList());
+					
+					for ( Path p : paths ) {
+						corpus.add(new String(Files.readAllBytes(p), StandardCharsets.UTF_8));
+					}
+				}
+				
+				if ( corpus.isEmpty() ) {
+					throw new IOException("SML not found: " + dir);
+				}
+				
+				index = 0;
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				String sml = corpus.get(index);
+				index = (index + 1) % corpus.size();
+				return ExtendSmlMessageParser.getInstance().parse(sml);
+			}
+		});
+	}
+	
+	private static void addHsmsLoopback(SecsBenchmarkRunner runner, String name, boolean tcpNoDelay) {
+		
+		runner.add("hsms.loopback." + name, new SecsBenchmark() {
+			
+			private HsmsSsCommunicator passive;
+			private HsmsSsCommunicator active;
+			
+			@Override
+			public void setup() throws Exception {
+				
+				final int port = Integer.parseInt(System.getProperty("secsbench.port", "25100"));
+				final InetSocketAddress addr = new InetSocketAddress("127.0.0.1", port);
+				
+				{
+					HsmsSsCommunicatorConfig config = new HsmsSsCommunicatorConfig();
+					config.protocol(HsmsSsProtocol.PASSIVE);
+					config.socketAddress(addr);
+					config.sessionId(10);
+					config.isEquip(true);
+					config.notLinktest();
+					config.socketOptions().tcpNoDelay(tcpNoDelay);
+					
+					passive = HsmsSsCommunicator.newInstance(config);
+					passive.addSecsMessageReceiveListener(msg -> {
+						try {
+							passive.send(msg, msg.getStream(), msg.getFunction() + 1, false, Secs2.empty());
+						}
+						catch ( SecsException giveup ) {
+						}
+						catch ( InterruptedException ignore ) {
+						}
+					});
+					passive.open();
+				}
+				
+				{
+					HsmsSsCommunicatorConfig config = new HsmsSsCommunicatorConfig();
+					config.protocol(HsmsSsProtocol.ACTIVE);
+					config.socketAddress(addr);
+					config.sessionId(10);
+					config.isEquip(false);
+					config.notLinktest();
+					config.socketOptions().tcpNoDelay(tcpNoDelay);
+					
+					active = HsmsSsCommunicator.newInstance(config);
+					active.openAndWaitUntilCommunicating();
+				}
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return active.send(1, 1, true).orElse(null);
+			}
+			
+			@Override
+			public void teardown() throws Exception {
+				close(active);
+				close(passive);
+			}
+		});
+	}
+	
+	/**
+	 * SECS-I on TCP/IP loopback, Equip and Host are connected through {@link TcpIpAdapter}.
+	 * 
+	 * <p>
+	 * If wbit, S1F1 W and S1F2 round trip, each message is ENQ, EOT, one block and ACK.<br />
+	 * If not wbit, S1F1 only, send returns on ACK, latency of one ENQ/EOT/ACK handshake.<br />
+	 * Adapter relays with TCP_NODELAY, tcpNoDelay is option of Equip and Host.<br />
+	 * </p>
+	 * 
+	 * @param runner
+	 * @param name
+	 * @param tcpNoDelay
+	 * @param wbit
+	 */
+	private static void addSecs1Loopback(SecsBenchmarkRunner runner, String name, boolean tcpNoDelay, boolean wbit) {
+		
+		runner.add("secs1.loopback." + name, new SecsBenchmark() {
+			
+			private TcpIpAdapter adapter;
+			private Secs1OnTcpIpCommunicator equip;
+			private Secs1OnTcpIpCommunicator host;
+			
+			@Override
+			public void setup() throws Exception {
+				
+				adapter = TcpIpAdapter.open(
+						new InetSocketAddress("127.0.0.1", 0),
+						new InetSocketAddress("127.0.0.1", 0));
+				
+				equip = Secs1OnTcpIpCommunicator.newInstance(secs1Config(adapter.socketAddressA(), true, tcpNoDelay));
+				equip.addSecsMessageReceiveListener(msg -> {
+					if ( msg.wbit() ) {
+						try {
+							equip.send(msg, msg.getStream(), msg.getFunction() + 1, false, Secs2.empty());
+						}
+						catch ( SecsException giveup ) {
+						}
+						catch ( InterruptedException ignore ) {
+						}
+					}
+				});
+				equip.openAndWaitUntilCommunicating();
+				
+				host = Secs1OnTcpIpCommunicator.newInstance(secs1Config(adapter.socketAddressB(), false, tcpNoDelay));
+				host.openAndWaitUntilCommunicating();
+			}
+			
+			@Override
+			public Object operation() throws Exception {
+				return host.send(1, 1, wbit).orElse(null);
+			}
+			
+			@Override
+			public void teardown() throws Exception {
+				close(host);
+				close(equip);
+				
+				if ( adapter != null ) {
+					adapter.close();
+				}
+			}
+		});
+	}
+	
+	private static Secs1OnTcpIpCommunicatorConfig secs1Config(SocketAddress addr, boolean isEquip, boolean tcpNoDelay) {
+		Secs1OnTcpIpCommunicatorConfig config = new Secs1OnTcpIpCommunicatorConfig();
+		config.socketAddress(addr);
+		config.deviceId(10);
+		config.isEquip(isEquip);
+		config.isMaster(isEquip);
+		config.socketOptions().tcpNoDelay(tcpNoDelay);
+		return config;
+	}
+	
+	private static void close(SecsCommunicator comm) {
+		if ( comm != null ) {
+			try {
+				comm.close();
+			}
+			catch ( IOException giveup ) {
+			}
+		}
+	}
+	
+}
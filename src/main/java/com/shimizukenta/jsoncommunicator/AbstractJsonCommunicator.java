@@ -1,6 +1,5 @@
 package com.shimizukenta.jsoncommunicator;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.Buffer;
@@ -14,8 +13,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -25,6 +29,10 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import com.shimizukenta.jsonhub.JsonHub;
+import com.shimizukenta.jsonhub.JsonHubParseException;
+import com.shimizukenta.jsonhub.JsonHubUtf8Writer;
+
 public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T> {
 	
 	protected static final byte DELIMITER = (byte)0x0;
@@ -162,6 +170,7 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 					finally {
 						
 						channels.remove(channel);
+						syncSendChannels.remove(channel);
 						
 						try {
 							channel.shutdownOutput();
@@ -229,6 +238,7 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 					finally {
 						
 						channels.remove(channel);
+						syncSendChannels.remove(channel);
 						notifyLog("channel-disconnected", channelStr);
 						
 						try {
@@ -275,19 +285,97 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 		}
 	}
 	
+	private static final int READ_BUFFER_SIZE = 8 * 1024;
+	private static final int READ_BUFFER_POOL_SIZE = 16;
+	private static final int FRAME_INITIAL_SIZE = 1024;
+	private static final int FRAME_RETAIN_SIZE = 64 * 1024;
+	
+	/* reused by connections, heap buffer to scan and decode by array */
+	private final Queue<ByteBuffer> readBufferPool = new ConcurrentLinkedQueue<>();
+	
+	private ByteBuffer borrowReadBuffer() {
+		final ByteBuffer buffer = readBufferPool.poll();
+		if ( buffer == null ) {
+			return ByteBuffer.allocate(READ_BUFFER_SIZE);
+		}
+		((Buffer)buffer).clear();
+		return buffer;
+	}
+	
+	private void returnReadBuffer(ByteBuffer buffer) {
+		if ( readBufferPool.size() < READ_BUFFER_POOL_SIZE ) {
+			readBufferPool.offer(buffer);
+		}
+	}
+	
 	private Callable<Object> createReadingTask(AsynchronousSocketChannel channel) {
 		
 		return new Callable<Object>() {
 			
+			/* bytes of incomplete frame, carried over reads */
+			private byte[] frame = new byte[FRAME_INITIAL_SIZE];
+			private int frameLength = 0;
+			
+			private void appendFrame(byte[] bs, int offset, int length) {
+				
+				final int n = frameLength + length;
+				
+				if ( n > frame.length ) {
+					frame = Arrays.copyOf(frame, Math.max(n, frame.length * 2));
+				}
+				
+				System.arraycopy(bs, offset, frame, frameLength, length);
+				frameLength = n;
+			}
+			
+			private void resetFrame() {
+				frameLength = 0;
+				if ( frame.length > FRAME_RETAIN_SIZE ) {
+					frame = new byte[FRAME_INITIAL_SIZE];
+				}
+			}
+			
+			/**
+			 * Scan delimiters in bulk, put frame from read-buffer slice without copy if not carried over.
+			 * 
+			 * @param bs array of read-buffer
+			 * @param pos
+			 * @param limit
+			 */
+			private void split(byte[] bs, int pos, int limit) {
+				
+				int start = pos;
+				
+				for ( int i = pos; i < limit; ++i ) {
+					
+					if ( bs[i] == DELIMITER ) {
+						
+						if ( frameLength == 0 ) {
+							
+							putReceivedBytes(channel, bs, start, i - start);
+							
+						} else {
+							
+							appendFrame(bs, start, i - start);
+							putReceivedBytes(channel, frame, 0, frameLength);
+							resetFrame();
+						}
+						
+						start = i + 1;
+					}
+				}
+				
+				if ( start < limit ) {
+					appendFrame(bs, start, limit - start);
+				}
+			}
+			
 			@Override
 			public Object call() throws Exception {
 				
-				try (
-						ByteArrayOutputStream baos = new ByteArrayOutputStream();
-						) {
-					
-					final ByteBuffer buffer = ByteBuffer.allocate(1024);
-					
+				final ByteBuffer buffer = borrowReadBuffer();
+				
+				try {
 					for ( ;; ) {
 						
 						((Buffer)buffer).clear();
@@ -301,18 +389,7 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 								return null;
 							}
 							
-							((Buffer)buffer).flip();
-							
-							while ( buffer.hasRemaining() ) {
-								byte b = buffer.get();
-								if ( b == DELIMITER ) {
-									byte[] bs = baos.toByteArray();
-									putReceivedBytes(channel, bs);
-									baos.reset();
-								} else {
-									baos.write(b);
-								}
-							}
+							split(buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.position());
 						}
 						catch ( ExecutionException e ) {
 							notifyLog(e.getCause());
@@ -324,21 +401,40 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 						}
 					}
 				}
-				catch ( IOException e ) {
-					notifyLog(e);
-				}
 				catch ( InterruptedException ignore ) {
 				}
+				finally {
+					returnReadBuffer(buffer);
+				}
 				
 				return null;
 			}
 		};
 	}
 	
-	abstract protected void putReceivedBytes(AsynchronousSocketChannel channel, byte[] bs);
+	/**
+	 * Put received frame.
+	 * 
+	 * <p>
+	 * {@code bs} may be reused after returned, do not keep reference.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 * @param bs
+	 * @param offset
+	 * @param length
+	 */
+	abstract protected void putReceivedBytes(AsynchronousSocketChannel channel, byte[] bs, int offset, int length);
 	
 	private final Object syncSend = new Object();
 	
+	/* per channel, a slow channel does not block sending to other channels */
+	private final ConcurrentMap<AsynchronousSocketChannel, Object> syncSendChannels = new ConcurrentHashMap<>();
+	
+	private Object syncSendChannel(AsynchronousSocketChannel channel) {
+		return syncSendChannels.computeIfAbsent(channel, k -> new Object());
+	}
+	
 	@Override
 	public void send(CharSequence json) throws InterruptedException, IOException {
 		synchronized ( syncSend ) {
@@ -355,20 +451,21 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 	
 	@Override
 	public void send(AsynchronousSocketChannel channel, CharSequence json) throws InterruptedException, IOException {
-		synchronized ( syncSend ) {
-			send(Arrays.asList(Objects.requireNonNull(channel)), json);
-		}
+		send(Arrays.asList(Objects.requireNonNull(channel)), json);
 	}
 	
 	@Override
 	public void send(AsynchronousSocketChannel channel, Object pojo) throws InterruptedException, IOException, JsonCommunicatorParseException {
-		synchronized ( syncSend ) {
-			send(Arrays.asList(Objects.requireNonNull(channel)), pojo);
-		}
+		send(Arrays.asList(Objects.requireNonNull(channel)), pojo);
+	}
+	
+	@Override
+	public void send(AsynchronousSocketChannel channel, byte[] bs) throws InterruptedException, IOException {
+		send(Arrays.asList(Objects.requireNonNull(channel)), Objects.requireNonNull(bs), null);
 	}
 	
 	protected void send(Collection<AsynchronousSocketChannel> channels, CharSequence json) throws InterruptedException, IOException {
-		byte[] bs = Objects.requireNonNull(json).toString().getBytes(StandardCharsets.UTF_8);
+		byte[] bs = JsonHubUtf8Writer.encode(Objects.requireNonNull(json));
 		send(channels, bs, json);
 	}
 	
@@ -377,10 +474,26 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 		send(channels, bs, pojo);
 	}
 	
+	/**
+	 * Send encoded JSON bytes to channels.
+	 * 
+	 * <p>
+	 * Bytes are shared by channels, each channel writes bytes and delimiter by gathering-write.<br />
+	 * </p>
+	 * 
+	 * @param channels
+	 * @param bs UTF-8 encoded JSON
+	 * @param toLog log value, if {@code null}, {@code bs} is decoded when logged
+	 * @throws InterruptedException
+	 * @throws IOException
+	 */
 	protected void send(Collection<AsynchronousSocketChannel> channels, byte[] bs, Object toLog) throws InterruptedException, IOException {
 		
+		/* encoded once, each channel writes view of shared bytes */
+		final ByteBuffer body = ByteBuffer.wrap(bs).asReadOnlyBuffer();
+		
 		final Collection<Callable<AsynchronousSocketChannel>> tasks = channels.stream()
-				.map(ch -> createSendTask(ch, bs))
+				.map(ch -> createSendTask(ch, body.duplicate()))
 				.collect(Collectors.toList());
 		
 		final List<Future<AsynchronousSocketChannel>> results = execServ.invokeAll(tasks);
@@ -408,49 +521,72 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 			}
 		}
 		
-		String logValue = "to [" + toAddrs.stream().collect(Collectors.joining(", ")) + "]" + BR + String.valueOf(toLog);
-		notifyLog("sended", logValue);
+		notifyLog("sended", new SendedLogValue(toAddrs, bs, toLog));
 		
 		if ( ioExcept != null ) {
 			throw ioExcept;
 		}
 	}
 	
-	private Callable<AsynchronousSocketChannel> createSendTask(AsynchronousSocketChannel channel, byte[] bs) {
+	/* build String when logged, if toLog is null, decode bytes */
+	private static class SendedLogValue {
+		
+		private final List<String> toAddrs;
+		private final byte[] bs;
+		private final Object toLog;
+		
+		private SendedLogValue(List<String> toAddrs, byte[] bs, Object toLog) {
+			this.toAddrs = toAddrs;
+			this.bs = bs;
+			this.toLog = toLog;
+		}
+		
+		@Override
+		public String toString() {
+			return "to [" + toAddrs.stream().collect(Collectors.joining(", ")) + "]" + BR
+					+ (toLog == null ? new String(bs, StandardCharsets.UTF_8) : toLog.toString());
+		}
+	}
+	
+	private static final ByteBuffer DELIMITER_BUFFER = ByteBuffer.wrap(new byte[]{DELIMITER}).asReadOnlyBuffer();
+	
+	private Callable<AsynchronousSocketChannel> createSendTask(AsynchronousSocketChannel channel, ByteBuffer body) {
 		
 		return new Callable<AsynchronousSocketChannel>() {
 			
 			@Override
 			public AsynchronousSocketChannel call() throws Exception {
 				
-				final ByteBuffer buffer = ByteBuffer.allocate(bs.length + 1);
-				buffer.put(bs);
-				buffer.put(DELIMITER);
-				((Buffer)buffer).flip();
+				final ByteBuffer[] buffers = new ByteBuffer[] {body, DELIMITER_BUFFER.duplicate()};
 				
 				try {
-					while ( buffer.hasRemaining() ) {
+					synchronized ( syncSendChannel(channel) ) {
 						
-						final Future<Integer> f = channel.write(buffer);
-						
-						try {
-							int w = f.get().intValue();
+						while ( buffers[1].hasRemaining() ) {
+							
+							final CompletableFuture<Long> f = new CompletableFuture<>();
 							
-							if ( w <= 0 ) {
-								return channel;
+							channel.write(buffers, 0, buffers.length, Long.MAX_VALUE, TimeUnit.MILLISECONDS, f, GATHERING_WRITE_HANDLER);
+							
+							try {
+								long w = f.get().longValue();
+								
+								if ( w <= 0L ) {
+									return channel;
+								}
 							}
-						}
-						catch ( InterruptedException e ) {
-							f.cancel(true);
-							throw e;
-						}
-						catch ( ExecutionException e ) {
-							Throwable t = e.getCause();
-							if (t instanceof Exception) {
-								throw (Exception)t;
-							} else {
-								notifyLog(t);
-								return channel;
+							catch ( InterruptedException e ) {
+								f.cancel(true);
+								throw e;
+							}
+							catch ( ExecutionException e ) {
+								Throwable t = e.getCause();
+								if (t instanceof Exception) {
+									throw (Exception)t;
+								} else {
+									notifyLog(t);
+									return channel;
+								}
 							}
 						}
 					}
@@ -463,6 +599,19 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 		};
 	}
 	
+	private static final CompletionHandler<Long, CompletableFuture<Long>> GATHERING_WRITE_HANDLER = new CompletionHandler<Long, CompletableFuture<Long>>() {
+		
+		@Override
+		public void completed(Long result, CompletableFuture<Long> f) {
+			f.complete(result);
+		}
+		
+		@Override
+		public void failed(Throwable t, CompletableFuture<Long> f) {
+			f.completeExceptionally(t);
+		}
+	};
+	
 	abstract protected byte[] createBytesFromPojo(Object pojo) throws JsonCommunicatorParseException;
 	
 	
@@ -490,21 +639,57 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 		return recvJsonBiLstnrs.remove(Objects.requireNonNull(l));
 	}
 	
+	private final Collection<JsonCommunicatorJsonHubReceiveBiListener> recvJsonHubBiLstnrs = new CopyOnWriteArrayList<>();
+	
+	@Override
+	public boolean addJsonHubReceiveListener(JsonCommunicatorJsonHubReceiveBiListener l) {
+		return recvJsonHubBiLstnrs.add(Objects.requireNonNull(l));
+	}
+	
+	@Override
+	public boolean removeJsonHubReceiveListener(JsonCommunicatorJsonHubReceiveBiListener l) {
+		return recvJsonHubBiLstnrs.remove(Objects.requireNonNull(l));
+	}
+	
+	/**
+	 * Returns {@code true} if JSON-String listeners exist.
+	 * 
+	 * <p>
+	 * If {@code false}, received bytes need not be decoded to String.<br />
+	 * </p>
+	 * 
+	 * @return {@code true} if JSON-String listeners exist
+	 */
+	protected boolean hasJsonReceiveListeners() {
+		return ! (recvJsonLstnrs.isEmpty() && recvJsonBiLstnrs.isEmpty());
+	}
+	
+	/* json or jh may be null, other is built when needed */
 	private class RecvJsonPack {
 		private final AsynchronousSocketChannel channel;
 		private final String json;
-		private RecvJsonPack(AsynchronousSocketChannel channel, String json) {
+		private final JsonHub jh;
+		private RecvJsonPack(AsynchronousSocketChannel channel, String json, JsonHub jh) {
 			this.channel = channel;
 			this.json = json;
+			this.jh = jh;
+		}
+		
+		private String json() {
+			return json == null ? jh.toJson() : json;
+		}
+		
+		private JsonHub jsonHub() {
+			return jh == null ? JsonHub.fromJson(json) : jh;
 		}
 		
 		@Override
 		public String toString() {
 			try {
-				return "from " + channel.getRemoteAddress().toString() + BR + json;
+				return "from " + channel.getRemoteAddress().toString() + BR + json();
 			}
 			catch ( IOException giveup) {
-				return json;
+				return json();
 			}
 		}
 	}
@@ -514,12 +699,28 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 	private Runnable createRecvJsonTask() {
 		return createLoopTask(() -> {
 			final RecvJsonPack p = recvJsonPackQueue.take();
-			recvJsonLstnrs.forEach(l -> {
-				l.received(p.json);
-			});
-			recvJsonBiLstnrs.forEach(l -> {
-				l.received(p.channel, p.json);
-			});
+			
+			if ( hasJsonReceiveListeners() ) {
+				final String json = p.json();
+				recvJsonLstnrs.forEach(l -> {
+					l.received(json);
+				});
+				recvJsonBiLstnrs.forEach(l -> {
+					l.received(p.channel, json);
+				});
+			}
+			
+			if ( ! recvJsonHubBiLstnrs.isEmpty() ) {
+				try {
+					final JsonHub jh = p.jsonHub();
+					recvJsonHubBiLstnrs.forEach(l -> {
+						l.received(p.channel, jh);
+					});
+				}
+				catch ( JsonHubParseException e ) {
+					notifyLog(e);
+				}
+			}
 		});
 	}
 	
@@ -528,7 +729,18 @@ public abstract class AbstractJsonCommunicator<T> implements JsonCommunicator<T>
 	}
 	
 	protected void receiveJson(AsynchronousSocketChannel channel, String json) {
-		RecvJsonPack p = new RecvJsonPack(channel, json);
+		receiveJson(channel, Objects.requireNonNull(json), null);
+	}
+	
+	/**
+	 * Put received JSON to listeners.
+	 * 
+	 * @param channel
+	 * @param json received String, if {@code null}, built from {@code jh} when needed
+	 * @param jh parsed JsonHub, if {@code null}, parsed from {@code json} when needed
+	 */
+	protected void receiveJson(AsynchronousSocketChannel channel, String json, JsonHub jh) {
+		RecvJsonPack p = new RecvJsonPack(channel, json, jh);
 		offerRecvJsonPackQueue(p);
 		notifyLog("receive", p);
 	}
@@ -23,7 +23,8 @@ import java.nio.channels.AsynchronousSocketChannel;
  * <p>
  * To receive JSON,
  * {@link #addJsonReceiveListener(JsonCommunicatorJsonReceiveListener)},
- * {@link #addJsonReceiveListener(JsonCommunicatorJsonReceiveBiListener)}.<br />
+ * {@link #addJsonReceiveListener(JsonCommunicatorJsonReceiveBiListener)},
+ * {@link #addJsonHubReceiveListener(JsonCommunicatorJsonHubReceiveBiListener)}.<br />
  * To receive parsed POJO,
  * {@link #addPojoReceiveListener(JsonCommunicatorPojoReceiveListener)},
  * {@link #addPojoReceiveListener(JsonCommunicatorPojoReceiveBiListener)}.<br />
@@ -105,6 +106,20 @@ public interface JsonCommunicator<T> extends Closeable {
 	 */
 	public void send(AsynchronousSocketChannel channel, Object pojo) throws InterruptedException, IOException, JsonCommunicatorParseException;
 	
+	/**
+	 * Send UTF-8 encoded JSON bytes to target channel.
+	 * 
+	 * <p>
+	 * To share bytes encoded once by many channels, bytes are not copied and must not be modified.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 * @param bs UTF-8 encoded JSON
+	 * @throws InterruptedException
+	 * @throws IOException
+	 */
+	public void send(AsynchronousSocketChannel channel, byte[] bs) throws InterruptedException, IOException;
+	
 	/**
 	 * Add received JSON Listener.
 	 * 
@@ -137,6 +152,26 @@ public interface JsonCommunicator<T> extends Closeable {
 	 */
 	public boolean removeJsonReceiveListener(JsonCommunicatorJsonReceiveBiListener l);
 	
+	/**
+	 * Add received (Channel and parsed JsonHub) Listener.
+	 * 
+	 * <p>
+	 * JSON is parsed once from received bytes, String is not built for this listener.<br />
+	 * </p>
+	 * 
+	 * @param l
+	 * @return {@code true} if add success
+	 */
+	public boolean addJsonHubReceiveListener(JsonCommunicatorJsonHubReceiveBiListener l);
+	
+	/**
+	 * Remove received (Channel and parsed JsonHub) Listener.
+	 * 
+	 * @param l
+	 * @return {@code true} if remove success
+	 */
+	public boolean removeJsonHubReceiveListener(JsonCommunicatorJsonHubReceiveBiListener l);
+	
 	/**
 	 * Add parsed POJO Listener.
 	 * 
@@ -0,0 +1,10 @@
+package com.shimizukenta.jsoncommunicator;
+
+import java.nio.channels.AsynchronousSocketChannel;
+import java.util.EventListener;
+
+import com.shimizukenta.jsonhub.JsonHub;
+
+public interface JsonCommunicatorJsonHubReceiveBiListener extends EventListener {
+	public void received(AsynchronousSocketChannel channel, JsonHub jh);
+}
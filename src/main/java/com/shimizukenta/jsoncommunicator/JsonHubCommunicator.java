@@ -2,11 +2,14 @@ package com.shimizukenta.jsoncommunicator;
 
 import java.io.IOException;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.function.BiConsumer;
 
 import com.shimizukenta.jsonhub.JsonHub;
+import com.shimizukenta.jsonhub.JsonHubJsonParser;
 import com.shimizukenta.jsonhub.JsonHubParseException;
+import com.shimizukenta.jsonhub.JsonHubUtf8Writer;
 
 public class JsonHubCommunicator<T> extends AbstractJsonCommunicator<T> {
 	
@@ -34,11 +37,12 @@ public class JsonHubCommunicator<T> extends AbstractJsonCommunicator<T> {
 	}
 
 	@Override
-	protected void putReceivedBytes(AsynchronousSocketChannel channel, byte[] bs) {
+	protected void putReceivedBytes(AsynchronousSocketChannel channel, byte[] bs, int offset, int length) {
 		
 		try {
-			JsonHub jh = JsonHub.fromBytes(bs);
-			receiveJson(channel, jh.toJson());
+			JsonHub jh = JsonHubJsonParser.getInstance().parse(bs, offset, length);
+			String json = hasJsonReceiveListeners() ? new String(bs, offset, length, StandardCharsets.UTF_8) : null;
+			receiveJson(channel, json, jh);
 			biconsumer.accept(channel, jh);
 		}
 		catch ( JsonHubParseException e ) {
@@ -49,7 +53,7 @@ public class JsonHubCommunicator<T> extends AbstractJsonCommunicator<T> {
 	@Override
 	protected byte[] createBytesFromPojo(Object pojo) throws JsonCommunicatorParseException {
 		try {
-			return JsonHub.fromPojo(pojo).getBytesExcludedNullValueInObject();
+			return JsonHubUtf8Writer.fromPojoToBytesExcludedNullValueInObject(pojo);
 		}
 		catch ( JsonHubParseException e ) {
 			throw new JsonCommunicatorParseException(e);
@@ -59,10 +63,8 @@ public class JsonHubCommunicator<T> extends AbstractJsonCommunicator<T> {
 	@Override
 	protected void send(Collection<AsynchronousSocketChannel> channels, Object pojo) throws InterruptedException, IOException, JsonCommunicatorParseException {
 		try {
-			JsonHub jh = JsonHub.fromPojo(pojo);
-			byte[] bs = jh.getBytesExcludedNullValueInObject();
-			String json = jh.toJsonExcludedNullValueInObject();
-			send(channels, bs, json);
+			byte[] bs = JsonHubUtf8Writer.fromPojoToBytesExcludedNullValueInObject(pojo);
+			send(channels, bs, null);
 		}
 		catch ( JsonHubParseException e ) {
 			throw new JsonCommunicatorParseException(e);
@@ -45,7 +45,7 @@ abstract public class AbstractJsonHub implements JsonHub, Serializable {
 		synchronized ( this ) {
 			
 			if ( toBytesCache == null ) {
-				toBytesCache = toJson().getBytes(StandardCharsets.UTF_8);;
+				toBytesCache = JsonHubUtf8Writer.toBytes(this);
 			}
 			
 			return toBytesCache;
@@ -57,7 +57,7 @@ abstract public class AbstractJsonHub implements JsonHub, Serializable {
 		synchronized ( this ) {
 			
 			if ( toBytesExcludeNullValueInObjectCache == null ) {
-				toBytesExcludeNullValueInObjectCache = toJsonExcludedNullValueInObject().getBytes(StandardCharsets.UTF_8);
+				toBytesExcludeNullValueInObjectCache = JsonHubUtf8Writer.toBytesExcludedNullValueInObject(this);
 			}
 			
 			return toBytesExcludeNullValueInObjectCache;
@@ -1,13 +1,10 @@
 package com.shimizukenta.jsonhub;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -507,10 +504,10 @@ public interface JsonHub extends Iterable<JsonHub> {
 	public static JsonHub fromFile(Path path) throws IOException {
 		
 		try (
-				BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+				InputStream strm = Files.newInputStream(path);
 				){
 			
-			return fromJson(br);
+			return fromBytes(strm);
 		}
 	}
 	
@@ -660,7 +657,7 @@ public interface JsonHub extends Iterable<JsonHub> {
 	 * @throws JsonHubParseException if parse failed
 	 */
 	public static JsonHub fromBytes(byte[] bs) {
-		return fromJson(new String(bs, StandardCharsets.UTF_8));
+		return JsonHubJsonParser.getInstance().parse(bs);
 	}
 	
 	/**
@@ -672,24 +669,7 @@ public interface JsonHub extends Iterable<JsonHub> {
 	 * @throws JsonHubParseException if parse failed
 	 */
 	public static JsonHub fromBytes(InputStream strm) throws IOException {
-		
-		try (
-				ByteArrayOutputStream os = new ByteArrayOutputStream();
-				){
-			
-			for ( ;; ) {
-				
-				int r = strm.read();
-				
-				if ( r < 0 ) {
-					break;
-				}
-				
-				os.write(r);
-			}
-			
-			return fromBytes(os.toByteArray());
-		}
+		return JsonHubJsonParser.getInstance().parse(strm);
 	}
 	
 }
@@ -1,8 +1,6 @@
 package com.shimizukenta.jsonhub;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -148,24 +146,12 @@ public class JsonHubFromPojoParser {
 		
 		final List<JsonObjectPair> pairs = new ArrayList<>();
 		
-		for ( Field field : pojo.getClass().getFields() ) {
-			
-			field.setAccessible(true);
-			
-			int iMod = field.getModifiers();
-			
-			if ( ! Modifier.isPublic(iMod) ) {
-				continue;
-			}
-
-			if ( Modifier.isStatic(iMod) ) {
-				continue;
-			}
+		for ( JsonHubPojoMapping.Property prop : JsonHubPojoMapping.get(pojo.getClass()).getters() ) {
 			
 			pairs.add(
 					jhb.pair(
-							field.getName()
-							, fromObjectPojo(field.get(pojo))));
+							prop.jsonName()
+							, fromObjectPojo(prop.get(pojo))));
 		}
 		
 		return jhb.object(pairs);
@@ -0,0 +1,296 @@
+package com.shimizukenta.jsonhub;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class is mapping plan of POJO class, built once per class and cached.
+ * 
+ * <p>
+ * Holds constructor handle, field setters (to POJO) and getters (from POJO) by MethodHandle,
+ * and Number adapter of field type.<br />
+ * POJO binding does not look up reflection per instance.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+final class JsonHubPojoMapping {
+	
+	private static final ClassValue<JsonHubPojoMapping> cache = new ClassValue<JsonHubPojoMapping>() {
+		
+		@Override
+		protected JsonHubPojoMapping computeValue(Class<?> type) {
+			return new JsonHubPojoMapping(type);
+		}
+	};
+	
+	/**
+	 * Returns cached mapping of class.
+	 * 
+	 * @param classOfT
+	 * @return mapping
+	 */
+	static JsonHubPojoMapping get(Class<?> classOfT) {
+		return cache.get(classOfT);
+	}
+	
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	private final Class<?> classOfT;
+	private final MethodHandle constructor;
+	private final ReflectiveOperationException constructorException;
+	private final Map<String, Property> setters;
+	private final List<Property> getters;
+	
+	private JsonHubPojoMapping(Class<?> classOfT) {
+		
+		this.classOfT = classOfT;
+		
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		
+		{
+			MethodHandle mh = null;
+			ReflectiveOperationException ex = null;
+			
+			try {
+				mh = lookup.unreflectConstructor(classOfT.getDeclaredConstructor()).asType(CONSTRUCTOR_TYPE);
+			}
+			catch ( ReflectiveOperationException e ) {
+				ex = e;
+			}
+			catch ( RuntimeException e ) {
+				ex = new InstantiationException(classOfT.getName() + ": " + e.getMessage());
+			}
+			
+			this.constructor = mh;
+			this.constructorException = ex;
+		}
+		
+		final Map<String, Property> ss = new HashMap<>();
+		final List<Property> gg = new ArrayList<>();
+		
+		for ( Field field : classOfT.getFields() ) {
+			
+			int iMod = field.getModifiers();
+			
+			if ( ! Modifier.isPublic(iMod) ) {
+				continue;
+			}
+			
+			if ( Modifier.isStatic(iMod) ) {
+				continue;
+			}
+			
+			try {
+				field.setAccessible(true);
+			}
+			catch ( RuntimeException ignore ) {
+			}
+			
+			try {
+				MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+				
+				MethodHandle setter = Modifier.isFinal(iMod)
+						? null
+						: lookup.unreflectSetter(field).asType(SETTER_TYPE);
+				
+				Property p = new Property(field, getter, setter);
+				
+				gg.add(p);
+				
+				if ( setter != null ) {
+					ss.put(field.getName(), p);
+				}
+			}
+			catch ( IllegalAccessException ignore ) {
+			}
+		}
+		
+		this.setters = Collections.unmodifiableMap(ss);
+		this.getters = Collections.unmodifiableList(gg);
+	}
+	
+	/**
+	 * Returns new instance by no-arguments constructor.
+	 * 
+	 * @return new instance
+	 * @throws ReflectiveOperationException if constructor not found or not accessible
+	 */
+	Object newInstance() throws ReflectiveOperationException {
+		
+		if ( constructor == null ) {
+			throw constructorException;
+		}
+		
+		try {
+			return constructor.invokeExact();
+		}
+		catch ( RuntimeException | Error | ReflectiveOperationException e ) {
+			throw e;
+		}
+		catch ( Throwable t ) {
+			throw new JsonHubParseException(classOfT.getName(), t);
+		}
+	}
+	
+	/**
+	 * Returns setter of name, public and not static and not final.
+	 * 
+	 * @param name
+	 * @return property, {@code null} if not found
+	 */
+	Property setter(String name) {
+		return setters.get(name);
+	}
+	
+	/**
+	 * Returns getters, public and not static.
+	 * 
+	 * @return properties
+	 */
+	List<Property> getters() {
+		return getters;
+	}
+	
+	/**
+	 * This class is field of POJO.
+	 *
+	 */
+	static final class Property {
+		
+		private final String name;
+		private final JsonString jsonName;
+		private final byte[] jsonNameBytes;
+		private final Class<?> type;
+		private final Type genericType;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final Function<Number, Number> numberAdapter;
+		
+		private Property(Field field, MethodHandle getter, MethodHandle setter) {
+			this.name = field.getName();
+			this.jsonName = JsonString.unescaped(this.name);
+			this.jsonNameBytes = (JsonStructuralChar.QUOT.str()
+					+ this.jsonName.escaped()
+					+ JsonStructuralChar.QUOT.str()
+					+ JsonStructuralChar.SEPARATOR_NAME.str()).getBytes(StandardCharsets.UTF_8);
+			this.type = field.getType();
+			this.genericType = field.getGenericType();
+			this.getter = getter;
+			this.setter = setter;
+			this.numberAdapter = numberAdapter(this.type);
+		}
+		
+		JsonString jsonName() {
+			return jsonName;
+		}
+		
+		/**
+		 * Returns UTF-8 bytes of quoted name and name-separator.
+		 * 
+		 * @return bytes, do not modify
+		 */
+		byte[] jsonNameBytes() {
+			return jsonNameBytes;
+		}
+		
+		Class<?> type() {
+			return type;
+		}
+		
+		Type genericType() {
+			return genericType;
+		}
+		
+		Object get(Object inst) {
+			try {
+				return getter.invokeExact(inst);
+			}
+			catch ( RuntimeException | Error e ) {
+				throw e;
+			}
+			catch ( Throwable t ) {
+				throw new JsonHubParseException(name, t);
+			}
+		}
+		
+		void set(Object inst, Object value) {
+			if ( value == null && type.isPrimitive() ) {
+				throw new JsonHubParseException("null to primitive field \"" + name + "\"");
+			}
+			try {
+				setter.invokeExact(inst, value);
+			}
+			catch ( RuntimeException | Error e ) {
+				throw e;
+			}
+			catch ( Throwable t ) {
+				throw new JsonHubParseException(name, t);
+			}
+		}
+		
+		/**
+		 * Returns Number of field type.
+		 * 
+		 * @param n
+		 * @return Number of field type
+		 * @throws JsonHubParseException if field type is not Number
+		 */
+		Number toNumber(Number n) {
+			if ( numberAdapter == null ) {
+				throw new JsonHubParseException("toNumberPojo cast failed \"" + type.toString() + "\"");
+			}
+			return numberAdapter.apply(n);
+		}
+	}
+	
+	/**
+	 * Returns adapter to Number of type.
+	 * 
+	 * @param type
+	 * @return adapter, {@code null} if type is not Number
+	 */
+	static Function<Number, Number> numberAdapter(Class<?> type) {
+		
+		if ( type == byte.class || type == Byte.class ) {
+			return n -> Byte.valueOf(n.byteValue());
+		}
+		
+		if ( type == short.class || type == Short.class ) {
+			return n -> Short.valueOf(n.shortValue());
+		}
+		
+		if ( type == int.class || type == Integer.class ) {
+			return n -> Integer.valueOf(n.intValue());
+		}
+		
+		if ( type == long.class || type == Long.class ) {
+			return n -> Long.valueOf(n.longValue());
+		}
+		
+		if ( type == float.class || type == Float.class ) {
+			return n -> Float.valueOf(n.floatValue());
+		}
+		
+		if ( type == double.class || type == Double.class ) {
+			return n -> Double.valueOf(n.doubleValue());
+		}
+		
+		return null;
+	}
+	
+}
@@ -0,0 +1,660 @@
+package com.shimizukenta.jsonhub;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class is pull-parser of JSON, single-pass over char-buffer.
+ * 
+ * <p>
+ * To create instance, {@link #of(CharSequence)}, {@link #of(Reader)},
+ * {@link #of(byte[])}, {@link #of(byte[], int, int)} or {@link #of(InputStream)}.<br />
+ * UTF-8 bytes are decoded to char-buffer directly, not to whole String.<br />
+ * To read next event, {@link #next()}.<br />
+ * If event is {@link Event#KEY_NAME} or {@link Event#VALUE_STRING}, {@link #jsonString()} or {@link #string()}.<br />
+ * If event is {@link Event#VALUE_NUMBER}, {@link #number()}.<br />
+ * </p>
+ * <p>
+ * Instances of this class are not thread-safe.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class JsonHubPullParser implements Closeable {
+	
+	/**
+	 * Parse event.
+	 *
+	 */
+	public static enum Event {
+		START_OBJECT,
+		END_OBJECT,
+		START_ARRAY,
+		END_ARRAY,
+		KEY_NAME,
+		VALUE_STRING,
+		VALUE_NUMBER,
+		VALUE_TRUE,
+		VALUE_FALSE,
+		VALUE_NULL,
+		END_DOCUMENT,
+		;
+	}
+	
+	private static interface Source extends Closeable {
+		
+		/**
+		 * Read chars.
+		 * 
+		 * @param cbuf
+		 * @return count of chars, {@code -1} if end of source
+		 * @throws IOException
+		 */
+		public int read(char[] cbuf) throws IOException;
+	}
+	
+	private static final int BUFFER_SIZE = 8 * 1024;
+	
+	private static final int CTX_OBJECT = 1;
+	private static final int CTX_ARRAY = 2;
+	
+	private static final int ST_VALUE = 0;
+	private static final int ST_FIRST_VALUE_OR_END = 1;
+	private static final int ST_FIRST_NAME_OR_END = 2;
+	private static final int ST_NAME = 3;
+	private static final int ST_AFTER_VALUE = 4;
+	private static final int ST_DONE = 5;
+	
+	private static final char WS_MAX = 0x0020;
+	private static final char QUOT = '"';
+	private static final char ESCAPE = '\\';
+	
+	private final Source source;
+	private final char[] buf;
+	private int pos;
+	private int limit;
+	private boolean eof;
+	
+	/* count of chars before buf, for error index */
+	private long base;
+	
+	private int[] stack;
+	private int depth;
+	private int state;
+	
+	private final StringBuilder token;
+	private JsonString jsonString;
+	private String number;
+	
+	private JsonHubPullParser(Source source, int bufferSize) {
+		this.source = source;
+		this.buf = new char[bufferSize];
+		this.pos = 0;
+		this.limit = 0;
+		this.eof = false;
+		this.base = 0L;
+		this.stack = new int[16];
+		this.depth = 0;
+		this.state = ST_VALUE;
+		this.token = new StringBuilder();
+		this.jsonString = null;
+		this.number = null;
+	}
+	
+	/**
+	 * Returns parser of JSON-String.
+	 * 
+	 * @param cs JSON-String
+	 * @return parser
+	 */
+	public static JsonHubPullParser of(CharSequence cs) {
+		
+		final String s = cs.toString();
+		
+		return new JsonHubPullParser(new Source() {
+			
+			private int index = 0;
+			
+			@Override
+			public int read(char[] cbuf) {
+				
+				int n = Math.min(cbuf.length, s.length() - index);
+				
+				if ( n <= 0 ) {
+					return -1;
+				}
+				
+				s.getChars(index, index + n, cbuf, 0);
+				index += n;
+				return n;
+			}
+			
+			@Override
+			public void close() {
+				/* Nothing */
+			}
+			
+		}, Math.max(1, Math.min(BUFFER_SIZE, s.length())));
+	}
+	
+	/**
+	 * Returns parser of Reader.
+	 * 
+	 * @param reader includes JSON-String
+	 * @return parser
+	 */
+	public static JsonHubPullParser of(Reader reader) {
+		
+		return new JsonHubPullParser(new Source() {
+			
+			@Override
+			public int read(char[] cbuf) throws IOException {
+				return reader.read(cbuf, 0, cbuf.length);
+			}
+			
+			@Override
+			public void close() throws IOException {
+				reader.close();
+			}
+			
+		}, BUFFER_SIZE);
+	}
+	
+	/**
+	 * Returns parser of JSON-UTF8-bytes-stream.
+	 * 
+	 * @param strm JSON-UTF8-bytes-stream
+	 * @return parser
+	 */
+	public static JsonHubPullParser of(InputStream strm) {
+		return of(new InputStreamReader(strm, StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Returns parser of JSON-UTF8-bytes.
+	 * 
+	 * @param bs JSON-UTF8-bytes
+	 * @return parser
+	 */
+	public static JsonHubPullParser of(byte[] bs) {
+		return of(bs, 0, bs.length);
+	}
+	
+	/**
+	 * Returns parser of JSON-UTF8-bytes.
+	 * 
+	 * @param bs JSON-UTF8-bytes
+	 * @param offset
+	 * @param length
+	 * @return parser
+	 */
+	public static JsonHubPullParser of(byte[] bs, int offset, int length) {
+		
+		final ByteBuffer in = ByteBuffer.wrap(bs, offset, length);
+		
+		final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		
+		return new JsonHubPullParser(new Source() {
+			
+			private boolean flushed = false;
+			
+			@Override
+			public int read(char[] cbuf) {
+				
+				if ( flushed ) {
+					return -1;
+				}
+				
+				final CharBuffer out = CharBuffer.wrap(cbuf);
+				
+				decoder.decode(in, out, true);
+				
+				if ( ! in.hasRemaining() ) {
+					if ( decoder.flush(out).isUnderflow() ) {
+						flushed = true;
+					}
+				}
+				
+				int n = ((Buffer)out).position();
+				
+				return (n == 0 && flushed) ? -1 : n;
+			}
+			
+			@Override
+			public void close() {
+				/* Nothing */
+			}
+			
+		}, Math.max(2, Math.min(BUFFER_SIZE, length)));
+	}
+	
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+	
+	/**
+	 * Returns JsonString of current {@link Event#KEY_NAME} or {@link Event#VALUE_STRING}.
+	 * 
+	 * @return JsonString
+	 */
+	public JsonString jsonString() {
+		return jsonString;
+	}
+	
+	/**
+	 * Returns unescaped String of current {@link Event#KEY_NAME} or {@link Event#VALUE_STRING}.
+	 * 
+	 * @return unescaped String
+	 */
+	public String string() {
+		return jsonString.unescaped();
+	}
+	
+	/**
+	 * Returns Number-String of current {@link Event#VALUE_NUMBER}.
+	 * 
+	 * @return Number-String
+	 */
+	public String number() {
+		return number;
+	}
+	
+	/**
+	 * Returns next event.
+	 * 
+	 * @return next event
+	 * @throws IOException
+	 * @throws JsonHubParseException if parse failed
+	 */
+	public Event next() throws IOException {
+		
+		switch ( state ) {
+		case ST_DONE: {
+			
+			if ( skipWhiteSpace() < 0 ) {
+				return Event.END_DOCUMENT;
+			}
+			
+			throw new JsonHubParseException("Value is not Single. index: " + index());
+		}
+		case ST_AFTER_VALUE: {
+			
+			final int c = skipWhiteSpace();
+			final int ctx = stack[depth - 1];
+			
+			if ( c == ',' ) {
+				
+				++ pos;
+				state = (ctx == CTX_OBJECT) ? ST_NAME : ST_VALUE;
+				return next();
+				
+			} else if ( c == ']' && ctx == CTX_ARRAY ) {
+				
+				++ pos;
+				return endStructure(Event.END_ARRAY);
+				
+			} else if ( c == '}' && ctx == CTX_OBJECT ) {
+				
+				++ pos;
+				return endStructure(Event.END_OBJECT);
+				
+			} else {
+				
+				throw new JsonHubParseException("Not found end-of-value. index: " + index());
+			}
+		}
+		case ST_FIRST_NAME_OR_END: {
+			
+			if ( skipWhiteSpace() == '}' ) {
+				++ pos;
+				return endStructure(Event.END_OBJECT);
+			}
+			
+			return readName();
+		}
+		case ST_NAME: {
+			return readName();
+		}
+		case ST_FIRST_VALUE_OR_END: {
+			
+			if ( skipWhiteSpace() == ']' ) {
+				++ pos;
+				return endStructure(Event.END_ARRAY);
+			}
+			
+			return readValue();
+		}
+		case ST_VALUE:
+		default: {
+			return readValue();
+		}
+		}
+	}
+	
+	private Event readName() throws IOException {
+		
+		if ( skipWhiteSpace() != QUOT ) {
+			throw new JsonHubParseException("Not found Quot. index: " + index());
+		}
+		
+		++ pos;
+		jsonString = readString();
+		
+		if ( skipWhiteSpace() != ':' ) {
+			throw new JsonHubParseException("Not found \":\" index: " + index());
+		}
+		
+		++ pos;
+		state = ST_VALUE;
+		
+		return Event.KEY_NAME;
+	}
+	
+	private Event readValue() throws IOException {
+		
+		final int c = skipWhiteSpace();
+		
+		switch ( c ) {
+		case -1: {
+			if ( depth == 0 ) {
+				throw new JsonHubParseException("JSON is empty");
+			} else {
+				throw new JsonHubParseException("Not found end-of-value. index: " + index());
+			}
+		}
+		case '{': {
+			++ pos;
+			push(CTX_OBJECT);
+			state = ST_FIRST_NAME_OR_END;
+			return Event.START_OBJECT;
+		}
+		case '[': {
+			++ pos;
+			push(CTX_ARRAY);
+			state = ST_FIRST_VALUE_OR_END;
+			return Event.START_ARRAY;
+		}
+		case QUOT: {
+			++ pos;
+			jsonString = readString();
+			return endValue(Event.VALUE_STRING);
+		}
+		case ',':
+		case ':':
+		case ']':
+		case '}': {
+			throw new JsonHubParseException("Value is empty. index: " + index());
+		}
+		default: {
+			return readLiteral();
+		}
+		}
+	}
+	
+	private Event readLiteral() throws IOException {
+		
+		token.setLength(0);
+		
+		for ( ;; ) {
+			
+			if ( pos >= limit && ! fill() ) {
+				break;
+			}
+			
+			char c = buf[pos];
+			
+			if ( c <= WS_MAX || c == ',' || c == ']' || c == '}' || c == ':' ) {
+				break;
+			}
+			
+			token.append(c);
+			++ pos;
+		}
+		
+		final String s = token.toString();
+		
+		if ( JsonLiteral.NULL.match(s) ) {
+			return endValue(Event.VALUE_NULL);
+		}
+		
+		if ( JsonLiteral.TRUE.match(s) ) {
+			return endValue(Event.VALUE_TRUE);
+		}
+		
+		if ( JsonLiteral.FALSE.match(s) ) {
+			return endValue(Event.VALUE_FALSE);
+		}
+		
+		this.number = s;
+		return endValue(Event.VALUE_NUMBER);
+	}
+	
+	/**
+	 * Read after opening Quot, until closing Quot.
+	 * 
+	 * @return JsonString has escaped and unescaped
+	 * @throws IOException
+	 */
+	private JsonString readString() throws IOException {
+		
+		token.setLength(0);
+		
+		boolean hasEscape = false;
+		boolean escapeNext = false;
+		int start = pos;
+		
+		for ( ;; ) {
+			
+			if ( pos >= limit ) {
+				
+				token.append(buf, start, pos - start);
+				
+				if ( ! fill() ) {
+					throw new JsonHubParseException("Not found end-of-STRING");
+				}
+				
+				start = pos;
+			}
+			
+			final char c = buf[pos];
+			
+			if ( escapeNext ) {
+				
+				escapeNext = false;
+				
+			} else if ( c == ESCAPE ) {
+				
+				hasEscape = true;
+				escapeNext = true;
+				
+			} else if ( c == QUOT ) {
+				
+				final String escaped;
+				
+				if ( token.length() == 0 ) {
+					escaped = new String(buf, start, pos - start);
+				} else {
+					token.append(buf, start, pos - start);
+					escaped = token.toString();
+				}
+				
+				++ pos;
+				
+				if ( hasEscape ) {
+					return JsonString.of(escaped, unescape(escaped));
+				} else {
+					return JsonString.of(escaped, escaped);
+				}
+			}
+			
+			++ pos;
+		}
+	}
+	
+	private static String unescape(String s) {
+		
+		final StringBuilder sb = new StringBuilder(s.length());
+		
+		for ( int i = 0, m = s.length(); i < m; ++i ) {
+			
+			char c = s.charAt(i);
+			
+			if ( c != ESCAPE ) {
+				sb.append(c);
+				continue;
+			}
+			
+			++ i;
+			
+			if ( i >= m ) {
+				throw new JsonHubParseException("unescape failed \"" + s + "\"");
+			}
+			
+			char x = s.charAt(i);
+			
+			switch ( x ) {
+			case '"':
+			case '\\':
+			case '/': {
+				sb.append(x);
+				break;
+			}
+			case 'b': {
+				sb.append('\b');
+				break;
+			}
+			case 'f': {
+				sb.append('\f');
+				break;
+			}
+			case 'n': {
+				sb.append('\n');
+				break;
+			}
+			case 'r': {
+				sb.append('\r');
+				break;
+			}
+			case 't': {
+				sb.append('\t');
+				break;
+			}
+			case 'u': {
+				
+				if ( i + 4 >= m ) {
+					throw new JsonHubParseException("unescape failed \"" + s + "\"");
+				}
+				
+				try {
+					sb.append((char)Integer.parseInt(s.substring(i + 1, i + 5), 16));
+				}
+				catch ( NumberFormatException e ) {
+					throw new JsonHubNumberFormatException(s);
+				}
+				
+				i += 4;
+				break;
+			}
+			default: {
+				/* ignore unknown escape */
+			}
+			}
+		}
+		
+		return sb.toString();
+	}
+	
+	private Event endValue(Event e) {
+		state = (depth == 0) ? ST_DONE : ST_AFTER_VALUE;
+		return e;
+	}
+	
+	private Event endStructure(Event e) {
+		-- depth;
+		return endValue(e);
+	}
+	
+	private void push(int ctx) {
+		if ( depth >= stack.length ) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		stack[depth] = ctx;
+		++ depth;
+	}
+	
+	/**
+	 * Skip white-spaces, not consume next char.
+	 * 
+	 * @return next char, {@code -1} if end of source
+	 * @throws IOException
+	 */
+	private int skipWhiteSpace() throws IOException {
+		
+		for ( ;; ) {
+			
+			if ( pos >= limit && ! fill() ) {
+				return -1;
+			}
+			
+			char c = buf[pos];
+			
+			if ( c > WS_MAX ) {
+				return c;
+			}
+			
+			++ pos;
+		}
+	}
+	
+	/**
+	 * Returns index from start of JSON, not from start of buffer.
+	 * 
+	 * @return index of present char
+	 */
+	private long index() {
+		return base + pos;
+	}
+	
+	private boolean fill() throws IOException {
+		
+		if ( eof ) {
+			return false;
+		}
+		
+		for ( ;; ) {
+			
+			int r = source.read(buf);
+			
+			base += limit;
+			limit = 0;
+			
+			if ( r < 0 ) {
+				eof = true;
+				pos = 0;
+				limit = 0;
+				return false;
+			}
+			
+			if ( r > 0 ) {
+				pos = 0;
+				limit = r;
+				return true;
+			}
+		}
+	}
+	
+}
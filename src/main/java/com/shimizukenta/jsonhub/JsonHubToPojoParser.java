@@ -1,12 +1,11 @@
 package com.shimizukenta.jsonhub;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * This class is parser, from JsonHub instance to POJO(Plain-Old-Java-Object).
@@ -137,82 +136,62 @@ public class JsonHubToPojoParser {
 	private static <T> T toObjectPojo(JsonHub jh, Class<T> classOfT)
 			throws ReflectiveOperationException {
 		
-		final T inst = classOfT.getDeclaredConstructor().newInstance();
+		final JsonHubPojoMapping mapping = JsonHubPojoMapping.get(classOfT);
+		
+		final T inst = classOfT.cast(mapping.newInstance());
 		
 		for ( JsonObjectPair pair : ((ObjectJsonHub)jh).objectPairs() ) {
 			
-			try {
+			final JsonHubPojoMapping.Property prop = mapping.setter(pair.name().unescaped());
+			
+			if ( prop == null ) {
+				continue;
+			}
+			
+			JsonHub v = pair.value();
+			
+			switch ( v.type() ) {
+			case NULL: {
 				
-				String name = pair.name().unescaped();
+				prop.set(inst, null);
+				break;
+			}
+			case TRUE:
+			case FALSE: {
 				
-				Field field = classOfT.getField(name);
+				prop.set(inst, v.optionalBoolean().get());
+				break;
+			}
+			case STRING: {
 				
-				field.setAccessible(true);
+				prop.set(inst, v.toString());
+				break;
+			}
+			case NUMBER: {
 				
-				{
-					int iMod = field.getModifiers();
-					
-					if ( ! Modifier.isPublic(iMod) ) {
-						continue;
-					}
-					
-					if ( Modifier.isStatic(iMod) ) {
-						continue;
-					}
-					
-					if ( Modifier.isFinal(iMod) ) {
-						continue;
-					}
-				}
+				prop.set(inst, prop.toNumber(v.optionalNubmer().get()));
+				break;
+			}
+			case ARRAY: {
 				
-				JsonHub v = pair.value();
+				Type type = prop.genericType();
 				
-				switch ( v.type() ) {
-				case NULL: {
-					
-					field.set(inst, null);
-					break;
-				}
-				case TRUE:
-				case FALSE: {
-					
-					field.set(inst, v.optionalBoolean().get());
-					break;
-				}
-				case STRING: {
-					
-					field.set(inst, v.toString());
-					break;
-				}
-				case NUMBER: {
-					
-					Number n = v.optionalNubmer().get();
-					field.set(inst, toNumberPojo(n, field.getType()));
-					break;
-				}
-				case ARRAY: {
+				if ( type instanceof Class<?> ) {
 					
-					Type type = field.getGenericType();
+					prop.set(inst, toArrayPojo(v, (Class<?>)type));
 					
-					if ( type instanceof Class<?> ) {
-						
-						field.set(inst, toArrayPojo(v, (Class<?>)type));
-						
-					} else {
-						
-						field.set(inst, toUtilListPojo(v, type));
-					}
+				} else {
 					
-					break;
-				}
-				case OBJECT: {
-					
-					field.set(inst, toObjectPojo(v, field.getType()));
-					break;
-				}
+					prop.set(inst, toUtilListPojo(v, type));
 				}
+				
+				break;
+			}
+			case OBJECT: {
+				
+				prop.set(inst, toObjectPojo(v, prop.type()));
+				break;
 			}
-			catch ( NoSuchFieldException ignore ) {
 			}
 		}
 		
@@ -352,31 +331,13 @@ public class JsonHubToPojoParser {
 	
 	private static <T> Number toNumberPojo(Number n, Class<?> classOfT) {
 		
-		if ( classOfT == byte.class || classOfT == Byte.class ) {
-			return Byte.valueOf(n.byteValue());
-		}
-		
-		if ( classOfT == short.class || classOfT == Short.class ) {
-			return Short.valueOf(n.shortValue());
-		}
-		
-		if ( classOfT == int.class || classOfT == Integer.class ) {
-			return Integer.valueOf(n.intValue());
-		}
-		
-		if ( classOfT == long.class || classOfT == Long.class ) {
-			return Long.valueOf(n.longValue());
-		}
-		
-		if ( classOfT == float.class || classOfT == Float.class ) {
-			return Float.valueOf(n.floatValue());
-		}
+		final Function<Number, Number> adapter = JsonHubPojoMapping.numberAdapter(classOfT);
 		
-		if ( classOfT == double.class || classOfT == Double.class ) {
-			return Double.valueOf(n.doubleValue());
+		if ( adapter == null ) {
+			throw new JsonHubParseException("toNumberPojo cast failed \"" + classOfT.toString() + "\"");
 		}
 		
-		throw new JsonHubParseException("toNumberPojo cast failed \"" + classOfT.toString() + "\"");
+		return adapter.apply(n);
 	}
 	
 }
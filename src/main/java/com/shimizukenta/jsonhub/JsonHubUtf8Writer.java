@@ -0,0 +1,636 @@
+package com.shimizukenta.jsonhub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is writer, from JsonHub instance or POJO to compact JSON-UTF8-bytes.
+ * 
+ * <p>
+ * To get bytes, {@link #toBytes(JsonHub)}, {@link #toBytesExcludedNullValueInObject(JsonHub)}.<br />
+ * To write to OutputStream, {@link #write(JsonHub, OutputStream)}, {@link #writeExcludedNullValueInObject(JsonHub, OutputStream)}.<br />
+ * To write to ByteBuffer, {@link #write(JsonHub, ByteBuffer)}, {@link #writeExcludedNullValueInObject(JsonHub, ByteBuffer)}.<br />
+ * To get bytes from POJO, {@link #fromPojoToBytes(Object)}, {@link #fromPojoToBytesExcludedNullValueInObject(Object)}.<br />
+ * To write POJO to OutputStream, {@link #writePojo(Object, OutputStream)}, {@link #writePojoExcludedNullValueInObject(Object, OutputStream)}.<br />
+ * To encode JSON-String, {@link #encode(CharSequence)}.<br />
+ * </p>
+ * <p>
+ * Output is same as {@link JsonHub#getBytes()}, {@link JsonHub#getBytesExcludedNullValueInObject()}.<br />
+ * Strings are escaped and encoded by table, to thread-local buffer,
+ * no intermediate String and no JsonHub instance from POJO.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class JsonHubUtf8Writer {
+	
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_CACHED_BUFFER_SIZE = 256 * 1024;
+	
+	/* reused per thread, null while used (nested writing allocates own buffer) */
+	private static final ThreadLocal<byte[]> localBuffer = new ThreadLocal<>();
+	
+	private static final byte[] NULL_BYTES = JsonLiteral.NULL.toString().getBytes(StandardCharsets.UTF_8);
+	private static final byte[] TRUE_BYTES = JsonLiteral.TRUE.toString().getBytes(StandardCharsets.UTF_8);
+	private static final byte[] FALSE_BYTES = JsonLiteral.FALSE.toString().getBytes(StandardCharsets.UTF_8);
+	
+	private static final byte QUOT = (byte)JsonStructuralChar.QUOT.str().charAt(0);
+	private static final byte OBJECT_BIGIN = (byte)JsonStructuralChar.OBJECT_BIGIN.str().charAt(0);
+	private static final byte OBJECT_END = (byte)JsonStructuralChar.OBJECT_END.str().charAt(0);
+	private static final byte ARRAY_BIGIN = (byte)JsonStructuralChar.ARRAY_BIGIN.str().charAt(0);
+	private static final byte ARRAY_END = (byte)JsonStructuralChar.ARRAY_END.str().charAt(0);
+	private static final byte SEPARATOR_VALUE = (byte)JsonStructuralChar.SEPARATOR_VALUE.str().charAt(0);
+	private static final byte SEPARATOR_NAME = (byte)JsonStructuralChar.SEPARATOR_NAME.str().charAt(0);
+	private static final byte BACKSLASH = (byte)JsonStructuralChar.ESCAPE.str().charAt(0);
+	
+	private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+	
+	private final OutputStream strm;
+	private final ByteBuffer target;
+	private final boolean excludeNullValueInObject;
+	
+	private byte[] buf;
+	private int pos;
+	
+	private JsonHubUtf8Writer(OutputStream strm, ByteBuffer target, boolean excludeNullValueInObject) {
+		this.strm = strm;
+		this.target = target;
+		this.excludeNullValueInObject = excludeNullValueInObject;
+		
+		byte[] bs = localBuffer.get();
+		
+		if ( bs == null ) {
+			this.buf = new byte[BUFFER_SIZE];
+		} else {
+			localBuffer.set(null);
+			this.buf = bs;
+		}
+		
+		this.pos = 0;
+	}
+	
+	private void release() {
+		if ( buf.length <= MAX_CACHED_BUFFER_SIZE ) {
+			localBuffer.set(buf);
+		}
+	}
+	
+	/**
+	 * Returns compact JSON-UTF8-bytes.
+	 * 
+	 * @param v JsonHub instance
+	 * @return JSON-UTF8-bytes
+	 */
+	public static byte[] toBytes(JsonHub v) {
+		return toBytes(v, false);
+	}
+	
+	/**
+	 * Returns compact and exclude null-value-pair in Object JSON-UTF8-bytes.
+	 * 
+	 * @param v JsonHub instance
+	 * @return JSON-UTF8-bytes
+	 */
+	public static byte[] toBytesExcludedNullValueInObject(JsonHub v) {
+		return toBytes(v, true);
+	}
+	
+	private static byte[] toBytes(JsonHub v, boolean excludeNullValueInObject) {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(null, null, excludeNullValueInObject);
+		try {
+			w.writeJsonHub(v);
+			return Arrays.copyOf(w.buf, w.pos);
+		}
+		catch ( IOException notHappen ) {
+			throw new UncheckedIOException(notHappen);
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	/**
+	 * Write compact JSON-UTF8-bytes to OutputStream.
+	 * 
+	 * @param v JsonHub instance
+	 * @param strm
+	 * @throws IOException
+	 */
+	public static void write(JsonHub v, OutputStream strm) throws IOException {
+		write(v, strm, false);
+	}
+	
+	/**
+	 * Write compact and exclude null-value-pair in Object JSON-UTF8-bytes to OutputStream.
+	 * 
+	 * @param v JsonHub instance
+	 * @param strm
+	 * @throws IOException
+	 */
+	public static void writeExcludedNullValueInObject(JsonHub v, OutputStream strm) throws IOException {
+		write(v, strm, true);
+	}
+	
+	private static void write(JsonHub v, OutputStream strm, boolean excludeNullValueInObject) throws IOException {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(strm, null, excludeNullValueInObject);
+		try {
+			w.writeJsonHub(v);
+			w.flush();
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	/**
+	 * Write compact JSON-UTF8-bytes to ByteBuffer.
+	 * 
+	 * @param v JsonHub instance
+	 * @param buffer
+	 * @throws java.nio.BufferOverflowException if buffer has insufficient space
+	 */
+	public static void write(JsonHub v, ByteBuffer buffer) {
+		write(v, buffer, false);
+	}
+	
+	/**
+	 * Write compact and exclude null-value-pair in Object JSON-UTF8-bytes to ByteBuffer.
+	 * 
+	 * @param v JsonHub instance
+	 * @param buffer
+	 * @throws java.nio.BufferOverflowException if buffer has insufficient space
+	 */
+	public static void writeExcludedNullValueInObject(JsonHub v, ByteBuffer buffer) {
+		write(v, buffer, true);
+	}
+	
+	private static void write(JsonHub v, ByteBuffer buffer, boolean excludeNullValueInObject) {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(null, buffer, excludeNullValueInObject);
+		try {
+			w.writeJsonHub(v);
+			w.flush();
+		}
+		catch ( IOException notHappen ) {
+			throw new UncheckedIOException(notHappen);
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	/**
+	 * Returns compact JSON-UTF8-bytes from POJO.
+	 * 
+	 * <p>
+	 * Same as {@code JsonHub.fromPojo(pojo).getBytes()}.<br />
+	 * </p>
+	 * 
+	 * @param pojo (Plain-Old-Java-Object)
+	 * @return JSON-UTF8-bytes
+	 * @throws JsonHubParseException if parse failed
+	 */
+	public static byte[] fromPojoToBytes(Object pojo) {
+		return fromPojoToBytes(pojo, false);
+	}
+	
+	/**
+	 * Returns compact and exclude null-value-pair in Object JSON-UTF8-bytes from POJO.
+	 * 
+	 * <p>
+	 * Same as {@code JsonHub.fromPojo(pojo).getBytesExcludedNullValueInObject()}.<br />
+	 * </p>
+	 * 
+	 * @param pojo (Plain-Old-Java-Object)
+	 * @return JSON-UTF8-bytes
+	 * @throws JsonHubParseException if parse failed
+	 */
+	public static byte[] fromPojoToBytesExcludedNullValueInObject(Object pojo) {
+		return fromPojoToBytes(pojo, true);
+	}
+	
+	private static byte[] fromPojoToBytes(Object pojo, boolean excludeNullValueInObject) {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(null, null, excludeNullValueInObject);
+		try {
+			w.writePojo(pojo);
+			return Arrays.copyOf(w.buf, w.pos);
+		}
+		catch ( IOException notHappen ) {
+			throw new UncheckedIOException(notHappen);
+		}
+		catch ( ClassCastException | IllegalArgumentException e ) {
+			throw new JsonHubParseException(e);
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	/**
+	 * Write compact JSON-UTF8-bytes of POJO to OutputStream.
+	 * 
+	 * @param pojo (Plain-Old-Java-Object)
+	 * @param strm
+	 * @throws IOException
+	 * @throws JsonHubParseException if parse failed
+	 */
+	public static void writePojo(Object pojo, OutputStream strm) throws IOException {
+		writePojo(pojo, strm, false);
+	}
+	
+	/**
+	 * Write compact and exclude null-value-pair in Object JSON-UTF8-bytes of POJO to OutputStream.
+	 * 
+	 * @param pojo (Plain-Old-Java-Object)
+	 * @param strm
+	 * @throws IOException
+	 * @throws JsonHubParseException if parse failed
+	 */
+	public static void writePojoExcludedNullValueInObject(Object pojo, OutputStream strm) throws IOException {
+		writePojo(pojo, strm, true);
+	}
+	
+	private static void writePojo(Object pojo, OutputStream strm, boolean excludeNullValueInObject) throws IOException {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(strm, null, excludeNullValueInObject);
+		try {
+			w.writePojo(pojo);
+			w.flush();
+		}
+		catch ( ClassCastException | IllegalArgumentException e ) {
+			throw new JsonHubParseException(e);
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	/**
+	 * Returns UTF-8 bytes of JSON-String, not escaped.
+	 * 
+	 * @param json
+	 * @return UTF-8 bytes
+	 */
+	public static byte[] encode(CharSequence json) {
+		final JsonHubUtf8Writer w = new JsonHubUtf8Writer(null, null, false);
+		try {
+			w.writeChars(json, false);
+			return Arrays.copyOf(w.buf, w.pos);
+		}
+		catch ( IOException notHappen ) {
+			throw new UncheckedIOException(notHappen);
+		}
+		finally {
+			w.release();
+		}
+	}
+	
+	private void writeJsonHub(JsonHub v) throws IOException {
+		
+		switch ( v.type() ) {
+		case NULL: {
+			
+			writeBytes(NULL_BYTES);
+			break;
+		}
+		case TRUE: {
+			
+			writeBytes(TRUE_BYTES);
+			break;
+		}
+		case FALSE: {
+			
+			writeBytes(FALSE_BYTES);
+			break;
+		}
+		case STRING: {
+			
+			if ( v instanceof StringJsonHub ) {
+				writeJsonString(((StringJsonHub)v).jsonString());
+			} else {
+				writeChars(v.toJson(), false);
+			}
+			
+			break;
+		}
+		case NUMBER: {
+			
+			writeChars(v.toJson(), false);
+			break;
+		}
+		case ARRAY: {
+			
+			writeByte(ARRAY_BIGIN);
+			
+			boolean f = false;
+			
+			for ( JsonHub jh : v.values() ) {
+				
+				if ( f ) {
+					writeByte(SEPARATOR_VALUE);
+				} else {
+					f = true;
+				}
+				
+				writeJsonHub(jh);
+			}
+			
+			writeByte(ARRAY_END);
+			break;
+		}
+		case OBJECT: {
+			
+			if ( ! (v instanceof ObjectJsonHub) ) {
+				writeChars((excludeNullValueInObject ? v.toJsonExcludedNullValueInObject() : v.toJson()), false);
+				break;
+			}
+			
+			writeByte(OBJECT_BIGIN);
+			
+			boolean f = false;
+			
+			for ( JsonObjectPair pair : ((ObjectJsonHub)v).objectPairs() ) {
+				
+				if ( excludeNullValueInObject && pair.value().isNull() ) {
+					continue;
+				}
+				
+				if ( f ) {
+					writeByte(SEPARATOR_VALUE);
+				} else {
+					f = true;
+				}
+				
+				writeJsonString(pair.name());
+				writeByte(SEPARATOR_NAME);
+				
+				writeJsonHub(pair.value());
+			}
+			
+			writeByte(OBJECT_END);
+			break;
+		}
+		}
+	}
+	
+	/* same rules as JsonHubFromPojoParser */
+	private void writePojo(Object pojo) throws IOException {
+		
+		if ( pojo == null ) {
+			
+			writeBytes(NULL_BYTES);
+			
+		} else if ( pojo.getClass().isArray() ) {
+			
+			writeByte(ARRAY_BIGIN);
+			
+			for ( int i = 0, len = Array.getLength(pojo); i < len; ++i ) {
+				
+				if ( i > 0 ) {
+					writeByte(SEPARATOR_VALUE);
+				}
+				
+				writePojo(Array.get(pojo, i));
+			}
+			
+			writeByte(ARRAY_END);
+			
+		} else if ( pojo instanceof Boolean ) {
+			
+			writeBytes(((Boolean)pojo).booleanValue() ? TRUE_BYTES : FALSE_BYTES);
+			
+		} else if ( pojo instanceof CharSequence ) {
+			
+			writeByte(QUOT);
+			writeChars((CharSequence)pojo, true);
+			writeByte(QUOT);
+			
+		} else if ( pojo instanceof Number ) {
+			
+			writeChars(pojo.toString(), false);
+			
+		} else if ( pojo instanceof List<?> ) {
+			
+			writeByte(ARRAY_BIGIN);
+			
+			boolean f = false;
+			
+			for ( Object p : (List<?>)pojo ) {
+				
+				if ( f ) {
+					writeByte(SEPARATOR_VALUE);
+				} else {
+					f = true;
+				}
+				
+				writePojo(p);
+			}
+			
+			writeByte(ARRAY_END);
+			
+		} else if ( pojo instanceof Map<?, ?> ) {
+			
+			writeByte(OBJECT_BIGIN);
+			
+			boolean f = false;
+			
+			for ( Map.Entry<?, ?> entry : ((Map<?, ?>)pojo).entrySet() ) {
+				
+				Object value = entry.getValue();
+				
+				if ( excludeNullValueInObject && value == null ) {
+					continue;
+				}
+				
+				if ( f ) {
+					writeByte(SEPARATOR_VALUE);
+				} else {
+					f = true;
+				}
+				
+				writeByte(QUOT);
+				writeChars(entry.getKey().toString(), true);
+				writeByte(QUOT);
+				writeByte(SEPARATOR_NAME);
+				
+				writePojo(value);
+			}
+			
+			writeByte(OBJECT_END);
+			
+		} else {
+			
+			writeByte(OBJECT_BIGIN);
+			
+			boolean f = false;
+			
+			for ( JsonHubPojoMapping.Property prop : JsonHubPojoMapping.get(pojo.getClass()).getters() ) {
+				
+				Object value = prop.get(pojo);
+				
+				if ( excludeNullValueInObject && value == null ) {
+					continue;
+				}
+				
+				if ( f ) {
+					writeByte(SEPARATOR_VALUE);
+				} else {
+					f = true;
+				}
+				
+				writeBytes(prop.jsonNameBytes());
+				
+				writePojo(value);
+			}
+			
+			writeByte(OBJECT_END);
+		}
+	}
+	
+	private void writeJsonString(JsonString js) throws IOException {
+		
+		writeByte(QUOT);
+		
+		String escaped = js.escapedIfPresent();
+		
+		if ( escaped == null ) {
+			writeChars(js.unescaped(), true);
+		} else {
+			writeChars(escaped, false);
+		}
+		
+		writeByte(QUOT);
+	}
+	
+	/* UTF-8 encode, escape by table if escape is true, unpaired surrogate is '?' same as String#getBytes */
+	private void writeChars(CharSequence cs, boolean escape) throws IOException {
+		
+		for ( int i = 0, len = cs.length(); i < len; ++i ) {
+			
+			char c = cs.charAt(i);
+			
+			if ( c < 0x80 ) {
+				
+				ensure(6);
+				
+				char x = escape ? JsonStringCoder.ESCAPE_TABLE[c] : 0;
+				
+				if ( x == 0 ) {
+					
+					buf[pos++] = (byte)c;
+					
+				} else if ( x == JsonStringCoder.UNICODE ) {
+					
+					buf[pos++] = BACKSLASH;
+					buf[pos++] = JsonStringCoder.UNICODE;
+					buf[pos++] = HEX[(c >> 12) & 0xF];
+					buf[pos++] = HEX[(c >> 8) & 0xF];
+					buf[pos++] = HEX[(c >> 4) & 0xF];
+					buf[pos++] = HEX[c & 0xF];
+					
+				} else {
+					
+					buf[pos++] = BACKSLASH;
+					buf[pos++] = (byte)x;
+				}
+				
+			} else if ( c < 0x800 ) {
+				
+				ensure(2);
+				buf[pos++] = (byte)(0xC0 | (c >> 6));
+				buf[pos++] = (byte)(0x80 | (c & 0x3F));
+				
+			} else if ( Character.isSurrogate(c) ) {
+				
+				ensure(4);
+				
+				if ( Character.isHighSurrogate(c) && (i + 1) < len && Character.isLowSurrogate(cs.charAt(i + 1)) ) {
+					
+					int cp = Character.toCodePoint(c, cs.charAt(++i));
+					buf[pos++] = (byte)(0xF0 | (cp >> 18));
+					buf[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+					buf[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+					buf[pos++] = (byte)(0x80 | (cp & 0x3F));
+					
+				} else {
+					
+					buf[pos++] = (byte)'?';
+				}
+				
+			} else {
+				
+				ensure(3);
+				buf[pos++] = (byte)(0xE0 | (c >> 12));
+				buf[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+				buf[pos++] = (byte)(0x80 | (c & 0x3F));
+			}
+		}
+	}
+	
+	private void writeByte(byte b) throws IOException {
+		ensure(1);
+		buf[pos++] = b;
+	}
+	
+	private void writeBytes(byte[] bs) throws IOException {
+		
+		if ( bs.length > buf.length - pos ) {
+			
+			flushOrGrow(bs.length);
+			
+			if ( bs.length > buf.length - pos ) {
+				
+				/* stream or buffer, larger than buffer */
+				if ( strm != null ) {
+					strm.write(bs);
+				} else {
+					target.put(bs);
+				}
+				
+				return;
+			}
+		}
+		
+		System.arraycopy(bs, 0, buf, pos, bs.length);
+		pos += bs.length;
+	}
+	
+	private void ensure(int size) throws IOException {
+		if ( size > buf.length - pos ) {
+			flushOrGrow(size);
+		}
+	}
+	
+	private void flushOrGrow(int size) throws IOException {
+		
+		if ( strm == null && target == null ) {
+			
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + size));
+			
+		} else {
+			
+			flush();
+		}
+	}
+	
+	private void flush() throws IOException {
+		
+		if ( pos > 0 ) {
+			
+			if ( strm != null ) {
+				strm.write(buf, 0, pos);
+			} else if ( target != null ) {
+				target.put(buf, 0, pos);
+			}
+			
+			pos = 0;
+		}
+	}
+	
+}
@@ -53,6 +53,20 @@ public class JsonString implements Serializable {
 		return inst;
 	}
 	
+	/**
+	 * Returns JsonString instance has both, by parser.
+	 * 
+	 * @param escaped String
+	 * @param unescaped String
+	 * @return JsonString instance
+	 */
+	static JsonString of(String escaped, String unescaped) {
+		JsonString inst = new JsonString();
+		inst.escaped = escaped;
+		inst.unescaped = unescaped;
+		return inst;
+	}
+	
 	/**
 	 * Returns escaped-String.
 	 * 
@@ -70,6 +84,21 @@ public class JsonString implements Serializable {
 		}
 	}
 	
+	/**
+	 * Returns escaped-String if already has, otherwise {@code null}.
+	 * 
+	 * <p>
+	 * For writer, not escape and not cache.<br />
+	 * </p>
+	 * 
+	 * @return escaped-String or {@code null}
+	 */
+	String escapedIfPresent() {
+		synchronized ( this ) {
+			return escaped;
+		}
+	}
+	
 	/**
 	 * Returns unescaped String.
 	 * 
@@ -80,11 +80,34 @@ public class JsonStringCoder {
 		}
 	}
 	
+	/**
+	 * Escape table of ASCII, 0 is not escaped, {@link #UNICODE} is escaped to unicode-escape (backslash, u, 4 hex digits),
+	 * other is escaped to backslash and value.
+	 */
+	static final char[] ESCAPE_TABLE = createEscapeTable();
+	
+	private static char[] createEscapeTable() {
+		
+		final char[] table = new char[0x80];
+		
+		for ( int c = 0; c < 0x20; ++c ) {
+			table[c] = (char)UNICODE;
+		}
+		
+		for ( EscapeSets x : EscapeSets.values() ) {
+			table[x.a] = (char)x.b;
+		}
+		
+		return table;
+	}
+	
 	/**
 	 * Retruns escaped JSON-String.
 	 * 
 	 * <p>
 	 * Not Accept {@code null}.<br />
+	 * Control characters without short escape are escaped to unicode-escape.<br />
+	 * Returns same String if not escaped.<br />
 	 * </p>
 	 * 
 	 * @param cs unescaped-JSON-Stirng
@@ -92,36 +115,52 @@ public class JsonStringCoder {
 	 */
 	public String escape(CharSequence cs) {
 		
-		String v = cs.toString();
+		final String v = cs.toString();
+		final int len = v.length();
 		
-		try (
-				ByteArrayOutputStream strm = new ByteArrayOutputStream();
-				) {
+		int i = 0;
+		
+		for ( ; i < len; ++i ) {
+			char c = v.charAt(i);
+			if ( c < 0x80 && ESCAPE_TABLE[c] != 0 ) {
+				break;
+			}
+		}
+		
+		if ( i == len ) {
+			return v;
+		}
+		
+		final StringBuilder sb = new StringBuilder(len + 16).append(v, 0, i);
+		
+		for ( ; i < len; ++i ) {
 			
-			byte[] bb = v.getBytes(StandardCharsets.UTF_8);
+			char c = v.charAt(i);
+			char x = c < 0x80 ? ESCAPE_TABLE[c] : 0;
 			
-			for (byte b : bb) {
+			if ( x == 0 ) {
 				
-				Byte x = EscapeSets.escape(b);
+				sb.append(c);
 				
-				if ( x == null ) {
-					
-					strm.write(b);
-					
-				} else {
-					
-					strm.write(BACKSLASH);
-					strm.write(x.byteValue());
-				}
+			} else if ( x == UNICODE ) {
+				
+				sb.append((char)BACKSLASH).append((char)UNICODE)
+				.append(HEX_CHARS[(c >> 12) & 0xF])
+				.append(HEX_CHARS[(c >> 8) & 0xF])
+				.append(HEX_CHARS[(c >> 4) & 0xF])
+				.append(HEX_CHARS[c & 0xF]);
+				
+			} else {
+				
+				sb.append((char)BACKSLASH).append(x);
 			}
-			
-			return new String(strm.toByteArray(), StandardCharsets.UTF_8);
-		}
-		catch ( IOException notHappen ) {
-			throw new RuntimeException(notHappen);
 		}
+		
+		return sb.toString();
 	}
 	
+	private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+	
 	/**
 	 * Returns unescaped JSON-String.
 	 * 
@@ -30,6 +30,15 @@ public class StringJsonHub extends AbstractJsonHub {
 		this.toJsonProxy = null;
 	}
 	
+	/**
+	 * Returns JsonString, for writer.
+	 * 
+	 * @return JsonString
+	 */
+	JsonString jsonString() {
+		return v;
+	}
+	
 	@Override
 	public JsonHubType type() {
 		return JsonHubType.STRING;
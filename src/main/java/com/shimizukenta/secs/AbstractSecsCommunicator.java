@@ -199,6 +199,13 @@ public abstract class AbstractSecsCommunicator implements SecsCommunicator {
 		return config.isEquip().booleanValue();
 	}
 	
+	private final SecsCommunicatorMetrics metrics = new SecsCommunicatorMetrics();
+	
+	@Override
+	public SecsCommunicatorMetrics metrics() {
+		return metrics;
+	}
+	
 	@Override
 	public void openAndWaitUntilCommunicating() throws IOException, InterruptedException {
 		
@@ -18,6 +18,10 @@ public abstract class AbstractSecsInnerEngine {
 		return engine.executorService();
 	}
 	
+	protected SecsCommunicatorMetrics metrics() {
+		return engine.metrics();
+	}
+	
 	protected static Runnable createLoopTask(InterruptableRunnable task) {
 		return AbstractSecsCommunicator.createLoopTask(task);
 	}
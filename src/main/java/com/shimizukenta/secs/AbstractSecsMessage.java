@@ -2,6 +2,8 @@ package com.shimizukenta.secs;
 
 import java.io.Serializable;
 
+import com.shimizukenta.secs.secs2.Secs2JsonCodec;
+
 public abstract class AbstractSecsMessage implements SecsMessage, Serializable {
 	
 	private static final long serialVersionUID = 6003913058174391972L;
@@ -48,12 +50,17 @@ public abstract class AbstractSecsMessage implements SecsMessage, Serializable {
 
 	@Override
 	public String toJson() {
-		return "{\"strm\":" + getStream()
-				+ ",\"func\":" + getFunction()
-				+ ",\"wbit\":" + (wbit() ? "true" : "false")
-				+ ",\"deviceId\":" + deviceId()
-				+ ",\"systemBytes\":"+ systemBytesKey().toString()
-				+ ",\"secs2\":"+ secs2().toJson()
-				+ "}";
+		
+		final StringBuilder sb = new StringBuilder()
+				.append("{\"strm\":").append(getStream())
+				.append(",\"func\":").append(getFunction())
+				.append(",\"wbit\":").append(wbit() ? "true" : "false")
+				.append(",\"deviceId\":").append(deviceId())
+				.append(",\"systemBytes\":").append(systemBytesKey().toString())
+				.append(",\"secs2\":");
+		
+		Secs2JsonCodec.appendJson(secs2(), sb);
+		
+		return sb.append("}").toString();
 	}
 }
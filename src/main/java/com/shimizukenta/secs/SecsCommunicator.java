@@ -104,6 +104,17 @@ public interface SecsCommunicator extends Closeable {
 	 */
 	public boolean isEquip();
 	
+	/**
+	 * Returns transaction metrics.
+	 * 
+	 * <p>
+	 * Reply-latency, send-queue-wait, bytes, timeouts, rejects and each Stream-Function counts.<br />
+	 * </p>
+	 * 
+	 * @return transaction metrics
+	 */
+	public SecsCommunicatorMetrics metrics();
+	
 	
 	/**
 	 * Open and wait until communicating.
@@ -0,0 +1,393 @@
+package com.shimizukenta.secs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class is transaction metrics of SECS-Communicator.
+ * 
+ * <p>
+ * This instance is created from {@link SecsCommunicator#metrics()}, and lives as long as communicator.<br />
+ * Counters and histograms are recorded lock-free,
+ * Stream-Function metrics is created only once on first use of Stream-Function.<br />
+ * Readers see weakly consistent values.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class SecsCommunicatorMetrics {
+	
+	private static final int STREAM_COUNT = 128;
+	private static final int FUNCTION_COUNT = 256;
+	
+	private final AtomicReferenceArray<SecsStreamFunctionMetrics> sxfy = new AtomicReferenceArray<>(STREAM_COUNT * FUNCTION_COUNT);
+	
+	private final AtomicLong sent = new AtomicLong(0L);
+	private final AtomicLong received = new AtomicLong(0L);
+	private final AtomicLong sentBytes = new AtomicLong(0L);
+	private final AtomicLong receivedBytes = new AtomicLong(0L);
+	private final AtomicLong timeoutT3 = new AtomicLong(0L);
+	private final AtomicLong timeoutT6 = new AtomicLong(0L);
+	private final AtomicLong timeoutT8 = new AtomicLong(0L);
+	private final AtomicLong sentRejects = new AtomicLong(0L);
+	private final AtomicLong receivedRejects = new AtomicLong(0L);
+	
+	private final SecsLatencyHistogram replyLatency = new SecsLatencyHistogram();
+	private final SecsLatencyHistogram sendQueueWait = new SecsLatencyHistogram();
+	
+	private final long createdNanos;
+	
+	public SecsCommunicatorMetrics() {
+		this.createdNanos = System.nanoTime();
+	}
+	
+	private SecsStreamFunctionMetrics streamFunctionMetrics(int strm, int func) {
+		
+		if ( strm < 0 || strm >= STREAM_COUNT || func < 0 || func >= FUNCTION_COUNT ) {
+			return null;
+		}
+		
+		final int i = (strm * FUNCTION_COUNT) + func;
+		
+		SecsStreamFunctionMetrics m = sxfy.get(i);
+		
+		if ( m == null ) {
+			sxfy.compareAndSet(i, null, new SecsStreamFunctionMetrics(strm, func));
+			m = sxfy.get(i);
+		}
+		
+		return m;
+	}
+	
+	
+	/* recording, called from communicator */
+	
+	/**
+	 * Record sent message.
+	 * 
+	 * @param msg sent message
+	 * @param bytes sent bytes
+	 * @param queueWaitNanos nano-seconds from entry to start of sending
+	 */
+	public void sent(SecsMessage msg, long bytes, long queueWaitNanos) {
+		
+		sent.incrementAndGet();
+		sentBytes.addAndGet(bytes);
+		sendQueueWait.record(queueWaitNanos);
+		
+		SecsStreamFunctionMetrics m = streamFunctionMetrics(msg.getStream(), msg.getFunction());
+		
+		if ( m != null ) {
+			m.sent(bytes);
+		}
+	}
+	
+	/**
+	 * Record received message.
+	 * 
+	 * @param msg received message
+	 * @param bytes received bytes
+	 */
+	public void received(SecsMessage msg, long bytes) {
+		
+		received.incrementAndGet();
+		receivedBytes.addAndGet(bytes);
+		
+		SecsStreamFunctionMetrics m = streamFunctionMetrics(msg.getStream(), msg.getFunction());
+		
+		if ( m != null ) {
+			m.received(bytes);
+		}
+	}
+	
+	/**
+	 * Record reply-latency of primary-message.
+	 * 
+	 * @param primary sent primary-message
+	 * @param nanos nano-seconds from sent primary-message to received reply-message
+	 */
+	public void replied(SecsMessage primary, long nanos) {
+		
+		replyLatency.record(nanos);
+		
+		SecsStreamFunctionMetrics m = streamFunctionMetrics(primary.getStream(), primary.getFunction());
+		
+		if ( m != null ) {
+			m.replyLatency().record(nanos);
+		}
+	}
+	
+	/**
+	 * Record Timeout-T3 of primary-message.
+	 * 
+	 * @param primary sent primary-message
+	 */
+	public void timeoutT3(SecsMessage primary) {
+		
+		timeoutT3.incrementAndGet();
+		
+		SecsStreamFunctionMetrics m = streamFunctionMetrics(primary.getStream(), primary.getFunction());
+		
+		if ( m != null ) {
+			m.timeoutT3();
+		}
+	}
+	
+	/**
+	 * Record Timeout-T6.
+	 */
+	public void timeoutT6() {
+		timeoutT6.incrementAndGet();
+	}
+	
+	/**
+	 * Record Timeout-T8.
+	 */
+	public void timeoutT8() {
+		timeoutT8.incrementAndGet();
+	}
+	
+	/**
+	 * Record sent Reject.
+	 */
+	public void sentReject() {
+		sentRejects.incrementAndGet();
+	}
+	
+	/**
+	 * Record received Reject.
+	 */
+	public void receivedReject() {
+		receivedRejects.incrementAndGet();
+	}
+	
+	
+	/* reading */
+	
+	/**
+	 * Returns nano-seconds since this instance created.
+	 * 
+	 * @return nano-seconds since this instance created
+	 */
+	public long upTimeNanos() {
+		return System.nanoTime() - createdNanos;
+	}
+	
+	/**
+	 * Returns sent message count, include HSMS-Control-Message.
+	 * 
+	 * @return sent message count
+	 */
+	public long sentCount() {
+		return sent.get();
+	}
+	
+	/**
+	 * Returns received message count, include HSMS-Control-Message.
+	 * 
+	 * @return received message count
+	 */
+	public long receivedCount() {
+		return received.get();
+	}
+	
+	/**
+	 * Returns sent bytes.
+	 * 
+	 * @return sent bytes
+	 */
+	public long sentBytes() {
+		return sentBytes.get();
+	}
+	
+	/**
+	 * Returns received bytes.
+	 * 
+	 * @return received bytes
+	 */
+	public long receivedBytes() {
+		return receivedBytes.get();
+	}
+	
+	/**
+	 * Returns Timeout-T3 count.
+	 * 
+	 * @return Timeout-T3 count
+	 */
+	public long timeoutT3Count() {
+		return timeoutT3.get();
+	}
+	
+	/**
+	 * Returns Timeout-T6 count, HSMS only.
+	 * 
+	 * @return Timeout-T6 count
+	 */
+	public long timeoutT6Count() {
+		return timeoutT6.get();
+	}
+	
+	/**
+	 * Returns Timeout-T8 count, HSMS only.
+	 * 
+	 * @return Timeout-T8 count
+	 */
+	public long timeoutT8Count() {
+		return timeoutT8.get();
+	}
+	
+	/**
+	 * Returns sent Reject count, HSMS only.
+	 * 
+	 * @return sent Reject count
+	 */
+	public long sentRejectCount() {
+		return sentRejects.get();
+	}
+	
+	/**
+	 * Returns received Reject count, HSMS only.
+	 * 
+	 * @return received Reject count
+	 */
+	public long receivedRejectCount() {
+		return receivedRejects.get();
+	}
+	
+	/**
+	 * Returns S9Fy count, both sent and received.
+	 * 
+	 * @param func Function-Number
+	 * @return S9Fy count
+	 */
+	public long s9fyCount(int func) {
+		return streamFunction(9, func)
+				.map(m -> m.sentCount() + m.receivedCount())
+				.orElse(Long.valueOf(0L))
+				.longValue();
+	}
+	
+	/**
+	 * Returns reply-latency histogram of all primary-messages.
+	 * 
+	 * @return reply-latency histogram
+	 */
+	public SecsLatencyHistogram replyLatency() {
+		return replyLatency;
+	}
+	
+	/**
+	 * Returns send-queue-wait histogram.
+	 * 
+	 * <p>
+	 * HSMS: wait to acquire channel.<br />
+	 * SECS-I: wait until all blocks sent.<br />
+	 * </p>
+	 * 
+	 * @return send-queue-wait histogram
+	 */
+	public SecsLatencyHistogram sendQueueWait() {
+		return sendQueueWait;
+	}
+	
+	/**
+	 * Returns Stream-Function metrics.
+	 * 
+	 * @param strm Stream-Number
+	 * @param func Function-Number
+	 * @return Stream-Function metrics if exist
+	 */
+	public Optional<SecsStreamFunctionMetrics> streamFunction(int strm, int func) {
+		
+		if ( strm < 0 || strm >= STREAM_COUNT || func < 0 || func >= FUNCTION_COUNT ) {
+			return Optional.empty();
+		}
+		
+		return Optional.ofNullable(sxfy.get((strm * FUNCTION_COUNT) + func));
+	}
+	
+	/**
+	 * Returns all used Stream-Function metrics, ordered by Stream-Function.
+	 * 
+	 * @return all used Stream-Function metrics
+	 */
+	public List<SecsStreamFunctionMetrics> streamFunctions() {
+		
+		final List<SecsStreamFunctionMetrics> list = new ArrayList<>();
+		
+		for ( int i = 0, m = sxfy.length(); i < m; ++i ) {
+			SecsStreamFunctionMetrics x = sxfy.get(i);
+			if ( x != null ) {
+				list.add(x);
+			}
+		}
+		
+		return Collections.unmodifiableList(list);
+	}
+	
+	/**
+	 * Returns JSON.
+	 * 
+	 * @return JSON
+	 */
+	public String toJson() {
+		
+		final StringBuilder sb = new StringBuilder()
+				.append("{\"upTime\":").append(upTimeNanos() / 1000000L)
+				.append(",\"sent\":").append(sentCount())
+				.append(",\"received\":").append(receivedCount())
+				.append(",\"sentBytes\":").append(sentBytes())
+				.append(",\"receivedBytes\":").append(receivedBytes())
+				.append(",\"timeoutT3\":").append(timeoutT3Count())
+				.append(",\"timeoutT6\":").append(timeoutT6Count())
+				.append(",\"timeoutT8\":").append(timeoutT8Count())
+				.append(",\"sentRejects\":").append(sentRejectCount())
+				.append(",\"receivedRejects\":").append(receivedRejectCount())
+				.append(",\"replyLatency\":").append(replyLatency.toJson())
+				.append(",\"sendQueueWait\":").append(sendQueueWait.toJson());
+		
+		final List<SecsStreamFunctionMetrics> list = streamFunctions();
+		
+		sb.append(",\"s9fy\":{");
+		{
+			boolean first = true;
+			for ( SecsStreamFunctionMetrics m : list ) {
+				if ( m.getStream() == 9 ) {
+					if ( ! first ) {
+						sb.append(",");
+					}
+					sb.append("\"S9F").append(m.getFunction()).append("\":")
+					.append(m.sentCount() + m.receivedCount());
+					first = false;
+				}
+			}
+		}
+		sb.append("}");
+		
+		sb.append(",\"streamFunctions\":[");
+		{
+			boolean first = true;
+			for ( SecsStreamFunctionMetrics m : list ) {
+				if ( ! first ) {
+					sb.append(",");
+				}
+				sb.append(m.toJson());
+				first = false;
+			}
+		}
+		sb.append("]}");
+		
+		return sb.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return toJson();
+	}
+	
+}
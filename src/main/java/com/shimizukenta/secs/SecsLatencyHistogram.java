@@ -0,0 +1,173 @@
+package com.shimizukenta.secs;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is latency histogram, log-linear buckets of micro-seconds.
+ * 
+ * <p>
+ * Each power of 2 is split into 8 linear sub-buckets, relative error is {@code <= 12.5%}.<br />
+ * Recording is lock-free and allocation-free, reading is a weakly consistent snapshot.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class SecsLatencyHistogram {
+	
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int MAX_EXP = 40;
+	private static final int BUCKET_COUNT = SUB_COUNT + ((MAX_EXP - SUB_BITS + 1) * SUB_COUNT);
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong count = new AtomicLong(0L);
+	private final AtomicLong sumNanos = new AtomicLong(0L);
+	private final AtomicLong maxNanos = new AtomicLong(0L);
+	
+	public SecsLatencyHistogram() {
+		/* Nothing */
+	}
+	
+	private static int bucketIndex(long micros) {
+		
+		if ( micros < SUB_COUNT ) {
+			return micros < 0L ? 0 : (int)micros;
+		}
+		
+		int exp = 63 - Long.numberOfLeadingZeros(micros);
+		
+		if ( exp > MAX_EXP ) {
+			return BUCKET_COUNT - 1;
+		}
+		
+		int sub = (int)((micros >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+		
+		return SUB_COUNT + ((exp - SUB_BITS) * SUB_COUNT) + sub;
+	}
+	
+	private static long bucketUpperMicros(int index) {
+		
+		if ( index < SUB_COUNT ) {
+			return index;
+		}
+		
+		int exp = ((index - SUB_COUNT) / SUB_COUNT) + SUB_BITS;
+		int sub = (index - SUB_COUNT) % SUB_COUNT;
+		
+		return ((long)(SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1L;
+	}
+	
+	/**
+	 * Record latency.
+	 * 
+	 * @param nanos latency nano-seconds, negative value is recorded as 0
+	 */
+	public void record(long nanos) {
+		
+		final long v = nanos < 0L ? 0L : nanos;
+		
+		buckets.incrementAndGet(bucketIndex(v / 1000L));
+		sumNanos.addAndGet(v);
+		count.incrementAndGet();
+		
+		for ( ;; ) {
+			long m = maxNanos.get();
+			if ( v <= m || maxNanos.compareAndSet(m, v) ) {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Returns recorded count.
+	 * 
+	 * @return recorded count
+	 */
+	public long count() {
+		return count.get();
+	}
+	
+	/**
+	 * Returns max latency nano-seconds.
+	 * 
+	 * @return max latency nano-seconds, 0 if not recorded
+	 */
+	public long maxNanos() {
+		return maxNanos.get();
+	}
+	
+	/**
+	 * Returns mean latency nano-seconds.
+	 * 
+	 * @return mean latency nano-seconds, 0 if not recorded
+	 */
+	public long meanNanos() {
+		long c = count.get();
+		return c > 0L ? (sumNanos.get() / c) : 0L;
+	}
+	
+	/**
+	 * Returns percentile latency nano-seconds, upper bound of bucket.
+	 * 
+	 * @param percentile {@code 0.0 - 100.0}
+	 * @return percentile latency nano-seconds, 0 if not recorded
+	 */
+	public long percentileNanos(double percentile) {
+		
+		final long[] snapshot = new long[BUCKET_COUNT];
+		long total = 0L;
+		
+		for ( int i = 0; i < BUCKET_COUNT; ++i ) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		
+		if ( total == 0L ) {
+			return 0L;
+		}
+		
+		double p = Math.min(100.0D, Math.max(0.0D, percentile));
+		long rank = Math.max(1L, (long)Math.ceil((p / 100.0D) * (double)total));
+		long acc = 0L;
+		
+		for ( int i = 0; i < BUCKET_COUNT; ++i ) {
+			acc += snapshot[i];
+			if ( acc >= rank ) {
+				return Math.min((bucketUpperMicros(i) + 1L) * 1000L, maxNanos.get());
+			}
+		}
+		
+		return maxNanos.get();
+	}
+	
+	private static String toMilliSeconds(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", ((double)nanos / 1000000.0D));
+	}
+	
+	/**
+	 * Returns JSON, values are milli-seconds.
+	 * 
+	 * @return JSON
+	 */
+	public String toJson() {
+		return new StringBuilder()
+				.append("{\"count\":").append(count())
+				.append(",\"mean\":").append(toMilliSeconds(meanNanos()))
+				.append(",\"p50\":").append(toMilliSeconds(percentileNanos(50.0D)))
+				.append(",\"p90\":").append(toMilliSeconds(percentileNanos(90.0D)))
+				.append(",\"p99\":").append(toMilliSeconds(percentileNanos(99.0D)))
+				.append(",\"p999\":").append(toMilliSeconds(percentileNanos(99.9D)))
+				.append(",\"max\":").append(toMilliSeconds(maxNanos()))
+				.append("}")
+				.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return toJson();
+	}
+	
+}
@@ -0,0 +1,146 @@
+package com.shimizukenta.secs;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.NetworkChannel;
+import java.util.Set;
+
+/**
+ * Socket options config, TCP_NODELAY, SO_KEEPALIVE, SO_SNDBUF, SO_RCVBUF setter and getter.
+ * 
+ * <p>
+ * Default TCP_NODELAY is {@code true}, small frames (HSMS control messages, SECS-I ENQ/EOT/ACK)
+ * are not delayed by Nagle algorithm.<br />
+ * Default buffer sizes are {@code -1}, system default is used.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class SecsSocketOptions implements Serializable {
+	
+	private static final long serialVersionUID = 2286095532745102446L;
+	
+	private final BooleanProperty tcpNoDelay = BooleanProperty.newInstance(true);
+	private final BooleanProperty keepAlive = BooleanProperty.newInstance(false);
+	private final NumberProperty sendBufferSize = NumberProperty.newInstance(-1);
+	private final NumberProperty receiveBufferSize = NumberProperty.newInstance(-1);
+	
+	public SecsSocketOptions() {
+		/* Nothing */
+	}
+	
+	/**
+	 * TCP_NODELAY setter.
+	 * 
+	 * @param f set {@code true} if disable Nagle algorithm
+	 */
+	public void tcpNoDelay(boolean f) {
+		this.tcpNoDelay.set(f);
+	}
+	
+	/**
+	 * TCP_NODELAY getter.
+	 * 
+	 * @return {@code true} if disable Nagle algorithm
+	 */
+	public ReadOnlyBooleanProperty tcpNoDelay() {
+		return tcpNoDelay;
+	}
+	
+	/**
+	 * SO_KEEPALIVE setter.
+	 * 
+	 * @param f set {@code true} if keep alive
+	 */
+	public void keepAlive(boolean f) {
+		this.keepAlive.set(f);
+	}
+	
+	/**
+	 * SO_KEEPALIVE getter.
+	 * 
+	 * @return {@code true} if keep alive
+	 */
+	public ReadOnlyBooleanProperty keepAlive() {
+		return keepAlive;
+	}
+	
+	/**
+	 * SO_SNDBUF setter.
+	 * 
+	 * @param size bytes, if {@code <=0}, system default
+	 */
+	public void sendBufferSize(int size) {
+		this.sendBufferSize.set(size > 0 ? size : -1);
+	}
+	
+	/**
+	 * SO_SNDBUF getter.
+	 * 
+	 * @return bytes, {@code -1} if system default
+	 */
+	public ReadOnlyNumberProperty sendBufferSize() {
+		return sendBufferSize;
+	}
+	
+	/**
+	 * SO_RCVBUF setter.
+	 * 
+	 * @param size bytes, if {@code <=0}, system default
+	 */
+	public void receiveBufferSize(int size) {
+		this.receiveBufferSize.set(size > 0 ? size : -1);
+	}
+	
+	/**
+	 * SO_RCVBUF getter.
+	 * 
+	 * @return bytes, {@code -1} if system default
+	 */
+	public ReadOnlyNumberProperty receiveBufferSize() {
+		return receiveBufferSize;
+	}
+	
+	/**
+	 * Set options to channel.
+	 * 
+	 * <p>
+	 * Options not supported by channel are skipped,
+	 * e.g. server-channel sets SO_RCVBUF only, accepted channels inherit it.<br />
+	 * Set before connect or bind, for buffer sizes take effect on TCP window.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 * @throws IOException
+	 */
+	public void setTo(NetworkChannel channel) throws IOException {
+		
+		final Set<SocketOption<?>> supported = channel.supportedOptions();
+		
+		if ( supported.contains(StandardSocketOptions.TCP_NODELAY) ) {
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.valueOf(this.tcpNoDelay.booleanValue()));
+		}
+		
+		if ( supported.contains(StandardSocketOptions.SO_KEEPALIVE) ) {
+			channel.setOption(StandardSocketOptions.SO_KEEPALIVE, Boolean.valueOf(this.keepAlive.booleanValue()));
+		}
+		
+		{
+			int v = this.sendBufferSize.intValue();
+			if ( v > 0 && supported.contains(StandardSocketOptions.SO_SNDBUF) ) {
+				channel.setOption(StandardSocketOptions.SO_SNDBUF, Integer.valueOf(v));
+			}
+		}
+		
+		{
+			int v = this.receiveBufferSize.intValue();
+			if ( v > 0 && supported.contains(StandardSocketOptions.SO_RCVBUF) ) {
+				channel.setOption(StandardSocketOptions.SO_RCVBUF, Integer.valueOf(v));
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,142 @@
+package com.shimizukenta.secs;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is metrics of one Stream-Function.
+ * 
+ * <p>
+ * This instance is created from {@link SecsCommunicatorMetrics} on first use of Stream-Function.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class SecsStreamFunctionMetrics {
+	
+	private final int strm;
+	private final int func;
+	
+	private final AtomicLong sent = new AtomicLong(0L);
+	private final AtomicLong received = new AtomicLong(0L);
+	private final AtomicLong sentBytes = new AtomicLong(0L);
+	private final AtomicLong receivedBytes = new AtomicLong(0L);
+	private final AtomicLong timeoutT3 = new AtomicLong(0L);
+	private final SecsLatencyHistogram replyLatency = new SecsLatencyHistogram();
+	
+	SecsStreamFunctionMetrics(int strm, int func) {
+		this.strm = strm;
+		this.func = func;
+	}
+	
+	void sent(long bytes) {
+		sent.incrementAndGet();
+		sentBytes.addAndGet(bytes);
+	}
+	
+	void received(long bytes) {
+		received.incrementAndGet();
+		receivedBytes.addAndGet(bytes);
+	}
+	
+	void timeoutT3() {
+		timeoutT3.incrementAndGet();
+	}
+	
+	/**
+	 * Returns Stream-Number.
+	 * 
+	 * @return Stream-Number
+	 */
+	public int getStream() {
+		return strm;
+	}
+	
+	/**
+	 * Returns Function-Number.
+	 * 
+	 * @return Function-Number
+	 */
+	public int getFunction() {
+		return func;
+	}
+	
+	/**
+	 * Returns sent message count.
+	 * 
+	 * @return sent message count
+	 */
+	public long sentCount() {
+		return sent.get();
+	}
+	
+	/**
+	 * Returns received message count.
+	 * 
+	 * @return received message count
+	 */
+	public long receivedCount() {
+		return received.get();
+	}
+	
+	/**
+	 * Returns sent bytes.
+	 * 
+	 * @return sent bytes
+	 */
+	public long sentBytes() {
+		return sentBytes.get();
+	}
+	
+	/**
+	 * Returns received bytes.
+	 * 
+	 * @return received bytes
+	 */
+	public long receivedBytes() {
+		return receivedBytes.get();
+	}
+	
+	/**
+	 * Returns Timeout-T3 count of sent primary-message.
+	 * 
+	 * @return Timeout-T3 count
+	 */
+	public long timeoutT3Count() {
+		return timeoutT3.get();
+	}
+	
+	/**
+	 * Returns reply-latency histogram of sent primary-message.
+	 * 
+	 * @return reply-latency histogram
+	 */
+	public SecsLatencyHistogram replyLatency() {
+		return replyLatency;
+	}
+	
+	/**
+	 * Returns JSON.
+	 * 
+	 * @return JSON
+	 */
+	public String toJson() {
+		return new StringBuilder()
+				.append("{\"strm\":").append(strm)
+				.append(",\"func\":").append(func)
+				.append(",\"sent\":").append(sentCount())
+				.append(",\"received\":").append(receivedCount())
+				.append(",\"sentBytes\":").append(sentBytes())
+				.append(",\"receivedBytes\":").append(receivedBytes())
+				.append(",\"timeoutT3\":").append(timeoutT3Count())
+				.append(",\"replyLatency\":").append(replyLatency.toJson())
+				.append("}")
+				.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return toJson();
+	}
+	
+}
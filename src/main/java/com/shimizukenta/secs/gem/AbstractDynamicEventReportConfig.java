@@ -4,7 +4,9 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
 
@@ -66,6 +68,8 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 	
 	/* Report */
 	private final Set<DynamicReport> reports = new CopyOnWriteArraySet<>();
+	private final Map<String, DynamicReport> reportsByAlias = new ConcurrentHashMap<>();
+	private final Map<Secs2, DynamicReport> reportsById = new ConcurrentHashMap<>();
 	
 	@Override
 	public DynamicReport addDefineReport(long reportId, CharSequence alias, List<? extends Number> vids) {
@@ -89,13 +93,38 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 	
 	private DynamicReport addDefineReport(Secs2 reportId, CharSequence alias, List<? extends Number> vids) {
 		DynamicReport r = createReport(reportId, alias, vids);
-		reports.add(r);
+		
+		synchronized ( reports ) {
+			if ( reports.add(r) ) {
+				reportsById.putIfAbsent(r.reportId(), r);
+				r.alias().ifPresent(a -> reportsByAlias.putIfAbsent(a, r));
+			}
+		}
+		
 		return r;
 	}
 	
 	@Override
 	public boolean removeReport(DynamicReport report) {
-		return reports.remove(report);
+		
+		synchronized ( reports ) {
+			
+			if ( ! reports.remove(report) ) {
+				return false;
+			}
+			
+			DynamicReport removed = reportsById.remove(report.reportId());
+			
+			(removed == null ? report : removed).alias().ifPresent(a -> {
+				reportsByAlias.remove(a);
+				reports.stream()
+				.filter(r -> Objects.equals(r.alias().orElse(null), a))
+				.findFirst()
+				.ifPresent(r -> reportsByAlias.put(a, r));
+			});
+			
+			return true;
+		}
 	}
 	
 	@Override
@@ -105,12 +134,7 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 			return Optional.empty();
 		}
 		
-		String s = alias.toString();
-		
-		return reports.stream()
-				.filter(r -> r.alias().isPresent())
-				.filter(r -> Objects.equals(r.alias().get(), s))
-				.findFirst();
+		return Optional.ofNullable(reportsByAlias.get(alias.toString()));
 	}
 	
 	@Override
@@ -120,9 +144,7 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 			return Optional.empty();
 		}
 		
-		return reports.stream()
-				.filter(r -> Objects.equals(r.reportId(), reportId))
-				.findFirst();
+		return Optional.ofNullable(reportsById.get(reportId));
 	}
 	
 	/* Link */
@@ -169,6 +191,8 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 	
 	/* Collection-Event */
 	private final Set<DynamicCollectionEvent> events = new CopyOnWriteArraySet<>();
+	private final Map<String, DynamicCollectionEvent> eventsByAlias = new ConcurrentHashMap<>();
+	private final Map<Secs2, DynamicCollectionEvent> eventsById = new ConcurrentHashMap<>();
 	
 	@Override
 	public DynamicCollectionEvent addEnableCollectionEvent(long ceid) {
@@ -178,13 +202,38 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 	@Override
 	public DynamicCollectionEvent addEnableCollectionEvent(CharSequence alias, long ceid) {
 		DynamicCollectionEvent ce = createCollectionEvent(alias, ceid);
-		events.add(ce);
+		
+		synchronized ( events ) {
+			if ( events.add(ce) ) {
+				eventsById.putIfAbsent(ce.collectionEventId(), ce);
+				ce.alias().ifPresent(a -> eventsByAlias.putIfAbsent(a, ce));
+			}
+		}
+		
 		return ce;
 	}
 	
 	@Override
 	public boolean removeEnableCollectionEvent(DynamicCollectionEvent ce) {
-		return events.remove(ce);
+		
+		synchronized ( events ) {
+			
+			if ( ! events.remove(ce) ) {
+				return false;
+			}
+			
+			DynamicCollectionEvent removed = eventsById.remove(ce.collectionEventId());
+			
+			(removed == null ? ce : removed).alias().ifPresent(a -> {
+				eventsByAlias.remove(a);
+				events.stream()
+				.filter(e -> Objects.equals(e.alias().orElse(null), a))
+				.findFirst()
+				.ifPresent(e -> eventsByAlias.put(a, e));
+			});
+			
+			return true;
+		}
 	}
 	
 	@Override
@@ -194,12 +243,7 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 			return Optional.empty();
 		}
 		
-		String s = alias.toString();
-		
-		return events.stream()
-				.filter(r -> r.alias().isPresent())
-				.filter(ce -> Objects.equals(ce.alias().get(), s))
-				.findFirst();
+		return Optional.ofNullable(eventsByAlias.get(alias.toString()));
 	}
 	
 	@Override
@@ -209,9 +253,7 @@ public abstract class AbstractDynamicEventReportConfig implements DynamicEventRe
 			return Optional.empty();
 		}
 		
-		return events.stream()
-				.filter(ev -> Objects.equals(ev.collectionEventId(), ceid))
-				.findFirst();
+		return Optional.ofNullable(eventsById.get(ceid));
 	}
 
 	@Override
@@ -0,0 +1,592 @@
+package com.shimizukenta.secs.gem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2BuildException;
+import com.shimizukenta.secs.secs2.Secs2ByteBuffersBuilder;
+import com.shimizukenta.secs.secs2.Secs2ChunkedBytes;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+import com.shimizukenta.secs.secs2.Secs2Writer;
+
+/**
+ * This abstract class is implementation of Equipment-side Dynamic-Event-Report.
+ * 
+ * <p>
+ * Definitions are changed in synchronized, plans are read without lock.<br />
+ * </p>
+ * <p>
+ * CEID and RPTID are encoded once per define/link, each event copies them and encodes only values.<br />
+ * Body is written by {@link Secs2Writer}, no SECS-II tree is built per event.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public abstract class AbstractDynamicEventReportEngine implements DynamicEventReportEngine {
+	
+	private static final Secs2 EMPTY_VALUE = Secs2.list();
+	private static final int MAX_CHUNK_SIZE = 64 * 1024;
+	
+	/* chunk size hint per value, writer adds chunk if longer */
+	private static final long VALUE_LENGTH_HINT = 16L;
+	
+	private final Object sync = new Object();
+	
+	/* key of RPTID to report */
+	private final Map<Object, DynamicReport> reports = new LinkedHashMap<>();
+	
+	/* key of CEID to link */
+	private final Map<Object, DynamicLink> links = new LinkedHashMap<>();
+	
+	/* key of RPTID to keys of CEID linked */
+	private final Map<Object, Set<Object>> linkedEvents = new HashMap<>();
+	
+	/* key of CEID to plan, only linked CEID */
+	private final Map<Object, EventPlan> plans = new ConcurrentHashMap<>();
+	
+	private final Set<Object> enables = ConcurrentHashMap.newKeySet();
+	private final Set<Object> disables = ConcurrentHashMap.newKeySet();
+	private volatile boolean enabledAll;
+	
+	public AbstractDynamicEventReportEngine() {
+		this.enabledAll = false;
+	}
+	
+	/**
+	 * Returns key of CEID, RPTID, VID to compare by value.
+	 * 
+	 * <p>
+	 * Single integer is Long, ASCII is String, others are JSON.<br />
+	 * </p>
+	 * 
+	 * @param id
+	 * @return key
+	 */
+	public static Object key(Secs2 id) {
+		
+		try {
+			switch ( id.secs2Item() ) {
+			case INT1:
+			case INT2:
+			case INT4:
+			case INT8:
+			case UINT1:
+			case UINT2:
+			case UINT4:
+			case UINT8: {
+				
+				if ( id.size() == 1 ) {
+					return Long.valueOf(id.getLong(0));
+				}
+				break;
+			}
+			case ASCII: {
+				return id.getAscii();
+			}
+			default: {
+				/* Nothing */
+			}
+			}
+		}
+		catch ( Secs2Exception giveup ) {
+		}
+		
+		return id.toJson();
+	}
+	
+	@Override
+	public DRACK defineReports(List<? extends DynamicReport> reports) {
+		
+		synchronized ( sync ) {
+			
+			if ( reports.isEmpty() ) {
+				
+				this.reports.clear();
+				this.links.clear();
+				this.linkedEvents.clear();
+				this.plans.clear();
+				
+				return DRACK.OK;
+			}
+			
+			final Map<Object, DynamicReport> defines = new LinkedHashMap<>();
+			final Set<Object> deletes = new HashSet<>();
+			
+			for ( DynamicReport r : reports ) {
+				
+				Object k = key(r.reportId());
+				
+				if ( r.vids().isEmpty() ) {
+					
+					deletes.add(k);
+					
+				} else {
+					
+					if ( this.reports.containsKey(k) || defines.put(k, r) != null ) {
+						return DRACK.OneOrMoreRptidAlreadyDefined;
+					}
+				}
+			}
+			
+			final Set<Object> affects = new HashSet<>();
+			
+			for ( Object k : deletes ) {
+				
+				if ( this.reports.remove(k) != null ) {
+					
+					Set<Object> ceids = this.linkedEvents.remove(k);
+					
+					if ( ceids != null ) {
+						
+						for ( Object ceid : ceids ) {
+							this.unlink(ceid, k);
+							affects.add(ceid);
+						}
+					}
+				}
+			}
+			
+			this.reports.putAll(defines);
+			
+			for ( Object ceid : affects ) {
+				this.rebuildPlan(ceid);
+			}
+			
+			return DRACK.OK;
+		}
+	}
+	
+	private void unlink(Object ceid, Object rptid) {
+		
+		DynamicLink link = this.links.get(ceid);
+		
+		if ( link != null ) {
+			
+			List<Secs2> rr = new ArrayList<>();
+			
+			for ( Secs2 r : link.reportIds() ) {
+				if ( ! key(r).equals(rptid) ) {
+					rr.add(r);
+				}
+			}
+			
+			if ( rr.isEmpty() ) {
+				this.links.remove(ceid);
+			} else {
+				this.links.put(ceid, DynamicLink.newInstance(link.collectionEvent(), rr));
+			}
+		}
+	}
+	
+	@Override
+	public LRACK linkEventReports(List<? extends DynamicLink> links) {
+		
+		synchronized ( sync ) {
+			
+			final Map<Object, DynamicLink> adds = new LinkedHashMap<>();
+			final Set<Object> removes = new HashSet<>();
+			
+			for ( DynamicLink link : links ) {
+				
+				Object ceid = key(link.collectionEventId());
+				
+				if ( link.reportIds().isEmpty() ) {
+					
+					removes.add(ceid);
+					
+				} else {
+					
+					for ( Secs2 r : link.reportIds() ) {
+						if ( ! this.reports.containsKey(key(r)) ) {
+							return LRACK.OneOrMoreRptidInvalid;
+						}
+					}
+					
+					if ( this.links.containsKey(ceid) || adds.put(ceid, link) != null ) {
+						return LRACK.OneOrMoreCeidLinksAlreadyDefined;
+					}
+				}
+			}
+			
+			for ( Object ceid : removes ) {
+				
+				DynamicLink link = this.links.remove(ceid);
+				
+				if ( link != null ) {
+					
+					for ( Secs2 r : link.reportIds() ) {
+						
+						Object rptid = key(r);
+						Set<Object> ceids = this.linkedEvents.get(rptid);
+						
+						if ( ceids != null ) {
+							ceids.remove(ceid);
+							if ( ceids.isEmpty() ) {
+								this.linkedEvents.remove(rptid);
+							}
+						}
+					}
+					
+					this.rebuildPlan(ceid);
+				}
+			}
+			
+			for ( Map.Entry<Object, DynamicLink> e : adds.entrySet() ) {
+				
+				Object ceid = e.getKey();
+				
+				this.links.put(ceid, e.getValue());
+				
+				for ( Secs2 r : e.getValue().reportIds() ) {
+					this.linkedEvents.computeIfAbsent(key(r), k -> new HashSet<>()).add(ceid);
+				}
+				
+				this.rebuildPlan(ceid);
+			}
+			
+			return LRACK.OK;
+		}
+	}
+	
+	@Override
+	public ERACK enableCollectionEvents(CEED ceed, List<? extends DynamicCollectionEvent> events) {
+		
+		final boolean enable = ceed == CEED.ENABLE;
+		
+		synchronized ( sync ) {
+			
+			if ( events.isEmpty() ) {
+				
+				this.enabledAll = enable;
+				this.enables.clear();
+				this.disables.clear();
+				
+				for ( Object ceid : new ArrayList<>(this.plans.keySet()) ) {
+					this.rebuildPlan(ceid);
+				}
+				
+			} else {
+				
+				for ( DynamicCollectionEvent ev : events ) {
+					
+					Object ceid = key(ev.collectionEventId());
+					
+					if ( enable ) {
+						this.disables.remove(ceid);
+						this.enables.add(ceid);
+					} else {
+						this.enables.remove(ceid);
+						this.disables.add(ceid);
+					}
+					
+					if ( this.links.containsKey(ceid) ) {
+						this.rebuildPlan(ceid);
+					}
+				}
+			}
+			
+			return ERACK.OK;
+		}
+	}
+	
+	private boolean isEnabledKey(Object ceid) {
+		if ( this.enabledAll ) {
+			return ! this.disables.contains(ceid);
+		} else {
+			return this.enables.contains(ceid);
+		}
+	}
+	
+	/**
+	 * Rebuild plan of CEID, call in synchronized.
+	 * 
+	 * @param ceid
+	 */
+	private void rebuildPlan(Object ceid) {
+		
+		DynamicLink link = this.links.get(ceid);
+		
+		if ( link == null ) {
+			this.plans.remove(ceid);
+			return;
+		}
+		
+		List<Secs2> rptids = link.reportIds();
+		ReportPlan[] rr = new ReportPlan[rptids.size()];
+		
+		for ( int i = 0; i < rr.length; ++i ) {
+			DynamicReport r = this.reports.get(key(rptids.get(i)));
+			rr[i] = new ReportPlan(encoded(r.reportId()), r.vids());
+		}
+		
+		this.plans.put(ceid, new EventPlan(encoded(link.collectionEventId()), this.isEnabledKey(ceid), rr));
+	}
+	
+	/**
+	 * Returns ID encoded by writer, copied by chunks per event.
+	 * 
+	 * @param id
+	 * @return encoded ID, or id if not encodable
+	 */
+	private static Secs2 encoded(Secs2 id) {
+		
+		try {
+			long len = Secs2ByteBuffersBuilder.length(id);
+			return writer(len).secs2(id).toSecs2();
+		}
+		catch ( Secs2BuildException e ) {
+			
+			/* fails on send, same as not encoded */
+			return id;
+		}
+	}
+	
+	private static Secs2Writer writer(long length) {
+		return Secs2Writer.newInstance((int)Math.min(length, MAX_CHUNK_SIZE));
+	}
+	
+	private static long encodedLength(Secs2 ss) {
+		if ( ss instanceof Secs2ChunkedBytes ) {
+			return ((Secs2ChunkedBytes)ss).length();
+		} else {
+			return 0L;
+		}
+	}
+	
+	private static long listHeaderLength(int size) {
+		if ( size > 0xFFFF ) {
+			return 4L;
+		} else if ( size > 0xFF ) {
+			return 3L;
+		} else {
+			return 2L;
+		}
+	}
+	
+	@Override
+	public List<DynamicReport> reports() {
+		synchronized ( sync ) {
+			return Collections.unmodifiableList(new ArrayList<>(this.reports.values()));
+		}
+	}
+	
+	@Override
+	public List<DynamicLink> links() {
+		synchronized ( sync ) {
+			return Collections.unmodifiableList(new ArrayList<>(this.links.values()));
+		}
+	}
+	
+	@Override
+	public boolean isEnabled(Secs2 ceid) {
+		
+		Object k = key(ceid);
+		EventPlan p = this.plans.get(k);
+		
+		if ( p == null ) {
+			return this.isEnabledKey(k);
+		} else {
+			return p.enabled;
+		}
+	}
+	
+	@Override
+	public Optional<Secs2> s6f11(Secs2 dataId, Secs2 ceid, Function<? super Secs2, ? extends Secs2> values) {
+		
+		final Object k = key(ceid);
+		final EventPlan p = this.plans.get(k);
+		
+		if ( p == null ) {
+			
+			if ( this.isEnabledKey(k) ) {
+				return Optional.of(Secs2.list(dataId, ceid, EMPTY_VALUE));
+			}
+			
+			return Optional.empty();
+		}
+		
+		if ( ! p.enabled ) {
+			return Optional.empty();
+		}
+		
+		final Secs2[] vv = new Secs2[p.vidCount];
+		int n = 0;
+		
+		for ( ReportPlan r : p.reports ) {
+			n = r.values(values, vv, n);
+		}
+		
+		try {
+			
+			final Secs2Writer w = writer(p.length + ((p.vidCount + 1L) * VALUE_LENGTH_HINT));
+			
+			w.beginList(3).secs2(dataId).secs2(p.ceid).beginList(p.reports.length);
+			
+			n = 0;
+			
+			for ( ReportPlan r : p.reports ) {
+				w.beginList(2).secs2(r.reportId);
+				n = r.write(w, vv, n);
+				w.end();
+			}
+			
+			return Optional.of(w.end().end().toSecs2());
+		}
+		catch ( Secs2BuildException e ) {
+			
+			/* value not encodable, fails on send */
+			final List<Secs2> rr = new ArrayList<>(p.reports.length);
+			
+			n = 0;
+			
+			for ( ReportPlan r : p.reports ) {
+				rr.add(Secs2.list(r.reportId, r.list(vv, n)));
+				n += r.vids.length;
+			}
+			
+			return Optional.of(Secs2.list(dataId, p.ceid, Secs2.list(rr)));
+		}
+	}
+	
+	@Override
+	public Optional<Secs2> s6f20(Secs2 reportId, Function<? super Secs2, ? extends Secs2> values) {
+		
+		final DynamicReport r;
+		
+		synchronized ( sync ) {
+			r = this.reports.get(key(reportId));
+		}
+		
+		if ( r == null ) {
+			return Optional.empty();
+		}
+		
+		final ReportPlan p = new ReportPlan(r.reportId(), r.vids());
+		final Secs2[] vv = new Secs2[p.vids.length];
+		
+		p.values(values, vv, 0);
+		
+		try {
+			
+			final Secs2Writer w = writer(listHeaderLength(vv.length) + (vv.length * VALUE_LENGTH_HINT));
+			
+			p.write(w, vv, 0);
+			
+			return Optional.of(w.toSecs2());
+		}
+		catch ( Secs2BuildException e ) {
+			
+			/* value not encodable, fails on send */
+			return Optional.of(p.list(vv, 0));
+		}
+	}
+	
+	/**
+	 * This class is precomputed plan of linked CEID.
+	 *
+	 */
+	private static final class EventPlan {
+		
+		private final Secs2 ceid;
+		private final boolean enabled;
+		private final ReportPlan[] reports;
+		
+		/* count of VIDs of all reports */
+		private final int vidCount;
+		
+		/* encoded length except DATAID and values, 0 if ID not encoded */
+		private final long length;
+		
+		private EventPlan(Secs2 ceid, boolean enabled, ReportPlan[] reports) {
+			this.ceid = ceid;
+			this.enabled = enabled;
+			this.reports = reports;
+			
+			int n = 0;
+			long len = listHeaderLength(3) + encodedLength(ceid) + listHeaderLength(reports.length);
+			
+			for ( ReportPlan r : reports ) {
+				n += r.vids.length;
+				len += r.length;
+			}
+			
+			this.vidCount = n;
+			this.length = len;
+		}
+	}
+	
+	/**
+	 * This class is precomputed plan of report.
+	 *
+	 */
+	private static final class ReportPlan {
+		
+		private final Secs2 reportId;
+		private final Secs2[] vids;
+		
+		/* encoded length except values */
+		private final long length;
+		
+		private ReportPlan(Secs2 reportId, List<Secs2> vids) {
+			this.reportId = reportId;
+			this.vids = vids.toArray(new Secs2[vids.size()]);
+			this.length = listHeaderLength(2) + encodedLength(reportId) + listHeaderLength(this.vids.length);
+		}
+		
+		/**
+		 * Get values of VIDs to vv from offset.
+		 * 
+		 * @return next offset
+		 */
+		private int values(Function<? super Secs2, ? extends Secs2> values, Secs2[] vv, int offset) {
+			
+			int n = offset;
+			
+			for ( Secs2 vid : vids ) {
+				Secs2 v = values.apply(vid);
+				vv[n] = v == null ? EMPTY_VALUE : v;
+				n += 1;
+			}
+			
+			return n;
+		}
+		
+		/**
+		 * Write List of values from offset.
+		 * 
+		 * @return next offset
+		 */
+		private int write(Secs2Writer w, Secs2[] vv, int offset) throws Secs2BuildException {
+			
+			int n = offset;
+			
+			w.beginList(vids.length);
+			
+			for ( int i = 0; i < vids.length; ++i ) {
+				w.secs2(vv[n]);
+				n += 1;
+			}
+			
+			w.end();
+			
+			return n;
+		}
+		
+		private Secs2 list(Secs2[] vv, int offset) {
+			return Secs2.list(Arrays.asList(vv).subList(offset, offset + vids.length));
+		}
+	}
+	
+}
@@ -0,0 +1,152 @@
+package com.shimizukenta.secs.gem;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.shimizukenta.secs.secs2.Secs2;
+
+/**
+ * This interface is implementation of Equipment-side Dynamic-Event-Report in GEM (SEMI-E30).
+ * 
+ * <p>
+ * To create new instance, {@link #newInstance()}<br />
+ * </p>
+ * <p>
+ * To S2F33 Define-Reports, {@link #defineReports(List)}<br />
+ * To S2F35 Link, {@link #linkEventReports(List)}<br />
+ * To S2F37 Enable/Disable-CEIDs, {@link #enableCollectionEvents(CEED, List)}<br />
+ * </p>
+ * <p>
+ * To build S6F11 body, {@link #s6f11(Secs2, Secs2, Function)}<br />
+ * To build S6F20 body, {@link #s6f20(Secs2, Function)}<br />
+ * </p>
+ * <p>
+ * Plan of each linked CEID (RPTIDs and VIDs) is precomputed,
+ * and rebuilt only for affected CEIDs when definitions changed.<br />
+ * Building S6F11 is one lookup by CEID, not walking links and reports.<br />
+ * CEID and RPTID are compared by value, e.g. &lt;U4 1&gt; and &lt;U2 1&gt; are same.<br />
+ * </p>
+ * <p>
+ * Relates: S2F33, S2F35, S2F37, S6F11, S6F19
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public interface DynamicEventReportEngine {
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @return newInstance
+	 */
+	public static DynamicEventReportEngine newInstance() {
+		return new AbstractDynamicEventReportEngine() {};
+	}
+	
+	/**
+	 * Define-Reports by S2F33.
+	 * 
+	 * <p>
+	 * If reports is empty, delete all reports and links of them.<br />
+	 * Report that has empty VIDs is deleted.<br />
+	 * If RPTID already defined, nothing is changed.<br />
+	 * </p>
+	 * 
+	 * @param reports
+	 * @return DRACK
+	 */
+	public DRACK defineReports(List<? extends DynamicReport> reports);
+	
+	/**
+	 * Link-Event-Reports by S2F35.
+	 * 
+	 * <p>
+	 * Link that has empty RPTIDs is unlinked.<br />
+	 * If RPTID is not defined or CEID already linked, nothing is changed.<br />
+	 * </p>
+	 * 
+	 * @param links
+	 * @return LRACK
+	 */
+	public LRACK linkEventReports(List<? extends DynamicLink> links);
+	
+	/**
+	 * Enable or Disable CEIDs by S2F37.
+	 * 
+	 * <p>
+	 * If events is empty, all CEIDs.<br />
+	 * </p>
+	 * 
+	 * @param ceed
+	 * @param events
+	 * @return ERACK
+	 */
+	public ERACK enableCollectionEvents(CEED ceed, List<? extends DynamicCollectionEvent> events);
+	
+	/**
+	 * Returns defined reports.
+	 * 
+	 * @return reports
+	 */
+	public List<DynamicReport> reports();
+	
+	/**
+	 * Returns linked links.
+	 * 
+	 * @return links
+	 */
+	public List<DynamicLink> links();
+	
+	/**
+	 * Returns {@code true} if CEID is enabled.
+	 * 
+	 * @param ceid
+	 * @return {@code true} if CEID is enabled
+	 */
+	public boolean isEnabled(Secs2 ceid);
+	
+	/**
+	 * Returns S6F11 body if CEID is enabled.
+	 * 
+	 * <p>
+	 * Format:<br />
+	 * &lt;L [3]<br />
+	 * &nbsp;&nbsp;&lt;U4 data-id&gt;<br />
+	 * &nbsp;&nbsp;&lt;U4 ceid&gt;<br />
+	 * &nbsp;&nbsp;&lt;L [n]<br />
+	 * &nbsp;&nbsp;&nbsp;&nbsp;&lt;L [2]<br />
+	 * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;U4 report-id&gt;<br />
+	 * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&lt;L [m] values&gt;<br />
+	 * &nbsp;&nbsp;&nbsp;&nbsp;&gt;<br />
+	 * &nbsp;&nbsp;&nbsp;&nbsp;...<br />
+	 * &nbsp;&nbsp;&gt;<br />
+	 * &gt;.
+	 * </p>
+	 * <p>
+	 * If value of VID is {@code null}, &lt;L [0]&gt;.<br />
+	 * </p>
+	 * 
+	 * @param dataId
+	 * @param ceid
+	 * @param values VID to value
+	 * @return S6F11 body, empty if CEID is disabled
+	 */
+	public Optional<Secs2> s6f11(Secs2 dataId, Secs2 ceid, Function<? super Secs2, ? extends Secs2> values);
+	
+	/**
+	 * Returns S6F20 body if RPTID is defined.
+	 * 
+	 * <p>
+	 * Format:<br />
+	 * &lt;L [m] values&gt;.
+	 * </p>
+	 * 
+	 * @param reportId
+	 * @param values VID to value
+	 * @return S6F20 body, empty if RPTID is not defined
+	 */
+	public Optional<Secs2> s6f20(Secs2 reportId, Function<? super Secs2, ? extends Secs2> values);
+	
+}
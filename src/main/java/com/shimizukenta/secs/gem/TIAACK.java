@@ -0,0 +1,51 @@
+package com.shimizukenta.secs.gem;
+
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+
+public enum TIAACK {
+	
+	UNDEFINED((byte)0xFF),
+	
+	OK((byte)0x0),
+	TooManySvids((byte)0x1),
+	NoMoreTracesAllowed((byte)0x2),
+	InvalidPeriod((byte)0x3),
+	UnknownSvid((byte)0x4),
+	BadRepgsz((byte)0x5),
+	
+	;
+	
+	private final byte code;
+	private final Secs2 ss;
+	
+	private TIAACK(byte b) {
+		this.code = b;
+		this.ss = Secs2.binary(b);
+	}
+	
+	public byte code() {
+		return code;
+	}
+	
+	public Secs2 secs2() {
+		return ss;
+	}
+	
+	public static TIAACK get(byte b) {
+		
+		for ( TIAACK v : values() ) {
+			if ( v == UNDEFINED ) continue;
+			if ( v.code == b ) {
+				return v;
+			}
+		}
+		
+		return UNDEFINED;
+	}
+	
+	public static TIAACK get(Secs2 value) throws Secs2Exception {
+		byte b = value.getByte(0);
+		return get(b);
+	}
+}
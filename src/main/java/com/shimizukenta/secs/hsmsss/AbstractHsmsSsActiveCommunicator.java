@@ -6,11 +6,10 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.shimizukenta.secs.SecsException;
 
@@ -25,7 +24,7 @@ import com.shimizukenta.secs.SecsException;
  *
  */
 public abstract class AbstractHsmsSsActiveCommunicator extends AbstractHsmsSsCommunicator {
-
+	
 	public AbstractHsmsSsActiveCommunicator(HsmsSsCommunicatorConfig config) {
 		super(Objects.requireNonNull(config));
 	}
@@ -57,198 +56,56 @@ public abstract class AbstractHsmsSsActiveCommunicator extends AbstractHsmsSsCom
 	protected void activeCircuit() throws InterruptedException {
 		
 		try (
-				AsynchronousSocketChannel channel = AsynchronousSocketChannel.open();
+				AsynchronousSocketChannel channel = openChannel();
 				) {
 			
 			final SocketAddress socketAddr = hsmsSsConfig().socketAddress().getSocketAddress();
 			
 			String socketAddrInfo = socketAddr.toString();
 			
+			hsmsSsConfig().socketOptions().setTo(channel);
+			
 			try {
 				
 				notifyLog("AbstractHsmsSsActiveCommunicator try-connect", socketAddrInfo);
-
+				
+				final AtomicBoolean ended = new AtomicBoolean(false);
+				
+				final Runnable notifyEnded = () -> {
+					synchronized ( channel ) {
+						ended.set(true);
+						channel.notifyAll();
+					}
+				};
+				
 				channel.connect(socketAddr, null, new CompletionHandler<Void, Void>(){
 					
 					@Override
 					public void completed(Void none, Void attachment) {
 						
 						try {
-							
-							if ( ! addChannel(channel) ) {
-								return;
-							}
-							
-							notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.NOT_SELECTED);
-							
-							final BlockingQueue<HsmsSsMessage> queue = new LinkedBlockingQueue<>();
-							
-							final HsmsSsByteReader reader = new HsmsSsByteReader(AbstractHsmsSsActiveCommunicator.this, channel);
-							final HsmsSsCircuitAssurance linktest = new HsmsSsCircuitAssurance(AbstractHsmsSsActiveCommunicator.this);
-							
-							reader.addHsmsSsMessageReceiveListener(msg -> {
-								sendReplyManager.put(msg).ifPresent(queue::offer);
-							});
-							
-							reader.addHsmsSsMessageReceiveListener(msg -> {
-								linktest.reset();
+							executeChannelAction(() -> {
+								connected(channel, notifyEnded);
 							});
-							
-							final Callable<Void> mainTask = () -> {
-								
-								try {
-									HsmsSsMessageSelectStatus ss = send(createSelectRequest())
-											.map(HsmsSsMessageSelectStatus::get)
-											.orElse(HsmsSsMessageSelectStatus.NOT_SELECT_RSP);
-								
-									switch ( ss ) {
-									case SUCCESS:
-									case ACTIVED: {
-										
-										notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.SELECTED);
-										break;
-									}
-									default: {
-										return null;
-									}
-									}
-								}
-								catch ( SecsException e ) {
-									notifyLog(e);
-									return null;
-								}
-								catch ( InterruptedException e ) {
-									return null;
-								}
-								
-								final Callable<Void> selectTask = () -> {
-									
-									try {
-										for ( ;; ) {
-											
-											HsmsSsMessage msg = queue.take();
-											
-											HsmsSsMessageType mt = HsmsSsMessageType.get(msg);
-											
-											try {
-												switch ( mt ) {
-												case DATA: {
-													
-													notifyReceiveMessage(msg);
-													break;
-												}
-												case SELECT_REQ: {
-													
-													send(createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_S));
-													break;
-												}
-												case LINKTEST_REQ: {
-													
-													send(createLinktestResponse(msg));
-													break;
-												}
-												case SEPARATE_REQ: {
-													
-													return null;
-													/* break; */
-												}
-												case SELECT_RSP:
-												case DESELECT_REQ:
-												case DESELECT_RSP:
-												case LINKTEST_RSP:
-												case REJECT_REQ:
-												default: {
-													
-													/* ignore */
-												}
-												}
-											}
-											catch ( SecsException e ) {
-												notifyLog(e);
-											}
-										}
-									}
-									catch ( InterruptedException ignore ) {
-									}
-									
-									return null;
-								};
-								
-								try {
-									executeInvokeAny(linktest, selectTask);
-								}
-								catch ( ExecutionException e ) {
-									
-									Throwable t = e.getCause();
-									
-									if ( t instanceof RuntimeException ) {
-										throw (RuntimeException)t;
-									}
-									
-									notifyLog(e);
-								}
-								catch ( InterruptedException ignore ) {
-								}
-								catch ( RejectedExecutionException e ) {
-									if ( ! isClosed() ) {
-										throw e;
-									}
-								}
-								
-								return null;
-							};
-							
-							executeInvokeAny(reader, mainTask);
-						}
-						catch ( ExecutionException e ) {
-							
-							Throwable t = e.getCause();
-							
-							if ( t instanceof RuntimeException ) {
-								throw (RuntimeException)t;
-							}
-							
-							if ( ! (t instanceof AsynchronousCloseException) ) {
-								notifyLog(e);
-							}
-						}
-						catch ( InterruptedException ignore ) {
 						}
 						catch ( RejectedExecutionException e ) {
-							
-							if ( ! isClosed() ) {
-								throw e;
-							}
-						}
-						finally {
-							
-							removeChannel(channel);
-							
-							try {
-								channel.shutdownOutput();
-							}
-							catch (IOException giveup) {
-							}
-							
-							synchronized ( channel ) {
-								channel.notifyAll();
-							}
+							notifyEnded.run();
 						}
 					}
 					
 					@Override
 					public void failed(Throwable t, Void attachment) {
 						
-						synchronized ( channel ) {
-							channel.notifyAll();
-						}
+						notifyEnded.run();
 						
 						notifyLog("AbstractHsmsSsActiveCommunicator#open-AsynchronousSocketChannel#connect failed", t);
 					}
 				});
 				
 				synchronized ( channel ) {
-					channel.wait();
+					while ( ! ended.get() ) {
+						channel.wait();
+					}
 				}
 			}
 			finally {
@@ -259,5 +116,231 @@ public abstract class AbstractHsmsSsActiveCommunicator extends AbstractHsmsSsCom
 			notifyLog(e);
 		}
 	}
-
+	
+	/**
+	 * Connected action, until channel is ended.
+	 * 
+	 * @param channel
+	 * @param ended
+	 */
+	private void connected(AsynchronousSocketChannel channel, Runnable ended) {
+		
+		if ( isSelectorTransport() ) {
+			connectedOnLoop(channel, ended);
+			return;
+		}
+		
+		try {
+			
+			if ( ! addChannel(channel) ) {
+				return;
+			}
+			
+			notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.NOT_SELECTED);
+			
+			final HsmsSsByteReader reader = new HsmsSsByteReader(this, channel);
+			final HsmsSsCircuitAssurance linktest = new HsmsSsCircuitAssurance(this);
+			
+			reader.addHsmsSsMessageReceiveListener(msg -> {
+				sendReplyManager.put(msg).ifPresent(m -> {
+					receive(channel, reader, m);
+				});
+			});
+			
+			reader.addHsmsSsMessageReceiveListener(msg -> {
+				linktest.reset();
+			});
+			
+			final Callable<Void> mainTask = () -> {
+				
+				try {
+					HsmsSsMessageSelectStatus ss = send(createSelectRequest())
+							.map(HsmsSsMessageSelectStatus::get)
+							.orElse(HsmsSsMessageSelectStatus.NOT_SELECT_RSP);
+					
+					switch ( ss ) {
+					case SUCCESS:
+					case ACTIVED: {
+						
+						notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.SELECTED);
+						break;
+					}
+					default: {
+						return null;
+					}
+					}
+				}
+				catch ( SecsException e ) {
+					notifyLog(e);
+					return null;
+				}
+				catch ( InterruptedException e ) {
+					return null;
+				}
+				
+				linktest.call();
+				
+				return null;
+			};
+			
+			executeChannelTasks(reader, mainTask);
+		}
+		catch ( ExecutionException e ) {
+			
+			Throwable t = e.getCause();
+			
+			if ( t instanceof RuntimeException ) {
+				throw (RuntimeException)t;
+			}
+			
+			if ( ! (t instanceof AsynchronousCloseException) ) {
+				notifyLog(e);
+			}
+		}
+		catch ( InterruptedException ignore ) {
+		}
+		catch ( RejectedExecutionException e ) {
+			
+			if ( ! isClosed() ) {
+				throw e;
+			}
+		}
+		finally {
+			
+			channelEnded(channel, ended);
+		}
+	}
+	
+	/**
+	 * Connected action of SELECTOR transport, returns after SELECT.
+	 * 
+	 * <p>
+	 * No thread waits while connected, Linktest is driven by loop timer.<br />
+	 * {@code ended} is called when reader ended.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 * @param ended
+	 */
+	private void connectedOnLoop(AsynchronousSocketChannel channel, Runnable ended) {
+		
+		if ( ! addChannel(channel) ) {
+			channelEnded(channel, ended);
+			return;
+		}
+		
+		notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.NOT_SELECTED);
+		
+		final HsmsSsByteReader reader = new HsmsSsByteReader(this, channel);
+		final HsmsSsSelectorCircuitAssurance linktest = new HsmsSsSelectorCircuitAssurance(this, selectorLoop(channel), reader::stop);
+		
+		reader.addHsmsSsMessageReceiveListener(msg -> {
+			sendReplyManager.put(msg).ifPresent(m -> {
+				receive(channel, reader, m);
+			});
+		});
+		
+		reader.addHsmsSsMessageReceiveListener(msg -> {
+			linktest.reset();
+		});
+		
+		startSelectorChannel(reader, () -> {
+			linktest.stop();
+			channelEnded(channel, ended);
+		});
+		
+		try {
+			HsmsSsMessageSelectStatus ss = send(createSelectRequest())
+					.map(HsmsSsMessageSelectStatus::get)
+					.orElse(HsmsSsMessageSelectStatus.NOT_SELECT_RSP);
+			
+			switch ( ss ) {
+			case SUCCESS:
+			case ACTIVED: {
+				
+				notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.SELECTED);
+				linktest.start();
+				break;
+			}
+			default: {
+				reader.stop();
+			}
+			}
+		}
+		catch ( SecsException e ) {
+			notifyLog(e);
+			reader.stop();
+		}
+		catch ( InterruptedException e ) {
+			reader.stop();
+		}
+	}
+	
+	private void channelEnded(AsynchronousSocketChannel channel, Runnable ended) {
+		
+		removeChannel(channel);
+		
+		try {
+			channel.shutdownOutput();
+		}
+		catch (IOException giveup) {
+		}
+		
+		ended.run();
+	}
+	
+	/**
+	 * Handle message inline on reader thread.
+	 * 
+	 * <p>
+	 * Control messages are answered by reader thread, DATA messages are passed to receive-listeners directly.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 * @param reader
+	 * @param msg
+	 */
+	private void receive(AsynchronousSocketChannel channel, HsmsSsByteReader reader, HsmsSsMessage msg) {
+		
+		try {
+			switch ( HsmsSsMessageType.get(msg) ) {
+			case DATA: {
+				
+				notifyReceiveMessage(msg);
+				break;
+			}
+			case SELECT_REQ: {
+				
+				send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_S));
+				break;
+			}
+			case LINKTEST_REQ: {
+				
+				send(channel, createLinktestResponse(msg));
+				break;
+			}
+			case SEPARATE_REQ: {
+				
+				reader.stop();
+				break;
+			}
+			case SELECT_RSP:
+			case DESELECT_REQ:
+			case DESELECT_RSP:
+			case LINKTEST_RSP:
+			case REJECT_REQ:
+			default: {
+				
+				/* ignore */
+			}
+			}
+		}
+		catch ( SecsException e ) {
+			notifyLog(e);
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
 }
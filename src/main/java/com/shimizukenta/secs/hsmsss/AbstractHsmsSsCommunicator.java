@@ -1,11 +1,16 @@
 package com.shimizukenta.secs.hsmsss;
 
 import java.io.IOException;
+import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.shimizukenta.secs.AbstractSecsCommunicator;
 import com.shimizukenta.secs.ByteArrayProperty;
@@ -51,10 +56,19 @@ public abstract class AbstractHsmsSsCommunicator extends AbstractSecsCommunicato
 		return hsmsSsConfig;
 	}
 	
+	/* logs loop error while open, if SELECTOR transport */
+	private final Consumer<Throwable> selectorErrorListener = t -> {
+		notifyLog(t);
+	};
+	
 	@Override
 	public void open() throws IOException {
 		super.open();
 		
+		if ( isSelectorTransport() ) {
+			HsmsSsSelectorLoopGroup.shared().addErrorListener(selectorErrorListener);
+		}
+		
 		this.hsmsSsCommStateProperty.addChangeListener(state -> {
 			notifyLog("HsmsSs-Connect-state-changed: " + state.toString());
 		});
@@ -73,6 +87,10 @@ public abstract class AbstractHsmsSsCommunicator extends AbstractSecsCommunicato
 			}
 		}
 		
+		if ( isSelectorTransport() ) {
+			HsmsSsSelectorLoopGroup.shared().removeErrorListener(selectorErrorListener);
+		}
+		
 		super.close();
 	}
 	
@@ -102,6 +120,99 @@ public abstract class AbstractHsmsSsCommunicator extends AbstractSecsCommunicato
 	}
 	
 	
+	/* transport */
+	protected boolean isSelectorTransport() {
+		return hsmsSsConfig().transport().get() == HsmsSsTransport.SELECTOR;
+	}
+	
+	protected AsynchronousSocketChannel openChannel() throws IOException {
+		if ( isSelectorTransport() ) {
+			return HsmsSsSelectorSocketChannel.open(HsmsSsSelectorLoopGroup.shared());
+		} else {
+			return AsynchronousSocketChannel.open();
+		}
+	}
+	
+	protected AsynchronousServerSocketChannel openServerChannel() throws IOException {
+		if ( isSelectorTransport() ) {
+			return HsmsSsSelectorServerSocketChannel.open(HsmsSsSelectorLoopGroup.shared());
+		} else {
+			return AsynchronousServerSocketChannel.open();
+		}
+	}
+	
+	/**
+	 * Run completion-handler action of channel.
+	 * 
+	 * <p>
+	 * If SELECTOR transport, action is run on executor-service, not to block loop thread.<br />
+	 * Otherwise action is run on this thread.<br />
+	 * </p>
+	 * 
+	 * @param action
+	 * @throws RejectedExecutionException if executor-service is shutdown
+	 */
+	protected void executeChannelAction(Runnable action) {
+		if ( isSelectorTransport() ) {
+			executorService().execute(action);
+		} else {
+			action.run();
+		}
+	}
+	
+	/**
+	 * Run reader and main-task of channel on each thread, until either ended.
+	 * 
+	 * <p>
+	 * For SELECTOR transport, see {@link #startSelectorChannel(HsmsSsByteReader, Runnable)}.<br />
+	 * </p>
+	 * 
+	 * @param reader
+	 * @param mainTask
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	protected void executeChannelTasks(HsmsSsByteReader reader, Callable<Void> mainTask)
+			throws InterruptedException, ExecutionException {
+		
+		executeInvokeAny(reader, mainTask);
+	}
+	
+	/**
+	 * Returns loop serving channel of SELECTOR transport.
+	 * 
+	 * @param channel opened by SELECTOR transport
+	 * @return loop
+	 */
+	HsmsSsSelectorLoopGroup.Loop selectorLoop(AsynchronousSocketChannel channel) {
+		return ((HsmsSsSelectorSocketChannel)channel).loop();
+	}
+	
+	/**
+	 * Start reader of SELECTOR transport, not blocking.
+	 * 
+	 * <p>
+	 * No thread waits while connected, T7 and Linktest are loop timers.<br />
+	 * {@code onEnd} is called once on executor-service when reader ended,
+	 * on this thread if executor-service is shutdown.<br />
+	 * </p>
+	 * 
+	 * @param reader
+	 * @param onEnd
+	 */
+	protected void startSelectorChannel(HsmsSsByteReader reader, Runnable onEnd) {
+		
+		reader.start(() -> {
+			try {
+				executeChannelAction(onEnd);
+			}
+			catch ( RejectedExecutionException e ) {
+				onEnd.run();
+			}
+		});
+	}
+	
+	
 	/* HSMS Communicate State */
 	protected HsmsSsCommunicateState hsmsSsCommunicateState() {
 		return hsmsSsCommStateProperty.get();
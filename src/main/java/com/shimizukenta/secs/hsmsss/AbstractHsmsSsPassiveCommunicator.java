@@ -6,11 +6,11 @@ import java.net.StandardSocketOptions;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
+import java.util.Collection;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -27,9 +27,12 @@ import com.shimizukenta.secs.SecsException;
  *
  */
 public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCommunicator {
-
+	
 	private AsynchronousServerSocketChannel server;
 	
+	/* accepted channels of SELECTOR transport, no thread to interrupt on close */
+	private final Collection<AsynchronousSocketChannel> selectorChannels = new CopyOnWriteArrayList<>();
+	
 	public AbstractHsmsSsPassiveCommunicator(HsmsSsCommunicatorConfig config) {
 		super(Objects.requireNonNull(config));
 		
@@ -79,6 +82,15 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 			}
 		}
 		
+		for ( AsynchronousSocketChannel ch : selectorChannels ) {
+			try {
+				ch.close();
+			}
+			catch ( IOException e ) {
+				ioExcept = e;
+			}
+		}
+		
 		if ( ioExcept != null) {
 			throw ioExcept;
 		}
@@ -88,7 +100,7 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 		
 		try {
 			synchronized ( this ) {
-				this.server = AsynchronousServerSocketChannel.open();
+				this.server = openServerChannel();
 			}
 			
 			final SocketAddress socketAddr = hsmsSsConfig().socketAddress().getSocketAddress();
@@ -96,6 +108,7 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 			String socketAddrInfo = socketAddr.toString();
 			
 			server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			hsmsSsConfig().socketOptions().setTo(server);
 			server.bind(socketAddr);
 			
 			notifyLog("AbstractHsmsSsPassiveCommunicator#binded", socketAddrInfo);
@@ -105,7 +118,7 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 				@Override
 				public void completed(AsynchronousSocketChannel channel, Void attachment) {
 					server.accept(attachment, this);
-					completedAction(channel);
+					executeCompletedAction(channel);
 				}
 				
 				@Override
@@ -120,19 +133,56 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 		}
 	}
 	
+	/**
+	 * Run {@link #completedAction(AsynchronousSocketChannel)} of accepted channel.
+	 * 
+	 * <p>
+	 * If executor-service is shutdown, channel is closed.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 */
+	protected void executeCompletedAction(AsynchronousSocketChannel channel) {
+		
+		try {
+			executeChannelAction(() -> {
+				completedAction(channel);
+			});
+		}
+		catch ( RejectedExecutionException e ) {
+			
+			try {
+				channel.close();
+			}
+			catch ( IOException ignore ) {
+			}
+		}
+	}
+	
 	protected void completedAction(AsynchronousSocketChannel channel) {
 		
 		String channelString = channel.toString();
 		
 		notifyLog("AbstractHsmsSsPassiveCommunicator channel#accept", channelString);
 		
-		final BlockingQueue<HsmsSsMessage> queue = new LinkedBlockingQueue<>();
+		try {
+			hsmsSsConfig().socketOptions().setTo(channel);
+		}
+		catch ( IOException e ) {
+			notifyLog(e);
+		}
+		
+		if ( isSelectorTransport() ) {
+			completedActionOnLoop(channel);
+			return;
+		}
 		
 		final HsmsSsByteReader reader = new HsmsSsByteReader(AbstractHsmsSsPassiveCommunicator.this, channel);
 		final HsmsSsCircuitAssurance linktest = new HsmsSsCircuitAssurance(AbstractHsmsSsPassiveCommunicator.this);
+		final PassiveSelection selection = new PassiveSelection(channel, reader);
 		
 		reader.addHsmsSsMessageReceiveListener(msg -> {
-			sendReplyManager.put(msg).ifPresent(queue::offer);
+			sendReplyManager.put(msg).ifPresent(selection::receive);
 		});
 		
 		reader.addHsmsSsMessageReceiveListener(msg -> {
@@ -141,97 +191,8 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 		
 		final Callable<Void> mainTask = () -> {
 			
-			final Callable<Boolean> connectTask = () -> {
-				
-				try {
-					/* NOT_SELECTED */
-					
-					for ( ;; ) {
-						
-						HsmsSsMessage msg = queue.take();
-						
-						HsmsSsMessageType mt = HsmsSsMessageType.get(msg);
-						
-						try {
-							switch ( mt ) {
-							case DATA: {
-								
-								send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SELECTED));
-								break;
-							}
-							case SELECT_REQ: {
-								
-								boolean f = addChannel(channel);
-								
-								if ( f /* success */) {
-									
-									send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.SUCCESS));
-									
-									return Boolean.TRUE;
-									
-								} else {
-									
-									send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.ALREADY_USED));
-								}
-								
-								break;
-							}
-							case LINKTEST_REQ: {
-								
-								send(channel, createLinktestResponse(msg));
-								break;
-							}
-							case SEPARATE_REQ: {
-								
-								return Boolean.FALSE;
-								/* break; */
-							}
-							case SELECT_RSP:
-							case DESELECT_RSP:
-							case LINKTEST_RSP:
-							case REJECT_REQ: {
-								
-								send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.TRANSACTION_NOT_OPEN));
-								break;
-							}
-							case DESELECT_REQ:
-							default: {
-								
-								if ( HsmsSsMessageType.supportSType(msg) ) {
-									
-									if ( ! HsmsSsMessageType.supportPType(msg) ) {
-										
-										send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_P));
-									}
-									
-								} else {
-									
-									send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_S));
-								}
-							}
-							}
-						}
-						catch ( SecsException e ) {
-							notifyLog(e);
-						}
-					}
-				}
-				catch ( InterruptedException ignore ) {
-				}
-				
-				return Boolean.FALSE;
-			};
-			
 			try {
-				boolean f = executeInvokeAny(
-						connectTask,
-						hsmsSsConfig().timeout().t7());
-				
-				if ( f ) {
-					/* selected */
-					notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.SELECTED);
-					
-				} else {
+				if ( ! selection.waitUntilSelected() ) {
 					
 					/* select faield */
 					return null;
@@ -244,112 +205,9 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 			catch ( InterruptedException ignore ) {
 				return null;
 			}
-			catch ( RejectedExecutionException e ) {
-				if ( ! isClosed() ) {
-					throw e;
-				}
-				return null;
-			}
-			catch ( ExecutionException e ) {
-				
-				Throwable t = e.getCause();
-				
-				if ( t instanceof RuntimeException ) {
-					throw (RuntimeException)t;
-				}
-				
-				notifyLog(e);
-				return null;
-			}
-			
-			final Callable<Void> selectTask = () -> {
-				
-				try {
-					/* SELECTED */
-					
-					for ( ;; ) {
-						
-						HsmsSsMessage msg = queue.take();
-						
-						HsmsSsMessageType mt = HsmsSsMessageType.get(msg);
-						
-						try {
-							switch ( mt ) {
-							case DATA : {
-								
-								notifyReceiveMessage(msg);
-								break;
-							}
-							case SELECT_REQ: {
-								
-								send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.ACTIVED));
-								break;
-							}
-							case LINKTEST_REQ: {
-								
-								send(channel, createLinktestResponse(msg));
-								break;
-							}
-							case SEPARATE_REQ: {
-								
-								return null;
-								/* break; */
-							}
-							case SELECT_RSP:
-							case DESELECT_RSP:
-							case LINKTEST_RSP:
-							case REJECT_REQ: {
-								
-								send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.TRANSACTION_NOT_OPEN));
-								break;
-							}
-							case DESELECT_REQ:
-							default: {
-								
-								if ( HsmsSsMessageType.supportSType(msg) ) {
-									
-									if ( ! HsmsSsMessageType.supportPType(msg) ) {
-										
-										send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_P));
-									}
-									
-								} else {
-									
-									send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_S));
-								}
-							}
-							}
-						}
-						catch ( SecsException e ) {
-							notifyLog(e);
-						}
-					}
-				}
-				catch ( InterruptedException ignore ) {
-				}
-				
-				return null;
-			};
 			
 			try {
-				executeInvokeAny(linktest, selectTask);
-			}
-			catch ( InterruptedException ignore ) {
-			}
-			catch ( RejectedExecutionException e ) {
-				if ( ! isClosed() ) {
-					throw e;
-				}
-			}
-			catch ( ExecutionException e ) {
-				
-				Throwable t = e.getCause();
-				
-				if ( t instanceof RuntimeException ) {
-					throw (RuntimeException)t;
-				}
-				
-				notifyLog(e);
+				linktest.call();
 			}
 			finally {
 				notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.NOT_CONNECTED);
@@ -359,7 +217,7 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 		};
 		
 		try {
-			executeInvokeAny(reader, mainTask);
+			executeChannelTasks(reader, mainTask);
 		}
 		catch ( InterruptedException ignore ) {
 		}
@@ -384,18 +242,289 @@ public abstract class AbstractHsmsSsPassiveCommunicator extends AbstractHsmsSsCo
 			
 			removeChannel(channel);
 			
-			try {
-				channel.shutdownOutput();
+			closeChannel(channel);
+		}
+	}
+	
+	/**
+	 * Accepted action of SELECTOR transport, not blocking.
+	 * 
+	 * <p>
+	 * No thread waits while connected, T7 and Linktest are driven by loop timers.<br />
+	 * </p>
+	 * 
+	 * @param channel
+	 */
+	private void completedActionOnLoop(AsynchronousSocketChannel channel) {
+		
+		selectorChannels.add(channel);
+		
+		if ( isClosed() ) {
+			selectorChannels.remove(channel);
+			closeChannel(channel);
+			return;
+		}
+		
+		final HsmsSsSelectorLoopGroup.Loop loop = selectorLoop(channel);
+		final HsmsSsByteReader reader = new HsmsSsByteReader(AbstractHsmsSsPassiveCommunicator.this, channel);
+		final HsmsSsSelectorCircuitAssurance linktest = new HsmsSsSelectorCircuitAssurance(AbstractHsmsSsPassiveCommunicator.this, loop, reader::stop);
+		final PassiveSelection selection = new PassiveSelection(channel, reader, linktest::start);
+		
+		reader.addHsmsSsMessageReceiveListener(msg -> {
+			sendReplyManager.put(msg).ifPresent(selection::receive);
+		});
+		
+		reader.addHsmsSsMessageReceiveListener(msg -> {
+			linktest.reset();
+		});
+		
+		final HsmsSsSelectorLoopGroup.Timer t7 = loop.schedule(() -> {
+			if ( selection.timeoutT7() ) {
+				notifyLog(new HsmsSsTimeoutT7Exception(new TimeoutException("T7-Timeout")));
+				reader.stop();
 			}
-			catch ( IOException ignore ) {
+		}, hsmsSsConfig().timeout().t7().getMilliSeconds());
+		
+		startSelectorChannel(reader, () -> {
+			
+			t7.cancel();
+			linktest.stop();
+			
+			if ( removeChannel(channel) ) {
+				
+				/* was SELECTED */
+				notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.NOT_CONNECTED);
+			}
+			
+			sendReplyManager.clear();
+			
+			selectorChannels.remove(channel);
+			
+			closeChannel(channel);
+		});
+	}
+	
+	private void closeChannel(AsynchronousSocketChannel channel) {
+		
+		try {
+			channel.shutdownOutput();
+		}
+		catch ( IOException ignore ) {
+		}
+		
+		try {
+			channel.close();
+		}
+		catch ( IOException e ) {
+			notifyLog(e);
+		}
+	}
+	
+	/**
+	 * Selection state of accepted channel.
+	 * 
+	 * <p>
+	 * Messages are handled inline on reader thread.<br />
+	 * Control messages are answered by reader thread, DATA messages are passed to receive-listeners directly.<br />
+	 * </p>
+	 *
+	 */
+	private class PassiveSelection {
+		
+		private final AsynchronousSocketChannel channel;
+		private final HsmsSsByteReader reader;
+		private final Runnable onSelected;
+		
+		/* null: NOT_SELECTED, TRUE: SELECTED, FALSE: SEPARATED or T7-Timeout */
+		private Boolean selected;
+		
+		private PassiveSelection(AsynchronousSocketChannel channel, HsmsSsByteReader reader) {
+			this(channel, reader, () -> {});
+		}
+		
+		private PassiveSelection(AsynchronousSocketChannel channel, HsmsSsByteReader reader, Runnable onSelected) {
+			this.channel = channel;
+			this.reader = reader;
+			this.onSelected = onSelected;
+			this.selected = null;
+		}
+		
+		/**
+		 * T7-Timeout by timer, if NOT_SELECTED.
+		 * 
+		 * @return {@code true} if timeout, {@code false} if already SELECTED or SEPARATED
+		 */
+		private synchronized boolean timeoutT7() {
+			
+			if ( this.selected != null ) {
+				return false;
+			}
+			
+			this.selected = Boolean.FALSE;
+			this.notifyAll();
+			return true;
+		}
+		
+		/**
+		 * Wait until SELECTED or SEPARATED, T7-Timeout.
+		 * 
+		 * @return {@code true} if SELECTED
+		 * @throws TimeoutException if T7-Timeout
+		 * @throws InterruptedException
+		 */
+		private boolean waitUntilSelected() throws TimeoutException, InterruptedException {
+			
+			final long limit = System.currentTimeMillis() + hsmsSsConfig().timeout().t7().getMilliSeconds();
+			
+			synchronized ( this ) {
+				
+				for ( ;; ) {
+					
+					if ( this.selected != null ) {
+						return this.selected.booleanValue();
+					}
+					
+					long w = limit - System.currentTimeMillis();
+					
+					if ( w <= 0L ) {
+						throw new TimeoutException("T7-Timeout");
+					}
+					
+					this.wait(w);
+				}
 			}
+		}
+		
+		private synchronized Boolean selected() {
+			return this.selected;
+		}
+		
+		private synchronized void selected(Boolean f) {
+			this.selected = f;
+			this.notifyAll();
+		}
+		
+		private void receive(HsmsSsMessage msg) {
 			
 			try {
-				channel.close();
+				
+				final Boolean f = selected();
+				
+				if ( f == null ) {
+					
+					receiveNotSelected(msg);
+					
+				} else if ( f.booleanValue() ) {
+					
+					receiveSelected(msg);
+				}
 			}
-			catch ( IOException e ) {
+			catch ( SecsException e ) {
 				notifyLog(e);
 			}
+			catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		private void receiveNotSelected(HsmsSsMessage msg) throws SecsException, InterruptedException {
+			
+			switch ( HsmsSsMessageType.get(msg) ) {
+			case DATA: {
+				
+				send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SELECTED));
+				break;
+			}
+			case SELECT_REQ: {
+				
+				boolean f = addChannel(channel);
+				
+				if ( f /* success */) {
+					
+					send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.SUCCESS));
+					
+					notifyHsmsSsCommunicateStateChange(HsmsSsCommunicateState.SELECTED);
+					selected(Boolean.TRUE);
+					onSelected.run();
+					
+				} else {
+					
+					send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.ALREADY_USED));
+				}
+				
+				break;
+			}
+			case SEPARATE_REQ: {
+				
+				selected(Boolean.FALSE);
+				reader.stop();
+				break;
+			}
+			default: {
+				
+				receiveControl(msg);
+			}
+			}
+		}
+		
+		private void receiveSelected(HsmsSsMessage msg) throws SecsException, InterruptedException {
+			
+			switch ( HsmsSsMessageType.get(msg) ) {
+			case DATA: {
+				
+				notifyReceiveMessage(msg);
+				break;
+			}
+			case SELECT_REQ: {
+				
+				send(channel, createSelectResponse(msg, HsmsSsMessageSelectStatus.ACTIVED));
+				break;
+			}
+			case SEPARATE_REQ: {
+				
+				selected(Boolean.FALSE);
+				reader.stop();
+				break;
+			}
+			default: {
+				
+				receiveControl(msg);
+			}
+			}
+		}
+		
+		private void receiveControl(HsmsSsMessage msg) throws SecsException, InterruptedException {
+			
+			switch ( HsmsSsMessageType.get(msg) ) {
+			case LINKTEST_REQ: {
+				
+				send(channel, createLinktestResponse(msg));
+				break;
+			}
+			case SELECT_RSP:
+			case DESELECT_RSP:
+			case LINKTEST_RSP:
+			case REJECT_REQ: {
+				
+				send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.TRANSACTION_NOT_OPEN));
+				break;
+			}
+			case DESELECT_REQ:
+			default: {
+				
+				if ( HsmsSsMessageType.supportSType(msg) ) {
+					
+					if ( ! HsmsSsMessageType.supportPType(msg) ) {
+						
+						send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_P));
+					}
+					
+				} else {
+					
+					send(channel, createRejectRequest(msg, HsmsSsMessageRejectReason.NOT_SUPPORT_TYPE_S));
+				}
+			}
+			}
 		}
 	}
 	
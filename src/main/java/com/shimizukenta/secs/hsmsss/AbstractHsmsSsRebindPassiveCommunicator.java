@@ -52,7 +52,7 @@ public abstract class AbstractHsmsSsRebindPassiveCommunicator extends AbstractHs
 	private void passiveBind() throws InterruptedException {
 		
 		try (
-				AsynchronousServerSocketChannel server = AsynchronousServerSocketChannel.open();
+				AsynchronousServerSocketChannel server = openServerChannel();
 				) {
 			
 			final SocketAddress socketAddr = hsmsSsConfig().socketAddress().getSocketAddress();
@@ -60,6 +60,7 @@ public abstract class AbstractHsmsSsRebindPassiveCommunicator extends AbstractHs
 			String socketAddrInfo = socketAddr.toString();
 			
 			server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			hsmsSsConfig().socketOptions().setTo(server);
 			server.bind(socketAddr);
 			
 			notifyLog("AbstractHsmsSsRebindPassiveCommunicator#binded", socketAddrInfo);
@@ -69,7 +70,7 @@ public abstract class AbstractHsmsSsRebindPassiveCommunicator extends AbstractHs
 				@Override
 				public void completed(AsynchronousSocketChannel channel, Void attachment) {
 					server.accept(attachment, this);
-					completedAction(channel);
+					executeCompletedAction(channel);
 				}
 
 				@Override
@@ -3,92 +3,113 @@ package com.shimizukenta.secs.hsmsss;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.shimizukenta.secs.AbstractSecsInnerEngine;
 import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2BytesParseException;
 import com.shimizukenta.secs.secs2.Secs2BytesParser;
 
 public class HsmsSsByteReader extends AbstractSecsInnerEngine implements Callable<Void> {
 	
 	private final AbstractHsmsSsCommunicator parent;
 	private final AsynchronousSocketChannel channel;
-
+	private volatile boolean stopped;
+	private volatile HandlerReader handlerReader;
+	
 	public HsmsSsByteReader(AbstractHsmsSsCommunicator parent, AsynchronousSocketChannel channel) {
 		super(parent);
 		this.parent = parent;
 		this.channel = channel;
+		this.stopped = false;
+		this.handlerReader = null;
 	}
 	
+	/**
+	 * Stop reading after dispatching present message.
+	 * 
+	 * <p>
+	 * Called from listener (e.g. receive SEPARATE.REQ), reader returns after listeners.<br />
+	 * </p>
+	 */
+	public void stop() {
+		
+		this.stopped = true;
+		
+		final HandlerReader h = this.handlerReader;
+		
+		if ( h != null ) {
+			h.end();
+		}
+	}
 	
-	private static final byte[] emptyBytes = new byte[]{0, 0, 0, 0};
+	
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
 	
 	/**
-	 * until detect-terminate or Timeout-T8
+	 * until detect-terminate, Timeout-T8 or stopped
+	 * 
+	 * <p>
+	 * Reads to one buffer as much as received, frames in buffer are dispatched without next read.<br />
+	 * </p>
 	 */
 	@Override
 	public Void call() throws Exception {
 		
 		try {
 			
-			final ByteBuffer lenBf = ByteBuffer.allocate(8);
-			final ByteBuffer headBf = ByteBuffer.allocate(10);
+			final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+			((Buffer)buffer).flip();
 			
 			for ( ;; ) {
 				
-				((Buffer)lenBf).clear();
-				((Buffer)headBf).clear();
-				
-				lenBf.put(emptyBytes);
-				
-				readToByteBuffer(lenBf, false);
-				
-				while ( lenBf.hasRemaining() ) {
-					readToByteBuffer(lenBf, true);
-				}
+				fill(buffer, 4, false);
 				
-				while ( headBf.hasRemaining() ) {
-					readToByteBuffer(headBf, true);
-				}
+				long bodyLength = (buffer.getInt() & 0xFFFFFFFFL) - 10L;
 				
-				((Buffer)lenBf).flip();
+				fill(buffer, 10, true);
 				
-				long bodyLength = lenBf.getLong() - 10;
+				byte[] head = new byte[10];
+				buffer.get(head);
 				
 				if ( bodyLength < 0 ) {
 					continue;
 				}
 				
-				BodyReader bodyReader = new BodyReader(this, bodyLength);
-				
-				while ( ! bodyReader.completed() ) {
-					bodyReader.reading();
-				}
+				checkBodyLength(bodyLength);
 				
-				((Buffer)headBf).flip();
-				byte[] head = new byte[10];
-				headBf.get(head);
+				byte[] bodyBytes = readBody(buffer, (int)bodyLength);
 				
-				Secs2 body = Secs2BytesParser.getInstance().parse(bodyReader.getByteBuffers());
+				Secs2 body = Secs2BytesParser.getInstance().parseLazy(bodyBytes);
 				HsmsSsMessage msg = parent.createHsmsSsMessage(head, body);
 				
-				listeners.forEach(lstnr -> {
-					lstnr.receive(msg);
-				});
+				metrics().received(msg, (bodyLength + 14L));
+				
+				deliver(msg);
 				
-				notifyReceiveMessagePassThrough(msg);
-				notifyLog("Received HsmsSs-Message", msg);
+				if ( this.stopped ) {
+					return null;
+				}
 			}
 		}
-		catch ( HsmsSsDetectTerminateException | HsmsSsTimeoutT8Exception e ) {
+		catch ( HsmsSsTimeoutT8Exception e ) {
+			metrics().timeoutT8();
+			notifyLog(e);
+		}
+		catch ( HsmsSsDetectTerminateException e ) {
 			notifyLog(e);
 		}
 		catch ( InterruptedException ignore ) {
@@ -145,61 +166,388 @@ public class HsmsSsByteReader extends AbstractSecsInnerEngine implements Callabl
 		}
 	}
 	
-	private static final int bufferSize = 1024;
+	/**
+	 * Read until buffer has size bytes.
+	 * 
+	 * @param buffer read mode
+	 * @param size
+	 * @param detectT8Timeout if {@code false}, T8 is detected after first bytes received
+	 * @throws HsmsSsDetectTerminateException
+	 * @throws HsmsSsTimeoutT8Exception
+	 * @throws InterruptedException
+	 */
+	private void fill(ByteBuffer buffer, int size, boolean detectT8Timeout)
+			throws HsmsSsDetectTerminateException, HsmsSsTimeoutT8Exception, InterruptedException {
+		
+		if ( buffer.remaining() >= size ) {
+			return;
+		}
+		
+		buffer.compact();
+		
+		try {
+			
+			boolean t8 = detectT8Timeout || buffer.position() > 0;
+			
+			while ( buffer.position() < size ) {
+				readToByteBuffer(buffer, t8);
+				t8 = true;
+			}
+		}
+		finally {
+			((Buffer)buffer).flip();
+		}
+	}
+	
+	/**
+	 * Check body length of Message-Length-bytes.
+	 * 
+	 * @param bodyLength
+	 * @throws HsmsSsDetectTerminateException if over int or max message length of config
+	 */
+	private void checkBodyLength(long bodyLength) throws HsmsSsDetectTerminateException {
+		
+		if ( bodyLength > Integer.MAX_VALUE ) {
+			throw new HsmsSsDetectTerminateException("Too large body length: " + bodyLength);
+		}
+		
+		final long max = parent.hsmsSsConfig().maxMessageLength().longValue();
+		
+		if ( max >= 0L && (bodyLength + 10L) > max ) {
+			throw new HsmsSsDetectTerminateException("Too large message length: " + (bodyLength + 10L));
+		}
+	}
+	
+	/**
+	 * Returns first array of body, not larger than read buffer.
+	 * 
+	 * <p>
+	 * Body length is not trusted, array grows as bytes are received.<br />
+	 * </p>
+	 * 
+	 * @param bodyLength
+	 * @return first array of body
+	 */
+	private static byte[] newBody(int bodyLength) {
+		return new byte[Math.min(bodyLength, READ_BUFFER_SIZE)];
+	}
+	
+	/**
+	 * Returns array of body can hold {@code size} bytes, grows twice up to body length.
+	 * 
+	 * @param bs present array
+	 * @param size bytes to hold
+	 * @param bodyLength
+	 * @return array of body
+	 */
+	private static byte[] growBody(byte[] bs, int size, int bodyLength) {
+		
+		if ( size <= bs.length ) {
+			return bs;
+		}
+		
+		long n = Math.max((long)size, (long)bs.length * 2L);
+		return Arrays.copyOf(bs, (int)Math.min(n, (long)bodyLength));
+	}
+	
+	/**
+	 * Read body, buffered bytes first.
+	 * 
+	 * <p>
+	 * If rest of body is larger than buffer, read directly to body.<br />
+	 * </p>
+	 * 
+	 * @param buffer read mode
+	 * @param bodyLength
+	 * @return body
+	 * @throws HsmsSsDetectTerminateException
+	 * @throws HsmsSsTimeoutT8Exception
+	 * @throws InterruptedException
+	 */
+	private byte[] readBody(ByteBuffer buffer, int bodyLength)
+			throws HsmsSsDetectTerminateException, HsmsSsTimeoutT8Exception, InterruptedException {
+		
+		byte[] bs = newBody(bodyLength);
+		
+		int pos = Math.min(buffer.remaining(), bodyLength);
+		buffer.get(bs, 0, pos);
+		
+		int rest = bodyLength - pos;
+		
+		if ( rest == 0 ) {
+			return bs;
+		}
+		
+		if ( rest <= buffer.capacity() ) {
+			
+			fill(buffer, rest, true);
+			bs = growBody(bs, bodyLength, bodyLength);
+			buffer.get(bs, pos, rest);
+			
+		} else {
+			
+			while ( pos < bodyLength ) {
+				bs = growBody(bs, (pos + Math.min(bodyLength - pos, READ_BUFFER_SIZE)), bodyLength);
+				ByteBuffer dst = ByteBuffer.wrap(bs, pos, Math.min(bodyLength - pos, READ_BUFFER_SIZE));
+				pos += readToByteBuffer(dst, true);
+			}
+		}
+		
+		return bs;
+	}
+	
+	/**
+	 * Start reading by completion handlers, no reader thread.
+	 * 
+	 * <p>
+	 * For {@link HsmsSsTransport#SELECTOR}, instead of {@link #call()}.<br />
+	 * Received messages are dispatched on executor-service one by one, in received order.<br />
+	 * {@code onEnd} is called once, when detect-terminate, Timeout-T8 or stopped.<br />
+	 * </p>
+	 * 
+	 * @param onEnd
+	 */
+	public void start(Runnable onEnd) {
+		
+		final HandlerReader h = new HandlerReader(onEnd);
+		
+		this.handlerReader = h;
+		
+		if ( this.stopped ) {
+			h.end();
+		} else {
+			h.next();
+		}
+	}
 	
-	private class BodyReader {
+	/**
+	 * Reader driven by read completions.
+	 * 
+	 * <p>
+	 * Buffer and frame state are touched by one completion at a time.<br />
+	 * </p>
+	 *
+	 */
+	private class HandlerReader implements CompletionHandler<Integer, Void> {
 		
-		private final HsmsSsByteReader parent;
-		private final long size;
-		private long present;
-		private final LinkedList<ByteBuffer> buffers = new LinkedList<>();
+		private final Runnable onEnd;
+		private final AtomicBoolean ended = new AtomicBoolean(false);
+		private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
 		
-		public BodyReader(HsmsSsByteReader parent, long size) {
-			this.parent = parent;
-			this.size = size;
-			this.present = 0;
-			addBuffer();
+		private final Queue<HsmsSsMessage> mailbox = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean dispatching = new AtomicBoolean(false);
+		
+		private byte[] head;
+		private byte[] body;
+		private int bodyLength;
+		private int bodyPos;
+		private boolean direct;
+		
+		private HandlerReader(Runnable onEnd) {
+			this.onEnd = onEnd;
+			((Buffer)buffer).flip();
+			this.head = null;
+			this.body = null;
+			this.bodyLength = 0;
+			this.bodyPos = 0;
+			this.direct = false;
 		}
 		
-		private void addBuffer() {
-			long i = size - present;
-			if ( i > bufferSize ) {
-				buffers.add(ByteBuffer.allocate(bufferSize));
+		/**
+		 * Parse buffered frames, then read if frame is not completed.
+		 */
+		private void next() {
+			
+			try {
+				
+				for ( ;; ) {
+					
+					if ( stopped ) {
+						end();
+						return;
+					}
+					
+					if ( this.body == null ) {
+						
+						if ( buffer.remaining() < 14 ) {
+							read(buffer.hasRemaining());
+							return;
+						}
+						
+						long bodyLength = (buffer.getInt() & 0xFFFFFFFFL) - 10L;
+						
+						byte[] bs = new byte[10];
+						buffer.get(bs);
+						
+						if ( bodyLength < 0 ) {
+							continue;
+						}
+						
+						checkBodyLength(bodyLength);
+						
+						this.head = bs;
+						this.bodyLength = (int)bodyLength;
+						this.body = newBody(this.bodyLength);
+						this.bodyPos = 0;
+					}
+					
+					int n = Math.min(buffer.remaining(), this.bodyLength - this.bodyPos);
+					this.body = growBody(this.body, (this.bodyPos + n), this.bodyLength);
+					buffer.get(this.body, this.bodyPos, n);
+					this.bodyPos += n;
+					
+					if ( this.bodyPos < this.bodyLength ) {
+						read(true);
+						return;
+					}
+					
+					Secs2 secs2 = Secs2BytesParser.getInstance().parseLazy(this.body);
+					HsmsSsMessage msg = parent.createHsmsSsMessage(this.head, secs2);
+					
+					metrics().received(msg, (this.bodyLength + 14L));
+					
+					this.head = null;
+					this.body = null;
+					
+					dispatch(msg);
+				}
+			}
+			catch ( HsmsSsDetectTerminateException e ) {
+				if ( ! stopped ) {
+					notifyLog(e);
+				}
+				end();
+			}
+			catch ( Secs2BytesParseException | RuntimeException e ) {
+				notifyLog(e);
+				end();
+			}
+		}
+		
+		private void read(boolean detectT8Timeout) {
+			
+			final long t8 = detectT8Timeout ? parent.hsmsSsConfig().timeout().t8().getMilliSeconds() : 0L;
+			
+			final int rest = (this.body == null) ? 0 : (this.bodyLength - this.bodyPos);
+			
+			if ( rest > buffer.capacity() ) {
+				
+				this.direct = true;
+				final int n = Math.min(rest, READ_BUFFER_SIZE);
+				this.body = growBody(this.body, (this.bodyPos + n), this.bodyLength);
+				ByteBuffer dst = ByteBuffer.wrap(this.body, this.bodyPos, n);
+				channel.read(dst, t8, TimeUnit.MILLISECONDS, null, this);
+				
 			} else {
-				buffers.add(ByteBuffer.allocate((int)i));
+				
+				this.direct = false;
+				buffer.compact();
+				channel.read(buffer, t8, TimeUnit.MILLISECONDS, null, this);
 			}
 		}
 		
-		public void reading()
-				throws HsmsSsDetectTerminateException, HsmsSsTimeoutT8Exception
-				, InterruptedException {
+		@Override
+		public void completed(Integer result, Void attachment) {
 			
-			ByteBuffer bf = buffers.getLast();
+			final int r = result.intValue();
 			
-			int r = parent.readToByteBuffer(bf, true);
+			if ( ! this.direct ) {
+				((Buffer)buffer).flip();
+			}
+			
+			if ( r < 0 ) {
+				if ( ! stopped ) {
+					notifyLog(new HsmsSsDetectTerminateException());
+				}
+				end();
+				return;
+			}
 			
-			this.present += r;
+			if ( this.direct ) {
+				this.bodyPos += r;
+			}
+			
+			next();
+		}
+		
+		@Override
+		public void failed(Throwable t, Void attachment) {
 			
-			if ( ! bf.hasRemaining() ) {
+			if ( ! stopped ) {
 				
-				if ( present < size ) {
-					addBuffer();
+				if ( t instanceof InterruptedByTimeoutException ) {
+					
+					metrics().timeoutT8();
+					notifyLog(new HsmsSsTimeoutT8Exception(t));
+					
+				} else {
+					
+					notifyLog(new HsmsSsDetectTerminateException(t));
 				}
 			}
+			
+			end();
 		}
 		
-		public boolean completed() {
-			return present == size;
+		private void end() {
+			if ( ended.compareAndSet(false, true) ) {
+				onEnd.run();
+			}
 		}
 		
-		public List<ByteBuffer> getByteBuffers() {
-			return buffers.stream()
-					.map(bf -> {
-						((Buffer)bf).flip();
-						return bf;
-					})
-					.collect(Collectors.toList());
+		private void dispatch(HsmsSsMessage msg) {
+			
+			mailbox.add(msg);
+			
+			if ( dispatching.compareAndSet(false, true) ) {
+				
+				try {
+					executorService().execute(this::drainMailbox);
+				}
+				catch ( RejectedExecutionException e ) {
+					end();
+				}
+			}
 		}
+		
+		private void drainMailbox() {
+			
+			for ( ;; ) {
+				
+				for ( ;; ) {
+					
+					HsmsSsMessage msg = mailbox.poll();
+					
+					if ( msg == null ) {
+						break;
+					}
+					
+					if ( ! stopped ) {
+						deliver(msg);
+					}
+				}
+				
+				dispatching.set(false);
+				
+				if ( mailbox.isEmpty() || ! dispatching.compareAndSet(false, true) ) {
+					return;
+				}
+			}
+		}
+	}
+	
+	private void deliver(HsmsSsMessage msg) {
+		
+		if ( HsmsSsMessageType.get(msg) == HsmsSsMessageType.REJECT_REQ ) {
+			metrics().receivedReject();
+		}
+		
+		listeners.forEach(lstnr -> {
+			lstnr.receive(msg);
+		});
+		
+		notifyReceiveMessagePassThrough(msg);
+		notifyLog("Received HsmsSs-Message", msg);
 	}
 	
 	private final Collection<HsmsSsMessageReceiveListener> listeners = new CopyOnWriteArrayList<>();
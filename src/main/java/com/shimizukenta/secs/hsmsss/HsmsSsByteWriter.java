@@ -0,0 +1,562 @@
+package com.shimizukenta.secs.hsmsss;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+import com.shimizukenta.secs.AbstractSecsInnerEngine;
+import com.shimizukenta.secs.secs2.Secs2BuildException;
+import com.shimizukenta.secs.secs2.Secs2ByteBuffersBuilder;
+
+/**
+ * This class is single writer of HSMS-SS frames to one channel.
+ * 
+ * <p>
+ * Senders enqueue frames by {@link #offer(HsmsSsMessage, long, boolean, LongConsumer)}, writer thread drains queue.<br />
+ * If on-demand, queue is drained on executor-service while frames are offered, no writer thread.<br />
+ * Small frames are encoded on sender thread into one buffer with length and header, not copied after.<br />
+ * Waiting frames are written by one gathering write, a single buffer is written without hand-off to channel thread.<br />
+ * Large frames are streamed by writer thread, alone.<br />
+ * </p>
+ * <p>
+ * Frames are not interleaved.<br />
+ * Waiting control messages (e.g. LINKTEST, SELECT, SEPARATE) are written before waiting data messages,
+ * each kind is FIFO.<br />
+ * </p>
+ * <p>
+ * Writer ends when channel is closed or write failed, waiting frames are completed exceptionally.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class HsmsSsByteWriter extends AbstractSecsInnerEngine implements Callable<Void> {
+	
+	private static final int MAX_BATCH_FRAMES = 64;
+	private static final long MAX_BATCH_BYTES = 256L * 1024L;
+	private static final long IDLE_CHECK_MILLIS = 100L;
+	
+	private final AsynchronousSocketChannel channel;
+	private final int streamBufferSize;
+	
+	private final BlockingQueue<Frame> inbox = new LinkedBlockingQueue<>();
+	private final ArrayDeque<Frame> controls = new ArrayDeque<>();
+	private final ArrayDeque<Frame> datas = new ArrayDeque<>();
+	
+	private final boolean onDemand;
+	private final AtomicBoolean draining = new AtomicBoolean(false);
+	
+	private volatile Throwable closedCause;
+	
+	public HsmsSsByteWriter(AbstractHsmsSsCommunicator parent, AsynchronousSocketChannel channel, int streamBufferSize) {
+		this(parent, channel, streamBufferSize, false);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param parent
+	 * @param channel
+	 * @param streamBufferSize
+	 * @param onDemand if {@code true}, no writer thread, offered frames are drained on executor-service and {@link #call()} must not be called
+	 */
+	public HsmsSsByteWriter(AbstractHsmsSsCommunicator parent, AsynchronousSocketChannel channel, int streamBufferSize, boolean onDemand) {
+		super(parent);
+		this.channel = channel;
+		this.streamBufferSize = streamBufferSize;
+		this.onDemand = onDemand;
+		this.closedCause = null;
+	}
+	
+	/**
+	 * Enqueue frame.
+	 * 
+	 * <p>
+	 * If not streaming, frame is encoded on this (sender) thread.<br />
+	 * </p>
+	 * 
+	 * @param msg
+	 * @param len value of frame length bytes (header and body)
+	 * @param streaming {@code true} if body is streamed by writer thread
+	 * @param started called on writer thread just before frame is written, argument is nanoTime
+	 * @return completion, value is nanoTime of write started
+	 * @throws Secs2BuildException
+	 * @throws HsmsSsDetectTerminateException if writer already closed
+	 */
+	public CompletableFuture<Long> offer(HsmsSsMessage msg, long len, boolean streaming, LongConsumer started)
+			throws Secs2BuildException, HsmsSsDetectTerminateException {
+		
+		if ( this.closedCause != null ) {
+			throw new HsmsSsDetectTerminateException(this.closedCause);
+		}
+		
+		final Frame f;
+		
+		if ( streaming ) {
+			
+			f = new Frame(msg, len, null, started);
+			
+		} else {
+			
+			ByteBuffer head = ByteBuffer.allocate(14);
+			putLengthAndHeader(head, msg, len);
+			
+			/* sized to frame, one buffer */
+			Secs2ByteBuffersBuilder bb = Secs2ByteBuffersBuilder.build((int)(len + 4L), head.array(), msg.secs2());
+			
+			List<ByteBuffer> bbs = bb.getByteBuffers();
+			
+			f = new Frame(msg, len, bbs.toArray(new ByteBuffer[bbs.size()]), started);
+		}
+		
+		inbox.add(f);
+		
+		if ( this.onDemand ) {
+			schedule();
+		}
+		
+		/* closed while adding */
+		final Throwable t = this.closedCause;
+		if ( t != null ) {
+			failQueued(t);
+		}
+		
+		return f.completion;
+	}
+	
+	private static void putLengthAndHeader(ByteBuffer buffer, HsmsSsMessage msg, long len) {
+		buffer.put((byte)(len >> 24));
+		buffer.put((byte)(len >> 16));
+		buffer.put((byte)(len >>  8));
+		buffer.put((byte)(len      ));
+		buffer.put(msg.header10Bytes());
+	}
+	
+	/**
+	 * Returns {@code true} if writer is ended.
+	 * 
+	 * @return {@code true} if writer is ended
+	 */
+	public boolean isClosed() {
+		return this.closedCause != null;
+	}
+	
+	/**
+	 * until channel closed or write failed
+	 */
+	@Override
+	public Void call() throws Exception {
+		
+		Throwable cause = null;
+		final List<Frame> batch = new ArrayList<>(MAX_BATCH_FRAMES);
+		
+		try {
+			
+			for ( ;; ) {
+				
+				Frame first = inbox.poll(IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+				
+				if ( first == null ) {
+					
+					if ( ! channel.isOpen() ) {
+						return null;
+					}
+					
+					continue;
+				}
+				
+				sort(first);
+				drainQueued(batch);
+			}
+		}
+		catch ( InterruptedException e ) {
+			cause = e;
+		}
+		catch ( ExecutionException e ) {
+			cause = e.getCause() == null ? e : e.getCause();
+		}
+		catch ( Throwable t ) {
+			cause = t;
+		}
+		finally {
+			close(cause, batch);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Write queued frames until inbox is empty.
+	 * 
+	 * @param batch work list, frames in writing are failed by caller if thrown
+	 */
+	private void drainQueued(List<Frame> batch)
+			throws Secs2BuildException, ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+		
+		drainInbox();
+		
+		for ( ;; ) {
+			
+			final ArrayDeque<Frame> q = controls.isEmpty() ? datas : controls;
+			final Frame head = q.peekFirst();
+			
+			if ( head == null ) {
+				break;
+			}
+			
+			if ( head.streaming() ) {
+				
+				q.pollFirst();
+				
+				if ( ! head.completion.isCancelled() ) {
+					batch.add(head);
+					writeStreaming(head);
+					batch.clear();
+				}
+				
+			} else {
+				
+				long bytes = 0L;
+				
+				while ( batch.size() < MAX_BATCH_FRAMES ) {
+					
+					final ArrayDeque<Frame> qq = controls.isEmpty() ? datas : controls;
+					final Frame f = qq.peekFirst();
+					
+					if ( f == null || f.streaming() ) {
+						break;
+					}
+					
+					if ( ! batch.isEmpty() && (bytes + f.bytes()) > MAX_BATCH_BYTES ) {
+						break;
+					}
+					
+					qq.pollFirst();
+					
+					if ( ! f.completion.isCancelled() ) {
+						batch.add(f);
+						bytes += f.bytes();
+					}
+				}
+				
+				if ( ! batch.isEmpty() ) {
+					writeBatch(batch);
+					batch.clear();
+				}
+			}
+			
+			drainInbox();
+		}
+	}
+	
+	/**
+	 * Drain on executor-service, while frames are offered.
+	 */
+	private void schedule() {
+		
+		if ( draining.compareAndSet(false, true) ) {
+			
+			try {
+				executorService().execute(this::drainOnDemand);
+			}
+			catch ( RejectedExecutionException e ) {
+				close(e, Collections.emptyList());
+			}
+		}
+	}
+	
+	private void drainOnDemand() {
+		
+		Throwable cause = null;
+		final List<Frame> batch = new ArrayList<>(MAX_BATCH_FRAMES);
+		
+		try {
+			
+			for ( ;; ) {
+				
+				drainQueued(batch);
+				
+				draining.set(false);
+				
+				if ( inbox.isEmpty() || ! draining.compareAndSet(false, true) ) {
+					return;
+				}
+			}
+		}
+		catch ( ExecutionException e ) {
+			cause = e.getCause() == null ? e : e.getCause();
+		}
+		catch ( Throwable t ) {
+			cause = t;
+		}
+		
+		close(cause, batch);
+	}
+	
+	private void close(Throwable cause, List<Frame> batch) {
+		
+		final Throwable t = cause == null ? new HsmsSsDetectTerminateException("channel closed") : cause;
+		
+		this.closedCause = t;
+		
+		for ( Frame f : batch ) {
+			f.fail(t);
+		}
+		
+		for ( Frame f : controls ) {
+			f.fail(t);
+		}
+		
+		for ( Frame f : datas ) {
+			f.fail(t);
+		}
+		
+		controls.clear();
+		datas.clear();
+		
+		failQueued(t);
+	}
+	
+	private void failQueued(Throwable t) {
+		for ( ;; ) {
+			Frame f = inbox.poll();
+			if ( f == null ) {
+				return;
+			}
+			f.fail(t);
+		}
+	}
+	
+	private void sort(Frame f) {
+		if ( f.control ) {
+			controls.addLast(f);
+		} else {
+			datas.addLast(f);
+		}
+	}
+	
+	private void drainInbox() {
+		for ( ;; ) {
+			Frame f = inbox.poll();
+			if ( f == null ) {
+				return;
+			}
+			sort(f);
+		}
+	}
+	
+	private void writeBatch(List<Frame> batch)
+			throws ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+		
+		final long startNanos = System.nanoTime();
+		
+		int n = 0;
+		
+		for ( Frame f : batch ) {
+			f.started(startNanos);
+			n += f.buffers.length;
+		}
+		
+		final ByteBuffer[] srcs = new ByteBuffer[n];
+		
+		{
+			int i = 0;
+			
+			for ( Frame f : batch ) {
+				for ( ByteBuffer bf : f.buffers ) {
+					srcs[i] = bf;
+					++i;
+				}
+			}
+		}
+		
+		int offset = 0;
+		
+		while ( offset < n ) {
+			
+			if ( ! srcs[offset].hasRemaining() ) {
+				++offset;
+				continue;
+			}
+			
+			long w = write(srcs, offset).longValue();
+			
+			if ( w <= 0L ) {
+				throw new HsmsSsDetectTerminateException();
+			}
+		}
+		
+		final Long v = Long.valueOf(startNanos);
+		
+		for ( Frame f : batch ) {
+			f.completion.complete(v);
+		}
+	}
+	
+	private Long write(ByteBuffer[] srcs, int offset)
+			throws ExecutionException, InterruptedException {
+		
+		if ( offset == (srcs.length - 1) ) {
+			
+			/* completed on this thread if written at once */
+			return Long.valueOf(channel.write(srcs[offset]).get().longValue());
+		}
+		
+		final CompletableFuture<Long> f = new CompletableFuture<>();
+		
+		channel.write(srcs, offset, srcs.length - offset, 0L, TimeUnit.MILLISECONDS, null
+				, new CompletionHandler<Long, Void>() {
+			
+			@Override
+			public void completed(Long result, Void attachment) {
+				f.complete(result);
+			}
+			
+			@Override
+			public void failed(Throwable t, Void attachment) {
+				f.completeExceptionally(t);
+			}
+		});
+		
+		return f.get();
+	}
+	
+	private void writeStreaming(Frame frame)
+			throws Secs2BuildException, ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+		
+		final long startNanos = System.nanoTime();
+		
+		frame.started(startNanos);
+		
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(14);
+			putLengthAndHeader(buffer, frame.msg, frame.len);
+			((Buffer)buffer).flip();
+			
+			final PipelinedWriter writer = new PipelinedWriter(channel);
+			
+			try {
+				writer.write(buffer);
+				
+				long w = Secs2ByteBuffersBuilder.stream(streamBufferSize, 2, frame.msg.secs2(), writer::write);
+				writer.drain();
+				
+				if ( w != (frame.len - 10L) ) {
+					throw new Secs2BuildException("encoded length mismatch: " + w);
+				}
+			}
+			finally {
+				writer.cancel();
+			}
+		}
+		
+		frame.completion.complete(Long.valueOf(startNanos));
+	}
+	
+	private static class Frame {
+		
+		private final HsmsSsMessage msg;
+		private final long len;
+		private final boolean control;
+		private final ByteBuffer[] buffers;
+		private final LongConsumer startedListener;
+		private final CompletableFuture<Long> completion;
+		
+		private Frame(HsmsSsMessage msg, long len, ByteBuffer[] buffers, LongConsumer started) {
+			this.msg = msg;
+			this.len = len;
+			this.control = HsmsSsMessageType.get(msg) != HsmsSsMessageType.DATA;
+			this.buffers = buffers;
+			this.startedListener = started;
+			this.completion = new CompletableFuture<>();
+		}
+		
+		private boolean streaming() {
+			return this.buffers == null;
+		}
+		
+		/* length and frame */
+		private long bytes() {
+			return this.len + 4L;
+		}
+		
+		private void started(long nanos) {
+			if ( this.startedListener != null ) {
+				this.startedListener.accept(nanos);
+			}
+		}
+		
+		private void fail(Throwable t) {
+			this.completion.completeExceptionally(t);
+		}
+	}
+	
+	/**
+	 * Writer of streaming buffers, writes buffer while next buffer is encoded.
+	 *
+	 */
+	private static class PipelinedWriter {
+		
+		private final AsynchronousSocketChannel channel;
+		private ByteBuffer pendingBuffer;
+		private Future<Integer> pendingFuture;
+		
+		private PipelinedWriter(AsynchronousSocketChannel channel) {
+			this.channel = channel;
+			this.pendingBuffer = null;
+			this.pendingFuture = null;
+		}
+		
+		private void write(ByteBuffer buffer)
+				throws ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+			
+			drain();
+			
+			this.pendingBuffer = buffer;
+			this.pendingFuture = channel.write(buffer);
+		}
+		
+		private void drain()
+				throws ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+			
+			while ( this.pendingFuture != null ) {
+				
+				int w = this.pendingFuture.get().intValue();
+				
+				if ( w <= 0 ) {
+					throw new HsmsSsDetectTerminateException();
+				}
+				
+				if ( this.pendingBuffer.hasRemaining() ) {
+					this.pendingFuture = channel.write(this.pendingBuffer);
+				} else {
+					this.pendingFuture = null;
+					this.pendingBuffer = null;
+				}
+			}
+		}
+		
+		private void cancel() {
+			if ( this.pendingFuture != null ) {
+				this.pendingFuture.cancel(true);
+				this.pendingFuture = null;
+			}
+		}
+	}
+	
+}
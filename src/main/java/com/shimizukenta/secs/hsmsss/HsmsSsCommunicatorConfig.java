@@ -4,11 +4,13 @@ import java.net.SocketAddress;
 import java.util.Objects;
 
 import com.shimizukenta.secs.AbstractSecsCommunicatorConfig;
+import com.shimizukenta.secs.NumberProperty;
 import com.shimizukenta.secs.Property;
 import com.shimizukenta.secs.ReadOnlyNumberProperty;
 import com.shimizukenta.secs.ReadOnlyProperty;
 import com.shimizukenta.secs.ReadOnlySocketAddressProperty;
 import com.shimizukenta.secs.ReadOnlyTimeProperty;
+import com.shimizukenta.secs.SecsSocketOptions;
 import com.shimizukenta.secs.SocketAddressProperty;
 import com.shimizukenta.secs.TimeProperty;
 
@@ -19,6 +21,9 @@ import com.shimizukenta.secs.TimeProperty;
  * To set Active or Passive protocol, {@link #protocol(HsmsSsProtocol)}<br />
  * To set Connect or Bind SocketAddress, {@link #socketAddress(SocketAddress)}<br />
  * To set Session-ID, {@link #sessionId(int)}<br />
+ * To set socket transport, {@link #transport(HsmsSsTransport)}<br />
+ * To set socket options (e.g. TCP_NODELAY), {@link #socketOptions()}<br />
+ * To limit received message length, {@link #maxMessageLength(long)}<br />
  * </p>
  * 
  * @author kenta-shimizu
@@ -32,6 +37,9 @@ public class HsmsSsCommunicatorConfig extends AbstractSecsCommunicatorConfig {
 	private final SocketAddressProperty sockAddr = SocketAddressProperty.newInstance(null);
 	private final TimeProperty linktest = TimeProperty.newInstance(-1.0F);
 	private final TimeProperty rebindIfPassive = TimeProperty.newInstance(10.0F);
+	private final Property<HsmsSsTransport> transport = Property.newInstance(HsmsSsTransport.ASYNCHRONOUS_CHANNEL);
+	private final NumberProperty maxMessageLength = NumberProperty.newInstance(-1L);
+	private final SecsSocketOptions socketOptions = new SecsSocketOptions();
 	
 	public HsmsSsCommunicatorConfig() {
 		super();
@@ -149,4 +157,73 @@ public class HsmsSsCommunicatorConfig extends AbstractSecsCommunicatorConfig {
 		return rebindIfPassive;
 	}
 	
+	/**
+	 * Socket transport setter, default is ASYNCHRONOUS_CHANNEL.
+	 * 
+	 * <p>
+	 * Set before open.<br />
+	 * </p>
+	 * 
+	 * @param transport
+	 */
+	public void transport(HsmsSsTransport transport) {
+		this.transport.set(Objects.requireNonNull(transport));
+	}
+	
+	/**
+	 * Socket transport getter
+	 * 
+	 * @return transport
+	 */
+	public ReadOnlyProperty<HsmsSsTransport> transport() {
+		return transport;
+	}
+	
+	/**
+	 * Set not limit received message length.
+	 * 
+	 */
+	public void notLimitMessageLength() {
+		this.maxMessageLength.set(-1L);
+	}
+	
+	/**
+	 * Received message length limit setter.
+	 * 
+	 * <p>
+	 * Message length is value of Message-Length-bytes (header and body).<br />
+	 * If received message is longer, connection is terminated.<br />
+	 * </p>
+	 * 
+	 * @param v max message length. value is {@code >= 10}
+	 */
+	public void maxMessageLength(long v) {
+		if ( v < 10L ) {
+			throw new IllegalArgumentException("maxMessageLength value is >= 10");
+		}
+		this.maxMessageLength.set(v);
+	}
+	
+	/**
+	 * Received message length limit getter.
+	 * 
+	 * @return max message length. Not limit if {@code <0}
+	 */
+	public ReadOnlyNumberProperty maxMessageLength() {
+		return maxMessageLength;
+	}
+	
+	/**
+	 * SecsSocketOptions getter.
+	 * 
+	 * <p>
+	 * Set before open.<br />
+	 * </p>
+	 * 
+	 * @return SecsSocketOptions
+	 */
+	public SecsSocketOptions socketOptions() {
+		return socketOptions;
+	}
+	
 }
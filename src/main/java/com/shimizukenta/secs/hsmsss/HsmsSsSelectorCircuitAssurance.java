@@ -0,0 +1,170 @@
+package com.shimizukenta.secs.hsmsss;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import com.shimizukenta.secs.AbstractSecsInnerEngine;
+
+/**
+ * This class is Linktest cycle for {@link HsmsSsTransport#SELECTOR}, driven by loop timer.
+ * 
+ * <p>
+ * Same cycle as {@link HsmsSsCircuitAssurance}, no thread waits for cycle.<br />
+ * Received message only updates time, timer checks it and re-arms for rest of cycle.<br />
+ * Linktest waits reply, sent on executor-service not on loop.<br />
+ * {@code onFailed} is called once if linktest failed.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+class HsmsSsSelectorCircuitAssurance extends AbstractSecsInnerEngine {
+	
+	private final AbstractHsmsSsCommunicator parent;
+	private final HsmsSsSelectorLoopGroup.Loop loop;
+	private final Runnable onFailed;
+	
+	private volatile long lastReset;
+	private volatile boolean started;
+	private volatile boolean stopped;
+	
+	/* guarded by this */
+	private boolean armed;
+	private HsmsSsSelectorLoopGroup.Timer timer;
+	
+	HsmsSsSelectorCircuitAssurance(AbstractHsmsSsCommunicator parent, HsmsSsSelectorLoopGroup.Loop loop, Runnable onFailed) {
+		super(parent);
+		this.parent = parent;
+		this.loop = loop;
+		this.onFailed = onFailed;
+		this.lastReset = System.nanoTime();
+		this.started = false;
+		this.stopped = false;
+		this.armed = false;
+		this.timer = null;
+	}
+	
+	/**
+	 * Start cycle, after SELECTED.
+	 *
+	 */
+	void start() {
+		this.started = true;
+		reset();
+	}
+	
+	/**
+	 * Restart cycle, called when message received.
+	 *
+	 */
+	void reset() {
+		
+		this.lastReset = System.nanoTime();
+		
+		if ( this.started ) {
+			arm(cycleMillis());
+		}
+	}
+	
+	/**
+	 * Stop cycle, {@code onFailed} is not called after this.
+	 *
+	 */
+	void stop() {
+		
+		this.stopped = true;
+		
+		synchronized ( this ) {
+			if ( this.timer != null ) {
+				this.timer.cancel();
+				this.timer = null;
+			}
+		}
+	}
+	
+	private long cycleMillis() {
+		return parent.hsmsSsConfig().linktest().getMilliSeconds();
+	}
+	
+	/**
+	 * Schedule timer if not armed.
+	 * 
+	 * <p>
+	 * If cycle is {@code <= 0}, not linktest until next reset.<br />
+	 * </p>
+	 * 
+	 * @param delayMillis
+	 */
+	private synchronized void arm(long delayMillis) {
+		
+		if ( this.stopped || this.armed || delayMillis <= 0L ) {
+			return;
+		}
+		
+		this.armed = true;
+		this.timer = loop.schedule(this::expired, delayMillis);
+	}
+	
+	/* on loop thread */
+	private void expired() {
+		
+		final long cycle = cycleMillis();
+		final long rest = cycle - ((System.nanoTime() - this.lastReset) / 1000000L);
+		
+		synchronized ( this ) {
+			
+			this.timer = null;
+			
+			if ( this.stopped ) {
+				return;
+			}
+			
+			if ( cycle <= 0L ) {
+				this.armed = false;
+				return;
+			}
+			
+			if ( rest > 0L ) {
+				this.timer = loop.schedule(this::expired, rest);
+				return;
+			}
+			
+			/* keep armed while linktest, reset does not schedule */
+		}
+		
+		try {
+			executorService().execute(this::linktest);
+		}
+		catch ( RejectedExecutionException e ) {
+			
+			/* closed */
+			stop();
+		}
+	}
+	
+	private void linktest() {
+		
+		try {
+			
+			if ( parent.linktest() ) {
+				
+				this.lastReset = System.nanoTime();
+				
+				synchronized ( this ) {
+					this.armed = false;
+				}
+				
+				arm(cycleMillis());
+				
+			} else {
+				
+				if ( ! this.stopped ) {
+					stop();
+					onFailed.run();
+				}
+			}
+		}
+		catch ( InterruptedException ignore ) {
+		}
+	}
+	
+}
@@ -0,0 +1,537 @@
+package com.shimizukenta.secs.hsmsss;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class is group of Selector event-loop threads, shared by all HSMS-SS-Communicators in JVM.
+ * 
+ * <p>
+ * To get shared instance, {@link #shared()}<br />
+ * Count of loops is {@code min(4, max(1, processors / 2))},
+ * system property {@code com.shimizukenta.secs.hsmsss.selectorLoops} overrides.<br />
+ * </p>
+ * <p>
+ * Each loop thread owns one Selector, channel is served by one loop.<br />
+ * Tasks and timers run on loop thread, must not block.<br />
+ * </p>
+ * <p>
+ * If Selector failed, loop keeps running and error is passed to error-listeners.<br />
+ * Repeated select failure backs off, and Selector is rebuilt with registered channels.<br />
+ * Closed Selector is rebuilt at once.<br />
+ * Throwable of handler, task or timer is passed to error-listeners, loop does not stop.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class HsmsSsSelectorLoopGroup {
+	
+	private static final String LOOPS_PROPERTY = "com.shimizukenta.secs.hsmsss.selectorLoops";
+	
+	private static HsmsSsSelectorLoopGroup shared = null;
+	
+	private final Loop[] loops;
+	private final AtomicInteger next = new AtomicInteger();
+	private final Collection<Consumer<? super Throwable>> errorListeners = new CopyOnWriteArrayList<>();
+	
+	private HsmsSsSelectorLoopGroup(int size) throws IOException {
+		
+		this.loops = new Loop[size];
+		
+		for ( int i = 0; i < size; ++i ) {
+			this.loops[i] = new Loop(Selector.open(), i, this.errorListeners);
+		}
+		
+		for ( Loop loop : this.loops ) {
+			loop.thread.start();
+		}
+	}
+	
+	/**
+	 * Returns shared instance, loop threads are started on first call.
+	 * 
+	 * @return shared instance
+	 * @throws IOException if Selector open failed
+	 */
+	public static synchronized HsmsSsSelectorLoopGroup shared() throws IOException {
+		
+		if ( shared == null ) {
+			shared = new HsmsSsSelectorLoopGroup(defaultSize());
+		}
+		
+		return shared;
+	}
+	
+	private static int defaultSize() {
+		
+		String v = System.getProperty(LOOPS_PROPERTY);
+		
+		if ( v != null ) {
+			try {
+				return Math.max(1, Integer.parseInt(v.trim()));
+			}
+			catch ( NumberFormatException ignore ) {
+			}
+		}
+		
+		return Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+	}
+	
+	/**
+	 * Returns count of loop threads.
+	 * 
+	 * @return count of loop threads
+	 */
+	public int size() {
+		return this.loops.length;
+	}
+	
+	/**
+	 * Add listener of loop error, e.g. Selector#select failed.
+	 * 
+	 * @param l
+	 * @return {@code true} if add success
+	 */
+	boolean addErrorListener(Consumer<? super Throwable> l) {
+		return this.errorListeners.add(l);
+	}
+	
+	/**
+	 * Remove listener of loop error.
+	 * 
+	 * @param l
+	 * @return {@code true} if remove success
+	 */
+	boolean removeErrorListener(Consumer<? super Throwable> l) {
+		return this.errorListeners.remove(l);
+	}
+	
+	/**
+	 * Returns next loop, round robin.
+	 * 
+	 * @return loop
+	 */
+	Loop next() {
+		int i = next.getAndIncrement() & Integer.MAX_VALUE;
+		return this.loops[i % this.loops.length];
+	}
+	
+	/**
+	 * Handler of ready channel, called on loop thread.
+	 *
+	 */
+	interface ReadyHandler {
+		
+		/**
+		 * Called on loop thread when channel is ready.
+		 * 
+		 * @param key
+		 */
+		void ready(SelectionKey key);
+	}
+	
+	/**
+	 * Timer of loop, created by {@link Loop#schedule(Runnable, long)}.
+	 *
+	 */
+	static final class Timer implements Comparable<Timer> {
+		
+		private static final AtomicLong sequence = new AtomicLong();
+		
+		private static final int PENDING = 0;
+		private static final int CANCELLED = 1;
+		private static final int DONE = 2;
+		
+		private final Loop loop;
+		private final Runnable task;
+		private final long deadlineNanos;
+		private final long seq;
+		private final AtomicInteger state = new AtomicInteger(PENDING);
+		
+		private Timer(Loop loop, Runnable task, long deadlineNanos) {
+			this.loop = loop;
+			this.task = task;
+			this.deadlineNanos = deadlineNanos;
+			this.seq = sequence.getAndIncrement();
+		}
+		
+		/**
+		 * Cancel timer, task is not run if not yet.
+		 * 
+		 * <p>
+		 * Cancelled timer is removed from loop when it expires, or purged if many.<br />
+		 * </p>
+		 *
+		 */
+		void cancel() {
+			if ( this.state.compareAndSet(PENDING, CANCELLED) ) {
+				this.loop.cancelledTimers.incrementAndGet();
+			}
+		}
+		
+		private boolean cancelled() {
+			return this.state.get() == CANCELLED;
+		}
+		
+		@Override
+		public int compareTo(Timer o) {
+			int c = Long.compare(this.deadlineNanos - o.deadlineNanos, 0L);
+			return c != 0 ? c : Long.compare(this.seq, o.seq);
+		}
+	}
+	
+	/**
+	 * Event-loop thread with one Selector.
+	 *
+	 */
+	static final class Loop implements Runnable {
+		
+		private static final int PURGE_TIMERS_MIN = 64;
+		private static final int REBUILD_FAILURES = 4;
+		private static final long MAX_BACK_OFF_MILLIS = 1000L;
+		private static final int PRUNE_CHANNELS_MIN = 64;
+		
+		/* replaced if rebuilt */
+		private volatile Selector selector;
+		private final Thread thread;
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+		private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+		private final AtomicInteger cancelledTimers = new AtomicInteger();
+		private final Collection<Consumer<? super Throwable>> errorListeners;
+		
+		/* registered channels to rebuild, loop thread only */
+		private final Map<SelectableChannel, ReadyHandler> channels = new IdentityHashMap<>();
+		private int pruneChannelsSize;
+		
+		private Loop(Selector selector, int index, Collection<Consumer<? super Throwable>> errorListeners) {
+			this.selector = selector;
+			this.errorListeners = errorListeners;
+			this.thread = new Thread(this, "hsmsss-selector-" + index);
+			this.thread.setDaemon(true);
+			this.pruneChannelsSize = PRUNE_CHANNELS_MIN;
+		}
+		
+		/**
+		 * Returns {@code true} if current thread is this loop thread.
+		 * 
+		 * @return {@code true} if current thread is this loop thread
+		 */
+		boolean inLoop() {
+			return Thread.currentThread() == this.thread;
+		}
+		
+		/**
+		 * Run task on loop thread.
+		 * 
+		 * @param task
+		 */
+		void execute(Runnable task) {
+			
+			tasks.add(task);
+			
+			if ( ! inLoop() ) {
+				selector.wakeup();
+			}
+		}
+		
+		/**
+		 * Run task on loop thread after delay.
+		 * 
+		 * @param task
+		 * @param delayMillis
+		 * @return timer to cancel
+		 */
+		Timer schedule(Runnable task, long delayMillis) {
+			
+			final Timer t = new Timer(this, task, System.nanoTime() + (delayMillis * 1000000L));
+			
+			if ( inLoop() ) {
+				timers.add(t);
+			} else {
+				execute(() -> {
+					timers.add(t);
+				});
+			}
+			
+			return t;
+		}
+		
+		/**
+		 * Register channel or update interest, must be called on loop thread.
+		 * 
+		 * @param channel
+		 * @param key present key, {@code null} if not registered
+		 * @param ops
+		 * @param handler
+		 * @return key
+		 * @throws ClosedChannelException
+		 */
+		SelectionKey interest(SelectableChannel channel, SelectionKey key, int ops, ReadyHandler handler)
+				throws ClosedChannelException {
+			
+			if ( key != null && key.isValid() ) {
+				key.interestOps(ops);
+				return key;
+			}
+			
+			final SelectionKey k = channel.register(selector, ops, handler);
+			
+			if ( this.channels.put(channel, handler) == null ) {
+				pruneChannels();
+			}
+			
+			return k;
+		}
+		
+		/* remove closed channels, if count doubled since last prune */
+		private void pruneChannels() {
+			
+			if ( this.channels.size() < this.pruneChannelsSize ) {
+				return;
+			}
+			
+			this.channels.keySet().removeIf(ch -> ! ch.isOpen());
+			this.pruneChannelsSize = Math.max(PRUNE_CHANNELS_MIN, this.channels.size() * 2);
+		}
+		
+		@Override
+		public void run() {
+			
+			int failures = 0;
+			
+			for ( ;; ) {
+				
+				try {
+					
+					long waitMillis = runTimers();
+					final Selector selector = this.selector;
+					
+					if ( ! tasks.isEmpty() ) {
+						selector.selectNow();
+					} else if ( waitMillis < 0L ) {
+						selector.select();
+					} else {
+						selector.select(Math.max(1L, waitMillis));
+					}
+					
+					final Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+					
+					while ( iter.hasNext() ) {
+						
+						SelectionKey key = iter.next();
+						iter.remove();
+						
+						try {
+							if ( key.isValid() ) {
+								((ReadyHandler)key.attachment()).ready(key);
+							}
+						}
+						catch ( Throwable t ) {
+							
+							/* handler must not break loop */
+							notifyError(t);
+						}
+					}
+					
+					for ( ;; ) {
+						
+						Runnable r = tasks.poll();
+						
+						if ( r == null ) {
+							break;
+						}
+						
+						try {
+							r.run();
+						}
+						catch ( Throwable t ) {
+							
+							/* task must not break loop */
+							notifyError(t);
+						}
+					}
+					
+					failures = 0;
+				}
+				catch ( IOException e ) {
+					
+					/* shared loop must not stop */
+					notifyError(e);
+					
+					failures += 1;
+					
+					backOff(failures);
+					
+					if ( (failures % REBUILD_FAILURES) == 0 ) {
+						rebuild();
+					}
+				}
+				catch ( ClosedSelectorException e ) {
+					
+					notifyError(e);
+					rebuild();
+				}
+			}
+		}
+		
+		/* sleep 2, 4, 8, ... milliseconds, loop is failing */
+		private static void backOff(int failures) {
+			
+			long ms = Math.min(MAX_BACK_OFF_MILLIS, 1L << Math.min(failures, 10));
+			
+			try {
+				Thread.sleep(ms);
+			}
+			catch ( InterruptedException ignore ) {
+			}
+		}
+		
+		/**
+		 * Replace Selector, open channels are registered to new Selector.
+		 * 
+		 * <p>
+		 * Channels are registered with all valid operations,
+		 * handler is called once and sets interest again.<br />
+		 * Owner's old key is invalid, {@link #interest(SelectableChannel, SelectionKey, int, ReadyHandler)} returns new key.<br />
+		 * </p>
+		 */
+		private void rebuild() {
+			
+			final Selector old = this.selector;
+			final Selector s;
+			
+			try {
+				s = Selector.open();
+			}
+			catch ( IOException e ) {
+				
+				/* retry on next failure */
+				notifyError(e);
+				return;
+			}
+			
+			for ( Map.Entry<SelectableChannel, ReadyHandler> e : this.channels.entrySet() ) {
+				
+				SelectableChannel ch = e.getKey();
+				
+				if ( ch.isOpen() ) {
+					
+					try {
+						ch.register(s, ch.validOps(), e.getValue());
+					}
+					catch ( ClosedChannelException | CancelledKeyException ignore ) {
+						/* closed while rebuilding */
+					}
+				}
+			}
+			
+			this.channels.keySet().removeIf(ch -> ! ch.isOpen());
+			this.selector = s;
+			
+			try {
+				old.close();
+			}
+			catch ( IOException e ) {
+				notifyError(e);
+			}
+		}
+		
+		private void notifyError(Throwable t) {
+			for ( Consumer<? super Throwable> l : errorListeners ) {
+				try {
+					l.accept(t);
+				}
+				catch ( Throwable ignore ) {
+				}
+			}
+		}
+		
+		/**
+		 * Run expired timers.
+		 * 
+		 * @return milliseconds to next timer, {@code -1} if no timer
+		 */
+		private long runTimers() {
+			
+			purgeTimers();
+			
+			for ( ;; ) {
+				
+				Timer t = timers.peek();
+				
+				if ( t == null ) {
+					return -1L;
+				}
+				
+				if ( t.cancelled() ) {
+					timers.poll();
+					cancelledTimers.decrementAndGet();
+					continue;
+				}
+				
+				long rest = t.deadlineNanos - System.nanoTime();
+				
+				if ( rest > 0L ) {
+					return (rest + 999999L) / 1000000L;
+				}
+				
+				timers.poll();
+				
+				if ( ! t.state.compareAndSet(Timer.PENDING, Timer.DONE) ) {
+					
+					/* cancelled just now */
+					cancelledTimers.decrementAndGet();
+					continue;
+				}
+				
+				try {
+					t.task.run();
+				}
+				catch ( Throwable e ) {
+					
+					/* timer must not break loop */
+					notifyError(e);
+				}
+			}
+		}
+		
+		/* remove cancelled timers, if more than half of queue */
+		private void purgeTimers() {
+			
+			final int n = cancelledTimers.get();
+			
+			if ( n > PURGE_TIMERS_MIN && n > (timers.size() / 2) ) {
+				
+				int removed = 0;
+				
+				for ( Iterator<Timer> i = timers.iterator(); i.hasNext(); ) {
+					
+					if ( i.next().cancelled() ) {
+						i.remove();
+						removed += 1;
+					}
+				}
+				
+				cancelledTimers.addAndGet(-removed);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,337 @@
+package com.shimizukenta.secs.hsmsss;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.channels.AcceptPendingException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.AsynchronousChannelProvider;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * This class is AsynchronousServerSocketChannel served by {@link HsmsSsSelectorLoopGroup}.
+ * 
+ * <p>
+ * Accepted channels are {@link HsmsSsSelectorSocketChannel}, assigned to loops by round robin.<br />
+ * Completion handlers are called on loop thread, must not block.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class HsmsSsSelectorServerSocketChannel extends AsynchronousServerSocketChannel {
+	
+	private final HsmsSsSelectorLoopGroup group;
+	private final HsmsSsSelectorLoopGroup.Loop loop;
+	private final ServerSocketChannel channel;
+	private final HsmsSsSelectorLoopGroup.ReadyHandler readyHandler;
+	
+	/* loop thread only */
+	private SelectionKey key;
+	
+	/* guarded by this */
+	private Accept accepting;
+	
+	protected HsmsSsSelectorServerSocketChannel(HsmsSsSelectorLoopGroup group, ServerSocketChannel channel) throws IOException {
+		super(AsynchronousChannelProvider.provider());
+		
+		this.group = group;
+		this.loop = group.next();
+		this.channel = channel;
+		this.readyHandler = this::ready;
+		this.key = null;
+		this.accepting = null;
+		
+		channel.configureBlocking(false);
+	}
+	
+	/**
+	 * Returns new channel, not bound.
+	 * 
+	 * @param group
+	 * @return new channel
+	 * @throws IOException
+	 */
+	public static HsmsSsSelectorServerSocketChannel open(HsmsSsSelectorLoopGroup group) throws IOException {
+		
+		final ServerSocketChannel ch = ServerSocketChannel.open();
+		
+		try {
+			return new HsmsSsSelectorServerSocketChannel(group, ch);
+		}
+		catch ( IOException e ) {
+			ch.close();
+			throw e;
+		}
+	}
+	
+	@Override
+	public AsynchronousServerSocketChannel bind(SocketAddress local, int backlog) throws IOException {
+		channel.bind(local, backlog);
+		return this;
+	}
+	
+	@Override
+	public <T> AsynchronousServerSocketChannel setOption(SocketOption<T> name, T value) throws IOException {
+		channel.setOption(name, value);
+		return this;
+	}
+	
+	@Override
+	public <T> T getOption(SocketOption<T> name) throws IOException {
+		return channel.getOption(name);
+	}
+	
+	@Override
+	public Set<SocketOption<?>> supportedOptions() {
+		return channel.supportedOptions();
+	}
+	
+	@Override
+	public SocketAddress getLocalAddress() throws IOException {
+		return channel.getLocalAddress();
+	}
+	
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		channel.close();
+		
+		final Accept a;
+		
+		synchronized ( this ) {
+			a = this.accepting;
+			this.accepting = null;
+		}
+		
+		if ( a != null ) {
+			deliver(a, null, new AsynchronousCloseException(), true);
+		}
+		
+		/* wakeup to flush cancelled key */
+		loop.execute(() -> {});
+	}
+	
+	@Override
+	public <A> void accept(A attachment, CompletionHandler<AsynchronousSocketChannel, ? super A> handler) {
+		start(new Accept(attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	@Override
+	public Future<AsynchronousSocketChannel> accept() {
+		
+		final CompletableFuture<AsynchronousSocketChannel> f = new CompletableFuture<AsynchronousSocketChannel>() {
+			
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				
+				boolean r = super.cancel(mayInterruptIfRunning);
+				
+				if ( r ) {
+					synchronized ( HsmsSsSelectorServerSocketChannel.this ) {
+						if ( accepting != null && accepting.future == this ) {
+							accepting = null;
+						}
+					}
+				}
+				
+				return r;
+			}
+		};
+		
+		start(new Accept(null, null, f));
+		return f;
+	}
+	
+	private void start(Accept a) {
+		
+		synchronized ( this ) {
+			
+			if ( this.accepting != null ) {
+				throw new AcceptPendingException();
+			}
+			
+			this.accepting = a;
+		}
+		
+		try {
+			
+			if ( ! channel.isOpen() ) {
+				throw new ClosedChannelException();
+			}
+			
+			SocketChannel sc = channel.accept();
+			
+			if ( sc != null ) {
+				complete(a, sc, true);
+				return;
+			}
+		}
+		catch ( IOException | RuntimeException e ) {
+			fail(a, e, true);
+			return;
+		}
+		
+		loop.execute(() -> {
+			
+			synchronized ( this ) {
+				if ( this.accepting != a ) {
+					return;
+				}
+			}
+			
+			try {
+				this.key = loop.interest(channel, this.key, SelectionKey.OP_ACCEPT, readyHandler);
+			}
+			catch ( ClosedChannelException | RuntimeException e ) {
+				fail(a, e, false);
+			}
+		});
+	}
+	
+	/* loop thread */
+	private void ready(SelectionKey k) {
+		
+		final Accept a;
+		
+		synchronized ( this ) {
+			a = this.accepting;
+		}
+		
+		if ( a != null ) {
+			
+			try {
+				SocketChannel sc = channel.accept();
+				
+				if ( sc != null ) {
+					complete(a, sc, false);
+				}
+			}
+			catch ( IOException | RuntimeException e ) {
+				fail(a, e, false);
+			}
+		}
+		
+		final boolean pending;
+		
+		synchronized ( this ) {
+			pending = this.accepting != null;
+		}
+		
+		try {
+			if ( k.isValid() ) {
+				k.interestOps(pending ? SelectionKey.OP_ACCEPT : 0);
+			}
+		}
+		catch ( CancelledKeyException ignore ) {
+			/* closed */
+		}
+	}
+	
+	private void complete(Accept a, SocketChannel sc, boolean immediate) {
+		
+		synchronized ( this ) {
+			if ( this.accepting != a ) {
+				closeQuietly(sc);
+				return;
+			}
+			this.accepting = null;
+		}
+		
+		final HsmsSsSelectorSocketChannel ch;
+		
+		try {
+			ch = new HsmsSsSelectorSocketChannel(group.next(), sc);
+		}
+		catch ( IOException e ) {
+			closeQuietly(sc);
+			deliver(a, null, e, immediate);
+			return;
+		}
+		
+		deliver(a, ch, null, immediate);
+	}
+	
+	private void fail(Accept a, Throwable t, boolean immediate) {
+		
+		synchronized ( this ) {
+			if ( this.accepting != a ) {
+				return;
+			}
+			this.accepting = null;
+		}
+		
+		deliver(a, null, t, immediate);
+	}
+	
+	private static void closeQuietly(SocketChannel sc) {
+		try {
+			sc.close();
+		}
+		catch ( IOException ignore ) {
+		}
+	}
+	
+	private void deliver(Accept a, AsynchronousSocketChannel ch, Throwable t, boolean immediate) {
+		
+		if ( a.future != null ) {
+			
+			if ( t == null ) {
+				a.future.complete(ch);
+			} else {
+				a.future.completeExceptionally(t);
+			}
+			
+			return;
+		}
+		
+		final Runnable r = () -> {
+			if ( t == null ) {
+				a.handler.completed(ch, a.attachment);
+			} else {
+				a.handler.failed(t, a.attachment);
+			}
+		};
+		
+		if ( immediate ) {
+			loop.execute(r);
+		} else {
+			r.run();
+		}
+	}
+	
+	/**
+	 * Pending accept.
+	 *
+	 */
+	private static final class Accept {
+		
+		private final Object attachment;
+		private final CompletionHandler<AsynchronousSocketChannel, Object> handler;
+		private final CompletableFuture<AsynchronousSocketChannel> future;
+		
+		@SuppressWarnings("unchecked")
+		private Accept(Object attachment, CompletionHandler<AsynchronousSocketChannel, ?> handler, CompletableFuture<AsynchronousSocketChannel> future) {
+			this.attachment = attachment;
+			this.handler = (CompletionHandler<AsynchronousSocketChannel, Object>)handler;
+			this.future = future;
+		}
+	}
+	
+}
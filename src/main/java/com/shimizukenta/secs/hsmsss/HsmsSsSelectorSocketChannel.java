@@ -0,0 +1,661 @@
+package com.shimizukenta.secs.hsmsss;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.nio.channels.ReadPendingException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritePendingException;
+import java.nio.channels.spi.AsynchronousChannelProvider;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is AsynchronousSocketChannel served by {@link HsmsSsSelectorLoopGroup}.
+ * 
+ * <p>
+ * Non-blocking SocketChannel is registered to one Selector loop.<br />
+ * Operation is tried on calling thread first, if not ready, it is completed on loop thread when ready.<br />
+ * Completion handlers are called on loop thread, must not block.<br />
+ * Cancel Future with {@code mayInterruptIfRunning} closes channel, same as default provider.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class HsmsSsSelectorSocketChannel extends AsynchronousSocketChannel {
+	
+	private final HsmsSsSelectorLoopGroup.Loop loop;
+	private final SocketChannel channel;
+	private final HsmsSsSelectorLoopGroup.ReadyHandler readyHandler;
+	
+	/* loop thread only */
+	private SelectionKey key;
+	
+	/* guarded by this */
+	private Op reading;
+	private Op writing;
+	private Op connecting;
+	
+	protected HsmsSsSelectorSocketChannel(HsmsSsSelectorLoopGroup.Loop loop, SocketChannel channel) throws IOException {
+		super(AsynchronousChannelProvider.provider());
+		
+		this.loop = loop;
+		this.channel = channel;
+		this.readyHandler = this::ready;
+		this.key = null;
+		this.reading = null;
+		this.writing = null;
+		this.connecting = null;
+		
+		channel.configureBlocking(false);
+	}
+	
+	/**
+	 * Returns new channel, not connected.
+	 * 
+	 * @param group
+	 * @return new channel
+	 * @throws IOException
+	 */
+	public static HsmsSsSelectorSocketChannel open(HsmsSsSelectorLoopGroup group) throws IOException {
+		
+		final SocketChannel ch = SocketChannel.open();
+		
+		try {
+			return new HsmsSsSelectorSocketChannel(group.next(), ch);
+		}
+		catch ( IOException e ) {
+			ch.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Returns loop serving this channel.
+	 * 
+	 * @return loop
+	 */
+	HsmsSsSelectorLoopGroup.Loop loop() {
+		return loop;
+	}
+	
+	@Override
+	public AsynchronousSocketChannel bind(SocketAddress local) throws IOException {
+		channel.bind(local);
+		return this;
+	}
+	
+	@Override
+	public <T> AsynchronousSocketChannel setOption(SocketOption<T> name, T value) throws IOException {
+		channel.setOption(name, value);
+		return this;
+	}
+	
+	@Override
+	public <T> T getOption(SocketOption<T> name) throws IOException {
+		return channel.getOption(name);
+	}
+	
+	@Override
+	public Set<SocketOption<?>> supportedOptions() {
+		return channel.supportedOptions();
+	}
+	
+	@Override
+	public AsynchronousSocketChannel shutdownInput() throws IOException {
+		channel.shutdownInput();
+		return this;
+	}
+	
+	@Override
+	public AsynchronousSocketChannel shutdownOutput() throws IOException {
+		channel.shutdownOutput();
+		return this;
+	}
+	
+	@Override
+	public SocketAddress getRemoteAddress() throws IOException {
+		return channel.getRemoteAddress();
+	}
+	
+	@Override
+	public SocketAddress getLocalAddress() throws IOException {
+		return channel.getLocalAddress();
+	}
+	
+	@Override
+	public boolean isOpen() {
+		return channel.isOpen();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		channel.close();
+		
+		final Op r;
+		final Op w;
+		final Op c;
+		
+		synchronized ( this ) {
+			r = this.reading;
+			w = this.writing;
+			c = this.connecting;
+			this.reading = null;
+			this.writing = null;
+			this.connecting = null;
+		}
+		
+		for ( Op op : new Op[] {r, w, c} ) {
+			if ( op != null ) {
+				op.cancelTimer();
+				deliver(op, null, new AsynchronousCloseException(), true);
+			}
+		}
+		
+		/* wakeup to flush cancelled key */
+		loop.execute(() -> {});
+	}
+	
+	@Override
+	public <A> void connect(SocketAddress remote, A attachment, CompletionHandler<Void, ? super A> handler) {
+		start(new Op(SelectionKey.OP_CONNECT, Objects.requireNonNull(remote), null, 0, 0, false, 0L, attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	@Override
+	public Future<Void> connect(SocketAddress remote) {
+		final OpFuture<Void> f = new OpFuture<>();
+		start(new Op(SelectionKey.OP_CONNECT, Objects.requireNonNull(remote), null, 0, 0, false, 0L, null, null, f));
+		return f;
+	}
+	
+	@Override
+	public <A> void read(ByteBuffer dst, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
+		start(new Op(SelectionKey.OP_READ, null, new ByteBuffer[] {readable(dst)}, 0, 1, false, unit.toMillis(timeout), attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	@Override
+	public Future<Integer> read(ByteBuffer dst) {
+		final OpFuture<Integer> f = new OpFuture<>();
+		start(new Op(SelectionKey.OP_READ, null, new ByteBuffer[] {readable(dst)}, 0, 1, false, 0L, null, null, f));
+		return f;
+	}
+	
+	@Override
+	public <A> void read(ByteBuffer[] dsts, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
+		
+		for ( int i = offset; i < offset + length; ++i ) {
+			readable(dsts[i]);
+		}
+		
+		start(new Op(SelectionKey.OP_READ, null, dsts, offset, length, true, unit.toMillis(timeout), attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	@Override
+	public <A> void write(ByteBuffer src, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
+		start(new Op(SelectionKey.OP_WRITE, null, new ByteBuffer[] {Objects.requireNonNull(src)}, 0, 1, false, unit.toMillis(timeout), attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	@Override
+	public Future<Integer> write(ByteBuffer src) {
+		final OpFuture<Integer> f = new OpFuture<>();
+		start(new Op(SelectionKey.OP_WRITE, null, new ByteBuffer[] {Objects.requireNonNull(src)}, 0, 1, false, 0L, null, null, f));
+		return f;
+	}
+	
+	@Override
+	public <A> void write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
+		start(new Op(SelectionKey.OP_WRITE, null, srcs, offset, length, true, unit.toMillis(timeout), attachment, Objects.requireNonNull(handler), null));
+	}
+	
+	private static ByteBuffer readable(ByteBuffer dst) {
+		if ( dst.isReadOnly() ) {
+			throw new IllegalArgumentException("Read-only buffer");
+		}
+		return dst;
+	}
+	
+	private Op slot(int kind) {
+		switch ( kind ) {
+		case SelectionKey.OP_READ: {
+			return this.reading;
+		}
+		case SelectionKey.OP_WRITE: {
+			return this.writing;
+		}
+		default: {
+			return this.connecting;
+		}
+		}
+	}
+	
+	private void slot(int kind, Op op) {
+		switch ( kind ) {
+		case SelectionKey.OP_READ: {
+			this.reading = op;
+			break;
+		}
+		case SelectionKey.OP_WRITE: {
+			this.writing = op;
+			break;
+		}
+		default: {
+			this.connecting = op;
+		}
+		}
+	}
+	
+	private synchronized int interestOps() {
+		
+		int ops = 0;
+		
+		if ( this.reading != null ) {
+			ops |= SelectionKey.OP_READ;
+		}
+		
+		if ( this.writing != null ) {
+			ops |= SelectionKey.OP_WRITE;
+		}
+		
+		if ( this.connecting != null ) {
+			ops |= SelectionKey.OP_CONNECT;
+		}
+		
+		return ops;
+	}
+	
+	private void start(Op op) {
+		
+		synchronized ( this ) {
+			
+			if ( slot(op.kind) != null ) {
+				switch ( op.kind ) {
+				case SelectionKey.OP_READ: {
+					throw new ReadPendingException();
+				}
+				case SelectionKey.OP_WRITE: {
+					throw new WritePendingException();
+				}
+				default: {
+					throw new ConnectionPendingException();
+				}
+				}
+			}
+			
+			if ( op.kind == SelectionKey.OP_CONNECT && channel.isConnected() ) {
+				throw new AlreadyConnectedException();
+			}
+			
+			slot(op.kind, op);
+		}
+		
+		try {
+			
+			if ( ! channel.isOpen() ) {
+				throw new ClosedChannelException();
+			}
+			
+			final long n;
+			
+			if ( op.kind == SelectionKey.OP_CONNECT ) {
+				n = channel.connect(op.remote) ? 1L : 0L;
+			} else {
+				n = perform(op);
+			}
+			
+			if ( done(op, n) ) {
+				complete(op, n, true);
+				return;
+			}
+		}
+		catch ( IOException | RuntimeException e ) {
+			fail(op, e, true);
+			return;
+		}
+		
+		loop.execute(() -> {
+			arm(op);
+		});
+	}
+	
+	/* loop thread */
+	private void arm(Op op) {
+		
+		synchronized ( this ) {
+			if ( slot(op.kind) != op ) {
+				return;
+			}
+		}
+		
+		op.armed = true;
+		
+		try {
+			this.key = loop.interest(channel, this.key, interestOps(), readyHandler);
+		}
+		catch ( ClosedChannelException | RuntimeException e ) {
+			fail(op, e, false);
+			return;
+		}
+		
+		if ( op.timeoutMillis > 0L ) {
+			op.timer = loop.schedule(() -> {
+				timeout(op);
+			}, op.timeoutMillis);
+		}
+	}
+	
+	/* loop thread */
+	private void ready(SelectionKey k) {
+		
+		/* new key if Selector rebuilt */
+		this.key = k;
+		
+		final int readyOps = k.readyOps();
+		
+		for ( int kind : new int[] {SelectionKey.OP_CONNECT, SelectionKey.OP_READ, SelectionKey.OP_WRITE} ) {
+			
+			if ( (readyOps & kind) == 0 ) {
+				continue;
+			}
+			
+			final Op op;
+			
+			synchronized ( this ) {
+				op = slot(kind);
+			}
+			
+			/* not armed operation is being tried by starting thread */
+			if ( op == null || ! op.armed ) {
+				continue;
+			}
+			
+			try {
+				long n = perform(op);
+				
+				if ( done(op, n) ) {
+					complete(op, n, false);
+				}
+			}
+			catch ( IOException | RuntimeException e ) {
+				fail(op, e, false);
+			}
+		}
+		
+		updateInterest();
+	}
+	
+	/* loop thread */
+	private void updateInterest() {
+		
+		final SelectionKey k = this.key;
+		
+		if ( k != null && k.isValid() ) {
+			try {
+				k.interestOps(interestOps());
+			}
+			catch ( CancelledKeyException ignore ) {
+				/* closed */
+			}
+		}
+	}
+	
+	/* loop thread */
+	private void timeout(Op op) {
+		
+		synchronized ( this ) {
+			if ( slot(op.kind) != op ) {
+				return;
+			}
+			slot(op.kind, null);
+		}
+		
+		updateInterest();
+		deliver(op, null, new InterruptedByTimeoutException(), false);
+	}
+	
+	private long perform(Op op) throws IOException {
+		
+		switch ( op.kind ) {
+		case SelectionKey.OP_READ: {
+			
+			if ( ! hasRemaining(op) ) {
+				return 0L;
+			}
+			
+			if ( op.length == 1 ) {
+				return channel.read(op.buffers[op.offset]);
+			} else {
+				return channel.read(op.buffers, op.offset, op.length);
+			}
+		}
+		case SelectionKey.OP_WRITE: {
+			
+			if ( ! hasRemaining(op) ) {
+				return 0L;
+			}
+			
+			if ( op.length == 1 ) {
+				return channel.write(op.buffers[op.offset]);
+			} else {
+				return channel.write(op.buffers, op.offset, op.length);
+			}
+		}
+		default: {
+			return channel.finishConnect() ? 1L : 0L;
+		}
+		}
+	}
+	
+	private static boolean hasRemaining(Op op) {
+		for ( int i = op.offset; i < op.offset + op.length; ++i ) {
+			if ( op.buffers[i].hasRemaining() ) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean done(Op op, long n) {
+		
+		switch ( op.kind ) {
+		case SelectionKey.OP_READ:
+		case SelectionKey.OP_WRITE: {
+			return n != 0L || ! hasRemaining(op);
+		}
+		default: {
+			return n != 0L;
+		}
+		}
+	}
+	
+	private void complete(Op op, long n, boolean immediate) {
+		
+		synchronized ( this ) {
+			if ( slot(op.kind) != op ) {
+				return;
+			}
+			slot(op.kind, null);
+		}
+		
+		op.cancelTimer();
+		
+		final Object v;
+		
+		if ( op.kind == SelectionKey.OP_CONNECT ) {
+			v = null;
+		} else if ( op.longResult ) {
+			v = Long.valueOf(n);
+		} else {
+			v = Integer.valueOf((int)n);
+		}
+		
+		deliver(op, v, null, immediate);
+	}
+	
+	private void fail(Op op, Throwable t, boolean immediate) {
+		
+		synchronized ( this ) {
+			if ( slot(op.kind) != op ) {
+				return;
+			}
+			slot(op.kind, null);
+		}
+		
+		op.cancelTimer();
+		
+		deliver(op, null, t, immediate);
+	}
+	
+	/**
+	 * Complete future, or call handler.
+	 * 
+	 * <p>
+	 * Handler of operation completed on calling thread is called on loop thread, not nested.<br />
+	 * </p>
+	 */
+	@SuppressWarnings("unchecked")
+	private void deliver(Op op, Object v, Throwable t, boolean immediate) {
+		
+		if ( op.future != null ) {
+			
+			final OpFuture<Object> f = (OpFuture<Object>)op.future;
+			
+			if ( t == null ) {
+				f.complete(v);
+			} else {
+				f.completeExceptionally(t);
+			}
+			
+			return;
+		}
+		
+		final Runnable r = () -> {
+			if ( t == null ) {
+				op.handler.completed(v, op.attachment);
+			} else {
+				op.handler.failed(t, op.attachment);
+			}
+		};
+		
+		if ( immediate ) {
+			loop.execute(r);
+		} else {
+			r.run();
+		}
+	}
+	
+	private void cancel(Op op, boolean mayInterruptIfRunning) {
+		
+		synchronized ( this ) {
+			if ( slot(op.kind) == op ) {
+				slot(op.kind, null);
+			}
+		}
+		
+		op.cancelTimer();
+		
+		loop.execute(this::updateInterest);
+		
+		if ( mayInterruptIfRunning ) {
+			try {
+				close();
+			}
+			catch ( IOException ignore ) {
+			}
+		}
+	}
+	
+	/**
+	 * Pending operation.
+	 *
+	 */
+	private final class Op {
+		
+		private final int kind;
+		private final SocketAddress remote;
+		private final ByteBuffer[] buffers;
+		private final int offset;
+		private final int length;
+		private final boolean longResult;
+		private final long timeoutMillis;
+		private final Object attachment;
+		private final CompletionHandler<Object, Object> handler;
+		private final OpFuture<?> future;
+		private volatile HsmsSsSelectorLoopGroup.Timer timer;
+		
+		/* loop thread only */
+		private boolean armed;
+		
+		@SuppressWarnings("unchecked")
+		private Op(int kind, SocketAddress remote, ByteBuffer[] buffers, int offset, int length, boolean longResult, long timeoutMillis,
+				Object attachment, CompletionHandler<?, ?> handler, OpFuture<?> future) {
+			
+			this.kind = kind;
+			this.remote = remote;
+			this.buffers = buffers;
+			this.offset = offset;
+			this.length = length;
+			this.longResult = longResult;
+			this.timeoutMillis = timeoutMillis;
+			this.attachment = attachment;
+			this.handler = (CompletionHandler<Object, Object>)handler;
+			this.future = future;
+			this.timer = null;
+			this.armed = false;
+			
+			if ( future != null ) {
+				future.op = this;
+			}
+		}
+		
+		private void cancelTimer() {
+			final HsmsSsSelectorLoopGroup.Timer t = this.timer;
+			if ( t != null ) {
+				t.cancel();
+			}
+		}
+	}
+	
+	/**
+	 * Future of operation, cancel removes pending operation.
+	 *
+	 */
+	private final class OpFuture<V> extends CompletableFuture<V> {
+		
+		private volatile Op op;
+		
+		private OpFuture() {
+			super();
+			this.op = null;
+		}
+		
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			
+			boolean f = super.cancel(mayInterruptIfRunning);
+			
+			final Op o = this.op;
+			
+			if ( f && o != null ) {
+				HsmsSsSelectorSocketChannel.this.cancel(o, mayInterruptIfRunning);
+			}
+			
+			return f;
+		}
+	}
+	
+}
@@ -1,14 +1,15 @@
 package com.shimizukenta.secs.hsmsss;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import com.shimizukenta.secs.AbstractSecsInnerEngine;
@@ -46,12 +47,13 @@ public class HsmsSsSendReplyManager extends AbstractSecsInnerEngine {
 			Pack p = entry(msg);
 			
 			try {
-				send(channel, msg);
+				send(channel, msg, p);
 				
 				try {
 					return Optional.of(reply(p, parent.hsmsSsConfig().timeout().t6()));
 				}
 				catch ( TimeoutException e ) {
+					metrics().timeoutT6();
 					throw new HsmsSsTimeoutT6Exception(msg, e);
 				}
 			}
@@ -67,12 +69,15 @@ public class HsmsSsSendReplyManager extends AbstractSecsInnerEngine {
 				Pack p = entry(msg);
 				
 				try {
-					send(channel, msg);
+					send(channel, msg, p);
 					
 					try {
-						return Optional.of(reply(p, parent.hsmsSsConfig().timeout().t3()));
+						HsmsSsMessage r = reply(p, parent.hsmsSsConfig().timeout().t3());
+						metrics().replied(msg, p.replyLatencyNanos());
+						return Optional.of(r);
 					}
 					catch ( TimeoutException e ) {
+						metrics().timeoutT3(msg);
 						throw new HsmsSsTimeoutT3Exception(msg, e);
 					}
 				}
@@ -96,106 +101,132 @@ public class HsmsSsSendReplyManager extends AbstractSecsInnerEngine {
 	}
 	
 	private static final long MAX_BUFFER_SIZE = 256L * 256L;
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 	
 	protected long prototypeMaxBufferSize() {
 		return MAX_BUFFER_SIZE;
 	}
 	
-	public void send(AsynchronousSocketChannel channel, HsmsSsMessage msg)
-			throws SecsSendMessageException, SecsException
-			, InterruptedException {
+	/**
+	 * Returns size of each rotating buffer of streaming send.
+	 * 
+	 * @return size of each rotating buffer
+	 */
+	protected int prototypeStreamBufferSize() {
+		return STREAM_BUFFER_SIZE;
+	}
+	
+	/* writers of channels */
+	private final Map<AsynchronousSocketChannel, HsmsSsByteWriter> writers = new WeakHashMap<>();
+	
+	private HsmsSsByteWriter writer(AsynchronousSocketChannel channel) {
 		
-		synchronized ( channel ) {
+		synchronized ( writers ) {
 			
-			try {
-				Secs2ByteBuffersBuilder bb = Secs2ByteBuffersBuilder.build(1024, msg.secs2());
-				
-				long len = bb.size() + 10L;
-				
-				if ((len > 0x00000000FFFFFFFFL) || (len < 10L)) {
-					throw new HsmsSsTooBigSendMessageException(msg);
-				}
-				
-				notifyTrySendMessagePassThrough(msg);
-				
-				long bufferSize = len + 4L;
+			HsmsSsByteWriter w = writers.get(channel);
+			
+			if ( w == null || w.isClosed() ) {
 				
-				if ( bufferSize > prototypeMaxBufferSize() ) {
+				if ( parent.hsmsSsConfig().transport().get() == HsmsSsTransport.SELECTOR ) {
 					
-					{
-						ByteBuffer buffer = ByteBuffer.allocate(14);
-						
-						buffer.put((byte)(len >> 24));
-						buffer.put((byte)(len >> 16));
-						buffer.put((byte)(len >>  8));
-						buffer.put((byte)(len      ));
-						buffer.put(msg.header10Bytes());
-						
-						((Buffer)buffer).flip();
-						
-						send(channel, buffer);
-					}
-					
-					for ( ByteBuffer buffer : bb.getByteBuffers() ) {
-						send(channel, buffer);
-					}
+					w = new HsmsSsByteWriter(parent, channel, prototypeStreamBufferSize(), true);
 					
 				} else {
 					
-					ByteBuffer buffer = ByteBuffer.allocate((int)bufferSize);
-					
-					buffer.put((byte)(len >> 24));
-					buffer.put((byte)(len >> 16));
-					buffer.put((byte)(len >>  8));
-					buffer.put((byte)(len      ));
-					buffer.put(msg.header10Bytes());
-					
-					for ( ByteBuffer bf : bb.getByteBuffers() ) {
-						buffer.put(bf);
-					}
-					
-					((Buffer)buffer).flip();
-					
-					send(channel, buffer);
+					w = new HsmsSsByteWriter(parent, channel, prototypeStreamBufferSize());
+					executorService().execute(createWriterTask(w));
 				}
 				
-				notifySendedMessagePassThrough(msg);
-				notifyLog("Sended HsmsSs-Message", msg);
+				writers.put(channel, w);
 			}
-			catch ( ExecutionException e ) {
-				
-				Throwable t = e.getCause();
-				
-				if ( t instanceof RuntimeException ) {
-					throw (RuntimeException)t;
-				}
-				
-				throw new HsmsSsSendMessageException(msg, e);
+			
+			return w;
+		}
+	}
+	
+	private Runnable createWriterTask(HsmsSsByteWriter w) {
+		return () -> {
+			try {
+				w.call();
 			}
-			catch ( Secs2BuildException | HsmsSsDetectTerminateException e ) {
-				throw new HsmsSsSendMessageException(msg, e);
+			catch ( Exception e ) {
+				notifyLog(e);
 			}
-		}
+		};
+	}
+	
+	public void send(AsynchronousSocketChannel channel, HsmsSsMessage msg)
+			throws SecsSendMessageException, SecsException
+			, InterruptedException {
+		
+		send(channel, msg, null);
 	}
 	
-	private void send(AsynchronousSocketChannel channel, ByteBuffer buffer)
-			throws ExecutionException, HsmsSsDetectTerminateException, InterruptedException {
+	private void send(AsynchronousSocketChannel channel, HsmsSsMessage msg, Pack p)
+			throws SecsSendMessageException, SecsException
+			, InterruptedException {
 		
-		while ( buffer.hasRemaining() ) {
+		final long entryNanos = System.nanoTime();
+		
+		try {
+			long len = Secs2ByteBuffersBuilder.length(msg.secs2()) + 10L;
 			
-			final Future<Integer> f = channel.write(buffer);
+			if ((len > 0x00000000FFFFFFFFL) || (len < 10L)) {
+				throw new HsmsSsTooBigSendMessageException(msg);
+			}
+			
+			notifyTrySendMessagePassThrough(msg);
+			
+			long bufferSize = len + 4L;
+			
+			final CompletableFuture<Long> f;
 			
 			try {
-				int w = f.get().intValue();
-				
-				if ( w <= 0 ) {
-					throw new HsmsSsDetectTerminateException();
-				}
+				f = writer(channel).offer(msg, len, (bufferSize > prototypeMaxBufferSize()), nanos -> {
+					if ( p != null ) {
+						p.sended(nanos);
+					}
+				});
+			}
+			catch ( RejectedExecutionException e ) {
+				throw new HsmsSsSendMessageException(msg, e);
+			}
+			
+			final long startNanos;
+			
+			try {
+				startNanos = f.get().longValue();
 			}
 			catch ( InterruptedException e ) {
-				f.cancel(true);
+				f.cancel(false);
 				throw e;
 			}
+			
+			metrics().sent(msg, bufferSize, (startNanos - entryNanos));
+			
+			if ( HsmsSsMessageType.get(msg) == HsmsSsMessageType.REJECT_REQ ) {
+				metrics().sentReject();
+			}
+			
+			notifySendedMessagePassThrough(msg);
+			notifyLog("Sended HsmsSs-Message", msg);
+		}
+		catch ( ExecutionException e ) {
+			
+			Throwable t = e.getCause();
+			
+			if ( t instanceof RuntimeException ) {
+				throw (RuntimeException)t;
+			}
+			
+			if ( t instanceof Error ) {
+				throw (Error)t;
+			}
+			
+			throw new HsmsSsSendMessageException(msg, t);
+		}
+		catch ( Secs2BuildException | HsmsSsDetectTerminateException e ) {
+			throw new HsmsSsSendMessageException(msg, e);
 		}
 	}
 	
@@ -314,23 +345,40 @@ public class HsmsSsSendReplyManager extends AbstractSecsInnerEngine {
 		private final HsmsSsMessage primary;
 		private final Integer key;
 		private HsmsSsMessage reply;
+		private long sendedNanos;
+		private long replyNanos;
 		
 		public Pack(HsmsSsMessage primaryMsg) {
 			this.primary = primaryMsg;
 			this.key = primary.systemBytesKey();
 			this.reply = null;
+			this.sendedNanos = 0L;
+			this.replyNanos = 0L;
 		}
 		
 		public Integer key() {
 			return key;
 		}
 		
+		public void sended(long nanos) {
+			synchronized ( this ) {
+				this.sendedNanos = nanos;
+			}
+		}
+		
 		public void put(HsmsSsMessage replyMsg) {
 			synchronized ( this ) {
+				this.replyNanos = System.nanoTime();
 				this.reply = replyMsg;
 			}
 		}
 		
+		public long replyLatencyNanos() {
+			synchronized ( this ) {
+				return this.replyNanos - this.sendedNanos;
+			}
+		}
+		
 		public HsmsSsMessage replyMsg() {
 			synchronized ( this ) {
 				return reply;
@@ -0,0 +1,21 @@
+package com.shimizukenta.secs.hsmsss;
+
+/**
+ * This enum is transport of HSMS-SS-Communicator socket.
+ * 
+ * <p>
+ * ASYNCHRONOUS_CHANNEL: AsynchronousSocketChannel of default group, reader thread per connection.<br />
+ * SELECTOR: Selector event-loop threads shared by all communicators in JVM, see {@link HsmsSsSelectorLoopGroup}.
+ * No thread per connection, T7 and Linktest are loop timers.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public enum HsmsSsTransport {
+	
+	ASYNCHRONOUS_CHANNEL,
+	SELECTOR,
+	
+	;
+}
@@ -1,6 +1,7 @@
 package com.shimizukenta.secs.secs1;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -31,6 +32,9 @@ public abstract class AbstractSecs1Communicator extends AbstractSecsCommunicator
 	protected static final byte ACK = (byte)0x06;
 	protected static final byte NAK = (byte)0x15;
 	
+	/* shared control-byte table, read only */
+	private static final byte[] controlBytes = new byte[] {ENQ, EOT, ACK, NAK};
+	
 	
 	private final Secs1CommunicatorConfig secs1Config;
 	private final Secs1SendReplyManager sendReplyManager;
@@ -107,8 +111,50 @@ public abstract class AbstractSecs1Communicator extends AbstractSecsCommunicator
 	
 	abstract protected void sendByte(byte[] bs) throws SecsSendMessageException, SecsException, InterruptedException;
 	
+	/**
+	 * Send range of bytes by one write.
+	 * 
+	 * <p>
+	 * {@code bs} is reused by caller after return, must not be held.<br />
+	 * Default implementation copies range to {@link #sendByte(byte[])},
+	 * override to write without copy.<br />
+	 * </p>
+	 * 
+	 * @param bs
+	 * @param offset
+	 * @param length
+	 * @throws SecsSendMessageException
+	 * @throws SecsException
+	 * @throws InterruptedException
+	 */
+	protected void sendBytes(byte[] bs, int offset, int length)
+			throws SecsSendMessageException, SecsException, InterruptedException {
+		sendByte(Arrays.copyOfRange(bs, offset, offset + length));
+	}
+	
 	private void sendByte(byte b) throws SecsSendMessageException, SecsException, InterruptedException {
-		sendByte(new byte[] {b});
+		
+		switch ( b ) {
+		case ENQ: {
+			sendBytes(controlBytes, 0, 1);
+			break;
+		}
+		case EOT: {
+			sendBytes(controlBytes, 1, 1);
+			break;
+		}
+		case ACK: {
+			sendBytes(controlBytes, 2, 1);
+			break;
+		}
+		case NAK: {
+			sendBytes(controlBytes, 3, 1);
+			break;
+		}
+		default: {
+			sendBytes(new byte[] {b}, 0, 1);
+		}
+		}
 	}
 	
 	@Override
@@ -269,6 +315,9 @@ public abstract class AbstractSecs1Communicator extends AbstractSecsCommunicator
 		
 		private final byte[] request = new byte[] {ENQ, EOT};
 		
+		/* reused by sendBlock, circuit thread only */
+		private final byte[] blockBuffer = new byte[Secs1MessageBlock.MAX_BYTES_LENGTH];
+		
 		private PollCircuitControl pollCircuitControl() throws InterruptedException {
 			
 			Callable<PollCircuitControl> task = () -> {
@@ -482,7 +531,15 @@ public abstract class AbstractSecs1Communicator extends AbstractSecsCommunicator
 			
 			pollByteUntilEmpty();
 			
-			sendByte(presentBlock.getBytes());
+			{
+				int len = presentBlock.bytesLength();
+				
+				if ( len <= blockBuffer.length ) {
+					sendBytes(blockBuffer, 0, presentBlock.getBytes(blockBuffer));
+				} else {
+					sendByte(presentBlock.getBytes());
+				}
+			}
 			
 			Optional<Byte> op = pollByteT2();
 			
@@ -10,12 +10,28 @@ public class Secs1MessageBlock implements Serializable {
 	public static final int ZERO = 0;
 	public static final int ONE  = 1;
 	
+	/**
+	 * Max bytes count of block, Length-byte(1) + Header(10) + Data(244) + Checksum(2).
+	 * 
+	 */
+	public static final int MAX_BYTES_LENGTH = 257;
+	
 	private final byte[] bytes;
 	
 	public Secs1MessageBlock(byte[] bytes) {
 		this.bytes = Arrays.copyOf(bytes, bytes.length);
 	}
 	
+	/**
+	 * Constructor, copy from head of frame.
+	 * 
+	 * @param frame
+	 * @param length bytes count of block, include length-byte and checksum
+	 */
+	public Secs1MessageBlock(byte[] frame, int length) {
+		this.bytes = Arrays.copyOf(frame, length);
+	}
+	
 	public int deviceId() {
 		return (((int)(bytes[1]) << 8) & 0x00007F00) | (bytes[2] & 0x000000FF);
 	}
@@ -37,6 +53,21 @@ public class Secs1MessageBlock implements Serializable {
 		return Arrays.copyOf(bytes, bytes.length);
 	}
 	
+	/**
+	 * Copy bytes of block to dst, include length-byte and checksum.
+	 * 
+	 * <p>
+	 * To send block from reusable buffer without allocation.<br />
+	 * </p>
+	 * 
+	 * @param dst length is {@code >=} {@link #bytesLength()}
+	 * @return bytes count of block
+	 */
+	public int getBytes(byte[] dst) {
+		System.arraycopy(bytes, 0, dst, 0, bytes.length);
+		return bytes.length;
+	}
+	
 	public Integer systemBytesKey() {
 		int i = ((int)(bytes[7]) << 24) & 0xFF000000;
 		i |= ((int)(bytes[8]) << 16) & 0x00FF0000;
@@ -49,6 +80,15 @@ public class Secs1MessageBlock implements Serializable {
 		return bytes[0] & 0xFF;
 	}
 	
+	/**
+	 * Returns bytes count of block, include length-byte and checksum.
+	 * 
+	 * @return bytes count of block
+	 */
+	public int bytesLength() {
+		return bytes.length;
+	}
+	
 	public boolean sumCheck() {
 		
 		try {
@@ -1,14 +1,10 @@
 package com.shimizukenta.secs.secs1;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import com.shimizukenta.secs.secs2.Secs2;
-import com.shimizukenta.secs.secs2.Secs2BuildException;
-import com.shimizukenta.secs.secs2.Secs2ByteBuffersBuilder;
 import com.shimizukenta.secs.secs2.Secs2BytesParser;
 import com.shimizukenta.secs.secs2.Secs2Exception;
 
@@ -30,6 +26,17 @@ public class Secs1MessageBlockConverter {
 		return getInstance()._toBlocks(msg);
 	}
 	
+	/**
+	 * Returns producer, blocks are built on demand.
+	 * 
+	 * @param msg
+	 * @return producer
+	 * @throws Secs1SendMessageException if encode failed or too big
+	 */
+	public static Secs1MessageBlockProducer toBlockProducer(Secs1Message msg) throws Secs1SendMessageException {
+		return Secs1MessageBlockProducer.newInstance(msg);
+	}
+	
 	public static Secs1Message toSecs1Message(List<Secs1MessageBlock> blocks) throws Secs2Exception {
 		return getInstance()._toSecs1Message(blocks);
 	}
@@ -37,100 +44,38 @@ public class Secs1MessageBlockConverter {
 	
 	private List<Secs1MessageBlock> _toBlocks(Secs1Message msg) throws Secs1SendMessageException {
 		
-		try {
-			List<Secs1MessageBlock> blocks = new ArrayList<>();
-			
-			byte[] head = msg.header10Bytes();
-			
-			if ( head.length != 10 ) {
-				throw new IllegalArgumentException("head not 10 bytes");
-			}
-			
-			Secs2ByteBuffersBuilder bb = Secs2ByteBuffersBuilder.build(244, msg.secs2());
-			
-			if ( bb.blocks() > 0x7FFF) {
-				throw new Secs1TooBigSendMessageException(msg);
-			}
-			
-			
-			List<ByteBuffer> buffers = bb.getByteBuffers();
-			
-			int blockNum = Secs1MessageBlock.ONE;
-			int m = buffers.size() - 1;
-			
-			for ( int i = 0; i < m; ++i ) {
-				blocks.add(buildBlock(head, buffers.get(i), false, blockNum));
-				++ blockNum;
-			}
-			
-			blocks.add(buildBlock(head, buffers.get(m), true, blockNum));
-			
-			return blocks;
-		}
-		catch (Secs2BuildException e) {
-			throw new Secs1SendMessageException(msg, e);
-		}
-	}
-	
-	private Secs1MessageBlock buildBlock(byte[] head, ByteBuffer buffer, boolean ebit, int blockNumber) {
-		
-		int len = head.length + buffer.remaining();
-		
-		int sum = 0;
-		
-		byte[] bs = new byte[len + 3];
-		
-		bs[0] = (byte)len;
-		bs[1] = head[0];
-		bs[2] = head[1];
-		bs[3] = head[2];
-		bs[4] = head[3];
+		Secs1MessageBlockProducer producer = toBlockProducer(msg);
 		
-		bs[5] = (byte)(blockNumber >> 8);
-		if ( ebit ) {
-			bs[5] |= (byte)0x80;
-		}
-		
-		bs[6] = (byte)blockNumber;
-		
-		bs[7] = head[6];
-		bs[8] = head[7];
-		bs[9] = head[8];
-		bs[10] = head[9];
-		
-		int i = 1;
-		for (; i < 11; ++i) {
-			sum += (int)(bs[i]) & 0xFF;
-		}
+		List<Secs1MessageBlock> blocks = new ArrayList<>(producer.blocks());
 		
-		for (; buffer.hasRemaining(); ++i) {
-			byte b = buffer.get();
-			bs[i] = b;
-			sum += ((int)b) & 0xFF;
+		while ( producer.hasNext() ) {
+			blocks.add(producer.next());
 		}
 		
-		bs[i] = (byte)(sum >> 8);
-		bs[i + 1] = (byte)sum;
-		
-		return new Secs1MessageBlock(bs);
+		return blocks;
 	}
 	
 	private Secs1Message _toSecs1Message(List<Secs1MessageBlock> blocks) throws Secs2Exception {
 		
 		byte[] head = Arrays.copyOfRange(blocks.get(blocks.size() - 1).getBytes(), 1, 11);
 		
-		List<ByteBuffer> buffers = new ArrayList<>();
+		int size = 0;
+		
+		for (Secs1MessageBlock block : blocks) {
+			size += block.getBytes().length - 13;
+		}
+		
+		byte[] bodyBytes = new byte[size];
+		int pos = 0;
 		
 		for (Secs1MessageBlock block : blocks) {
 			byte[] bs = block.getBytes();
-			int size = bs.length - 13;
-			ByteBuffer buffer = ByteBuffer.allocate(size);
-			buffer.put(bs, 11, size);
-			((Buffer)buffer).flip();
-			buffers.add(buffer);
+			int len = bs.length - 13;
+			System.arraycopy(bs, 11, bodyBytes, pos, len);
+			pos += len;
 		}
 		
-		Secs2 body = Secs2BytesParser.getInstance().parse(buffers);
+		Secs2 body = Secs2BytesParser.getInstance().parseLazy(bodyBytes);
 		
 		return new Secs1Message(head, body);
 	}
@@ -0,0 +1,256 @@
+package com.shimizukenta.secs.secs1;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.shimizukenta.secs.secs2.Secs2BuildException;
+import com.shimizukenta.secs.secs2.Secs2ByteBufferSink;
+import com.shimizukenta.secs.secs2.Secs2ByteBuffersBuilder;
+
+/**
+ * This class is producer of Secs1MessageBlocks, blocks are built on demand.
+ * 
+ * <p>
+ * Body is encoded once to compact bytes, not split to buffers,
+ * small body is held in encode buffer without copy.<br />
+ * Each block is built in one reused frame, checksum is summed while bytes are written.<br />
+ * Count of blocks and bytes are computed without building blocks.<br />
+ * </p>
+ * <p>
+ * This class is not thread-safe.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class Secs1MessageBlockProducer {
+	
+	private static final int DATA_SIZE = 244;
+	private static final int ENCODE_BUFFER_SIZE = 256;
+	
+	private final Secs1Message msg;
+	private final Integer key;
+	private final byte[] head;
+	private final int headSum;
+	private final byte[] body;
+	private final int bodyEnd;
+	private final int bodyLength;
+	private final int blocks;
+	
+	private final byte[] frame;
+	private int blockNumber;
+	private int pos;
+	
+	private Secs1MessageBlockProducer(Secs1Message msg, byte[] head, BodySink sink, int blocks) {
+		this.msg = msg;
+		this.key = msg.systemBytesKey();
+		this.head = head;
+		this.body = sink.bytes;
+		this.pos = sink.offset;
+		this.bodyLength = sink.size;
+		this.bodyEnd = sink.offset + sink.size;
+		this.blocks = blocks;
+		this.blockNumber = Secs1MessageBlock.ONE;
+		this.frame = new byte[Math.min(Secs1MessageBlock.MAX_BYTES_LENGTH, sink.size + 13)];
+		
+		int sum = 0;
+		
+		for ( int i = 0; i < 4; ++i ) {
+			sum += ((int)head[i]) & 0xFF;
+		}
+		
+		for ( int i = 6; i < 10; ++i ) {
+			sum += ((int)head[i]) & 0xFF;
+		}
+		
+		this.headSum = sum;
+	}
+	
+	/**
+	 * Returns new producer, body is encoded.
+	 * 
+	 * @param msg
+	 * @return producer
+	 * @throws Secs1SendMessageException if encode failed or too big
+	 */
+	public static Secs1MessageBlockProducer newInstance(Secs1Message msg) throws Secs1SendMessageException {
+		
+		final byte[] head = msg.header10Bytes();
+		
+		if ( head.length != 10 ) {
+			throw new IllegalArgumentException("head not 10 bytes");
+		}
+		
+		try {
+			final BodySink sink = new BodySink();
+			
+			Secs2ByteBuffersBuilder.stream(ENCODE_BUFFER_SIZE, 2, msg.secs2(), sink);
+			
+			sink.finish();
+			
+			final int blocks = sink.size > 0 ? ((sink.size + DATA_SIZE - 1) / DATA_SIZE) : 1;
+			
+			if ( blocks > 0x7FFF ) {
+				throw new Secs1TooBigSendMessageException(msg);
+			}
+			
+			return new Secs1MessageBlockProducer(msg, head, sink, blocks);
+		}
+		catch ( Secs2BuildException e ) {
+			throw new Secs1SendMessageException(msg, e);
+		}
+		catch ( InterruptedException e ) {
+			
+			/* not reached, sink does not block */
+			Thread.currentThread().interrupt();
+			throw new Secs1SendMessageException(msg, e);
+		}
+	}
+	
+	/**
+	 * Sink of encoded body.
+	 * 
+	 * <p>
+	 * Holds last buffer without copy, encoder reuses it after next buffer is passed (2 rotating buffers).<br />
+	 * If body is only one buffer, array of buffer is used as body.<br />
+	 * </p>
+	 *
+	 */
+	private static final class BodySink implements Secs2ByteBufferSink {
+		
+		private byte[] bytes;
+		private int offset;
+		private int size;
+		private ByteBuffer pending;
+		
+		private BodySink() {
+			this.bytes = new byte[0];
+			this.offset = 0;
+			this.size = 0;
+			this.pending = null;
+		}
+		
+		@Override
+		public void write(ByteBuffer buffer) {
+			if ( this.pending != null ) {
+				append(this.pending);
+			}
+			this.pending = buffer;
+		}
+		
+		private void append(ByteBuffer buffer) {
+			
+			int n = buffer.remaining();
+			
+			if ( (size + n) > bytes.length ) {
+				bytes = Arrays.copyOf(bytes, Math.max(size + n, Math.max(bytes.length * 2, ENCODE_BUFFER_SIZE * 4)));
+			}
+			
+			buffer.get(bytes, size, n);
+			size += n;
+		}
+		
+		private void finish() {
+			
+			if ( this.pending != null ) {
+				
+				if ( size == 0 ) {
+					
+					this.bytes = pending.array();
+					this.offset = pending.arrayOffset() + pending.position();
+					this.size = pending.remaining();
+					((Buffer)pending).position(pending.limit());
+					
+				} else {
+					
+					append(this.pending);
+				}
+				
+				this.pending = null;
+			}
+		}
+	}
+	
+	public Secs1Message message() {
+		return msg;
+	}
+	
+	public Integer systemBytesKey() {
+		return key;
+	}
+	
+	/**
+	 * Returns count of blocks.
+	 * 
+	 * @return count of blocks
+	 */
+	public int blocks() {
+		return blocks;
+	}
+	
+	/**
+	 * Returns bytes count of all blocks, include length-bytes and checksums.
+	 * 
+	 * @return bytes count of all blocks
+	 */
+	public long bytesLength() {
+		return (long)bodyLength + (13L * (long)blocks);
+	}
+	
+	public boolean hasNext() {
+		return blockNumber <= blocks;
+	}
+	
+	/**
+	 * Build next block.
+	 * 
+	 * @return next block, {@code null} if no more block
+	 */
+	public Secs1MessageBlock next() {
+		
+		if ( ! hasNext() ) {
+			return null;
+		}
+		
+		final boolean ebit = blockNumber == blocks;
+		final int n = Math.min(DATA_SIZE, bodyEnd - pos);
+		final byte[] bs = this.frame;
+		
+		bs[0] = (byte)(n + 10);
+		bs[1] = head[0];
+		bs[2] = head[1];
+		bs[3] = head[2];
+		bs[4] = head[3];
+		
+		bs[5] = (byte)(blockNumber >> 8);
+		if ( ebit ) {
+			bs[5] |= (byte)0x80;
+		}
+		
+		bs[6] = (byte)blockNumber;
+		
+		bs[7] = head[6];
+		bs[8] = head[7];
+		bs[9] = head[8];
+		bs[10] = head[9];
+		
+		int sum = headSum + (((int)bs[5]) & 0xFF) + (((int)bs[6]) & 0xFF);
+		
+		int i = 11;
+		for ( int p = pos, m = pos + n; p < m; ++p, ++i ) {
+			byte b = body[p];
+			bs[i] = b;
+			sum += ((int)b) & 0xFF;
+		}
+		
+		bs[i] = (byte)(sum >> 8);
+		bs[i + 1] = (byte)sum;
+		
+		this.pos += n;
+		this.blockNumber += 1;
+		
+		return new Secs1MessageBlock(bs, i + 2);
+	}
+	
+}
@@ -3,7 +3,6 @@ package com.shimizukenta.secs.secs1;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -20,7 +19,7 @@ import com.shimizukenta.secs.secs2.Secs2Exception;
 public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 	
 	private final Collection<Pack> packs = new ArrayList<>();
-	private final BlockingQueue<Secs1MessageBlock> sendBlockQueue = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Secs1MessageBlockProducer> sendBlockQueue = new LinkedBlockingQueue<>();
 	private final LinkedList<Secs1MessageBlock> recvBlocks = new LinkedList<>();
 	
 	private final ReplyStatus resetTimerStatus;
@@ -53,11 +52,14 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 			notifyLog("Secs1-Message entry-send", msg);
 			notifyTrySendMessagePassThrough(msg);
 			waitUntilSended(p);
+			metrics().sent(msg, p.bytesLength(), p.sendQueueWaitNanos());
 			notifySendedMessagePassThrough(msg);
 			
 			if ( msg.wbit() ) {
 				
-				return Optional.of(reply(p));
+				Secs1Message r = reply(p);
+				metrics().replied(msg, p.replyLatencyNanos());
+				return Optional.of(r);
 				
 			} else {
 				
@@ -218,6 +220,7 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 			}
 		}
 		catch ( TimeoutException e ) {
+			metrics().timeoutT3(p.primaryMsg());
 			throw new Secs1TimeoutT3Exception(p.primaryMsg(), e);
 		}
 		catch ( ExecutionException e ) {
@@ -232,8 +235,31 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 		}
 	}
 	
+	/**
+	 * Returns next block to send, built on demand.
+	 * 
+	 * @return next block, {@code null} if not exist
+	 */
 	public Secs1MessageBlock pollBlock() {
-		return sendBlockQueue.poll();
+		
+		for ( ;; ) {
+			
+			Secs1MessageBlockProducer p = sendBlockQueue.peek();
+			
+			if ( p == null ) {
+				return null;
+			}
+			
+			Secs1MessageBlock block = p.next();
+			
+			if ( ! p.hasNext() ) {
+				sendBlockQueue.remove(p);
+			}
+			
+			if ( block != null ) {
+				return block;
+			}
+		}
 	}
 	
 	private void put(Secs1Message msg) throws InterruptedException {
@@ -266,12 +292,14 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 		
 		synchronized ( packs ) {
 			
-			List<Secs1MessageBlock> blocks = msg.toBlocks();
+			Secs1MessageBlockProducer producer = Secs1MessageBlockProducer.newInstance(msg);
 			
 			Pack p = new Pack(msg);
 			packs.add(p);
 			
-			blocks.forEach(sendBlockQueue::offer);
+			p.addBytesLength(producer.bytesLength());
+			
+			sendBlockQueue.offer(producer);
 			
 			return p;
 		}
@@ -368,6 +396,13 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 			
 			try {
 				Secs1Message msg = Secs1MessageBlockConverter.toSecs1Message(recvBlocks);
+				
+				long bytesLength = 0L;
+				for ( Secs1MessageBlock b : recvBlocks ) {
+					bytesLength += b.bytesLength();
+				}
+				metrics().received(msg, bytesLength);
+				
 				notifyReceiveMessagePassThrough(msg);
 				notifyLog("Secs1-Message received", msg);
 				put(msg);
@@ -393,6 +428,10 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 		private Secs1Message reply;
 		private boolean sended;
 		private Exception failedCause;
+		private final long entryNanos;
+		private long sendedNanos;
+		private long replyNanos;
+		private long bytesLength;
 		
 		public Pack(Secs1Message primaryMsg) {
 			this.primary = primaryMsg;
@@ -400,6 +439,10 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 			this.reply = null;
 			this.sended = false;
 			this.failedCause = null;
+			this.entryNanos = System.nanoTime();
+			this.sendedNanos = this.entryNanos;
+			this.replyNanos = this.entryNanos;
+			this.bytesLength = 0L;
 		}
 		
 		public Integer key() {
@@ -408,16 +451,42 @@ public class Secs1SendReplyManager extends AbstractSecsInnerEngine {
 		
 		public void put(Secs1Message replyMsg) {
 			synchronized ( this ) {
+				this.replyNanos = System.nanoTime();
 				this.reply = replyMsg;
 			}
 		}
 		
 		public void sended() {
 			synchronized ( this ) {
+				this.sendedNanos = System.nanoTime();
 				this.sended = true;
 			}
 		}
 		
+		public void addBytesLength(long len) {
+			synchronized ( this ) {
+				this.bytesLength += len;
+			}
+		}
+		
+		public long bytesLength() {
+			synchronized ( this ) {
+				return this.bytesLength;
+			}
+		}
+		
+		public long sendQueueWaitNanos() {
+			synchronized ( this ) {
+				return this.sendedNanos - this.entryNanos;
+			}
+		}
+		
+		public long replyLatencyNanos() {
+			synchronized ( this ) {
+				return this.replyNanos - this.sendedNanos;
+			}
+		}
+		
 		public boolean isSended() {
 			synchronized ( this ) {
 				return sended;
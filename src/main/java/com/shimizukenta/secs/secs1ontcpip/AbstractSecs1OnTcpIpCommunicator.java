@@ -21,6 +21,7 @@ import com.shimizukenta.secs.SecsException;
 import com.shimizukenta.secs.SecsSendMessageException;
 import com.shimizukenta.secs.secs1.AbstractSecs1Communicator;
 import com.shimizukenta.secs.secs1.Secs1DetectTerminateException;
+import com.shimizukenta.secs.secs1.Secs1MessageBlock;
 import com.shimizukenta.secs.secs1.Secs1SendMessageException;
 
 /**
@@ -35,6 +36,9 @@ public abstract class AbstractSecs1OnTcpIpCommunicator extends AbstractSecs1Comm
 	private final Secs1OnTcpIpCommunicatorConfig secs1OnTcpIpConfig;
 	private AsynchronousSocketChannel channel;
 	
+	/* guarded by itself */
+	private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(Secs1MessageBlock.MAX_BYTES_LENGTH);
+	
 	public AbstractSecs1OnTcpIpCommunicator(Secs1OnTcpIpCommunicatorConfig config) {
 		super(Objects.requireNonNull(config));
 		
@@ -66,6 +70,8 @@ public abstract class AbstractSecs1OnTcpIpCommunicator extends AbstractSecs1Comm
 				
 				String socketAddrString = socketAddr.toString();
 				
+				secs1OnTcpIpConfig.socketOptions().setTo(ch);
+				
 				notifyLog("AbstractSecs1OnTcpIpCommunicator#try-connect", socketAddrString);
 				
 				ch.connect(socketAddr, null, new CompletionHandler<Void, Void>() {
@@ -312,6 +318,28 @@ public abstract class AbstractSecs1OnTcpIpCommunicator extends AbstractSecs1Comm
 	@Override
 	protected void sendByte(byte[] bs)
 			throws SecsSendMessageException, SecsException, InterruptedException {
+		sendBytes(bs, 0, bs.length);
+	}
+	
+	@Override
+	protected void sendBytes(byte[] bs, int offset, int length)
+			throws SecsSendMessageException, SecsException, InterruptedException {
+		
+		if ( length > sendBuffer.capacity() ) {
+			write(ByteBuffer.wrap(bs, offset, length));
+			return;
+		}
+		
+		synchronized ( sendBuffer ) {
+			((Buffer)sendBuffer).clear();
+			sendBuffer.put(bs, offset, length);
+			((Buffer)sendBuffer).flip();
+			write(sendBuffer);
+		}
+	}
+	
+	private void write(ByteBuffer buffer)
+			throws SecsSendMessageException, SecsException, InterruptedException {
 		
 		final AsynchronousSocketChannel ch;
 		
@@ -323,10 +351,6 @@ public abstract class AbstractSecs1OnTcpIpCommunicator extends AbstractSecs1Comm
 			throw new Secs1OnTcpIpNotConnectedException();
 		}
 		
-		ByteBuffer buffer = ByteBuffer.allocate(bs.length);
-		buffer.put(bs);
-		((Buffer)buffer).flip();
-		
 		while ( buffer.hasRemaining() ) {
 			
 			Future<Integer> f = ch.write(buffer);
@@ -5,6 +5,7 @@ import java.util.Objects;
 
 import com.shimizukenta.secs.ReadOnlySocketAddressProperty;
 import com.shimizukenta.secs.ReadOnlyTimeProperty;
+import com.shimizukenta.secs.SecsSocketOptions;
 import com.shimizukenta.secs.SocketAddressProperty;
 import com.shimizukenta.secs.TimeProperty;
 import com.shimizukenta.secs.secs1.Secs1CommunicatorConfig;
@@ -14,6 +15,7 @@ import com.shimizukenta.secs.secs1.Secs1CommunicatorConfig;
  * 
  * <p>
  * To set Connect SocketAddress, {@link #socketAddress(SocketAddress)}<br />
+ * To set socket options (e.g. TCP_NODELAY), {@link #socketOptions()}<br />
  * </p>
  * 
  * @author kenta-shimizu
@@ -25,6 +27,7 @@ public class Secs1OnTcpIpCommunicatorConfig extends Secs1CommunicatorConfig {
 	
 	private SocketAddressProperty socketAddr = SocketAddressProperty.newInstance(null);
 	private TimeProperty reconnectSeconds = TimeProperty.newInstance(5.0F);
+	private final SecsSocketOptions socketOptions = new SecsSocketOptions();
 	
 	public Secs1OnTcpIpCommunicatorConfig() {
 		super();
@@ -69,4 +72,17 @@ public class Secs1OnTcpIpCommunicatorConfig extends Secs1CommunicatorConfig {
 	public ReadOnlyTimeProperty reconnectSeconds() {
 		return this.reconnectSeconds;
 	}
+	
+	/**
+	 * SecsSocketOptions getter.
+	 * 
+	 * <p>
+	 * Set before open.<br />
+	 * </p>
+	 * 
+	 * @return SecsSocketOptions
+	 */
+	public SecsSocketOptions socketOptions() {
+		return this.socketOptions;
+	}
 }
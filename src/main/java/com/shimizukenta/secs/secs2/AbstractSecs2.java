@@ -4,8 +4,6 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public abstract class AbstractSecs2 implements Secs2, Serializable {
@@ -18,6 +16,32 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	abstract protected void putByteBuffers(Secs2ByteBuffersBuilder buffers) throws Secs2BuildException;
 	
+	/**
+	 * Returns length of encoded bytes, header and value.
+	 * 
+	 * <p>
+	 * Default implementation encodes, override to compute without encoding.<br />
+	 * </p>
+	 * 
+	 * @return length of encoded bytes
+	 * @throws Secs2BuildException
+	 */
+	protected long encodedLength() throws Secs2BuildException {
+		return Secs2ByteBuffersBuilder.build(1024, this).size();
+	}
+	
+	protected static long headerLength(long valueLength) throws Secs2BuildException {
+		if ( valueLength > 0xFFFFFF || valueLength < 0 ) {
+			throw new Secs2LengthByteOutOfRangeException("length: " + valueLength);
+		} else if ( valueLength > 0xFFFF ) {
+			return 4L;
+		} else if ( valueLength > 0xFF ) {
+			return 3L;
+		} else {
+			return 2L;
+		}
+	}
+	
 	protected void putHeaderBytesToByteBuffers(Secs2ByteBuffersBuilder buffers, int length) throws Secs2BuildException {
 		
 		if ( length > 0xFFFFFF || length < 0 ) {
@@ -46,10 +70,11 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 		}
 	}
 	
-	private static LinkedList<Integer> createLinkedList(int... indices) {
-		LinkedList<Integer> ll = new LinkedList<>();
-		IntStream.of(indices).boxed().forEach(ll::add);
-		return ll;
+	private static int lastIndex(int[] indices) throws Secs2Exception {
+		if ( indices.length == 0 ) {
+			throw new Secs2IndexOutOfBoundsException("indices is empty");
+		}
+		return indices.length - 1;
 	}
 	
 	@Override
@@ -74,15 +99,34 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final Secs2 get(int... indices) throws Secs2Exception {
-		return get(createLinkedList(indices));
+		return get(indices, indices.length);
 	}
 	
-	protected AbstractSecs2 get(LinkedList<Integer> list) throws Secs2Exception {
-		if ( list.isEmpty() ) {
-			return this;
-		} else {
-			throw new Secs2IrregalDataFormatException("Not Secs2List");
+	/**
+	 * Returns nested item by first depth indices, not allocate.
+	 * 
+	 * @param indices
+	 * @param depth count of indices to follow
+	 * @return nested item
+	 * @throws Secs2Exception if not List or index out of bounds
+	 */
+	protected final AbstractSecs2 get(int[] indices, int depth) throws Secs2Exception {
+		AbstractSecs2 ss = this;
+		for ( int i = 0; i < depth; ++i ) {
+			ss = ss.getChild(indices[i]);
 		}
+		return ss;
+	}
+	
+	/**
+	 * Returns child item of List.
+	 * 
+	 * @param index
+	 * @return child item
+	 * @throws Secs2Exception if not List or index out of bounds
+	 */
+	protected AbstractSecs2 getChild(int index) throws Secs2Exception {
+		throw new Secs2IrregalDataFormatException("Not Secs2List");
 	}
 	
 	@Override
@@ -97,9 +141,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final byte getByte(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getByte(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getByte(indices[last]);
 	}
 	
 	protected byte getByte(int index) throws Secs2Exception {
@@ -108,9 +151,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final boolean getBoolean(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getBoolean(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getBoolean(indices[last]);
 	}
 	
 	protected boolean getBoolean(int index) throws Secs2Exception {
@@ -119,9 +161,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final int getInt(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getInt(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getInt(indices[last]);
 	}
 	
 	protected int getInt(int index) throws Secs2Exception {
@@ -130,9 +171,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final long getLong(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getLong(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getLong(indices[last]);
 	}
 	
 	protected long getLong(int index) throws Secs2Exception {
@@ -141,9 +181,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final BigInteger getBigInteger(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getBigInteger(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getBigInteger(indices[last]);
 	}
 	
 	protected BigInteger getBigInteger(int index) throws Secs2Exception {
@@ -152,9 +191,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final float getFloat(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getFloat(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getFloat(indices[last]);
 	}
 	
 	protected float getFloat(int index) throws Secs2Exception {
@@ -163,9 +201,8 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public final double getDouble(int... indices) throws Secs2Exception {
-		LinkedList<Integer> list = createLinkedList(indices);
-		int lastIndex = list.removeLast();
-		return get(list).getDouble(lastIndex);
+		int last = lastIndex(indices);
+		return get(indices, last).getDouble(indices[last]);
 	}
 	
 	protected double getDouble(int index) throws Secs2Exception {
@@ -194,7 +231,29 @@ public abstract class AbstractSecs2 implements Secs2, Serializable {
 	
 	@Override
 	public String toJson() {
-		return "{\"f\":\"" + secs2Item().symbol() +  "\",\"v\":" + toJsonValue() + "}";
+		final StringBuilder sb = new StringBuilder();
+		appendJson(sb);
+		return sb.toString();
+	}
+	
+	/**
+	 * Append JSON to builder, same as {@link #toJson()}.
+	 * 
+	 * @param sb
+	 */
+	protected void appendJson(StringBuilder sb) {
+		sb.append("{\"f\":\"").append(secs2Item().symbol()).append("\",\"v\":");
+		appendJsonValue(sb);
+		sb.append('}');
+	}
+	
+	/**
+	 * Append JSON value to builder, same as {@link #toJsonValue()}.
+	 * 
+	 * @param sb
+	 */
+	protected void appendJsonValue(StringBuilder sb) {
+		sb.append(toJsonValue());
 	}
 	
 	abstract protected String toJsonValue();
@@ -1,7 +1,5 @@
 package com.shimizukenta.secs.secs2;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -45,6 +43,12 @@ public class Secs2Ascii extends AbstractSecs2 {
 		buffers.put(bs);
 	}
 	
+	@Override
+	protected long encodedLength() throws Secs2BuildException {
+		long len = bytes().length;
+		return headerLength(len) + len;
+	}
+	
 	private synchronized String ascii() {
 		if ( this.ascii == null ) {
 			this.ascii = new String(bytes, charset);
@@ -72,70 +76,40 @@ public class Secs2Ascii extends AbstractSecs2 {
 	}
 	
 	@Override
-	protected String toJsonValue() {
-		return "\"" + escapeJsonString(ascii()) + "\"";
-	}
-	
-	
-	private static final byte BACKSLASH = 0x5C;
-	private static final byte[] BS = new byte[]{BACKSLASH, 0x62};	/* \\b */
-	private static final byte[] HT = new byte[]{BACKSLASH, 0x74};	/* \\t */
-	private static final byte[] LF = new byte[]{BACKSLASH, 0x6E};	/* \\n */
-	private static final byte[] FF = new byte[]{BACKSLASH, 0x66};	/* \\f */
-	private static final byte[] CR = new byte[]{BACKSLASH, 0x72};	/* \\r */
-	
-	private static final String escapeJsonString(CharSequence cs) {
+	protected void appendJsonValue(StringBuilder sb) {
 		
-		try (
-				ByteArrayOutputStream strm = new ByteArrayOutputStream();
-				) {
-			
-			byte[] bb = cs.toString().getBytes(StandardCharsets.US_ASCII);
+		final String a;
+		final byte[] bs;
+		
+		synchronized ( this ) {
+			a = this.ascii;
+			bs = this.bytes;
+		}
+		
+		sb.append('"');
+		
+		if ( a == null ) {
 			
-			for (byte b : bb) {
-				
-				if (b == 0x08 /* BS */) {
-					
-					strm.write(BS);
-					
-				} else if (b == 0x09 /* HT */) {
-					
-					strm.write(HT);
-					
-				} else if (b == 0x0A /* LF */) {
-					
-					strm.write(LF);
-					
-				} else if (b == 0x0C /* FF */) {
-					
-					strm.write(FF);
-					
-				} else if (b == 0x0D /* CR */) {
-					
-					strm.write(CR);
-					
-				} else if (
-						b == 0x22 /* " */
-						|| b == 0x2F /* / */
-						|| b == BACKSLASH /* \\ */
-						) {
-					
-					strm.write(BACKSLASH);
-					strm.write(b);
-					
-				} else {
-					
-					strm.write(b);
-				}
+			for ( byte b : bs ) {
+				Secs2JsonCodec.appendEscapedAscii(sb, (b < 0 ? '?' : (char)b));
 			}
 			
-			return new String(strm.toByteArray(), StandardCharsets.US_ASCII);
-		}
-		catch (IOException notHappen) {
-			notHappen.printStackTrace();
+		} else {
+			
+			for ( int i = 0, m = a.length(); i < m; ++i ) {
+				char c = a.charAt(i);
+				Secs2JsonCodec.appendEscapedAscii(sb, (c < 0x80 ? c : '?'));
+			}
 		}
 		
-		return "";
+		sb.append('"');
+	}
+	
+	@Override
+	protected String toJsonValue() {
+		final StringBuilder sb = new StringBuilder();
+		appendJsonValue(sb);
+		return sb.toString();
 	}
 	
 	@Override
@@ -67,6 +67,12 @@ public class Secs2Boolean extends AbstractSecs2 {
 		buffers.put(bytes());
 	}
 	
+	@Override
+	protected long encodedLength() throws Secs2BuildException {
+		long len = bytes().length;
+		return headerLength(len) + len;
+	}
+	
 	private synchronized List<Boolean> bools() {
 		
 		if ( this.bools == null ) {
@@ -113,11 +119,31 @@ public class Secs2Boolean extends AbstractSecs2 {
 	}
 	
 	@Override
-	protected String toJsonValue() {
+	protected void appendJsonValue(StringBuilder sb) {
 		
-		return bools().stream()
-				.map(f -> (f ? "true" : "false"))
-				.collect(Collectors.joining(",", "[", "]"));
+		sb.append('[');
+		
+		boolean f = false;
+		
+		for ( Boolean b : bools() ) {
+			
+			if ( f ) {
+				sb.append(',');
+			} else {
+				f = true;
+			}
+			
+			sb.append(b.booleanValue() ? "true" : "false");
+		}
+		
+		sb.append(']');
+	}
+	
+	@Override
+	protected String toJsonValue() {
+		final StringBuilder sb = new StringBuilder();
+		appendJsonValue(sb);
+		return sb.toString();
 	}
 	
 	@Override
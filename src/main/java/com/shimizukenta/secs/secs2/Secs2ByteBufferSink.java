@@ -0,0 +1,23 @@
+package com.shimizukenta.secs.secs2;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface is sink of encoded buffers, used by streaming encode.
+ * 
+ * @author kenta-shimizu
+ * @see Secs2ByteBuffersBuilder#stream(int, int, Secs2, Secs2ByteBufferSink)
+ *
+ */
+@FunctionalInterface
+public interface Secs2ByteBufferSink {
+	
+	/**
+	 * Write filled buffer.
+	 * 
+	 * @param buffer flipped, position is 0
+	 * @throws Exception if write failed
+	 */
+	public void write(ByteBuffer buffer) throws Exception;
+	
+}
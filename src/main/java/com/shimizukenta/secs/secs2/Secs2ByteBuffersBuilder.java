@@ -15,16 +15,76 @@ public class Secs2ByteBuffersBuilder {
 	private long size;
 	private int blocks;
 	
+	/* streaming, null if not streaming */
+	private final Secs2ByteBufferSink sink;
+	private final ByteBuffer[] ring;
+	private int ringIndex;
+	private long streamed;
+	
+	/* writing into chunks of writer, null if not */
+	private final Secs2Writer writer;
+	
 	private Secs2ByteBuffersBuilder(int byteBufferSize) {
 		this.byteBufferSize = byteBufferSize;
 		this.buffers.add(ByteBuffer.allocate(byteBufferSize));
 		proxyBuffers = null;
+		this.sink = null;
+		this.ring = null;
+		this.writer = null;
+	}
+	
+	/**
+	 * Encode into chunks of writer, no buffer is allocated.
+	 * 
+	 * @param writer
+	 * @see Secs2Writer#secs2(Secs2)
+	 */
+	Secs2ByteBuffersBuilder(Secs2Writer writer) {
+		this.byteBufferSize = 0;
+		this.proxyBuffers = null;
+		this.sink = null;
+		this.ring = null;
+		this.writer = writer;
+	}
+	
+	private Secs2ByteBuffersBuilder(int byteBufferSize, int bufferCount, Secs2ByteBufferSink sink) {
+		this.byteBufferSize = byteBufferSize;
+		this.proxyBuffers = null;
+		this.sink = sink;
+		this.ring = new ByteBuffer[Math.max(bufferCount, 1)];
+		for ( int i = 0; i < this.ring.length; ++i ) {
+			this.ring[i] = ByteBuffer.allocate(byteBufferSize);
+		}
+		this.ringIndex = 0;
+		this.streamed = 0L;
+		this.buffers.add(this.ring[0]);
+		this.writer = null;
 	}
 	
 	public static Secs2ByteBuffersBuilder build(int byteBufferSize, Secs2 secs2) throws Secs2BuildException {
+		return build(byteBufferSize, new byte[0], secs2);
+	}
+	
+	/**
+	 * Build with prefix bytes before encoded bytes, e.g. length and header of message.
+	 * 
+	 * <p>
+	 * Prefix and encoded bytes share buffers, if byteBufferSize is total length,
+	 * result is one buffer.<br />
+	 * </p>
+	 * 
+	 * @param byteBufferSize
+	 * @param prefix
+	 * @param secs2
+	 * @return builder, first buffer starts with prefix
+	 * @throws Secs2BuildException if build failed
+	 */
+	public static Secs2ByteBuffersBuilder build(int byteBufferSize, byte[] prefix, Secs2 secs2) throws Secs2BuildException {
 		
 		Secs2ByteBuffersBuilder inst = new Secs2ByteBuffersBuilder(byteBufferSize);
 		
+		inst.put(prefix);
+		
 		if ( secs2 instanceof AbstractSecs2 ) {
 			
 			((AbstractSecs2)secs2).putByteBuffers(inst);
@@ -36,21 +96,172 @@ public class Secs2ByteBuffersBuilder {
 		}
 	}
 	
+	/**
+	 * Returns length of encoded bytes.
+	 * 
+	 * <p>
+	 * Lists, numbers, ASCII, Boolean and received items are not encoded to compute.<br />
+	 * </p>
+	 * 
+	 * @param secs2
+	 * @return length of encoded bytes
+	 * @throws Secs2BuildException if length of item out of range
+	 */
+	public static long length(Secs2 secs2) throws Secs2BuildException {
+		
+		if ( secs2 instanceof AbstractSecs2 ) {
+			
+			return ((AbstractSecs2)secs2).encodedLength();
+			
+		} else {
+			
+			throw new Secs2BuildException("cast failed");
+		}
+	}
+	
+	/**
+	 * Encode to sink through small rotating buffers, not hold all bytes.
+	 * 
+	 * <p>
+	 * Each filled buffer is passed to sink, and reused after (bufferCount - 1) other buffers.<br />
+	 * Sink must finish reading buffer before it is reused,
+	 * e.g. bufferCount 2, sink may write buffer asynchronously until next call.<br />
+	 * Last buffer is passed before return, sink may complete writing after return.<br />
+	 * </p>
+	 * 
+	 * @param byteBufferSize
+	 * @param bufferCount count of rotating buffers
+	 * @param secs2
+	 * @param sink
+	 * @return length of encoded bytes
+	 * @throws Secs2BuildException if build failed or sink failed
+	 * @throws InterruptedException if sink interrupted
+	 */
+	public static long stream(int byteBufferSize, int bufferCount, Secs2 secs2, Secs2ByteBufferSink sink)
+			throws Secs2BuildException, InterruptedException {
+		
+		if ( ! (secs2 instanceof AbstractSecs2) ) {
+			throw new Secs2BuildException("cast failed");
+		}
+		
+		final Secs2ByteBuffersBuilder inst = new Secs2ByteBuffersBuilder(byteBufferSize, bufferCount, sink);
+		
+		try {
+			((AbstractSecs2)secs2).putByteBuffers(inst);
+			
+			ByteBuffer last = inst.buffers.getLast();
+			
+			if ( last.position() > 0 ) {
+				inst.flush(last);
+			}
+			
+			return inst.streamed;
+		}
+		catch ( SinkFailedException e ) {
+			
+			Throwable t = e.getCause();
+			
+			if ( t instanceof InterruptedException ) {
+				throw (InterruptedException)t;
+			}
+			
+			throw new Secs2BuildException(t);
+		}
+	}
+	
+	/* tunnel of sink exception through put methods */
+	private static class SinkFailedException extends RuntimeException {
+		
+		private static final long serialVersionUID = -2190842631758817563L;
+		
+		private SinkFailedException(Exception cause) {
+			super(cause);
+		}
+	}
+	
+	private void flush(ByteBuffer buffer) {
+		
+		((Buffer)buffer).flip();
+		this.streamed += buffer.remaining();
+		
+		try {
+			this.sink.write(buffer);
+		}
+		catch ( RuntimeException e ) {
+			throw e;
+		}
+		catch ( Exception e ) {
+			throw new SinkFailedException(e);
+		}
+	}
+	
+	private ByteBuffer nextBuffer() {
+		
+		if ( this.sink == null ) {
+			
+			ByteBuffer bf = ByteBuffer.allocate(byteBufferSize);
+			buffers.add(bf);
+			return bf;
+			
+		} else {
+			
+			flush(buffers.removeLast());
+			
+			this.ringIndex = (this.ringIndex + 1) % this.ring.length;
+			ByteBuffer bf = this.ring[this.ringIndex];
+			((Buffer)bf).clear();
+			buffers.add(bf);
+			return bf;
+		}
+	}
+	
 	public void put(int v) {
+		if ( this.writer != null ) {
+			this.writer.put(v);
+			return;
+		}
 		byte b = (byte)v;
 		ByteBuffer buffer = buffers.getLast();
 		if ( buffer.hasRemaining() ) {
 			buffer.put(b);
 		} else {
-			ByteBuffer nextBf = ByteBuffer.allocate(byteBufferSize);
-			nextBf.put(b);
-			buffers.add(nextBf);
+			nextBuffer().put(b);
 		}
 	}
 	
 	public void put(byte[] bs) {
-		for ( byte b : bs ) {
-			put(b);
+		put(bs, 0, bs.length);
+	}
+	
+	/**
+	 * Put bytes, bulk copy to buffers.
+	 * 
+	 * @param bs
+	 * @param offset
+	 * @param length
+	 */
+	public void put(byte[] bs, int offset, int length) {
+		
+		if ( this.writer != null ) {
+			this.writer.put(bs, offset, length);
+			return;
+		}
+		
+		int pos = offset;
+		int remaining = length;
+		
+		while ( remaining > 0 ) {
+			
+			ByteBuffer buffer = buffers.getLast();
+			
+			if ( ! buffer.hasRemaining() ) {
+				buffer = nextBuffer();
+			}
+			
+			int n = Math.min(remaining, buffer.remaining());
+			buffer.put(bs, pos, n);
+			pos += n;
+			remaining -= n;
 		}
 	}
 	
@@ -73,72 +73,142 @@ public class Secs2BytesParser {
 			
 			byte[] bs = get(buffers, size);
 			
-			switch ( s2i ) {
-			case ASCII: {
-				return new Secs2Ascii(bs);
-				/* break */
-			}
-			case BINARY: {
-				return new Secs2Binary(bs);
-				/* break */
-			}
-			case BOOLEAN: {
-				return new Secs2Boolean(bs);
-				/* break */
-			}
-			case INT1: {
-				return new Secs2Int1(bs);
-				/* break */
-			}
-			case INT2: {
-				return new Secs2Int2(bs);
-				/* break */
-			}
-			case INT4: {
-				return new Secs2Int4(bs);
-				/* break */
-			}
-			case INT8: {
-				return new Secs2Int8(bs);
-				/* break */
-			}
-			case UINT1: {
-				return new Secs2Uint1(bs);
-				/* break */
-			}
-			case UINT2: {
-				return new Secs2Uint2(bs);
-				/* break */
-			}
-			case UINT4: {
-				return new Secs2Uint4(bs);
-				/* break */
-			}
-			case UINT8: {
-				return new Secs2Uint8(bs);
-				/* break */
-			}
-			case FLOAT4: {
-				return new Secs2Float4(bs);
-				/* break */
-			}
-			case FLOAT8: {
-				return new Secs2Float8(bs);
-				/* break */
-			}
-			case JIS8: {
-				return new Secs2Jis8(bs);
-				/* break */
-			}
-			case UNICODE: {
-				return new Secs2Unicode(bs);
-				/* break */
-			}
-			default: {
-				throw new Secs2UnsupportedDataFormatException();
-			}
-			}
+			return leaf(s2i, bs);
+		}
+	}
+	
+	/**
+	 * Returns item of not List.
+	 * 
+	 * @param s2i
+	 * @param bs value bytes
+	 * @return item
+	 * @throws Secs2BytesParseException if unsupported item
+	 */
+	static AbstractSecs2 leaf(Secs2Item s2i, byte[] bs) throws Secs2BytesParseException {
+		
+		switch ( s2i ) {
+		case ASCII: {
+			return new Secs2Ascii(bs);
+			/* break */
+		}
+		case BINARY: {
+			return new Secs2Binary(bs);
+			/* break */
+		}
+		case BOOLEAN: {
+			return new Secs2Boolean(bs);
+			/* break */
+		}
+		case INT1: {
+			return new Secs2Int1(bs);
+			/* break */
+		}
+		case INT2: {
+			return new Secs2Int2(bs);
+			/* break */
+		}
+		case INT4: {
+			return new Secs2Int4(bs);
+			/* break */
+		}
+		case INT8: {
+			return new Secs2Int8(bs);
+			/* break */
+		}
+		case UINT1: {
+			return new Secs2Uint1(bs);
+			/* break */
+		}
+		case UINT2: {
+			return new Secs2Uint2(bs);
+			/* break */
+		}
+		case UINT4: {
+			return new Secs2Uint4(bs);
+			/* break */
 		}
+		case UINT8: {
+			return new Secs2Uint8(bs);
+			/* break */
+		}
+		case FLOAT4: {
+			return new Secs2Float4(bs);
+			/* break */
+		}
+		case FLOAT8: {
+			return new Secs2Float8(bs);
+			/* break */
+		}
+		case JIS8: {
+			return new Secs2Jis8(bs);
+			/* break */
+		}
+		case UNICODE: {
+			return new Secs2Unicode(bs);
+			/* break */
+		}
+		default: {
+			throw new Secs2UnsupportedDataFormatException();
+		}
+		}
+	}
+	
+	/**
+	 * Returns lazy parsed Secs2 of buffers.
+	 * 
+	 * <p>
+	 * Buffers are copied to one bytes, headers are validated.<br />
+	 * Values are decoded on first access, see {@link Secs2Lazy}.<br />
+	 * </p>
+	 * 
+	 * @param buffers
+	 * @return Secs2
+	 * @throws Secs2BytesParseException
+	 */
+	public Secs2 parseLazy(List<ByteBuffer> buffers) throws Secs2BytesParseException {
+		
+		int size = 0;
+		for ( ByteBuffer bf : buffers ) {
+			size += bf.remaining();
+		}
+		
+		if ( size == 0 ) {
+			return new Secs2RawBytes();
+		}
+		
+		final byte[] bs = new byte[size];
+		
+		int pos = 0;
+		for ( ByteBuffer bf : buffers ) {
+			int r = bf.remaining();
+			bf.get(bs, pos, r);
+			pos += r;
+		}
+		
+		return parseLazy(bs);
+	}
+	
+	/**
+	 * Returns lazy parsed Secs2 of bytes.
+	 * 
+	 * @param bs not copied, do not modify after
+	 * @return Secs2
+	 * @throws Secs2BytesParseException
+	 */
+	public Secs2 parseLazy(byte[] bs) throws Secs2BytesParseException {
+		
+		if ( bs.length == 0 ) {
+			return new Secs2RawBytes();
+		}
+		
+		int end = Secs2Lazy.itemEnd(bs, 0, bs.length);
+		
+		if ( end != bs.length ) {
+			throw new Secs2BytesParseException("not reach end buffers");
+		}
+		
+		return new Secs2Lazy(bs, 0, bs.length);
 	}
 	
 	private static boolean hasRemaining(List<ByteBuffer> buffers) {
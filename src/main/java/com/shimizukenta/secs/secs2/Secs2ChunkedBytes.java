@@ -0,0 +1,213 @@
+package com.shimizukenta.secs.secs2;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class is SECS-II item encoded to chunks by {@link Secs2Writer}.
+ * 
+ * <p>
+ * Encoding is straight copy of chunks, no object tree exists.<br />
+ * Other access (getter, toString, toJson) joins chunks once and decodes by {@link Secs2Lazy}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class Secs2ChunkedBytes extends AbstractSecs2 {
+	
+	private static final long serialVersionUID = -5203716148812655493L;
+	
+	private final byte[][] chunks;
+	private final int lastLength;
+	private final long length;
+	private final Secs2Item secs2Item;
+	
+	private Secs2Lazy delegate;
+	
+	/**
+	 * Chunks must be one validated item.
+	 * 
+	 * @param chunks not copied, do not modify after
+	 * @param lastLength length of written bytes in last chunk
+	 */
+	protected Secs2ChunkedBytes(List<byte[]> chunks, int lastLength) {
+		super();
+		
+		this.chunks = chunks.toArray(new byte[chunks.size()][]);
+		this.lastLength = lastLength;
+		
+		long len = 0L;
+		for ( int i = 0; i < this.chunks.length; ++i ) {
+			len += chunkLength(i);
+		}
+		
+		this.length = len;
+		this.secs2Item = Secs2Item.get(this.chunks[0][0]);
+		this.delegate = null;
+	}
+	
+	private int chunkLength(int i) {
+		return i == (this.chunks.length - 1) ? this.lastLength : this.chunks[i].length;
+	}
+	
+	/**
+	 * Returns length of encoded bytes.
+	 * 
+	 * @return length of encoded bytes
+	 */
+	public long length() {
+		return this.length;
+	}
+	
+	/**
+	 * Returns decoded item, chunks are joined on first call.
+	 * 
+	 * @return decoded item
+	 */
+	protected Secs2Lazy delegate() {
+		
+		synchronized ( this ) {
+			
+			if ( this.delegate == null ) {
+				
+				if ( this.length > Integer.MAX_VALUE ) {
+					throw new IllegalStateException("too large to decode: " + this.length);
+				}
+				
+				final byte[] bs = new byte[(int)this.length];
+				int pos = 0;
+				
+				for ( int i = 0; i < this.chunks.length; ++i ) {
+					int n = chunkLength(i);
+					System.arraycopy(this.chunks[i], 0, bs, pos, n);
+					pos += n;
+				}
+				
+				this.delegate = new Secs2Lazy(bs, 0, bs.length);
+			}
+			
+			return this.delegate;
+		}
+	}
+	
+	@Override
+	public Secs2Item secs2Item() {
+		return secs2Item;
+	}
+	
+	@Override
+	public int size() {
+		return delegate().size();
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return delegate().isEmpty();
+	}
+	
+	@Override
+	public Stream<Secs2> stream() {
+		return delegate().stream();
+	}
+	
+	@Override
+	public Iterator<Secs2> iterator() {
+		return delegate().iterator();
+	}
+	
+	@Override
+	protected void putByteBuffers(Secs2ByteBuffersBuilder buffers) {
+		for ( int i = 0; i < this.chunks.length; ++i ) {
+			buffers.put(this.chunks[i], 0, chunkLength(i));
+		}
+	}
+	
+	@Override
+	protected long encodedLength() {
+		return this.length;
+	}
+	
+	@Override
+	protected AbstractSecs2 getChild(int index) throws Secs2Exception {
+		return delegate().getChild(index);
+	}
+	
+	@Override
+	public String getAscii() throws Secs2Exception {
+		return delegate().getAscii();
+	}
+	
+	@Override
+	protected byte getByte(int index) throws Secs2Exception {
+		return delegate().getByte(index);
+	}
+	
+	@Override
+	protected boolean getBoolean(int index) throws Secs2Exception {
+		return delegate().getBoolean(index);
+	}
+	
+	@Override
+	protected int getInt(int index) throws Secs2Exception {
+		return delegate().getInt(index);
+	}
+	
+	@Override
+	protected long getLong(int index) throws Secs2Exception {
+		return delegate().getLong(index);
+	}
+	
+	@Override
+	protected BigInteger getBigInteger(int index) throws Secs2Exception {
+		return delegate().getBigInteger(index);
+	}
+	
+	@Override
+	protected float getFloat(int index) throws Secs2Exception {
+		return delegate().getFloat(index);
+	}
+	
+	@Override
+	protected double getDouble(int index) throws Secs2Exception {
+		return delegate().getDouble(index);
+	}
+	
+	@Override
+	public String toString() {
+		return delegate().toString();
+	}
+	
+	@Override
+	protected int toStringSize() {
+		return delegate().toStringSize();
+	}
+	
+	@Override
+	protected String toStringValue() {
+		return delegate().toStringValue();
+	}
+	
+	@Override
+	public String toJson() {
+		return delegate().toJson();
+	}
+	
+	@Override
+	protected void appendJson(StringBuilder sb) {
+		delegate().appendJson(sb);
+	}
+	
+	@Override
+	protected void appendJsonValue(StringBuilder sb) {
+		delegate().appendJsonValue(sb);
+	}
+	
+	@Override
+	protected String toJsonValue() {
+		return delegate().toJsonValue();
+	}
+	
+}
@@ -52,7 +52,7 @@ public enum Secs2Item {
 	 * 
 	 * @return SML-Item-type-String
 	 */
-	protected String symbol() {
+	public String symbol() {
 		return symbol;
 	}
 	
@@ -63,16 +63,30 @@ public enum Secs2Item {
 	 * @return Secs2Item
 	 */
 	public static Secs2Item get(byte itemCode) {
+		return CodeTable.items[(itemCode >> 2) & 0x3F];
+	}
+	
+	/* indexed by upper 6 bits of item-code, values() clones per call */
+	private static class CodeTable {
 		
-		byte b = (byte)( itemCode & 0xFC );
+		private static final Secs2Item[] items = new Secs2Item[64];
 		
-		for ( Secs2Item item : values() ) {
-			if ( b == item.code ) {
-				return item;
+		static {
+			for ( int i = 0; i < items.length; ++i ) {
+				
+				byte b = (byte)(i << 2);
+				Secs2Item found = UNDEFINED;
+				
+				for ( Secs2Item item : values() ) {
+					if ( item != UNDEFINED && b == item.code ) {
+						found = item;
+						break;
+					}
+				}
+				
+				items[i] = found;
 			}
 		}
-		
-		return UNDEFINED;
 	}
 	
 	/**
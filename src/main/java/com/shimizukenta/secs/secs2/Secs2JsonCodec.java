@@ -0,0 +1,820 @@
+package com.shimizukenta.secs.secs2;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class is codec of SECS-II JSON, format is same as {@link Secs2#toJson()}.
+ * 
+ * <p>
+ * e.g. {@code {"f":"L","v":[{"f":"A","v":"MDLN"},{"f":"U4","v":[1,2]}]}}<br />
+ * To write JSON to builder, {@link #appendJson(Secs2, StringBuilder)}, {@link #appendJson(Secs2, Appendable)}.<br />
+ * To parse JSON, {@link #parse(CharSequence)}.<br />
+ * </p>
+ * <p>
+ * Writing appends to builder, not build String per item.<br />
+ * Parsing is single-pass, values are encoded to SECS-II bytes directly, not boxed.<br />
+ * {@code {}} or {@code null} is empty body.<br />
+ * J and UNICODE are not supported.<br />
+ * Integer and B values must be integral, e.g. {@code 2.0} is 2, {@code 1.5} is error.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class Secs2JsonCodec {
+	
+	private Secs2JsonCodec() {
+		/* Nothing */
+	}
+	
+	/**
+	 * Append JSON of Secs2 to builder.
+	 * 
+	 * @param secs2
+	 * @param sb
+	 */
+	public static void appendJson(Secs2 secs2, StringBuilder sb) {
+		if ( secs2 instanceof AbstractSecs2 ) {
+			((AbstractSecs2)secs2).appendJson(sb);
+		} else {
+			sb.append(secs2.toJson());
+		}
+	}
+	
+	/**
+	 * Append JSON of Secs2 to Appendable, e.g. Writer.
+	 * 
+	 * <p>
+	 * Written item by item, whole JSON is not built before append.<br />
+	 * </p>
+	 * 
+	 * @param secs2
+	 * @param a
+	 * @throws IOException
+	 */
+	public static void appendJson(Secs2 secs2, Appendable a) throws IOException {
+		if ( a instanceof StringBuilder ) {
+			appendJson(secs2, (StringBuilder)a);
+		} else {
+			appendJson(secs2, a, new StringBuilder());
+		}
+	}
+	
+	/* List is written per child, other item is built in sb and appended */
+	private static void appendJson(Secs2 secs2, Appendable a, StringBuilder sb) throws IOException {
+		
+		if ( secs2.secs2Item() == Secs2Item.LIST ) {
+			
+			a.append("{\"f\":\"L\",\"v\":[");
+			
+			boolean f = false;
+			
+			for ( Iterator<Secs2> i = secs2.stream().iterator(); i.hasNext(); ) {
+				
+				if ( f ) {
+					a.append(',');
+				} else {
+					f = true;
+				}
+				
+				appendJson(i.next(), a, sb);
+			}
+			
+			a.append("]}");
+			
+		} else {
+			
+			sb.setLength(0);
+			appendJson(secs2, sb);
+			a.append(sb);
+		}
+	}
+	
+	private static final char[] ESCAPES = new char[0x80];
+	
+	static {
+		for ( int c = 0; c < 0x20; ++c ) {
+			ESCAPES[c] = 'u';
+		}
+		ESCAPES[0x08] = 'b';
+		ESCAPES[0x09] = 't';
+		ESCAPES[0x0A] = 'n';
+		ESCAPES[0x0C] = 'f';
+		ESCAPES[0x0D] = 'r';
+		ESCAPES['"'] = '"';
+		ESCAPES['/'] = '/';
+		ESCAPES['\\'] = '\\';
+	}
+	
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+	
+	/**
+	 * Append escaped ASCII character.
+	 * 
+	 * @param sb
+	 * @param c ASCII character
+	 */
+	static void appendEscapedAscii(StringBuilder sb, char c) {
+		
+		char x = ESCAPES[c];
+		
+		if ( x == 0 ) {
+			
+			sb.append(c);
+			
+		} else if ( x == 'u' ) {
+			
+			sb.append('\\').append('u').append('0').append('0')
+			.append(HEX[(c >> 4) & 0xF])
+			.append(HEX[c & 0xF]);
+			
+		} else {
+			
+			sb.append('\\').append(x);
+		}
+	}
+	
+	/**
+	 * Parse JSON to Secs2.
+	 * 
+	 * @param json
+	 * @return Secs2
+	 * @throws Secs2JsonParseException if parse failed
+	 */
+	public static Secs2 parse(CharSequence json) throws Secs2JsonParseException {
+		
+		final Parser p = new Parser(json);
+		
+		p.skipWhiteSpace();
+		
+		final Secs2 ss;
+		
+		if ( p.matchLiteral("null") ) {
+			ss = Secs2.empty();
+		} else {
+			ss = p.parseItem();
+		}
+		
+		p.skipWhiteSpace();
+		
+		if ( p.pos < p.len ) {
+			throw p.exception("Unexpected character");
+		}
+		
+		return ss;
+	}
+	
+	/**
+	 * Build number item from JSON number literals, same checks as {@link #parse(CharSequence)}.
+	 * 
+	 * <p>
+	 * To convert parsed JSON tree (e.g. JsonHub) without writing JSON again.<br />
+	 * Item is BINARY, INT*, UINT* or FLOAT*.<br />
+	 * </p>
+	 * 
+	 * @param item
+	 * @param literals JSON number literals, e.g. {@code "123"}, {@code "-1.5e3"}
+	 * @return Secs2
+	 * @throws Secs2JsonParseException if not number or out of range
+	 */
+	public static Secs2 numbers(Secs2Item item, Iterable<? extends CharSequence> literals)
+			throws Secs2JsonParseException {
+		
+		final Parser p = new Parser("");
+		
+		if ( ! isNumber(item) ) {
+			throw p.exception("Not support SECS-II \"f\": " + item);
+		}
+		
+		p.bufPos = 0;
+		
+		for ( CharSequence literal : literals ) {
+			p.source(literal);
+			p.skipWhiteSpace();
+			p.putNumber(item);
+			p.skipWhiteSpace();
+			if ( p.pos < p.len ) {
+				throw p.exception(item + " \"v\" is not number");
+			}
+		}
+		
+		return p.toNumberItem(item);
+	}
+	
+	private static boolean isNumber(Secs2Item item) {
+		switch ( item ) {
+		case BINARY:
+		case INT1:
+		case INT2:
+		case INT4:
+		case INT8:
+		case UINT1:
+		case UINT2:
+		case UINT4:
+		case UINT8:
+		case FLOAT4:
+		case FLOAT8: {
+			return true;
+		}
+		default: {
+			return false;
+		}
+		}
+	}
+	
+	private static final class Parser {
+		
+		private CharSequence cs;
+		private int len;
+		private int pos;
+		
+		private byte[] buf;
+		private int bufPos;
+		
+		/* false if literals, position is not reported */
+		private boolean located;
+		
+		private Parser(CharSequence cs) {
+			this.cs = cs;
+			this.len = cs.length();
+			this.pos = 0;
+			this.buf = new byte[64];
+			this.bufPos = 0;
+			this.located = true;
+		}
+		
+		private void source(CharSequence cs) {
+			this.cs = cs;
+			this.len = cs.length();
+			this.pos = 0;
+			this.located = false;
+		}
+		
+		private Secs2JsonParseException exception(String message) {
+			if ( located ) {
+				return new Secs2JsonParseException(message + " at " + pos);
+			} else {
+				return new Secs2JsonParseException(message);
+			}
+		}
+		
+		private void skipWhiteSpace() {
+			while ( pos < len ) {
+				char c = cs.charAt(pos);
+				if ( c == ' ' || c == '\t' || c == '\n' || c == '\r' ) {
+					++pos;
+				} else {
+					break;
+				}
+			}
+		}
+		
+		private char peek() throws Secs2JsonParseException {
+			skipWhiteSpace();
+			if ( pos < len ) {
+				return cs.charAt(pos);
+			}
+			throw exception("Unexpected end");
+		}
+		
+		private void expect(char c) throws Secs2JsonParseException {
+			if ( peek() == c ) {
+				++pos;
+			} else {
+				throw exception("Expected '" + c + "'");
+			}
+		}
+		
+		private boolean matchLiteral(String literal) {
+			final int n = literal.length();
+			if ( pos + n > len ) {
+				return false;
+			}
+			for ( int i = 0; i < n; ++i ) {
+				if ( cs.charAt(pos + i) != literal.charAt(i) ) {
+					return false;
+				}
+			}
+			pos += n;
+			return true;
+		}
+		
+		private Secs2 parseItem() throws Secs2JsonParseException {
+			
+			expect('{');
+			
+			if ( peek() == '}' ) {
+				++pos;
+				return Secs2.empty();
+			}
+			
+			Secs2Item item = null;
+			Secs2 value = null;
+			int valuePos = -1;
+			
+			for ( ;; ) {
+				
+				peek();
+				
+				final String key = parseString();
+				
+				expect(':');
+				
+				if ( key.equals("f") ) {
+					
+					peek();
+					item = Secs2Item.symbol(parseString());
+					
+				} else if ( key.equals("v") ) {
+					
+					if ( item == null ) {
+						peek();
+						valuePos = pos;
+						skipValue();
+					} else {
+						value = parseValue(item);
+					}
+					
+				} else {
+					
+					skipValue();
+				}
+				
+				char c = peek();
+				++pos;
+				
+				if ( c == '}' ) {
+					break;
+				}
+				
+				if ( c != ',' ) {
+					--pos;
+					throw exception("Expected ',' or '}'");
+				}
+			}
+			
+			if ( item == null ) {
+				throw exception("SECS-II \"f\" not found");
+			}
+			
+			if ( value == null ) {
+				
+				if ( valuePos < 0 ) {
+					throw exception("SECS-II \"v\" not found");
+				}
+				
+				final int end = pos;
+				pos = valuePos;
+				value = parseValue(item);
+				pos = end;
+			}
+			
+			return value;
+		}
+		
+		private Secs2 parseValue(Secs2Item item) throws Secs2JsonParseException {
+			
+			switch ( item ) {
+			case LIST: {
+				
+				final List<Secs2> ss = new ArrayList<>();
+				
+				expect('[');
+				
+				if ( peek() == ']' ) {
+					++pos;
+				} else {
+					for ( ;; ) {
+						ss.add(parseItem());
+						if ( endOfArray() ) {
+							break;
+						}
+					}
+				}
+				
+				return Secs2.list(ss);
+			}
+			case ASCII: {
+				
+				peek();
+				return Secs2.ascii(parseString());
+			}
+			case BOOLEAN: {
+				
+				bufPos = 0;
+				
+				expect('[');
+				
+				if ( peek() == ']' ) {
+					++pos;
+				} else {
+					for ( ;; ) {
+						
+						peek();
+						
+						if ( matchLiteral("true") ) {
+							putByte((byte)0xFF);
+						} else if ( matchLiteral("false") ) {
+							putByte((byte)0x00);
+						} else {
+							throw exception("BOOLEAN \"v\" is not boolean");
+						}
+						
+						if ( endOfArray() ) {
+							break;
+						}
+					}
+				}
+				
+				return new Secs2Boolean(Arrays.copyOf(buf, bufPos));
+			}
+			case BINARY:
+			case INT1:
+			case INT2:
+			case INT4:
+			case INT8:
+			case UINT1:
+			case UINT2:
+			case UINT4:
+			case UINT8:
+			case FLOAT4:
+			case FLOAT8: {
+				
+				parseNumbers(item);
+				return toNumberItem(item);
+			}
+			default: {
+				throw exception("Not support SECS-II \"f\": " + item);
+			}
+			}
+		}
+		
+		private Secs2 toNumberItem(Secs2Item item) throws Secs2JsonParseException {
+			
+			final byte[] bs = Arrays.copyOf(buf, bufPos);
+			
+			switch ( item ) {
+			case BINARY: return new Secs2Binary(bs);
+			case INT1:   return new Secs2Int1(bs);
+			case INT2:   return new Secs2Int2(bs);
+			case INT4:   return new Secs2Int4(bs);
+			case INT8:   return new Secs2Int8(bs);
+			case UINT1:  return new Secs2Uint1(bs);
+			case UINT2:  return new Secs2Uint2(bs);
+			case UINT4:  return new Secs2Uint4(bs);
+			case UINT8:  return new Secs2Uint8(bs);
+			case FLOAT4: return new Secs2Float4(bs);
+			case FLOAT8: return new Secs2Float8(bs);
+			default: {
+				throw exception("Not support SECS-II \"f\": " + item);
+			}
+			}
+		}
+		
+		/* returns true if ']', false if ',' */
+		private boolean endOfArray() throws Secs2JsonParseException {
+			
+			char c = peek();
+			++pos;
+			
+			if ( c == ']' ) {
+				return true;
+			}
+			
+			if ( c == ',' ) {
+				return false;
+			}
+			
+			--pos;
+			throw exception("Expected ',' or ']'");
+		}
+		
+		private void parseNumbers(Secs2Item item) throws Secs2JsonParseException {
+			
+			bufPos = 0;
+			
+			expect('[');
+			
+			if ( peek() == ']' ) {
+				
+				++pos;
+				
+			} else {
+				
+				for ( ;; ) {
+					
+					peek();
+					putNumber(item);
+					
+					if ( endOfArray() ) {
+						break;
+					}
+				}
+			}
+		}
+		
+		private void putNumber(Secs2Item item) throws Secs2JsonParseException {
+			
+			final int start = pos;
+			
+			while ( pos < len ) {
+				char c = cs.charAt(pos);
+				if ( (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' ) {
+					++pos;
+				} else {
+					break;
+				}
+			}
+			
+			if ( start == pos ) {
+				throw exception(item + " \"v\" is not number");
+			}
+			
+			if ( item == Secs2Item.FLOAT4 ) {
+				
+				putBigEndian(Float.floatToIntBits((float)parseDouble(start)), 4);
+				
+			} else if ( item == Secs2Item.FLOAT8 ) {
+				
+				putBigEndian(Double.doubleToLongBits(parseDouble(start)), 8);
+				
+			} else {
+				
+				putBigEndian(parseLong(start, item), item.size());
+			}
+		}
+		
+		private double parseDouble(int start) throws Secs2JsonParseException {
+			try {
+				return Double.parseDouble(cs.subSequence(start, pos).toString());
+			}
+			catch ( NumberFormatException e ) {
+				throw exception("Number format failed");
+			}
+		}
+		
+		/* integer digits without allocation, others by Double or BigInteger */
+		private long parseLong(int start, Secs2Item item) throws Secs2JsonParseException {
+			
+			int i = start;
+			boolean negative = false;
+			
+			if ( cs.charAt(i) == '-' ) {
+				negative = true;
+				++i;
+			}
+			
+			if ( i < pos && (pos - i) <= 18 ) {
+				
+				long v = 0L;
+				
+				for ( ; i < pos; ++i ) {
+					
+					char c = cs.charAt(i);
+					
+					if ( c < '0' || c > '9' ) {
+						break;
+					}
+					
+					v = v * 10L + (c - '0');
+				}
+				
+				if ( i == pos ) {
+					return checkRange((negative ? -v : v), item);
+				}
+			}
+			
+			final String s = cs.subSequence(start, pos).toString();
+			
+			final BigInteger bi;
+			
+			try {
+				if ( s.indexOf('.') >= 0 || s.indexOf('e') >= 0 || s.indexOf('E') >= 0 ) {
+					
+					/* exact decimal, e.g. 2.0 and 1e3 are integer, 1.5 is not */
+					final BigDecimal bd = new BigDecimal(s).stripTrailingZeros();
+					
+					if ( bd.scale() > 0 ) {
+						throw exception(item + " \"v\" is not integer: " + s);
+					}
+					
+					/* guard before BigInteger, huge exponent */
+					if ( (bd.precision() - bd.scale()) > 20 ) {
+						throw exception(item + " \"v\" out of range: " + s);
+					}
+					
+					bi = bd.toBigInteger();
+					
+				} else {
+					
+					bi = new BigInteger(s);
+				}
+			}
+			catch ( NumberFormatException e ) {
+				throw exception("Number format failed");
+			}
+			
+			if ( bi.bitLength() < 64 ) {
+				return checkRange(bi.longValue(), item);
+			}
+			
+			/* UINT8 over Long.MAX_VALUE keeps bit pattern */
+			if ( item == Secs2Item.UINT8 && bi.signum() > 0 && bi.bitLength() == 64 ) {
+				return bi.longValue();
+			}
+			
+			throw exception(item + " \"v\" out of range: " + s);
+		}
+		
+		/* BINARY accepts -128 to 255, written signed and read as unsigned */
+		private static boolean isSigned(Secs2Item item) {
+			switch ( item ) {
+			case INT1:
+			case INT2:
+			case INT4:
+			case INT8: {
+				return true;
+			}
+			default: {
+				return false;
+			}
+			}
+		}
+		
+		private long checkRange(long v, Secs2Item item) throws Secs2JsonParseException {
+			
+			final int bits = item.size() * 8;
+			
+			final long min;
+			final long max;
+			
+			if ( item == Secs2Item.BINARY ) {
+				
+				min = -0x80L;
+				max = 0xFFL;
+				
+			} else if ( isSigned(item) ) {
+				
+				if ( bits == 64 ) {
+					return v;
+				}
+				
+				min = -(1L << (bits - 1));
+				max = (1L << (bits - 1)) - 1L;
+				
+			} else {
+				
+				min = 0L;
+				max = bits == 64 ? Long.MAX_VALUE : ((1L << bits) - 1L);
+			}
+			
+			if ( v < min || v > max ) {
+				throw exception(item + " \"v\" out of range: " + v);
+			}
+			
+			return v;
+		}
+		
+		private void putByte(byte b) {
+			if ( bufPos == buf.length ) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+			buf[bufPos++] = b;
+		}
+		
+		private void putBigEndian(long v, int size) {
+			for ( int i = size - 1; i >= 0; --i ) {
+				putByte((byte)(v >> (i * 8)));
+			}
+		}
+		
+		private String parseString() throws Secs2JsonParseException {
+			
+			if ( pos >= len || cs.charAt(pos) != '"' ) {
+				throw exception("Expected string");
+			}
+			
+			final int start = ++pos;
+			
+			/* no escape */
+			while ( pos < len ) {
+				
+				char c = cs.charAt(pos);
+				
+				if ( c == '"' ) {
+					return cs.subSequence(start, pos++).toString();
+				}
+				
+				if ( c == '\\' ) {
+					break;
+				}
+				
+				++pos;
+			}
+			
+			final StringBuilder sb = new StringBuilder().append(cs, start, pos);
+			
+			while ( pos < len ) {
+				
+				char c = cs.charAt(pos++);
+				
+				if ( c == '"' ) {
+					return sb.toString();
+				}
+				
+				if ( c != '\\' ) {
+					sb.append(c);
+					continue;
+				}
+				
+				if ( pos >= len ) {
+					break;
+				}
+				
+				char e = cs.charAt(pos++);
+				
+				switch ( e ) {
+				case 'b': sb.append('\b'); break;
+				case 't': sb.append('\t'); break;
+				case 'n': sb.append('\n'); break;
+				case 'f': sb.append('\f'); break;
+				case 'r': sb.append('\r'); break;
+				case 'u': {
+					
+					if ( pos + 4 > len ) {
+						throw exception("Unicode escape failed");
+					}
+					
+					try {
+						sb.append((char)Integer.parseInt(cs.subSequence(pos, pos + 4).toString(), 16));
+					}
+					catch ( NumberFormatException ex ) {
+						throw exception("Unicode escape failed");
+					}
+					
+					pos += 4;
+					break;
+				}
+				default: {
+					sb.append(e);
+				}
+				}
+			}
+			
+			throw exception("Unexpected end of string");
+		}
+		
+		private void skipValue() throws Secs2JsonParseException {
+			
+			char c = peek();
+			
+			if ( c == '"' ) {
+				
+				parseString();
+				
+			} else if ( c == '{' || c == '[' ) {
+				
+				int depth = 0;
+				
+				while ( pos < len ) {
+					
+					c = cs.charAt(pos);
+					
+					if ( c == '"' ) {
+						parseString();
+						continue;
+					}
+					
+					++pos;
+					
+					if ( c == '{' || c == '[' ) {
+						++depth;
+					} else if ( c == '}' || c == ']' ) {
+						if ( --depth == 0 ) {
+							return;
+						}
+					}
+				}
+				
+				throw exception("Unexpected end");
+				
+			} else {
+				
+				while ( pos < len ) {
+					c = cs.charAt(pos);
+					if ( c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r' ) {
+						break;
+					}
+					++pos;
+				}
+			}
+		}
+	}
+	
+}
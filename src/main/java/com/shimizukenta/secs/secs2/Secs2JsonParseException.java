@@ -0,0 +1,23 @@
+package com.shimizukenta.secs.secs2;
+
+public class Secs2JsonParseException extends Secs2Exception {
+	
+	private static final long serialVersionUID = 2871054536327149203L;
+
+	public Secs2JsonParseException() {
+		super();
+	}
+
+	public Secs2JsonParseException(String message) {
+		super(message);
+	}
+
+	public Secs2JsonParseException(Throwable cause) {
+		super(cause);
+	}
+
+	public Secs2JsonParseException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+}
@@ -0,0 +1,329 @@
+package com.shimizukenta.secs.secs2;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This class is SECS-II item backed by received raw bytes, decoded on first access.
+ * 
+ * <p>
+ * Item-type and size of List are read from header.<br />
+ * Offsets of List children are indexed only when navigated.<br />
+ * Values of number, Binary and Boolean getters are read from bytes directly.<br />
+ * Leaf item is decoded only when getAscii, toString or toJson is called.<br />
+ * Encoding is straight copy of original bytes.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class Secs2Lazy extends AbstractSecs2 {
+	
+	private static final long serialVersionUID = -3716489360118932264L;
+	
+	private final byte[] bytes;
+	private final int offset;
+	private final int length;
+	private final Secs2Item secs2Item;
+	private final int headerLength;
+	private final int valueLength;
+	
+	private volatile Secs2Lazy[] children;
+	private AbstractSecs2 delegate;
+	
+	/**
+	 * Item bytes must be validated by {@link #itemEnd(byte[], int, int)}.
+	 * 
+	 * @param bytes
+	 * @param offset start of item header
+	 * @param length length of item, header and value
+	 */
+	protected Secs2Lazy(byte[] bytes, int offset, int length) {
+		super();
+		
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+		
+		byte b = bytes[offset];
+		int lengthBytes = b & 0x03;
+		
+		this.secs2Item = Secs2Item.get(b);
+		this.headerLength = 1 + lengthBytes;
+		this.valueLength = readLength(bytes, offset + 1, lengthBytes);
+		
+		this.children = null;
+		this.delegate = null;
+	}
+	
+	static int readLength(byte[] bs, int pos, int lengthBytes) {
+		int v = 0;
+		for ( int i = 0; i < lengthBytes; ++i ) {
+			v = (v << 8) | (bs[pos + i] & 0xFF);
+		}
+		return v;
+	}
+	
+	/**
+	 * Returns end position of item, validates headers of item and children.
+	 * 
+	 * <p>
+	 * Only headers are read, values are not decoded.<br />
+	 * </p>
+	 * 
+	 * @param bs
+	 * @param pos start of item header
+	 * @param limit end of bytes
+	 * @return end position of item
+	 * @throws Secs2BytesParseException if reach end or unsupported item
+	 */
+	protected static int itemEnd(byte[] bs, int pos, int limit) throws Secs2BytesParseException {
+		
+		if ( pos >= limit ) {
+			throw new Secs2BytesParseException("reach end buffers");
+		}
+		
+		byte b = bs[pos];
+		int lengthBytes = b & 0x03;
+		Secs2Item item = Secs2Item.get(b);
+		
+		if ( item == Secs2Item.UNDEFINED ) {
+			throw new Secs2UnsupportedDataFormatException();
+		}
+		
+		int p = pos + 1 + lengthBytes;
+		
+		if ( p > limit ) {
+			throw new Secs2BytesParseException("reach end buffers");
+		}
+		
+		int len = readLength(bs, pos + 1, lengthBytes);
+		
+		if ( item == Secs2Item.LIST ) {
+			
+			for ( int i = 0; i < len; ++i ) {
+				p = itemEnd(bs, p, limit);
+			}
+			
+			return p;
+			
+		} else {
+			
+			p += len;
+			
+			if ( p > limit ) {
+				throw new Secs2BytesParseException("reach end buffers");
+			}
+			
+			return p;
+		}
+	}
+	
+	private Secs2Lazy[] children() {
+		
+		final Secs2Lazy[] indexed = this.children;
+		
+		if ( indexed != null ) {
+			return indexed;
+		}
+		
+		synchronized ( this ) {
+			
+			if ( this.children == null ) {
+				
+				final Secs2Lazy[] cc = new Secs2Lazy[this.valueLength];
+				final int limit = this.offset + this.length;
+				
+				int p = this.offset + this.headerLength;
+				
+				for ( int i = 0; i < cc.length; ++i ) {
+					
+					int end;
+					
+					try {
+						end = itemEnd(this.bytes, p, limit);
+					}
+					catch ( Secs2BytesParseException e ) {
+						/* validated before construct */
+						throw new IllegalStateException(e);
+					}
+					
+					cc[i] = new Secs2Lazy(this.bytes, p, end - p);
+					p = end;
+				}
+				
+				this.children = cc;
+			}
+			
+			return this.children;
+		}
+	}
+	
+	/**
+	 * Returns decoded item, List has lazy children.
+	 * 
+	 * @return decoded item
+	 */
+	protected AbstractSecs2 delegate() {
+		
+		synchronized ( this ) {
+			
+			if ( this.delegate == null ) {
+				
+				if ( this.secs2Item == Secs2Item.LIST ) {
+					
+					this.delegate = new Secs2List(children());
+					
+				} else {
+					
+					int p = this.offset + this.headerLength;
+					byte[] bs = Arrays.copyOfRange(this.bytes, p, p + this.valueLength);
+					
+					try {
+						this.delegate = Secs2BytesParser.leaf(this.secs2Item, bs);
+					}
+					catch ( Secs2BytesParseException e ) {
+						/* validated before construct */
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+			
+			return this.delegate;
+		}
+	}
+	
+	@Override
+	public Secs2Item secs2Item() {
+		return secs2Item;
+	}
+	
+	@Override
+	public int size() {
+		if ( this.secs2Item == Secs2Item.LIST ) {
+			return this.valueLength;
+		} else {
+			return delegate().size();
+		}
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return delegate().isEmpty();
+	}
+	
+	@Override
+	public Stream<Secs2> stream() {
+		return delegate().stream();
+	}
+	
+	@Override
+	public Iterator<Secs2> iterator() {
+		return delegate().iterator();
+	}
+	
+	@Override
+	protected void putByteBuffers(Secs2ByteBuffersBuilder buffers) {
+		buffers.put(this.bytes, this.offset, this.length);
+	}
+	
+	@Override
+	protected long encodedLength() {
+		return this.length;
+	}
+	
+	@Override
+	protected AbstractSecs2 getChild(int index) throws Secs2Exception {
+		
+		if ( this.secs2Item == Secs2Item.LIST ) {
+			
+			Secs2Lazy[] cc = children();
+			
+			if ( index < 0 || index >= cc.length ) {
+				throw new Secs2IndexOutOfBoundsException("index: " + index);
+			}
+			
+			return cc[index];
+		}
+		
+		return super.getChild(index);
+	}
+	
+	@Override
+	public String getAscii() throws Secs2Exception {
+		return delegate().getAscii();
+	}
+	
+	@Override
+	protected byte getByte(int index) throws Secs2Exception {
+		return Secs2Path.rawByte(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	protected boolean getBoolean(int index) throws Secs2Exception {
+		return Secs2Path.rawBoolean(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	protected int getInt(int index) throws Secs2Exception {
+		return Secs2Path.rawInt(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	protected long getLong(int index) throws Secs2Exception {
+		return Secs2Path.rawLong(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	protected BigInteger getBigInteger(int index) throws Secs2Exception {
+		return delegate().getBigInteger(index);
+	}
+	
+	@Override
+	protected float getFloat(int index) throws Secs2Exception {
+		return Secs2Path.rawFloat(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	protected double getDouble(int index) throws Secs2Exception {
+		return Secs2Path.rawDouble(this.bytes, this.offset, this.offset + this.length, index);
+	}
+	
+	@Override
+	public String toString() {
+		return delegate().toString();
+	}
+	
+	@Override
+	protected int toStringSize() {
+		return delegate().toStringSize();
+	}
+	
+	@Override
+	protected String toStringValue() {
+		return delegate().toStringValue();
+	}
+	
+	@Override
+	public String toJson() {
+		return delegate().toJson();
+	}
+	
+	@Override
+	protected void appendJson(StringBuilder sb) {
+		delegate().appendJson(sb);
+	}
+	
+	@Override
+	protected void appendJsonValue(StringBuilder sb) {
+		delegate().appendJsonValue(sb);
+	}
+	
+	@Override
+	protected String toJsonValue() {
+		return delegate().toJsonValue();
+	}
+	
+}
@@ -3,7 +3,6 @@ package com.shimizukenta.secs.secs2;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -80,31 +79,43 @@ public class Secs2List extends AbstractSecs2 {
 	}
 	
 	@Override
-	protected AbstractSecs2 get( LinkedList<Integer> list ) throws Secs2Exception {
+	protected long encodedLength() throws Secs2BuildException {
 		
-		if ( list.isEmpty() ) {
-			
-			return this;
-			
-		} else {
+		long len = headerLength(size());
+		
+		for ( Secs2 ss : values ) {
 			
-			try {
-				int index = list.removeFirst();
-				Secs2 ss = values.get(index);
+			if ( ss instanceof AbstractSecs2 ) {
 				
-				if ( ss instanceof AbstractSecs2 ) {
-					
-					return ((AbstractSecs2)ss).get(list);
-					
-				} else {
-					
-					throw new Secs2Exception("cast failed");
-				}
+				len += ((AbstractSecs2)ss).encodedLength();
+				
+			} else {
+				
+				throw new Secs2BuildException("cast failed");
 			}
-			catch ( IndexOutOfBoundsException e ) {
-				throw new Secs2IndexOutOfBoundsException(e);
+		}
+		
+		return len;
+	}
+	
+	@Override
+	protected AbstractSecs2 getChild(int index) throws Secs2Exception {
+		
+		try {
+			Secs2 ss = values.get(index);
+			
+			if ( ss instanceof AbstractSecs2 ) {
+				
+				return (AbstractSecs2)ss;
+				
+			} else {
+				
+				throw new Secs2Exception("cast failed");
 			}
 		}
+		catch ( IndexOutOfBoundsException e ) {
+			throw new Secs2IndexOutOfBoundsException(e);
+		}
 	}
 
 	@Override
@@ -133,9 +144,12 @@ public class Secs2List extends AbstractSecs2 {
 			
 			String ss = space + SPACE;
 			
-			if ( s instanceof Secs2List ) {
+			Secs2 c = (s instanceof Secs2ChunkedBytes) ? ((Secs2ChunkedBytes)s).delegate() : s;
+			Secs2 d = (c instanceof Secs2Lazy) ? ((Secs2Lazy)c).delegate() : c;
+			
+			if ( d instanceof Secs2List ) {
 				
-				return ((Secs2List)s).lineStrings(ss).stream()
+				return ((Secs2List)d).lineStrings(ss).stream()
 						.collect(Collectors.joining(BR));
 				
 			} else {
@@ -161,10 +175,47 @@ public class Secs2List extends AbstractSecs2 {
 	}
 	
 	@Override
-	protected String toJsonValue() {
+	protected void appendJson(StringBuilder sb) {
+		
+		final String cached;
+		
+		synchronized ( this ) {
+			cached = this.proxyToJson;
+		}
+		
+		if ( cached == null ) {
+			super.appendJson(sb);
+		} else {
+			sb.append(cached);
+		}
+	}
+	
+	@Override
+	protected void appendJsonValue(StringBuilder sb) {
+		
+		sb.append('[');
 		
-		return stream().map(ss -> ss.toJson())
-				.collect(Collectors.joining(",", "[", "]"));
+		boolean f = false;
+		
+		for ( Secs2 ss : values ) {
+			
+			if ( f ) {
+				sb.append(',');
+			} else {
+				f = true;
+			}
+			
+			Secs2JsonCodec.appendJson(ss, sb);
+		}
+		
+		sb.append(']');
+	}
+	
+	@Override
+	protected String toJsonValue() {
+		final StringBuilder sb = new StringBuilder();
+		appendJsonValue(sb);
+		return sb.toString();
 	}
 	
 	@Override
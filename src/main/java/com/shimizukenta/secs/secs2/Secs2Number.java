@@ -82,6 +82,12 @@ abstract public class Secs2Number<T extends Number> extends AbstractSecs2 {
 		buffers.put(bs);
 	}
 	
+	@Override
+	protected long encodedLength() throws Secs2BuildException {
+		long len = bytes().length;
+		return headerLength(len) + len;
+	}
+	
 	@Override
 	protected int getInt(int index) throws Secs2Exception {
 		
@@ -126,6 +132,105 @@ abstract public class Secs2Number<T extends Number> extends AbstractSecs2 {
 		}
 	}
 	
+	/**
+	 * Append JSON value to builder.
+	 * 
+	 * <p>
+	 * If built from bytes (e.g. received), values are decoded from bytes directly, not boxed.<br />
+	 * </p>
+	 */
+	@Override
+	protected void appendJsonValue(StringBuilder sb) {
+		
+		final List<T> vv;
+		final byte[] bs;
+		
+		synchronized ( this ) {
+			vv = this.values;
+			bs = this.bytes;
+		}
+		
+		if ( vv != null ) {
+			sb.append(toJsonValue());
+			return;
+		}
+		
+		final Secs2Item item = secs2Item();
+		final int size = item.size();
+		
+		if ( (bs.length % size) != 0 ) {
+			sb.append("false");
+			return;
+		}
+		
+		sb.append('[');
+		
+		for ( int i = 0; i < bs.length; i += size ) {
+			
+			if ( i > 0 ) {
+				sb.append(',');
+			}
+			
+			switch ( item ) {
+			case BINARY:
+			case INT1: {
+				sb.append(bs[i]);
+				break;
+			}
+			case UINT1: {
+				sb.append(bs[i] & 0xFF);
+				break;
+			}
+			case INT2: {
+				sb.append((short)readBigEndian(bs, i, 2));
+				break;
+			}
+			case UINT2: {
+				sb.append(readBigEndian(bs, i, 2));
+				break;
+			}
+			case INT4: {
+				sb.append((int)readBigEndian(bs, i, 4));
+				break;
+			}
+			case UINT4: {
+				sb.append(readBigEndian(bs, i, 4));
+				break;
+			}
+			case INT8: {
+				sb.append(readBigEndian(bs, i, 8));
+				break;
+			}
+			case UINT8: {
+				sb.append(Long.toUnsignedString(readBigEndian(bs, i, 8)));
+				break;
+			}
+			case FLOAT4: {
+				sb.append(Float.intBitsToFloat((int)readBigEndian(bs, i, 4)));
+				break;
+			}
+			case FLOAT8: {
+				sb.append(Double.longBitsToDouble(readBigEndian(bs, i, 8)));
+				break;
+			}
+			default: {
+				sb.append(toJsonValue());
+				return;
+			}
+			}
+		}
+		
+		sb.append(']');
+	}
+	
+	private static long readBigEndian(byte[] bs, int offset, int size) {
+		long v = 0L;
+		for ( int i = 0; i < size; ++i ) {
+			v = (v << 8) | (bs[offset + i] & 0xFFL);
+		}
+		return v;
+	}
+	
 	@Override
 	protected String toJsonValue() {
 		
@@ -0,0 +1,594 @@
+package com.shimizukenta.secs.secs2;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class is compiled path of indices to nested SECS-II item.
+ * 
+ * <p>
+ * To compile from indices, {@link #of(int...)}<br />
+ * To compile from String like "2/0/1", {@link #parse(CharSequence)}<br />
+ * </p>
+ * <p>
+ * Evaluate against Secs2 tree, e.g. {@link #getInt(Secs2)}.<br />
+ * Evaluate against encoded bytes, e.g. {@link #getInt(byte[])}.<br />
+ * Evaluation does not allocate, except returned String and BigInteger.<br />
+ * </p>
+ * <p>
+ * Value getters (getByte, getBoolean, getInt, getLong, getBigInteger, getFloat, getDouble),
+ * last index is index of value, same as {@link Secs2#getInt(int...)}.<br />
+ * {@link #get(Secs2)} and {@link #getAscii(Secs2)}, all indices are List indices.<br />
+ * </p>
+ * <p>
+ * Instances of this class are immutable.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class Secs2Path implements Serializable {
+	
+	private static final long serialVersionUID = 2841977345096127405L;
+	
+	private static final String SEPARATOR = "/";
+	
+	private final int[] indices;
+	
+	private Secs2Path(int[] indices) {
+		this.indices = indices;
+	}
+	
+	/**
+	 * Returns compiled path.
+	 * 
+	 * @param indices
+	 * @return path
+	 * @throws IllegalArgumentException if index is negative
+	 */
+	public static Secs2Path of(int... indices) {
+		
+		int[] ii = Arrays.copyOf(indices, indices.length);
+		
+		for ( int i : ii ) {
+			if ( i < 0 ) {
+				throw new IllegalArgumentException("index is negative: " + i);
+			}
+		}
+		
+		return new Secs2Path(ii);
+	}
+	
+	/**
+	 * Returns compiled path from String.
+	 * 
+	 * <p>
+	 * Format is indices separated by "/", e.g. "2/0/1".<br />
+	 * Leading "/" is allowed, "" or "/" is root.<br />
+	 * </p>
+	 * 
+	 * @param path
+	 * @return path
+	 * @throws IllegalArgumentException if invalid format
+	 */
+	public static Secs2Path parse(CharSequence path) {
+		
+		String s = path.toString().trim();
+		
+		if ( s.startsWith(SEPARATOR) ) {
+			s = s.substring(1);
+		}
+		
+		if ( s.isEmpty() ) {
+			return new Secs2Path(new int[0]);
+		}
+		
+		String[] ss = s.split(SEPARATOR, -1);
+		int[] ii = new int[ss.length];
+		
+		for ( int i = 0; i < ss.length; ++i ) {
+			try {
+				ii[i] = Integer.parseInt(ss[i].trim());
+			}
+			catch ( NumberFormatException e ) {
+				throw new IllegalArgumentException("invalid path: " + path, e);
+			}
+		}
+		
+		return of(ii);
+	}
+	
+	/**
+	 * Returns count of indices.
+	 * 
+	 * @return count of indices
+	 */
+	public int depth() {
+		return this.indices.length;
+	}
+	
+	/**
+	 * Returns index of depth.
+	 * 
+	 * @param depth
+	 * @return index
+	 */
+	public int index(int depth) {
+		return this.indices[depth];
+	}
+	
+	private static AbstractSecs2 cast(Secs2 root) throws Secs2Exception {
+		if ( root instanceof AbstractSecs2 ) {
+			return (AbstractSecs2)root;
+		} else {
+			throw new Secs2Exception("cast failed");
+		}
+	}
+	
+	private int lastIndex() throws Secs2Exception {
+		if ( this.indices.length == 0 ) {
+			throw new Secs2IndexOutOfBoundsException("path is root");
+		}
+		return this.indices.length - 1;
+	}
+	
+	/**
+	 * Returns nested item.
+	 * 
+	 * @param root
+	 * @return nested item
+	 * @throws Secs2Exception if not List or index out of bounds
+	 */
+	public Secs2 get(Secs2 root) throws Secs2Exception {
+		return cast(root).get(this.indices, this.indices.length);
+	}
+	
+	/**
+	 * Returns ASCII-String of nested item.
+	 * 
+	 * @param root
+	 * @return ASCII-String
+	 * @throws Secs2Exception if not found or not ASCII
+	 */
+	public String getAscii(Secs2 root) throws Secs2Exception {
+		return cast(root).get(this.indices, this.indices.length).getAscii();
+	}
+	
+	/**
+	 * Returns byte value.
+	 * 
+	 * @param root
+	 * @return byte value
+	 * @throws Secs2Exception if not found or not Binary
+	 */
+	public byte getByte(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getByte(this.indices[last]);
+	}
+	
+	/**
+	 * Returns boolean value.
+	 * 
+	 * @param root
+	 * @return boolean value
+	 * @throws Secs2Exception if not found or not Boolean
+	 */
+	public boolean getBoolean(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getBoolean(this.indices[last]);
+	}
+	
+	/**
+	 * Returns int value.
+	 * 
+	 * @param root
+	 * @return int value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public int getInt(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getInt(this.indices[last]);
+	}
+	
+	/**
+	 * Returns long value.
+	 * 
+	 * @param root
+	 * @return long value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public long getLong(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getLong(this.indices[last]);
+	}
+	
+	/**
+	 * Returns BigInteger value.
+	 * 
+	 * @param root
+	 * @return BigInteger value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public BigInteger getBigInteger(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getBigInteger(this.indices[last]);
+	}
+	
+	/**
+	 * Returns float value.
+	 * 
+	 * @param root
+	 * @return float value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public float getFloat(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getFloat(this.indices[last]);
+	}
+	
+	/**
+	 * Returns double value.
+	 * 
+	 * @param root
+	 * @return double value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public double getDouble(Secs2 root) throws Secs2Exception {
+		int last = lastIndex();
+		return cast(root).get(this.indices, last).getDouble(this.indices[last]);
+	}
+	
+	/**
+	 * Returns header position of nested item in encoded bytes.
+	 * 
+	 * <p>
+	 * Only headers of List and skipped siblings are read.<br />
+	 * </p>
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @param offset start of root item
+	 * @param length length of root item
+	 * @return header position of nested item
+	 * @throws Secs2Exception if not List or index out of bounds or reach end
+	 */
+	public int position(byte[] bs, int offset, int length) throws Secs2Exception {
+		return position(bs, offset, offset + length, this.indices.length);
+	}
+	
+	private int position(byte[] bs, int offset, int limit, int depth) throws Secs2Exception {
+		
+		int p = offset;
+		
+		for ( int d = 0; d < depth; ++d ) {
+			
+			if ( p >= limit ) {
+				throw new Secs2BytesParseException("reach end buffers");
+			}
+			
+			byte b = bs[p];
+			
+			if ( Secs2Item.get(b) != Secs2Item.LIST ) {
+				throw new Secs2IrregalDataFormatException("Not Secs2List");
+			}
+			
+			int lengthBytes = b & 0x03;
+			
+			if ( p + 1 + lengthBytes > limit ) {
+				throw new Secs2BytesParseException("reach end buffers");
+			}
+			
+			int size = Secs2Lazy.readLength(bs, p + 1, lengthBytes);
+			int index = this.indices[d];
+			
+			if ( index >= size ) {
+				throw new Secs2IndexOutOfBoundsException("index: " + index);
+			}
+			
+			p += 1 + lengthBytes;
+			
+			for ( int i = 0; i < index; ++i ) {
+				p = Secs2Lazy.itemEnd(bs, p, limit);
+			}
+		}
+		
+		return p;
+	}
+	
+	/**
+	 * Returns ASCII-String of nested item in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return ASCII-String
+	 * @throws Secs2Exception if not found or not ASCII
+	 */
+	public String getAscii(byte[] bs) throws Secs2Exception {
+		
+		int p = position(bs, 0, bs.length, this.indices.length);
+		
+		if ( itemOf(bs, p, bs.length) != Secs2Item.ASCII ) {
+			throw new Secs2IrregalDataFormatException("Not Secs2Ascii");
+		}
+		
+		return new String(bs, valuePosition(bs, p), valueLength(bs, p, bs.length), StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Returns byte value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return byte value
+	 * @throws Secs2Exception if not found or not Binary
+	 */
+	public byte getByte(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawByte(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/**
+	 * Returns boolean value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return boolean value
+	 * @throws Secs2Exception if not found or not Boolean
+	 */
+	public boolean getBoolean(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawBoolean(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/**
+	 * Returns int value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return int value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public int getInt(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawInt(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/**
+	 * Returns long value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return long value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public long getLong(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawLong(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/**
+	 * Returns float value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return float value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public float getFloat(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawFloat(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/**
+	 * Returns double value in encoded bytes.
+	 * 
+	 * @param bs encoded SECS-II bytes
+	 * @return double value
+	 * @throws Secs2Exception if not found or not Number
+	 */
+	public double getDouble(byte[] bs) throws Secs2Exception {
+		int last = lastIndex();
+		return rawDouble(bs, position(bs, 0, bs.length, last), bs.length, this.indices[last]);
+	}
+	
+	/* Readers of value of item at header position p, shared with Secs2Lazy */
+	
+	static byte rawByte(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		if ( itemOf(bs, p, limit) != Secs2Item.BINARY ) {
+			throw new Secs2IrregalDataFormatException("Not Secs2Byte");
+		}
+		
+		return bs[elementPosition(bs, p, limit, 1, index)];
+	}
+	
+	static boolean rawBoolean(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		if ( itemOf(bs, p, limit) != Secs2Item.BOOLEAN ) {
+			throw new Secs2IrregalDataFormatException("Not Secs2Boolean");
+		}
+		
+		return bs[elementPosition(bs, p, limit, 1, index)] != 0x00;
+	}
+	
+	static int rawInt(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		Secs2Item item = itemOf(bs, p, limit);
+		
+		if ( isFloat(item) ) {
+			return (int)readDouble(bs, p, limit, item, index);
+		} else {
+			return (int)readLong(bs, p, limit, item, index);
+		}
+	}
+	
+	static long rawLong(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		Secs2Item item = itemOf(bs, p, limit);
+		
+		if ( isFloat(item) ) {
+			return (long)readDouble(bs, p, limit, item, index);
+		} else {
+			return readLong(bs, p, limit, item, index);
+		}
+	}
+	
+	static float rawFloat(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		Secs2Item item = itemOf(bs, p, limit);
+		
+		if ( isFloat(item) || item == Secs2Item.UINT8 ) {
+			return (float)rawDouble(bs, p, limit, index);
+		} else {
+			return (float)readLong(bs, p, limit, item, index);
+		}
+	}
+	
+	static double rawDouble(byte[] bs, int p, int limit, int index) throws Secs2Exception {
+		
+		Secs2Item item = itemOf(bs, p, limit);
+		
+		if ( isFloat(item) ) {
+			
+			return readDouble(bs, p, limit, item, index);
+			
+		} else {
+			
+			long v = readLong(bs, p, limit, item, index);
+			
+			if ( item == Secs2Item.UINT8 && v < 0L ) {
+				/* unsigned 64 bits */
+				return (double)(v >>> 1) * 2.0D + (double)(v & 0x1L);
+			}
+			
+			return (double)v;
+		}
+	}
+	
+	private static boolean isFloat(Secs2Item item) {
+		return item == Secs2Item.FLOAT4 || item == Secs2Item.FLOAT8;
+	}
+	
+	private static Secs2Item itemOf(byte[] bs, int p, int limit) throws Secs2Exception {
+		
+		if ( p >= limit ) {
+			throw new Secs2BytesParseException("reach end buffers");
+		}
+		
+		return Secs2Item.get(bs[p]);
+	}
+	
+	private static int valuePosition(byte[] bs, int p) {
+		return p + 1 + (bs[p] & 0x03);
+	}
+	
+	private static int valueLength(byte[] bs, int p, int limit) throws Secs2Exception {
+		
+		int v = valuePosition(bs, p);
+		
+		if ( v > limit ) {
+			throw new Secs2BytesParseException("reach end buffers");
+		}
+		
+		int len = Secs2Lazy.readLength(bs, p + 1, bs[p] & 0x03);
+		
+		if ( v + len > limit ) {
+			throw new Secs2BytesParseException("reach end buffers");
+		}
+		
+		return len;
+	}
+	
+	private static int elementPosition(byte[] bs, int p, int limit, int elementSize, int index) throws Secs2Exception {
+		
+		int count = valueLength(bs, p, limit) / elementSize;
+		
+		if ( index < 0 || index >= count ) {
+			throw new Secs2IndexOutOfBoundsException("index: " + index);
+		}
+		
+		return valuePosition(bs, p) + index * elementSize;
+	}
+	
+	private static long readBits(byte[] bs, int pos, int size) {
+		long v = 0L;
+		for ( int i = 0; i < size; ++i ) {
+			v = (v << 8) | (bs[pos + i] & 0xFFL);
+		}
+		return v;
+	}
+	
+	private static long readLong(byte[] bs, int p, int limit, Secs2Item item, int index) throws Secs2Exception {
+		
+		switch ( item ) {
+		case BINARY:
+		case INT1: {
+			return bs[elementPosition(bs, p, limit, 1, index)];
+			/* break */
+		}
+		case INT2: {
+			return (short)readBits(bs, elementPosition(bs, p, limit, 2, index), 2);
+			/* break */
+		}
+		case INT4: {
+			return (int)readBits(bs, elementPosition(bs, p, limit, 4, index), 4);
+			/* break */
+		}
+		case INT8:
+		case UINT8: {
+			return readBits(bs, elementPosition(bs, p, limit, 8, index), 8);
+			/* break */
+		}
+		case UINT1: {
+			return readBits(bs, elementPosition(bs, p, limit, 1, index), 1);
+			/* break */
+		}
+		case UINT2: {
+			return readBits(bs, elementPosition(bs, p, limit, 2, index), 2);
+			/* break */
+		}
+		case UINT4: {
+			return readBits(bs, elementPosition(bs, p, limit, 4, index), 4);
+			/* break */
+		}
+		default: {
+			throw new Secs2IrregalDataFormatException("Not Secs2Number");
+		}
+		}
+	}
+	
+	private static double readDouble(byte[] bs, int p, int limit, Secs2Item item, int index) throws Secs2Exception {
+		
+		if ( item == Secs2Item.FLOAT4 ) {
+			int bits = (int)readBits(bs, elementPosition(bs, p, limit, 4, index), 4);
+			return Float.intBitsToFloat(bits);
+		} else {
+			long bits = readBits(bs, elementPosition(bs, p, limit, 8, index), 8);
+			return Double.longBitsToDouble(bits);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		
+		StringBuilder sb = new StringBuilder();
+		
+		for ( int i = 0; i < this.indices.length; ++i ) {
+			if ( i > 0 ) {
+				sb.append(SEPARATOR);
+			}
+			sb.append(this.indices[i]);
+		}
+		
+		return sb.toString();
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.indices);
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if ((o != null) && (o instanceof Secs2Path)) {
+			return Arrays.equals(this.indices, ((Secs2Path)o).indices);
+		}
+		return false;
+	}
+	
+}
@@ -0,0 +1,197 @@
+package com.shimizukenta.secs.secs2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is compiled set of Secs2Path, extracts all paths in one pass.
+ * 
+ * <p>
+ * To create new instance, {@link #of(Secs2Path...)}<br />
+ * To extract items, {@link #extract(Secs2)}<br />
+ * </p>
+ * <p>
+ * Paths are walked in sorted order, common prefix of neighbor paths is followed only once.<br />
+ * If body is lazy parsed, only navigated Lists are indexed.<br />
+ * </p>
+ * <p>
+ * Instances of this class are immutable.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class Secs2PathSet {
+	
+	private final List<Secs2Path> paths;
+	
+	/* sorted position to original position */
+	private final int[] order;
+	
+	/* common prefix length with previous sorted path */
+	private final int[] shared;
+	
+	private final int maxDepth;
+	
+	private Secs2PathSet(List<Secs2Path> paths) {
+		
+		final int n = paths.size();
+		
+		Integer[] oo = new Integer[n];
+		for ( int i = 0; i < n; ++i ) {
+			oo[i] = Integer.valueOf(i);
+		}
+		
+		Arrays.sort(oo, (a, b) -> compare(paths.get(a), paths.get(b)));
+		
+		this.paths = paths;
+		this.order = new int[n];
+		this.shared = new int[n];
+		
+		int md = 0;
+		
+		for ( int i = 0; i < n; ++i ) {
+			
+			Secs2Path p = paths.get(oo[i]);
+			
+			this.order[i] = oo[i];
+			this.shared[i] = i == 0 ? 0 : commonPrefix(paths.get(oo[i - 1]), p);
+			
+			md = Math.max(md, p.depth());
+		}
+		
+		this.maxDepth = md;
+	}
+	
+	/**
+	 * Returns compiled set.
+	 * 
+	 * @param paths
+	 * @return set
+	 */
+	public static Secs2PathSet of(Secs2Path... paths) {
+		return of(Arrays.asList(paths));
+	}
+	
+	/**
+	 * Returns compiled set.
+	 * 
+	 * @param paths
+	 * @return set
+	 */
+	public static Secs2PathSet of(List<? extends Secs2Path> paths) {
+		return new Secs2PathSet(Collections.unmodifiableList(new ArrayList<>(paths)));
+	}
+	
+	private static int compare(Secs2Path a, Secs2Path b) {
+		
+		int n = Math.min(a.depth(), b.depth());
+		
+		for ( int i = 0; i < n; ++i ) {
+			int c = Integer.compare(a.index(i), b.index(i));
+			if ( c != 0 ) {
+				return c;
+			}
+		}
+		
+		return Integer.compare(a.depth(), b.depth());
+	}
+	
+	private static int commonPrefix(Secs2Path a, Secs2Path b) {
+		
+		int n = Math.min(a.depth(), b.depth());
+		
+		for ( int i = 0; i < n; ++i ) {
+			if ( a.index(i) != b.index(i) ) {
+				return i;
+			}
+		}
+		
+		return n;
+	}
+	
+	/**
+	 * Returns paths, order of compiled.
+	 * 
+	 * @return paths
+	 */
+	public List<Secs2Path> paths() {
+		return this.paths;
+	}
+	
+	/**
+	 * Returns count of paths.
+	 * 
+	 * @return count of paths
+	 */
+	public int size() {
+		return this.paths.size();
+	}
+	
+	/**
+	 * Returns nested items of all paths, order of compiled.
+	 * 
+	 * @param root
+	 * @return items, {@code null} if path is not found
+	 * @throws Secs2Exception if root is not AbstractSecs2
+	 * @see #extract(Secs2, Secs2[])
+	 */
+	public Secs2[] extract(Secs2 root) throws Secs2Exception {
+		Secs2[] dst = new Secs2[this.paths.size()];
+		extract(root, dst);
+		return dst;
+	}
+	
+	/**
+	 * Put nested items of all paths to dst, order of compiled.
+	 * 
+	 * <p>
+	 * If path is not found (not List or index out of bounds), put {@code null}.<br />
+	 * </p>
+	 * 
+	 * @param root
+	 * @param dst length must be greater than or equal to {@link #size()}
+	 * @throws Secs2Exception if root is not AbstractSecs2
+	 */
+	public void extract(Secs2 root, Secs2[] dst) throws Secs2Exception {
+		
+		if ( ! (root instanceof AbstractSecs2) ) {
+			throw new Secs2Exception("cast failed");
+		}
+		
+		final AbstractSecs2[] stack = new AbstractSecs2[this.maxDepth + 1];
+		stack[0] = (AbstractSecs2)root;
+		
+		/* stack[0, valid) is prefix of previous path */
+		int valid = 1;
+		
+		for ( int i = 0; i < this.order.length; ++i ) {
+			
+			final Secs2Path p = this.paths.get(this.order[i]);
+			final int depth = p.depth();
+			
+			int d = Math.min(this.shared[i], valid - 1);
+			AbstractSecs2 node = stack[d];
+			boolean found = true;
+			
+			for ( ; d < depth; ++d ) {
+				
+				try {
+					node = node.getChild(p.index(d));
+				}
+				catch ( Secs2Exception e ) {
+					found = false;
+					break;
+				}
+				
+				stack[d + 1] = node;
+			}
+			
+			valid = d + 1;
+			dst[this.order[i]] = found ? node : null;
+		}
+	}
+	
+}
@@ -36,6 +36,11 @@ public class Secs2RawBytes extends AbstractSecs2 {
 		buffers.put(bs);
 	}
 	
+	@Override
+	protected long encodedLength() {
+		return bs.length;
+	}
+	
 	@Override
 	public String toString() {
 		return "";
@@ -51,6 +56,11 @@ public class Secs2RawBytes extends AbstractSecs2 {
 		return "{}";
 	}
 	
+	@Override
+	protected void appendJson(StringBuilder sb) {
+		sb.append("{}");
+	}
+	
 	@Override
 	protected String toJsonValue() {
 		return "";
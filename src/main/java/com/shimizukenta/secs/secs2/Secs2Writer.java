@@ -0,0 +1,636 @@
+package com.shimizukenta.secs.secs2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is streaming writer of SECS-II, encodes items to bytes directly.
+ * 
+ * <p>
+ * To create new instance, {@link #newInstance()}<br />
+ * To open List, {@link #beginList(int)}, to close List, {@link #end()}<br />
+ * To write item, e.g. {@link #ascii(CharSequence)}, {@link #uint4(int...)}<br />
+ * To write built item, {@link #secs2(Secs2)}<br />
+ * To get body, {@link #toSecs2()}<br />
+ * </p>
+ * <p>
+ * e.g.<br />
+ * {@code Secs2 body = Secs2Writer.newInstance().beginList(2).uint4(1).ascii("PPID").end().toSecs2();}<br />
+ * </p>
+ * <p>
+ * Body is usable as Secs2 of {@code SecsCommunicator#send}, sent by copying encoded chunks.<br />
+ * Size of List and length of items are checked while writing.<br />
+ * Values out of range of item are truncated, same as {@link Secs2} factories.<br />
+ * </p>
+ * <p>
+ * First chunk is small, next chunks grow twice up to 64KiB, small body does not hold large chunk.<br />
+ * Last chunk is trimmed if more than half unused.<br />
+ * </p>
+ * <p>
+ * This class is not thread-safe. After {@link #toSecs2()}, writer is reset and reusable.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class Secs2Writer {
+	
+	private static final int defaultChunkSize = 256;
+	private static final int maxGrowChunkSize = 64 * 1024;
+	private static final int minChunkSize = 16;
+	private static final int maxLength = 0x00FFFFFF;
+	
+	private final int chunkSize;
+	private final int maxChunkSize;
+	
+	private List<byte[]> chunks;
+	private byte[] chunk;
+	private int chunkPos;
+	
+	/* opened Lists, size and written count */
+	private int[] listSizes;
+	private int[] listCounts;
+	private int depth;
+	
+	private boolean rootWritten;
+	
+	/* encodes built item into chunks */
+	private Secs2ByteBuffersBuilder encoder;
+	
+	protected Secs2Writer(int chunkSize) {
+		this.chunkSize = Math.max(chunkSize, minChunkSize);
+		this.maxChunkSize = Math.max(this.chunkSize, maxGrowChunkSize);
+		this.listSizes = new int[16];
+		this.listCounts = new int[16];
+		this.reset();
+	}
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @return new instance
+	 */
+	public static Secs2Writer newInstance() {
+		return new Secs2Writer(defaultChunkSize);
+	}
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @param chunkSize size of first encoded chunk
+	 * @return new instance
+	 */
+	public static Secs2Writer newInstance(int chunkSize) {
+		return new Secs2Writer(chunkSize);
+	}
+	
+	/**
+	 * Discard written items.
+	 *
+	 */
+	public void reset() {
+		this.chunks = new ArrayList<>();
+		this.chunk = null;
+		this.chunkPos = 0;
+		this.depth = 0;
+		this.rootWritten = false;
+	}
+	
+	/**
+	 * Returns written body, and reset writer.
+	 * 
+	 * @return body, empty if no item written
+	 * @throws Secs2BuildException if List not ended
+	 */
+	public Secs2 toSecs2() throws Secs2BuildException {
+		
+		if ( this.depth > 0 ) {
+			throw new Secs2BuildException("List not ended, depth: " + this.depth);
+		}
+		
+		/* no bytes if root is empty body */
+		if ( ! this.rootWritten || this.chunks.isEmpty() ) {
+			this.reset();
+			return Secs2.empty();
+		}
+		
+		if ( this.chunkPos < (this.chunk.length / 2) ) {
+			this.chunks.set(this.chunks.size() - 1, Arrays.copyOf(this.chunk, this.chunkPos));
+		}
+		
+		final Secs2 ss = new Secs2ChunkedBytes(this.chunks, this.chunkPos);
+		this.reset();
+		return ss;
+	}
+	
+	/**
+	 * Open List of size.
+	 * 
+	 * <p>
+	 * Exactly size items must be written before {@link #end()}.<br />
+	 * </p>
+	 * 
+	 * @param size count of items
+	 * @return this
+	 * @throws Secs2BuildException if size out of range or parent List is full
+	 */
+	public Secs2Writer beginList(int size) throws Secs2BuildException {
+		
+		if ( size < 0 ) {
+			throw new Secs2LengthByteOutOfRangeException("size: " + size);
+		}
+		
+		header(Secs2Item.LIST, size);
+		
+		if ( this.depth == this.listSizes.length ) {
+			this.listSizes = Arrays.copyOf(this.listSizes, this.depth * 2);
+			this.listCounts = Arrays.copyOf(this.listCounts, this.depth * 2);
+		}
+		
+		this.listSizes[this.depth] = size;
+		this.listCounts[this.depth] = 0;
+		this.depth += 1;
+		
+		return this;
+	}
+	
+	/**
+	 * Close List.
+	 * 
+	 * @return this
+	 * @throws Secs2BuildException if no List opened or count of items is less than size
+	 */
+	public Secs2Writer end() throws Secs2BuildException {
+		
+		if ( this.depth == 0 ) {
+			throw new Secs2BuildException("No List to end");
+		}
+		
+		int i = this.depth - 1;
+		
+		if ( this.listCounts[i] != this.listSizes[i] ) {
+			throw new Secs2BuildException("List size: " + this.listSizes[i] + ", written: " + this.listCounts[i]);
+		}
+		
+		this.depth = i;
+		return this;
+	}
+	
+	/**
+	 * Write ASCII, non-ASCII character is written as '?'.
+	 * 
+	 * @param ascii
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer ascii(CharSequence ascii) throws Secs2BuildException {
+		
+		final int n = ascii.length();
+		
+		header(Secs2Item.ASCII, n);
+		
+		for ( int i = 0; i < n; ++i ) {
+			char c = ascii.charAt(i);
+			put(c < 0x80 ? c : '?');
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Write Binary.
+	 * 
+	 * @param bs
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer binary(byte... bs) throws Secs2BuildException {
+		return binary(bs, 0, bs.length);
+	}
+	
+	/**
+	 * Write Binary.
+	 * 
+	 * @param bs
+	 * @param offset
+	 * @param length
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer binary(byte[] bs, int offset, int length) throws Secs2BuildException {
+		header(Secs2Item.BINARY, length);
+		put(bs, offset, length);
+		return this;
+	}
+	
+	/**
+	 * Write Boolean.
+	 * 
+	 * @param bools
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer bool(boolean... bools) throws Secs2BuildException {
+		
+		header(Secs2Item.BOOLEAN, bools.length);
+		
+		for ( boolean b : bools ) {
+			put(b ? 0xFF : 0x00);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Write I1.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int1(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.INT1, values);
+	}
+	
+	/**
+	 * Write I1.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int1(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.INT1, values);
+	}
+	
+	/**
+	 * Write I2.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int2(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.INT2, values);
+	}
+	
+	/**
+	 * Write I2.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int2(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.INT2, values);
+	}
+	
+	/**
+	 * Write I4.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int4(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.INT4, values);
+	}
+	
+	/**
+	 * Write I4.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int4(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.INT4, values);
+	}
+	
+	/**
+	 * Write I8.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int8(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.INT8, values);
+	}
+	
+	/**
+	 * Write I8.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer int8(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.INT8, values);
+	}
+	
+	/**
+	 * Write U1.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint1(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.UINT1, values);
+	}
+	
+	/**
+	 * Write U1.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint1(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.UINT1, values);
+	}
+	
+	/**
+	 * Write U2.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint2(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.UINT2, values);
+	}
+	
+	/**
+	 * Write U2.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint2(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.UINT2, values);
+	}
+	
+	/**
+	 * Write U4.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint4(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.UINT4, values);
+	}
+	
+	/**
+	 * Write U4.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint4(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.UINT4, values);
+	}
+	
+	/**
+	 * Write U8.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint8(int... values) throws Secs2BuildException {
+		return ints(Secs2Item.UINT8, values);
+	}
+	
+	/**
+	 * Write U8.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer uint8(long... values) throws Secs2BuildException {
+		return longs(Secs2Item.UINT8, values);
+	}
+	
+	/**
+	 * Write F4.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer float4(float... values) throws Secs2BuildException {
+		
+		header(Secs2Item.FLOAT4, lengthOf(values.length, 4));
+		
+		for ( float v : values ) {
+			putBits(Float.floatToIntBits(v), 4);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Write F8.
+	 * 
+	 * @param values
+	 * @return this
+	 * @throws Secs2BuildException if too long or parent List is full
+	 */
+	public Secs2Writer float8(double... values) throws Secs2BuildException {
+		
+		header(Secs2Item.FLOAT8, lengthOf(values.length, 8));
+		
+		for ( double v : values ) {
+			putBits(Double.doubleToLongBits(v), 8);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Write built item, e.g. from {@link Secs2} factories or {@link #toSecs2()} of other writer.
+	 * 
+	 * <p>
+	 * Item is counted as one item of parent List, and encoded into chunks directly.<br />
+	 * Body of writer is copied by chunks, to write same item many times, e.g. ID,
+	 * encode it once by writer and write the body.<br />
+	 * If encode failed, written bytes are broken, {@link #reset()} writer.<br />
+	 * </p>
+	 * 
+	 * @param item
+	 * @return this
+	 * @throws Secs2BuildException if encode failed or parent List is full
+	 */
+	public Secs2Writer secs2(Secs2 item) throws Secs2BuildException {
+		
+		if ( ! (item instanceof AbstractSecs2) ) {
+			throw new Secs2BuildException("cast failed");
+		}
+		
+		count();
+		
+		if ( this.encoder == null ) {
+			this.encoder = new Secs2ByteBuffersBuilder(this);
+		}
+		
+		((AbstractSecs2)item).putByteBuffers(this.encoder);
+		
+		return this;
+	}
+	
+	private Secs2Writer ints(Secs2Item item, int[] values) throws Secs2BuildException {
+		
+		final int size = item.size();
+		
+		header(item, lengthOf(values.length, size));
+		
+		for ( int v : values ) {
+			putBits(v, size);
+		}
+		
+		return this;
+	}
+	
+	private Secs2Writer longs(Secs2Item item, long[] values) throws Secs2BuildException {
+		
+		final int size = item.size();
+		
+		header(item, lengthOf(values.length, size));
+		
+		for ( long v : values ) {
+			putBits(v, size);
+		}
+		
+		return this;
+	}
+	
+	private static int lengthOf(int count, int size) throws Secs2BuildException {
+		
+		long len = (long)count * (long)size;
+		
+		if ( len > maxLength ) {
+			throw new Secs2LengthByteOutOfRangeException("length: " + len);
+		}
+		
+		return (int)len;
+	}
+	
+	private void header(Secs2Item item, int length) throws Secs2BuildException {
+		
+		if ( length > maxLength || length < 0 ) {
+			throw new Secs2LengthByteOutOfRangeException("length: " + length);
+		}
+		
+		count();
+		
+		byte b = item.code();
+		
+		if ( length > 0xFFFF ) {
+			
+			put(b | 0x3);
+			put(length >> 16);
+			put(length >> 8);
+			put(length);
+			
+		} else if ( length > 0xFF ) {
+			
+			put(b | 0x2);
+			put(length >> 8);
+			put(length);
+			
+		} else {
+			
+			put(b | 0x1);
+			put(length);
+		}
+	}
+	
+	/* one item to root or parent List */
+	private void count() throws Secs2BuildException {
+		
+		if ( this.depth == 0 ) {
+			
+			if ( this.rootWritten ) {
+				throw new Secs2BuildException("Root item already written");
+			}
+			
+			this.rootWritten = true;
+			
+		} else {
+			
+			int i = this.depth - 1;
+			
+			if ( this.listCounts[i] >= this.listSizes[i] ) {
+				throw new Secs2BuildException("List is full, size: " + this.listSizes[i]);
+			}
+			
+			this.listCounts[i] += 1;
+		}
+	}
+	
+	private void nextChunk() {
+		
+		int size = this.chunk == null
+				? this.chunkSize
+				: (int)Math.min((long)this.chunk.length * 2L, (long)this.maxChunkSize);
+		
+		this.chunk = new byte[size];
+		this.chunks.add(this.chunk);
+		this.chunkPos = 0;
+	}
+	
+	/* called by encoder */
+	void put(int v) {
+		
+		if ( this.chunk == null || this.chunkPos == this.chunk.length ) {
+			nextChunk();
+		}
+		
+		this.chunk[this.chunkPos] = (byte)v;
+		this.chunkPos += 1;
+	}
+	
+	void put(byte[] bs, int offset, int length) {
+		
+		int pos = offset;
+		int remaining = length;
+		
+		while ( remaining > 0 ) {
+			
+			if ( this.chunk == null || this.chunkPos == this.chunk.length ) {
+				nextChunk();
+			}
+			
+			int n = Math.min(remaining, this.chunk.length - this.chunkPos);
+			System.arraycopy(bs, pos, this.chunk, this.chunkPos, n);
+			this.chunkPos += n;
+			pos += n;
+			remaining -= n;
+		}
+	}
+	
+	private void putBits(long v, int size) {
+		
+		if ( this.chunk != null && this.chunkPos + size <= this.chunk.length ) {
+			
+			for ( int i = size - 1; i >= 0; --i ) {
+				this.chunk[this.chunkPos] = (byte)(v >> (i * 8));
+				this.chunkPos += 1;
+			}
+			
+		} else {
+			
+			for ( int i = size - 1; i >= 0; --i ) {
+				put((int)(v >> (i * 8)));
+			}
+		}
+	}
+	
+}
@@ -13,7 +13,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.shimizukenta.secs.BooleanProperty;
@@ -21,6 +26,7 @@ import com.shimizukenta.secs.PropertyChangeListener;
 import com.shimizukenta.secs.ReadOnlyProperty;
 import com.shimizukenta.secs.SecsCommunicatableStateChangeListener;
 import com.shimizukenta.secs.SecsCommunicator;
+import com.shimizukenta.secs.SecsCommunicatorMetrics;
 import com.shimizukenta.secs.SecsException;
 import com.shimizukenta.secs.SecsMessage;
 import com.shimizukenta.secs.SecsMessageReceiveListener;
@@ -30,6 +36,7 @@ import com.shimizukenta.secs.secs2.Secs2;
 import com.shimizukenta.secs.sml.SmlMessage;
 import com.shimizukenta.secs.sml.SmlParseException;
 import com.shimizukenta.secssimulator.extendsml.ExtendSmlMessageParser;
+import com.shimizukenta.secssimulator.gem.EquipmentGemModel;
 import com.shimizukenta.secssimulator.logging.AbstractLoggingEngine;
 import com.shimizukenta.secssimulator.logging.LoggingEngine;
 import com.shimizukenta.secssimulator.macro.AbstractMacroEngine;
@@ -42,6 +49,7 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 	
 	private final LoggingEngine loggingEngine;
 	private final MacroEngine macroEngine;
+	private final EquipmentGemModel equipGemModel;
 	
 	private final AbstractSecsSimulatorConfig config;
 	
@@ -55,6 +63,9 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 		
 		this.loggingEngine = createLoggingEngine();
 		this.macroEngine = createMacroEngine();
+		this.equipGemModel = createEquipmentGemModel();
+		
+		this.equipGemModel.traceData().addS6F1Listener(this::sendTraceData);
 		
 		this.addLogListener(this.loggingEngine::putLog);
 	}
@@ -74,7 +85,16 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 	 * @return MacroEngine
 	 */
 	protected MacroEngine createMacroEngine() {
-		return new AbstractMacroEngine(this) {};
+		return new AbstractMacroEngine(this, config.macroParallelism()) {};
+	}
+	
+	/**
+	 * Prototype pattern, EquipmentGemModel builder.
+	 * 
+	 * @return EquipmentGemModel
+	 */
+	protected EquipmentGemModel createEquipmentGemModel() {
+		return EquipmentGemModel.newInstance();
 	}
 	
 	@Override
@@ -87,6 +107,24 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 		return config.load(path);
 	}
 	
+	/* metrics of last opened communicator */
+	private SecsCommunicatorMetrics lastMetrics = null;
+	
+	/**
+	 * Returns transaction metrics of last opened communicator.
+	 * 
+	 * <p>
+	 * Metrics is kept after communicator closed, until next communicator opened.<br />
+	 * </p>
+	 * 
+	 * @return metrics if communicator opened once
+	 */
+	public Optional<SecsCommunicatorMetrics> metrics() {
+		synchronized ( this ) {
+			return Optional.ofNullable(lastMetrics);
+		}
+	}
+	
 	private Optional<SecsCommunicator> getCommunicator() {
 		synchronized ( this ) {
 			return secsComm == null ? Optional.empty() : Optional.of(secsComm);
@@ -112,6 +150,18 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 	/* receive-message-listener */
 	private final Collection<SecsMessageReceiveListener> recvMsgListeners = new CopyOnWriteArrayList<>();
 	
+	/* wait-message-dispatcher */
+	private final SecsMessageWaitDispatcher waitDispatcher = new SecsMessageWaitDispatcher();
+	
+	/**
+	 * Returns Stream-Function dispatch table for waiting tasks.
+	 * 
+	 * @return wait-dispatcher
+	 */
+	public SecsMessageWaitDispatcher secsMessageWaitDispatcher() {
+		return waitDispatcher;
+	}
+	
 	public boolean addSecsMessageReceiveListener(SecsMessageReceiveListener lstnr) {
 		return recvMsgListeners.add(lstnr);
 	}
@@ -151,7 +201,10 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			
 			final SecsCommunicator comm = SecsCommunicatorBuilder.getInstance().build(config);
 			
-			comm.addSecsCommunicatableStateChangeListener(communicateState::set);
+			comm.addSecsCommunicatableStateChangeListener(f -> {
+				waitDispatcher.reset();
+				communicateState.set(f);
+			});
 			
 			comm.addSecsMessageReceiveListener(primaryMsg -> {
 				try {
@@ -162,6 +215,7 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			});
 			
 			comm.addSecsMessageReceiveListener(msg -> {
+				this.waitDispatcher.received(msg);
 				this.recvMsgListeners.forEach(l -> {
 					l.received(msg);
 				});
@@ -187,6 +241,7 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			comm.open();
 			
 			this.secsComm = comm;
+			this.lastMetrics = comm.metrics();
 			
 			return comm;
 		}
@@ -199,6 +254,8 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			
 			IOException ioExcept = null;
 			
+			this.equipGemModel.traceData().stopAll();
+			
 			if ( secsComm != null ) {
 				
 				try {
@@ -258,6 +315,8 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			ioExcept = e;
 		}
 		
+		traceSendExecServ.shutdownNow();
+		
 		if (ioExcept != null) {
 			throw ioExcept;
 		}
@@ -274,12 +333,13 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 	}
 	
 	private Optional<SecsMessage> waitPrimaryMessage(SmlMessage sml) {
+		return waitPrimaryMessage(sml.getStream(), sml.getFunction());
+	}
+	
+	private Optional<SecsMessage> waitPrimaryMessage(int strm, int func) {
 		
 		synchronized ( waitPrimaryMsgs ) {
 			
-			int strm = sml.getStream();
-			int func = sml.getFunction();
-			
 			for ( SecsMessage m : waitPrimaryMsgs ) {
 				
 				if ((m.getStream() == strm) && ((m.getFunction() + 1) == func)) {
@@ -352,6 +412,24 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 		}
 	}
 	
+	@Override
+	public Optional<SecsMessage> send(int strm, int func, boolean wbit, Secs2 secs2)
+			throws SecsSimulatorSendException,
+			SecsSimulatorWaitReplyException,
+			SecsSimulatorException,
+			InterruptedException {
+		
+		final LocalSecsMessage msg = new LocalSecsMessage(strm, func, wbit, secs2);
+		
+		SecsMessage primaryMsg = waitPrimaryMessage(strm, func).orElse(null);
+		
+		if (primaryMsg != null) {
+			return send(primaryMsg, msg);
+		}
+		
+		return send(msg);
+	}
+	
 	private Optional<SecsMessage> send(LocalSecsMessage msg)
 			throws SecsSimulatorSendException,
 			SecsSimulatorWaitReplyException,
@@ -394,6 +472,82 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 		}
 	}
 	
+	@Override
+	public EquipmentGemModel equipmentGemModel() {
+		return this.equipGemModel;
+	}
+	
+	@Override
+	public Optional<SecsMessage> sendEvent(Secs2 ceid)
+			throws SecsSimulatorSendException,
+			SecsSimulatorWaitReplyException,
+			SecsSimulatorException,
+			InterruptedException {
+		
+		final Secs2 s6f11 = this.equipGemModel.s6f11(ceid).orElse(null);
+		
+		if ( s6f11 == null ) {
+			return Optional.empty();
+		}
+		
+		return send(new LocalSecsMessage(6, 11, true, s6f11));
+	}
+	
+	private static final int traceSendQueueCapacity = 1024;
+	
+	private final AtomicLong traceDropped = new AtomicLong(0L);
+	
+	/* one sender thread keeps order of S6F1, queue is bounded */
+	private final ExecutorService traceSendExecServ = new ThreadPoolExecutor(
+			1, 1, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(traceSendQueueCapacity),
+			r -> {
+				Thread th = new Thread(r, "trace-data-sender");
+				th.setDaemon(true);
+				return th;
+			},
+			(r, executor) -> {
+				if ( ! executor.isShutdown() ) {
+					long n = traceDropped.incrementAndGet();
+					notifyLog(new SecsSimulatorLog("Trace-Data S6F1 dropped, send queue full", Long.valueOf(n)));
+				}
+			});
+	
+	/**
+	 * Returns count of S6F1 of trace dropped by send queue full.
+	 * 
+	 * @return count of dropped S6F1
+	 */
+	public long traceDataDroppedCount() {
+		return traceDropped.get();
+	}
+	
+	/**
+	 * Send S6F1 of trace, not blocking trace scheduler.
+	 * 
+	 * <p>
+	 * S6F1 are sent in order of sampling, one by one.<br />
+	 * If send queue is full, S6F1 is dropped and counted.<br />
+	 * </p>
+	 * 
+	 * @param s6f1
+	 */
+	private void sendTraceData(Secs2 s6f1) {
+		
+		if ( getCommunicator().isPresent() ) {
+			
+			traceSendExecServ.execute(() -> {
+				try {
+					send(new LocalSecsMessage(6, 1, true, s6f1));
+				}
+				catch ( SecsSimulatorException giveup ) {
+				}
+				catch ( InterruptedException ignore ) {
+				}
+			});
+		}
+	}
+	
 	@Override
 	public boolean linktest() throws InterruptedException {
 		SecsCommunicator comm = getCommunicator().orElse(null);
@@ -503,6 +657,22 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 			}
 		}
 		
+		{
+			/*** Auto-reply GEM ***/
+			
+			final LocalSecsMessage reply = autoReplyGem(primaryMsg).orElse(null);
+			
+			if ( reply != null ) {
+				try {
+					send(primaryMsg, reply);
+				}
+				catch (SecsSimulatorException ignore) {
+				}
+				
+				return;
+			}
+		}
+		
 		{
 			/*** Auto-reply ***/
 			
@@ -589,6 +759,20 @@ public abstract class AbstractSecsSimulator implements SecsSimulator {
 		return Optional.empty();
 	}
 	
+	private Optional<LocalSecsMessage> autoReplyGem(SecsMessage primary) {
+		
+		if (
+				primary.wbit()
+				&& config.autoReplyGem().booleanValue()
+				) {
+			
+			return this.equipGemModel.reply(primary)
+					.map(ss -> new LocalSecsMessage(primary.getStream(), primary.getFunction() + 1, false, ss));
+		}
+		
+		return Optional.empty();
+	}
+	
 	private Optional<LocalSecsMessage> autoReplySxF0(SecsMessage primary) {
 		
 		int strm = primary.getStream();
@@ -20,8 +20,10 @@ import com.shimizukenta.jsonhub.JsonHubBuilder;
 import com.shimizukenta.jsonhub.JsonHubParseException;
 import com.shimizukenta.jsonhub.JsonObjectPair;
 import com.shimizukenta.secs.BooleanProperty;
+import com.shimizukenta.secs.NumberProperty;
 import com.shimizukenta.secs.Property;
 import com.shimizukenta.secs.ReadOnlyTimeProperty;
+import com.shimizukenta.secs.SecsSocketOptions;
 import com.shimizukenta.secs.SecsTimeout;
 import com.shimizukenta.secs.hsmsss.HsmsSsCommunicatorConfig;
 import com.shimizukenta.secs.hsmsss.HsmsSsProtocol;
@@ -39,12 +41,15 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 	private static final boolean defaultAutoReply = true;
 	private static final boolean defaultAutoReplySxF0 = false;
 	private static final boolean defaultAutoReplyS9Fy = false;
+	private static final boolean defaultAutoReplyGem = false;
 	private static final boolean defaultAutoOpen = false;
 	private static final Path defaultAutoLogging = null;
+	private static final int defaultMacroParallelism = 256;
 	
 	private final BooleanProperty autoReply = BooleanProperty.newInstance(defaultAutoReply);
 	private final BooleanProperty autoReplySxF0 = BooleanProperty.newInstance(defaultAutoReplySxF0);
 	private final BooleanProperty autoReplyS9Fy = BooleanProperty.newInstance(defaultAutoReplyS9Fy);
+	private final BooleanProperty autoReplyGem = BooleanProperty.newInstance(defaultAutoReplyGem);
 	
 	private final Property<SecsSimulatorProtocol> protocol = Property.newInstance(defaultSecsSimulatorProtocol);
 	
@@ -59,6 +64,8 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 	private final BooleanProperty autoOpen = BooleanProperty.newInstance(defaultAutoOpen);
 	private Path autoLogging;
 	
+	private final NumberProperty macroParallelism = NumberProperty.newInstance(defaultMacroParallelism);
+	
 	public AbstractSecsSimulatorConfig() {
 		this.autoLogging = defaultAutoLogging;
 	}
@@ -69,6 +76,7 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 			this.autoReply.set(defaultAutoReply);
 			this.autoReplySxF0.set(defaultAutoReplySxF0);
 			this.autoReplyS9Fy.set(defaultAutoReplyS9Fy);
+			this.autoReplyGem.set(defaultAutoReplyGem);
 			
 			this.protocol(defaultSecsSimulatorProtocol);
 			
@@ -99,14 +107,32 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 				}
 			}
 			
+			{
+				SecsSocketOptions o = defautlHsmsSsCommunicatorConfig.socketOptions();
+				this.tcpNoDelay(o.tcpNoDelay().booleanValue());
+				this.keepAlive(o.keepAlive().booleanValue());
+				this.sendBufferSize(o.sendBufferSize().intValue());
+				this.receiveBufferSize(o.receiveBufferSize().intValue());
+			}
+			
 			this.smlPool.clear();
 			this.macroPool.clear();
 			
 			this.autoOpen.set(defaultAutoOpen);
 			this.autoLogging(defaultAutoLogging);
+			this.macroParallelism.set(defaultMacroParallelism);
 		}
 	}
 	
+	/**
+	 * Returns default limit of running macro workers.
+	 * 
+	 * @return default macro-parallelism
+	 */
+	public static int defaultMacroParallelism() {
+		return defaultMacroParallelism;
+	}
+	
 	public BooleanProperty autoReply() {
 		return autoReply;
 	}
@@ -119,6 +145,15 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 		return autoReplyS9Fy;
 	}
 	
+	/**
+	 * Auto-reply S1F3, S2F23, S2F33, S2F35, S2F37, S6F19 by Equipment-side GEM model.
+	 * 
+	 * @return auto-reply-GEM-property
+	 */
+	public BooleanProperty autoReplyGem() {
+		return autoReplyGem;
+	}
+	
 	public BooleanProperty autoOpen() {
 		return autoOpen;
 	}
@@ -135,6 +170,15 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 		}
 	}
 	
+	/**
+	 * Limit of running Macro-workers, if {@code <= 0}, not limited.
+	 * 
+	 * @return macro-parallelism-property
+	 */
+	public NumberProperty macroParallelism() {
+		return macroParallelism;
+	}
+	
 	public HsmsSsCommunicatorConfig hsmsSsCommunicatorConfig() {
 		return hsmsSsCommConfig;
 	}
@@ -286,6 +330,48 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 		}
 	}
 	
+	public void tcpNoDelay(boolean f) {
+		synchronized ( this ) {
+			this.hsmsSsCommConfig.socketOptions().tcpNoDelay(f);
+			this.secs1OnTcpIpCommConfig.socketOptions().tcpNoDelay(f);
+			this.secs1OnTcpIpRecvCommConfig.socketOptions().tcpNoDelay(f);
+		}
+	}
+	
+	public void keepAlive(boolean f) {
+		synchronized ( this ) {
+			this.hsmsSsCommConfig.socketOptions().keepAlive(f);
+			this.secs1OnTcpIpCommConfig.socketOptions().keepAlive(f);
+			this.secs1OnTcpIpRecvCommConfig.socketOptions().keepAlive(f);
+		}
+	}
+	
+	/**
+	 * SO_SNDBUF setter.
+	 * 
+	 * @param size bytes, if {@code <=0}, system default
+	 */
+	public void sendBufferSize(int size) {
+		synchronized ( this ) {
+			this.hsmsSsCommConfig.socketOptions().sendBufferSize(size);
+			this.secs1OnTcpIpCommConfig.socketOptions().sendBufferSize(size);
+			this.secs1OnTcpIpRecvCommConfig.socketOptions().sendBufferSize(size);
+		}
+	}
+	
+	/**
+	 * SO_RCVBUF setter.
+	 * 
+	 * @param size bytes, if {@code <=0}, system default
+	 */
+	public void receiveBufferSize(int size) {
+		synchronized ( this ) {
+			this.hsmsSsCommConfig.socketOptions().receiveBufferSize(size);
+			this.secs1OnTcpIpCommConfig.socketOptions().receiveBufferSize(size);
+			this.secs1OnTcpIpRecvCommConfig.socketOptions().receiveBufferSize(size);
+		}
+	}
+	
 	public SmlAliasPairPool smlAliasPairPool() {
 		return smlPool;
 	}
@@ -349,12 +435,19 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 	 *       "t8":  6.0F
 	 *     }
 	 *     "retry": 3,
-	 *     "linktest": 120.0F
+	 *     "linktest": 120.0F,
+	 *     "socketOptions": {
+	 *       "tcpNoDelay": true,
+	 *       "keepAlive": false,
+	 *       "sendBufferSize": -1,
+	 *       "receiveBufferSize": -1
+	 *     }
 	 *   },
 	 *   
 	 *   "autoReply": true,
 	 *   "autoReplyS9Fy": false,
 	 *   "autoReplySxF0": false,
+	 *   "autoReplyGem": false,
 	 *   
 	 *   "smlFiles": [
 	 *     {
@@ -364,7 +457,8 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 	 *     ...
 	 *   ],
 	 *   
-	 *   "autoOpen": false
+	 *   "autoOpen": false,
+	 *   "macroParallelism": 256
 	 * }
 	 */
 	
@@ -377,10 +471,12 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 				jhb.pair("autoReply", this.autoReply().booleanValue()),
 				jhb.pair("autoReplyS9Fy", this.autoReplyS9Fy().booleanValue()),
 				jhb.pair("autoReplySxF0", this.autoReplySxF0().booleanValue()),
+				jhb.pair("autoReplyGem", this.autoReplyGem().booleanValue()),
 				jhb.pair("smlFiles", this.smlAliasPairPool().getJsonHub()),
 				jhb.pair("macroRecipeFiles", this.macroRecipePairPool().getJsonHub()),
 				jhb.pair("autoOpen", this.autoOpen().booleanValue()),
-				jhb.pair("autoLogging", this.autoLogging().map(Path::normalize).map(Path::toString).orElse(null))
+				jhb.pair("autoLogging", this.autoLogging().map(Path::normalize).map(Path::toString).orElse(null)),
+				jhb.pair("macroParallelism", this.macroParallelism().intValue())
 				);
 	}
 	
@@ -426,6 +522,19 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 		pairs.add(jhb.pair("retry", this.secs1OnTcpIpCommunicatorConfig().retry().intValue()));
 		pairs.add(jhb.pair("linktest", this.hsmsSsCommunicatorConfig().linktest().getSeconds()));
 		
+		{
+			SecsSocketOptions options = this.hsmsSsCommunicatorConfig().socketOptions();
+			
+			JsonHub jho = jhb.object(
+					jhb.pair("tcpNoDelay", options.tcpNoDelay().booleanValue()),
+					jhb.pair("keepAlive", options.keepAlive().booleanValue()),
+					jhb.pair("sendBufferSize", options.sendBufferSize().intValue()),
+					jhb.pair("receiveBufferSize", options.receiveBufferSize().intValue())
+					);
+			
+			pairs.add(jhb.pair("socketOptions", jho));
+		}
+		
 		return jhb.object(pairs);
 	}
 	
@@ -436,12 +545,14 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 		jh.getOrDefault("autoReply").optionalBoolean().ifPresent(this.autoReply::set);
 		jh.getOrDefault("autoReplyS9Fy").optionalBoolean().ifPresent(this.autoReplyS9Fy::set);
 		jh.getOrDefault("autoReplySxF0").optionalBoolean().ifPresent(this.autoReplySxF0::set);
+		jh.getOrDefault("autoReplyGem").optionalBoolean().ifPresent(this.autoReplyGem::set);
 		
 		setSmlAliasPairs(jh.getOrDefault("smlFiles"));
 		setMacroRecipePairs(jh.getOrDefault("macroRecipeFiles"));
 		
 		jh.getOrDefault("autoOpen").optionalBoolean().ifPresent(this.autoOpen::set);
 		jh.getOrDefault("autoLogging").optionalString().map(Paths::get).ifPresent(this::autoLogging);
+		jh.getOrDefault("macroParallelism").optionalInt().ifPresent(this.macroParallelism::set);
 	}
 	
 	protected void setCommunicatorByJson(JsonHub jh) {
@@ -489,6 +600,15 @@ public abstract class AbstractSecsSimulatorConfig implements Serializable {
 				this.notLinktest();
 			}
 		}
+		
+		{
+			JsonHub jho = jh.getOrDefault("socketOptions");
+			
+			jho.getOrDefault("tcpNoDelay").optionalBoolean().ifPresent(this::tcpNoDelay);
+			jho.getOrDefault("keepAlive").optionalBoolean().ifPresent(this::keepAlive);
+			jho.getOrDefault("sendBufferSize").optionalInt().ifPresent(this::sendBufferSize);
+			jho.getOrDefault("receiveBufferSize").optionalInt().ifPresent(this::receiveBufferSize);
+		}
 	}
 	
 	protected void setSmlAliasPairs(JsonHub jh) throws SmlParseException, IOException {
@@ -0,0 +1,323 @@
+package com.shimizukenta.secssimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.shimizukenta.secs.SecsMessage;
+
+/**
+ * This class is Stream-Function dispatch table of waiting tasks.
+ * 
+ * <p>
+ * Waiting task registers one-shot matcher, matcher is removed on completion, timeout or interrupt.<br />
+ * Dispatch cost per received message is O(matching waiters).<br />
+ * </p>
+ * <p>
+ * Recent received messages are kept in one bounded history shared by all cursors.<br />
+ * Cursor matches history before registering matcher, messages received before wait are not lost.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class SecsMessageWaitDispatcher {
+	
+	private static final int DEFAULT_HISTORY_CAPACITY = 256;
+	
+	private final Map<Integer, Collection<Waiter>> waiters = new HashMap<>();
+	private final SecsMessage[] history;
+	private final int[] historyKeys;
+	
+	/* guarded by this */
+	private long sequence;
+	private long clearedSequence;
+	
+	public SecsMessageWaitDispatcher() {
+		this(DEFAULT_HISTORY_CAPACITY);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param historyCapacity max count of recent messages kept, oldest is dropped if over
+	 */
+	public SecsMessageWaitDispatcher(int historyCapacity) {
+		if ( historyCapacity <= 0 ) {
+			throw new IllegalArgumentException("historyCapacity is >0");
+		}
+		this.history = new SecsMessage[historyCapacity];
+		this.historyKeys = new int[historyCapacity];
+		this.sequence = 0L;
+		this.clearedSequence = 0L;
+	}
+	
+	private static int key(int strm, int func) {
+		return (strm * 256) + func;
+	}
+	
+	/**
+	 * Dispatch received message to matching waiters.
+	 * 
+	 * @param msg
+	 */
+	public void received(SecsMessage msg) {
+		
+		int strm = msg.getStream();
+		
+		if ( strm < 0 ) {
+			return;
+		}
+		
+		final int k = key(strm, msg.getFunction());
+		final Collection<Waiter> ww;
+		final long seq;
+		
+		synchronized ( this ) {
+			seq = this.sequence;
+			int i = (int)(seq % history.length);
+			this.history[i] = msg;
+			this.historyKeys[i] = k;
+			this.sequence = seq + 1L;
+			ww = this.waiters.remove(Integer.valueOf(k));
+		}
+		
+		if ( ww != null ) {
+			for ( Waiter w : ww ) {
+				w.complete(msg, seq);
+			}
+		}
+	}
+	
+	/**
+	 * Clear history.
+	 * 
+	 * <p>
+	 * Call when communicate-state changed.<br />
+	 * </p>
+	 */
+	public void reset() {
+		synchronized ( this ) {
+			this.clearedSequence = this.sequence;
+			Arrays.fill(this.history, null);
+		}
+	}
+	
+	/**
+	 * Returns present position, count of received messages.
+	 * 
+	 * @return position
+	 */
+	public long position() {
+		synchronized ( this ) {
+			return this.sequence;
+		}
+	}
+	
+	/**
+	 * Returns new cursor, cursor only accepts messages received after this call.
+	 * 
+	 * @return cursor
+	 */
+	public Cursor newCursor() {
+		return newCursor(position());
+	}
+	
+	/**
+	 * Returns new cursor, cursor only accepts messages received after {@code position}.
+	 * 
+	 * <p>
+	 * Cursor is not registered, no need to close.<br />
+	 * </p>
+	 * 
+	 * @param position from {@link #position()}
+	 * @return cursor
+	 */
+	public Cursor newCursor(long position) {
+		return new Cursor(position);
+	}
+	
+	private void remove(Waiter w) {
+		Collection<Waiter> ww = this.waiters.get(w.key);
+		if ( ww != null ) {
+			ww.remove(w);
+			if ( ww.isEmpty() ) {
+				this.waiters.remove(w.key);
+			}
+		}
+	}
+	
+	/**
+	 * This class is waiting position of one task.
+	 * 
+	 * <p>
+	 * Matches the oldest message in history not consumed yet,
+	 * matched message and messages received before it are consumed.<br />
+	 * Waits for next matching message if history has no match.<br />
+	 * </p>
+	 *
+	 */
+	public final class Cursor {
+		
+		/* guarded by dispatcher */
+		private long next;
+		private long dropped;
+		
+		private Cursor(long position) {
+			this.next = position;
+			this.dropped = 0L;
+		}
+		
+		/* guarded by dispatcher */
+		private SecsMessage poll(int k) {
+			
+			final long overwritten = sequence - history.length;
+			final long low = Math.max(clearedSequence, overwritten);
+			
+			if ( this.next < low ) {
+				
+				long lost = overwritten - Math.max(this.next, clearedSequence);
+				
+				if ( lost > 0L ) {
+					this.dropped += lost;
+				}
+				
+				this.next = low;
+			}
+			
+			for ( long s = this.next; s < sequence; ++s ) {
+				
+				int i = (int)(s % history.length);
+				
+				if ( historyKeys[i] == k ) {
+					this.next = s + 1L;
+					return history[i];
+				}
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Returns count of messages dropped from history before this cursor consumed.
+		 * 
+		 * @return count of dropped messages
+		 */
+		public long dropped() {
+			synchronized ( SecsMessageWaitDispatcher.this ) {
+				return this.dropped;
+			}
+		}
+		
+		/**
+		 * Wait until received SxFy, blocking-method.
+		 * 
+		 * @param strm
+		 * @param func
+		 * @param timeout if {@code <= 0}, wait forever
+		 * @param unit
+		 * @return matched message
+		 * @throws InterruptedException
+		 * @throws TimeoutException
+		 */
+		public SecsMessage waitUntil(int strm, int func, long timeout, TimeUnit unit)
+				throws InterruptedException, TimeoutException {
+			
+			final Waiter w = new Waiter(Integer.valueOf(key(strm, func)));
+			
+			synchronized ( SecsMessageWaitDispatcher.this ) {
+				
+				SecsMessage m = poll(w.key.intValue());
+				
+				if ( m != null ) {
+					return m;
+				}
+				
+				waiters.computeIfAbsent(w.key, k -> new ArrayList<>()).add(w);
+			}
+			
+			try {
+				
+				SecsMessage msg = w.await(timeout > 0L ? unit.toNanos(timeout) : -1L);
+				
+				synchronized ( SecsMessageWaitDispatcher.this ) {
+					this.next = Math.max(this.next, w.seq + 1L);
+				}
+				
+				return msg;
+			}
+			catch ( TimeoutException e ) {
+				
+				synchronized ( SecsMessageWaitDispatcher.this ) {
+					
+					remove(w);
+					
+					/* received just as timeout expired */
+					SecsMessage m = poll(w.key.intValue());
+					
+					if ( m != null ) {
+						return m;
+					}
+				}
+				
+				throw e;
+			}
+			finally {
+				synchronized ( SecsMessageWaitDispatcher.this ) {
+					remove(w);
+				}
+			}
+		}
+	}
+	
+	private static final class Waiter {
+		
+		private final Integer key;
+		private SecsMessage msg;
+		private long seq;
+		
+		private Waiter(Integer key) {
+			this.key = key;
+			this.msg = null;
+			this.seq = -1L;
+		}
+		
+		private synchronized void complete(SecsMessage msg, long seq) {
+			this.msg = msg;
+			this.seq = seq;
+			this.notifyAll();
+		}
+		
+		private synchronized SecsMessage await(long nanos) throws InterruptedException, TimeoutException {
+			
+			if ( nanos < 0L ) {
+				
+				while ( this.msg == null ) {
+					this.wait();
+				}
+				
+			} else {
+				
+				final long limit = System.nanoTime() + nanos;
+				
+				while ( this.msg == null ) {
+					
+					long r = limit - System.nanoTime();
+					
+					if ( r <= 0L ) {
+						throw new TimeoutException();
+					}
+					
+					TimeUnit.NANOSECONDS.timedWait(this, r);
+				}
+			}
+			
+			return this.msg;
+		}
+	}
+	
+}
@@ -7,7 +7,9 @@ import java.util.Optional;
 
 import com.shimizukenta.secs.SecsCommunicator;
 import com.shimizukenta.secs.SecsMessage;
+import com.shimizukenta.secs.secs2.Secs2;
 import com.shimizukenta.secs.sml.SmlMessage;
+import com.shimizukenta.secssimulator.gem.EquipmentGemModel;
 import com.shimizukenta.secssimulator.macro.MacroRecipe;
 import com.shimizukenta.secssimulator.macro.MacroWorker;
 
@@ -99,6 +101,31 @@ public interface SecsSimulator {
 			SecsSimulatorException,
 			InterruptedException;
 	
+	/**
+	 * Send SECS-Message.
+	 * 
+	 * <p>
+	 * Blocking-method<br />
+	 * If exist waiting Primary-Message of Stream and Function - 1, send as Reply-Message.<br />
+	 * wait until received reply-message if exist
+	 * </p>
+	 * 
+	 * @param strm
+	 * @param func
+	 * @param wbit
+	 * @param secs2
+	 * @return Reply-Message if exist
+	 * @throws SecsSimulatorSendException
+	 * @throws SecsSimulatorWaitReplyException
+	 * @throws SecsSimulatorException
+	 * @throws InterruptedException
+	 */
+	public Optional<SecsMessage> send(int strm, int func, boolean wbit, Secs2 secs2)
+			throws SecsSimulatorSendException,
+			SecsSimulatorWaitReplyException,
+			SecsSimulatorException,
+			InterruptedException;
+	
 	/**
 	 * Send Reply-Message.
 	 * 
@@ -133,6 +160,38 @@ public interface SecsSimulator {
 	 */
 	public boolean linktest() throws InterruptedException;
 	
+	/**
+	 * Returns Equipment-side GEM model.
+	 * 
+	 * <p>
+	 * If {@code autoReplyGem} is {@code true}, S1F3, S2F23, S2F33, S2F35, S2F37, S6F19 are replied by model.<br />
+	 * </p>
+	 * 
+	 * @return Equipment-GEM-model
+	 */
+	public EquipmentGemModel equipmentGemModel();
+	
+	/**
+	 * Send S6F11 of CEID, built by Equipment-side GEM model.
+	 * 
+	 * <p>
+	 * Blocking-method<br />
+	 * If CEID is disabled, not send.<br />
+	 * </p>
+	 * 
+	 * @param ceid
+	 * @return Reply-Message if sended
+	 * @throws SecsSimulatorSendException
+	 * @throws SecsSimulatorWaitReplyException
+	 * @throws SecsSimulatorException
+	 * @throws InterruptedException
+	 */
+	public Optional<SecsMessage> sendEvent(Secs2 ceid)
+			throws SecsSimulatorSendException,
+			SecsSimulatorWaitReplyException,
+			SecsSimulatorException,
+			InterruptedException;
+	
 	/**
 	 * Add SML
 	 * 
@@ -196,6 +196,10 @@ public class TcpIpAdapter implements Closeable {
 					server.accept(null, this);
 					
 					try {
+						
+						/* relay, not to delay small bytes */
+						channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+						
 						channels.add(channel);
 						
 						ByteBuffer buffer = ByteBuffer.allocate(1024);
@@ -237,6 +241,15 @@ public class TcpIpAdapter implements Closeable {
 							}
 						}
 					}
+					catch ( IOException e ) {
+						
+						synchronized ( this ) {
+							
+							if ( ! closed ) {
+								putThrowable(e);
+							}
+						}
+					}
 					finally {
 						
 						channels.remove(channel);
@@ -14,7 +14,7 @@ public enum CliCommand {
 	
 	LOAD(2, CliCommandManual.LOAD,"load", "load-config"),
 	SAVE(2, CliCommandManual.SAVE, "save", "save-config"),
-	STATUS(1, CliCommandManual.STATUS, "status"),
+	STATUS(2, CliCommandManual.STATUS, "status"),
 	
 	SEND_SML(2, CliCommandManual.SEND_SML,
 			"send", "ss", "sendsml", "send-sml"),
@@ -52,6 +52,8 @@ public enum CliCommand {
 	REMOVE_MACRO(2, CliCommandManual.REMOVE_MACRO,
 			"remove-macro", "removemacro"),
 	
+	LOOPBACK(2, CliCommandManual.LOOPBACK, "loopback", "loopback-bench"),
+	
 	;
 	
 	private final int split;
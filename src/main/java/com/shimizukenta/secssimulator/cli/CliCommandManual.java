@@ -15,7 +15,9 @@ public enum CliCommandManual {
 			"option is path/from/config.json"),
 	SAVE("Save config",
 			"option is path/to/config.json"),
-	STATUS("Show status"),
+	STATUS("Show status",
+			"if option is \"metrics\", show transaction metrics as JSON.",
+			"sample: \"status metrics\""),
 	
 	PWD("Present working directory"),
 	LS("List directory files"),
@@ -69,6 +71,13 @@ public enum CliCommandManual {
 	REMOVE_MACRO("Remove Macro recipe",
 			"option is Alias-Name of Macro recipe"),
 	
+	LOOPBACK("Loopback throughput/latency test",
+			"options are \"hsms\" or \"secs1\", \"concurrency=N\", \"size=bytes\", \"seconds=N\", \"warmup=N\", \"port=N\"",
+			"\"transport=async|selector\" is HSMS-SS socket transport, default is async.",
+			"\"nodelay=true|false\" is TCP_NODELAY, default is true.",
+			"Run with Equip and Host on 127.0.0.1, not use opened communicator.",
+			"sample: \"loopback hsms concurrency=4 size=1024 seconds=10\""),
+	
 	;
 	
 	private String description;
@@ -28,6 +28,9 @@ import com.shimizukenta.secssimulator.AbstractSecsSimulatorConfig;
 import com.shimizukenta.secssimulator.SecsSimulatorException;
 import com.shimizukenta.secssimulator.SecsSimulatorLog;
 import com.shimizukenta.secssimulator.SecsSimulatorProtocol;
+import com.shimizukenta.secssimulator.loopback.LoopbackBenchmark;
+import com.shimizukenta.secssimulator.loopback.LoopbackBenchmarkConfig;
+import com.shimizukenta.secssimulator.loopback.LoopbackBenchmarkResult;
 import com.shimizukenta.secssimulator.macro.MacroRecipeParseException;
 import com.shimizukenta.secssimulator.macro.MacroRecipe;
 import com.shimizukenta.secssimulator.macro.MacroWorker;
@@ -301,6 +304,33 @@ public class CliSecsSimulator extends AbstractSecsSimulator {
 		}
 	}
 	
+	private void loopback(String v) {
+		
+		final LoopbackBenchmarkConfig c;
+		
+		try {
+			c = LoopbackBenchmarkConfig.parse(v);
+		}
+		catch ( IllegalArgumentException e ) {
+			echo(e.getMessage());
+			return;
+		}
+		
+		echo("Loopback start: " + c);
+		
+		execServ.execute(() -> {
+			try {
+				LoopbackBenchmarkResult r = LoopbackBenchmark.run(c);
+				echo(r.toLines());
+			}
+			catch ( IOException e ) {
+				echo(e);
+			}
+			catch ( InterruptedException ignore ) {
+			}
+		});
+	}
+	
 	public static void main(String[] args) {
 		
 		try {
@@ -434,7 +464,17 @@ public class CliSecsSimulator extends AbstractSecsSimulator {
 								break;
 							}
 							case STATUS: {
-								echo(simm.status());
+								
+								if ( req.option(0).filter(v -> v.equalsIgnoreCase("metrics")).isPresent() ) {
+									
+									echo(simm.metrics()
+											.map(m -> m.toJson())
+											.orElse("Communicator not opened yet"));
+									
+								} else {
+									
+									echo(simm.status());
+								}
 								break;
 							}
 							case LIST_SML: {
@@ -561,6 +601,10 @@ public class CliSecsSimulator extends AbstractSecsSimulator {
 								});
 								break;
 							}
+							case LOOPBACK: {
+								simm.loopback(req.option(0).orElse(null));
+								break;
+							}
 							default: {
 								/* Nothing */
 							}
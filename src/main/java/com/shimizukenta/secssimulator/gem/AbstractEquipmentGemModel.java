@@ -0,0 +1,275 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.shimizukenta.secs.SecsMessage;
+import com.shimizukenta.secs.gem.CEED;
+import com.shimizukenta.secs.gem.DRACK;
+import com.shimizukenta.secs.gem.DynamicCollectionEvent;
+import com.shimizukenta.secs.gem.DynamicEventReportEngine;
+import com.shimizukenta.secs.gem.DynamicLink;
+import com.shimizukenta.secs.gem.DynamicReport;
+import com.shimizukenta.secs.gem.ERACK;
+import com.shimizukenta.secs.gem.LRACK;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+
+/**
+ * This abstract class is implementation of Equipment-side GEM model.
+ * 
+ * <p>
+ * S2F33, S2F35, S2F37 are parsed to Define-Report, Link and Collection-Event of GEM,
+ * and applied to {@link DynamicEventReportEngine}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public abstract class AbstractEquipmentGemModel implements EquipmentGemModel {
+	
+	private final EquipmentVariableStore variables;
+	private final DynamicEventReportEngine engine;
+	private final TraceDataEngine traceEngine;
+	private final Function<Secs2, Secs2> valueGetter;
+	private final AtomicLong autoDataId = new AtomicLong(0L);
+	
+	public AbstractEquipmentGemModel() {
+		this.variables = createVariableStore();
+		this.engine = createDynamicEventReportEngine();
+		this.valueGetter = vid -> this.variables.get(vid).orElse(null);
+		this.traceEngine = createTraceDataEngine(this.valueGetter);
+	}
+	
+	/**
+	 * Prototype pattern, EquipmentVariableStore builder.
+	 * 
+	 * @return EquipmentVariableStore
+	 */
+	protected EquipmentVariableStore createVariableStore() {
+		return EquipmentVariableStore.newInstance();
+	}
+	
+	/**
+	 * Prototype pattern, DynamicEventReportEngine builder.
+	 * 
+	 * @return DynamicEventReportEngine
+	 */
+	protected DynamicEventReportEngine createDynamicEventReportEngine() {
+		return DynamicEventReportEngine.newInstance();
+	}
+	
+	/**
+	 * Prototype pattern, TraceDataEngine builder.
+	 * 
+	 * @param source SVID to current value, {@code null} if unknown SVID
+	 * @return TraceDataEngine
+	 */
+	protected TraceDataEngine createTraceDataEngine(Function<? super Secs2, ? extends Secs2> source) {
+		return TraceDataEngine.newInstance(source);
+	}
+	
+	@Override
+	public EquipmentVariableStore variables() {
+		return variables;
+	}
+	
+	@Override
+	public DynamicEventReportEngine dynamicEventReport() {
+		return engine;
+	}
+	
+	@Override
+	public TraceDataEngine traceData() {
+		return traceEngine;
+	}
+	
+	@Override
+	public Optional<Secs2> reply(SecsMessage primaryMsg) {
+		
+		final int strm = primaryMsg.getStream();
+		final int func = primaryMsg.getFunction();
+		final Secs2 body = primaryMsg.secs2();
+		
+		if ( strm == 1 && func == 3 ) {
+			return Optional.of(s1f4(body));
+		}
+		
+		if ( strm == 2 ) {
+			
+			switch ( func ) {
+			case 23: {
+				return s2f24(body);
+			}
+			case 33: {
+				return Optional.of(s2f34(body));
+			}
+			case 35: {
+				return Optional.of(s2f36(body));
+			}
+			case 37: {
+				return Optional.of(s2f38(body));
+			}
+			default: {
+				/* Nothing */
+			}
+			}
+		}
+		
+		if ( strm == 6 && func == 19 ) {
+			return Optional.of(engine.s6f20(body, valueGetter).orElse(Secs2.list()));
+		}
+		
+		return Optional.empty();
+	}
+	
+	/**
+	 * Returns S1F4 body.
+	 * 
+	 * <p>
+	 * Value of SVID not setted is &lt;L [0]&gt;.<br />
+	 * </p>
+	 * 
+	 * @param s1f3 body
+	 * @return S1F4 body
+	 */
+	protected Secs2 s1f4(Secs2 s1f3) {
+		
+		final List<Secs2> vv = new ArrayList<>(s1f3.size());
+		
+		for ( Secs2 svid : s1f3 ) {
+			vv.add(variables.get(svid).orElse(Secs2.list()));
+		}
+		
+		return Secs2.list(vv);
+	}
+	
+	/**
+	 * Returns S2F24 body.
+	 * 
+	 * @param s2f23 body
+	 * @return S2F24 body, empty if invalid format
+	 */
+	protected Optional<Secs2> s2f24(Secs2 s2f23) {
+		
+		try {
+			return Optional.of(traceEngine.s2f23(s2f23).secs2());
+		}
+		catch ( Secs2Exception e ) {
+			return Optional.empty();
+		}
+	}
+	
+	/**
+	 * Returns S2F34 body.
+	 * 
+	 * @param s2f33 body
+	 * @return S2F34 body
+	 */
+	protected Secs2 s2f34(Secs2 s2f33) {
+		
+		try {
+			final List<DynamicReport> reports = new ArrayList<>();
+			
+			for ( Secs2 r : s2f33.get(1) ) {
+				reports.add(DynamicReport.fromS2F33Report(r));
+			}
+			
+			return engine.defineReports(reports).secs2();
+		}
+		catch ( Secs2Exception e ) {
+			return DRACK.InvalidFormat.secs2();
+		}
+	}
+	
+	/**
+	 * Returns S2F36 body.
+	 * 
+	 * @param s2f35 body
+	 * @return S2F36 body
+	 */
+	protected Secs2 s2f36(Secs2 s2f35) {
+		
+		try {
+			final List<DynamicLink> links = new ArrayList<>();
+			
+			for ( Secs2 l : s2f35.get(1) ) {
+				
+				final List<Secs2> rptids = new ArrayList<>();
+				
+				for ( Secs2 r : l.get(1) ) {
+					rptids.add(r);
+				}
+				
+				links.add(DynamicLink.newInstance(
+						DynamicCollectionEvent.newInstance(null, l.get(0)),
+						rptids));
+			}
+			
+			return engine.linkEventReports(links).secs2();
+		}
+		catch ( Secs2Exception e ) {
+			return LRACK.InvalidFormat.secs2();
+		}
+	}
+	
+	/**
+	 * Returns S2F38 body.
+	 * 
+	 * @param s2f37 body
+	 * @return S2F38 body
+	 */
+	protected Secs2 s2f38(Secs2 s2f37) {
+		
+		try {
+			final CEED ceed = CEED.get(s2f37.get(0));
+			final List<DynamicCollectionEvent> events = new ArrayList<>();
+			
+			for ( Secs2 ceid : s2f37.get(1) ) {
+				events.add(DynamicCollectionEvent.fromS2F37CollectionEvent(ceid));
+			}
+			
+			return engine.enableCollectionEvents(ceed, events).secs2();
+		}
+		catch ( Secs2Exception e ) {
+			return ERACK.DENIED.secs2();
+		}
+	}
+	
+	/**
+	 * Returns next DATAID.
+	 * 
+	 * @return DATAID
+	 */
+	protected Secs2 nextDataId() {
+		return Secs2.uint4(autoDataId.incrementAndGet() & 0xFFFFFFFFL);
+	}
+	
+	@Override
+	public Optional<Secs2> s6f11(Secs2 ceid) {
+		
+		if ( ! engine.isEnabled(ceid) ) {
+			return Optional.empty();
+		}
+		
+		return engine.s6f11(nextDataId(), ceid, valueGetter);
+	}
+	
+	@Override
+	public Optional<Secs2> s6f11(long ceid) {
+		return s6f11(Secs2.uint4(ceid));
+	}
+	
+	@Override
+	public void clear() {
+		traceEngine.stopAll();
+		engine.defineReports(Collections.emptyList());
+		engine.enableCollectionEvents(CEED.DISABLE, Collections.emptyList());
+		variables.clear();
+	}
+	
+}
@@ -0,0 +1,50 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.shimizukenta.secs.gem.AbstractDynamicEventReportEngine;
+import com.shimizukenta.secs.secs2.Secs2;
+
+/**
+ * This abstract class is implementation of Equipment-Variable-Store.
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public abstract class AbstractEquipmentVariableStore implements EquipmentVariableStore {
+	
+	private final Map<Object, Secs2> values = new ConcurrentHashMap<>();
+	
+	public AbstractEquipmentVariableStore() {
+		/* Nothing */
+	}
+	
+	@Override
+	public void set(Secs2 vid, Secs2 value) {
+		values.put(AbstractDynamicEventReportEngine.key(vid), Objects.requireNonNull(value));
+	}
+	
+	@Override
+	public void set(long vid, Secs2 value) {
+		values.put(Long.valueOf(vid), Objects.requireNonNull(value));
+	}
+	
+	@Override
+	public Optional<Secs2> get(Secs2 vid) {
+		return Optional.ofNullable(values.get(AbstractDynamicEventReportEngine.key(vid)));
+	}
+	
+	@Override
+	public boolean remove(Secs2 vid) {
+		return values.remove(AbstractDynamicEventReportEngine.key(vid)) != null;
+	}
+	
+	@Override
+	public void clear() {
+		values.clear();
+	}
+	
+}
@@ -0,0 +1,303 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.shimizukenta.secs.gem.AbstractDynamicEventReportEngine;
+import com.shimizukenta.secs.gem.Clock;
+import com.shimizukenta.secs.gem.TIAACK;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+
+/**
+ * This abstract class is implementation of Trace-Data-Collection.
+ * 
+ * <p>
+ * Each trace has fixed array of samples of one group, reused for each group.<br />
+ * Sampling does not allocate except values returned by source.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public abstract class AbstractTraceDataEngine implements TraceDataEngine {
+	
+	private static final Secs2 EMPTY_VALUE = Secs2.list();
+	
+	private static final int defaultMaxTraces = 1024;
+	
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread th = new Thread(r, "trace-data-scheduler");
+		th.setDaemon(true);
+		return th;
+	});
+	
+	private final Map<Object, Trace> traces = new ConcurrentHashMap<>();
+	private final Collection<Consumer<? super Secs2>> s6f1Listeners = new CopyOnWriteArrayList<>();
+	private final Function<? super Secs2, ? extends Secs2> source;
+	
+	public AbstractTraceDataEngine(Function<? super Secs2, ? extends Secs2> source) {
+		this.source = source;
+	}
+	
+	/**
+	 * Returns limit of running traces.
+	 * 
+	 * @return limit of running traces
+	 */
+	protected int maxTraces() {
+		return defaultMaxTraces;
+	}
+	
+	/**
+	 * Returns period milli-seconds of DSPER.
+	 * 
+	 * @param dsper "hhmmss" or "hhmmsscc"
+	 * @return period milli-seconds, {@code -1L} if invalid
+	 */
+	protected static long periodMillis(String dsper) {
+		
+		final int len = dsper.length();
+		
+		if ( len != 6 && len != 8 ) {
+			return -1L;
+		}
+		
+		for ( int i = 0; i < len; ++i ) {
+			char c = dsper.charAt(i);
+			if ( c < '0' || c > '9' ) {
+				return -1L;
+			}
+		}
+		
+		long hh = Long.parseLong(dsper.substring(0, 2));
+		long mm = Long.parseLong(dsper.substring(2, 4));
+		long ss = Long.parseLong(dsper.substring(4, 6));
+		long cc = len == 8 ? Long.parseLong(dsper.substring(6, 8)) : 0L;
+		
+		return ((hh * 60L + mm) * 60L + ss) * 1000L + cc * 10L;
+	}
+	
+	@Override
+	public TIAACK s2f23(Secs2 s2f23) throws Secs2Exception {
+		
+		final Secs2 trid = s2f23.get(0);
+		final String dsper = s2f23.getAscii(1);
+		final long totsmp = s2f23.get(2).getLong(0);
+		final long repgsz = s2f23.get(3).getLong(0);
+		final Secs2 svids = s2f23.get(4);
+		
+		final Object key = AbstractDynamicEventReportEngine.key(trid);
+		
+		if ( totsmp <= 0L ) {
+			this.stop(trid);
+			return TIAACK.OK;
+		}
+		
+		final long period = periodMillis(dsper);
+		
+		if ( period <= 0L ) {
+			return TIAACK.InvalidPeriod;
+		}
+		
+		if ( repgsz <= 0L || repgsz > totsmp ) {
+			return TIAACK.BadRepgsz;
+		}
+		
+		if ( svids.isEmpty() ) {
+			return TIAACK.UnknownSvid;
+		}
+		
+		for ( Secs2 svid : svids ) {
+			if ( source.apply(svid) == null ) {
+				return TIAACK.UnknownSvid;
+			}
+		}
+		
+		if ( (repgsz * svids.size()) > Integer.MAX_VALUE ) {
+			return TIAACK.TooManySvids;
+		}
+		
+		synchronized ( this.traces ) {
+			
+			if ( ! this.traces.containsKey(key) && this.traces.size() >= maxTraces() ) {
+				return TIAACK.NoMoreTracesAllowed;
+			}
+			
+			final Trace t = new Trace(key, trid, totsmp, (int)repgsz, svids);
+			
+			Trace prev = this.traces.put(key, t);
+			
+			if ( prev != null ) {
+				prev.cancel();
+			}
+			
+			t.start(period);
+		}
+		
+		return TIAACK.OK;
+	}
+	
+	@Override
+	public boolean stop(Secs2 trid) {
+		
+		Trace t = this.traces.remove(AbstractDynamicEventReportEngine.key(trid));
+		
+		if ( t == null ) {
+			return false;
+		}
+		
+		t.cancel();
+		return true;
+	}
+	
+	@Override
+	public void stopAll() {
+		synchronized ( this.traces ) {
+			for ( Trace t : this.traces.values() ) {
+				t.cancel();
+			}
+			this.traces.clear();
+		}
+	}
+	
+	@Override
+	public int traceCount() {
+		return this.traces.size();
+	}
+	
+	@Override
+	public boolean addS6F1Listener(Consumer<? super Secs2> l) {
+		return this.s6f1Listeners.add(l);
+	}
+	
+	@Override
+	public boolean removeS6F1Listener(Consumer<? super Secs2> l) {
+		return this.s6f1Listeners.remove(l);
+	}
+	
+	protected void notifyS6F1(Secs2 s6f1) {
+		this.s6f1Listeners.forEach(l -> {
+			try {
+				l.accept(s6f1);
+			}
+			catch ( RuntimeException ignore ) {
+				/* keep sampling */
+			}
+		});
+	}
+	
+	/**
+	 * This class is running trace.
+	 *
+	 */
+	private class Trace {
+		
+		private final Object key;
+		private final Secs2 trid;
+		private final long totsmp;
+		private final int repgsz;
+		private final Secs2[] svids;
+		
+		/* samples of one group, reused */
+		private final Secs2[] group;
+		
+		private long smpln;
+		private int filled;
+		private Secs2 stime;
+		private boolean done;
+		private ScheduledFuture<?> future;
+		
+		private Trace(Object key, Secs2 trid, long totsmp, int repgsz, Secs2 svids) {
+			this.key = key;
+			this.trid = trid;
+			this.totsmp = totsmp;
+			this.repgsz = repgsz;
+			
+			this.svids = new Secs2[svids.size()];
+			int i = 0;
+			for ( Secs2 svid : svids ) {
+				this.svids[i] = svid;
+				++i;
+			}
+			
+			this.group = new Secs2[repgsz * this.svids.length];
+			this.smpln = 0L;
+			this.filled = 0;
+			this.stime = null;
+			this.done = false;
+			this.future = null;
+		}
+		
+		private synchronized void start(long period) {
+			if ( ! this.done ) {
+				this.future = scheduler.scheduleAtFixedRate(this::sample, period, period, TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		private synchronized void cancel() {
+			this.done = true;
+			if ( this.future != null ) {
+				this.future.cancel(false);
+			}
+		}
+		
+		private void sample() {
+			
+			final Secs2 s6f1;
+			
+			synchronized ( this ) {
+				
+				if ( this.done ) {
+					return;
+				}
+				
+				if ( this.filled == 0 ) {
+					this.stime = Clock.now().toAscii16();
+				}
+				
+				final int n = this.svids.length;
+				final int base = this.filled * n;
+				
+				for ( int i = 0; i < n; ++i ) {
+					Secs2 v = source.apply(this.svids[i]);
+					this.group[base + i] = v == null ? EMPTY_VALUE : v;
+				}
+				
+				this.filled += 1;
+				this.smpln += 1L;
+				
+				final boolean last = this.smpln >= this.totsmp;
+				
+				if ( this.filled < this.repgsz && ! last ) {
+					return;
+				}
+				
+				s6f1 = Secs2.list(
+						this.trid,
+						Secs2.uint4(this.smpln),
+						this.stime,
+						Secs2.list(Arrays.asList(this.group).subList(0, this.filled * n)));
+				
+				this.filled = 0;
+				
+				if ( last ) {
+					this.cancel();
+					traces.remove(this.key, this);
+				}
+			}
+			
+			notifyS6F1(s6f1);
+		}
+	}
+	
+}
@@ -0,0 +1,97 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.Optional;
+
+import com.shimizukenta.secs.SecsMessage;
+import com.shimizukenta.secs.gem.DynamicEventReportEngine;
+import com.shimizukenta.secs.secs2.Secs2;
+
+/**
+ * This interface is Equipment-side GEM model of SECS-Simulator.
+ * 
+ * <p>
+ * To create new instance, {@link #newInstance()}<br />
+ * </p>
+ * <p>
+ * To reply S1F3, S2F23, S2F33, S2F35, S2F37, S6F19, {@link #reply(SecsMessage)}<br />
+ * To build S6F11 body of CEID, {@link #s6f11(Secs2)}<br />
+ * To receive S6F1 of trace, {@link #traceData()}<br />
+ * To set values of SVID and DVVAL, {@link #variables()}<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public interface EquipmentGemModel {
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @return newInstance
+	 */
+	public static EquipmentGemModel newInstance() {
+		return new AbstractEquipmentGemModel() {};
+	}
+	
+	/**
+	 * Returns store of SVID and DVVAL values.
+	 * 
+	 * @return variable-store
+	 */
+	public EquipmentVariableStore variables();
+	
+	/**
+	 * Returns Dynamic-Event-Report engine defined by Host.
+	 * 
+	 * @return engine
+	 */
+	public DynamicEventReportEngine dynamicEventReport();
+	
+	/**
+	 * Returns Trace-Data-Collection engine initialized by Host.
+	 * 
+	 * @return engine
+	 */
+	public TraceDataEngine traceData();
+	
+	/**
+	 * Returns Reply-Message body if primary-message is handled by model.
+	 * 
+	 * <p>
+	 * Handles S1F3, S2F23, S2F33, S2F35, S2F37, S6F19.<br />
+	 * Reply-Message is Stream and Function + 1.<br />
+	 * </p>
+	 * 
+	 * @param primaryMsg
+	 * @return Reply-Message body if handled
+	 */
+	public Optional<Secs2> reply(SecsMessage primaryMsg);
+	
+	/**
+	 * Returns S6F11 body if CEID is enabled.
+	 * 
+	 * <p>
+	 * DATAID is auto-numbered.<br />
+	 * </p>
+	 * 
+	 * @param ceid
+	 * @return S6F11 body, empty if CEID is disabled
+	 */
+	public Optional<Secs2> s6f11(Secs2 ceid);
+	
+	/**
+	 * Returns S6F11 body if CEID is enabled.
+	 * 
+	 * @param ceid
+	 * @return S6F11 body, empty if CEID is disabled
+	 * @see #s6f11(Secs2)
+	 */
+	public Optional<Secs2> s6f11(long ceid);
+	
+	/**
+	 * Stop traces, and clear reports, links, enabled CEIDs and values.
+	 *
+	 */
+	public void clear();
+	
+}
@@ -0,0 +1,70 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.Optional;
+
+import com.shimizukenta.secs.secs2.Secs2;
+
+/**
+ * This interface is store of current values of SVID and DVVAL.
+ * 
+ * <p>
+ * To create new instance, {@link #newInstance()}<br />
+ * </p>
+ * <p>
+ * Thread-safe, values can be set at high rate from Macro and JSON-Communicator.<br />
+ * VID is compared by value, e.g. &lt;U4 1&gt; and &lt;U2 1&gt; are same.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public interface EquipmentVariableStore {
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @return newInstance
+	 */
+	public static EquipmentVariableStore newInstance() {
+		return new AbstractEquipmentVariableStore() {};
+	}
+	
+	/**
+	 * Set value of VID.
+	 * 
+	 * @param vid
+	 * @param value
+	 */
+	public void set(Secs2 vid, Secs2 value);
+	
+	/**
+	 * Set value of VID.
+	 * 
+	 * @param vid
+	 * @param value
+	 */
+	public void set(long vid, Secs2 value);
+	
+	/**
+	 * Returns value of VID.
+	 * 
+	 * @param vid
+	 * @return value if setted
+	 */
+	public Optional<Secs2> get(Secs2 vid);
+	
+	/**
+	 * Remove value of VID.
+	 * 
+	 * @param vid
+	 * @return {@code true} if removed
+	 */
+	public boolean remove(Secs2 vid);
+	
+	/**
+	 * Remove all values.
+	 *
+	 */
+	public void clear();
+	
+}
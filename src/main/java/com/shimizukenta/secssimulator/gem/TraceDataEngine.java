@@ -0,0 +1,102 @@
+package com.shimizukenta.secssimulator.gem;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.shimizukenta.secs.gem.TIAACK;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+
+/**
+ * This interface is Equipment-side Trace-Data-Collection (S2F23, S6F1).
+ * 
+ * <p>
+ * To create new instance, {@link #newInstance(Function)}<br />
+ * </p>
+ * <p>
+ * To initialize trace by S2F23, {@link #s2f23(Secs2)}<br />
+ * To receive S6F1 body, {@link #addS6F1Listener(Consumer)}<br />
+ * </p>
+ * <p>
+ * All traces are sampled on one shared scheduler thread.<br />
+ * S6F1 listeners are called on scheduler thread, do not block.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public interface TraceDataEngine {
+	
+	/**
+	 * Returns new instance.
+	 * 
+	 * @param source SVID to current value, {@code null} if unknown SVID
+	 * @return newInstance
+	 */
+	public static TraceDataEngine newInstance(Function<? super Secs2, ? extends Secs2> source) {
+		return new AbstractTraceDataEngine(source) {};
+	}
+	
+	/**
+	 * Initialize trace by S2F23.
+	 * 
+	 * <p>
+	 * Format:<br />
+	 * &lt;L [5]<br />
+	 * &nbsp;&nbsp;&lt;U4 trid&gt;<br />
+	 * &nbsp;&nbsp;&lt;A "hhmmss" or "hhmmsscc" dsper&gt;<br />
+	 * &nbsp;&nbsp;&lt;U4 totsmp&gt;<br />
+	 * &nbsp;&nbsp;&lt;U4 repgsz&gt;<br />
+	 * &nbsp;&nbsp;&lt;L [n] svids&gt;<br />
+	 * &gt;.
+	 * </p>
+	 * <p>
+	 * If TOTSMP is 0, stop trace of TRID.<br />
+	 * If TRID already traced, replace.<br />
+	 * If SVID list is empty or has SVID not in source, UnknownSvid.<br />
+	 * </p>
+	 * 
+	 * @param s2f23 body
+	 * @return TIAACK
+	 * @throws Secs2Exception if invalid format
+	 */
+	public TIAACK s2f23(Secs2 s2f23) throws Secs2Exception;
+	
+	/**
+	 * Stop trace of TRID.
+	 * 
+	 * @param trid
+	 * @return {@code true} if stopped
+	 */
+	public boolean stop(Secs2 trid);
+	
+	/**
+	 * Stop all traces.
+	 *
+	 */
+	public void stopAll();
+	
+	/**
+	 * Returns count of running traces.
+	 * 
+	 * @return count of running traces
+	 */
+	public int traceCount();
+	
+	/**
+	 * Add listener of S6F1 body.
+	 * 
+	 * @param l
+	 * @return {@code true} if add success
+	 */
+	public boolean addS6F1Listener(Consumer<? super Secs2> l);
+	
+	/**
+	 * Remove listener of S6F1 body.
+	 * 
+	 * @param l
+	 * @return {@code true} if remove success
+	 */
+	public boolean removeS6F1Listener(Consumer<? super Secs2> l);
+	
+}
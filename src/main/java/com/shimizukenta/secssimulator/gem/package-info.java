@@ -0,0 +1,8 @@
+/**
+ * Provides Equipment-side GEM model of SECS-Simulator.
+ */
+/**
+ * @author kenta-shimizu
+ *
+ */
+package com.shimizukenta.secssimulator.gem;
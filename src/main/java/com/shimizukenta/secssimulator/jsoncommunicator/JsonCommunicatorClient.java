@@ -0,0 +1,198 @@
+package com.shimizukenta.secssimulator.jsoncommunicator;
+
+import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.shimizukenta.jsonhub.JsonHub;
+import com.shimizukenta.jsonhub.JsonHubUtf8Writer;
+
+/**
+ * This class is connected JSON client, has SECS-Message subscription and bounded outbound queue.
+ * 
+ * <p>
+ * Queue holds UTF-8 encoded JSON bytes, bytes encoded once are shared by clients and must not be modified.<br />
+ * If outbound queue is full, newest JSON is dropped, and count of dropped is reported before next JSON.<br />
+ * A slow client does not block SECS-Communicator and other clients.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class JsonCommunicatorClient {
+	
+	private final AsynchronousSocketChannel channel;
+	private final BlockingQueue<byte[]> queue;
+	private final AtomicLong dropped;
+	
+	private volatile List<Filter> filters;
+	private volatile boolean closed;
+	
+	public JsonCommunicatorClient(AsynchronousSocketChannel channel, int queueCapacity) {
+		this.channel = channel;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.dropped = new AtomicLong(0L);
+		this.filters = null;
+		this.closed = false;
+	}
+	
+	public AsynchronousSocketChannel channel() {
+		return channel;
+	}
+	
+	/**
+	 * Offer encoded JSON to outbound queue, non-blocking.
+	 * 
+	 * @param bs UTF-8 encoded JSON, shared and not modified
+	 * @return {@code true} if offered, {@code false} if dropped
+	 */
+	public boolean offer(byte[] bs) {
+		if ( queue.offer(bs) ) {
+			return true;
+		} else {
+			dropped.incrementAndGet();
+			return false;
+		}
+	}
+	
+	/**
+	 * Blocking-method, put encoded JSON to outbound queue, wait if queue is full.
+	 * 
+	 * <p>
+	 * For reply of request, not dropped.<br />
+	 * </p>
+	 * 
+	 * @param bs UTF-8 encoded JSON, shared and not modified
+	 * @return {@code true} if put, {@code false} if client closed
+	 * @throws InterruptedException
+	 */
+	public boolean put(byte[] bs) throws InterruptedException {
+		
+		while ( ! this.closed ) {
+			if ( queue.offer(bs, 100L, TimeUnit.MILLISECONDS) ) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Blocking-method, take next encoded JSON of outbound queue.
+	 * 
+	 * <p>
+	 * If JSONs were dropped, returns {@code {"dropped":count}} first.<br />
+	 * </p>
+	 * 
+	 * @return next UTF-8 encoded JSON
+	 * @throws InterruptedException
+	 */
+	public byte[] take() throws InterruptedException {
+		
+		long d = dropped.getAndSet(0L);
+		
+		if ( d > 0L ) {
+			return JsonHubUtf8Writer.encode("{\"dropped\":" + d + "}");
+		}
+		
+		return queue.take();
+	}
+	
+	/**
+	 * Subscribe SECS-Messages.
+	 * 
+	 * <p>
+	 * If filters is empty, subscribe all SECS-Messages.<br />
+	 * Replace filters if already subscribed.<br />
+	 * </p>
+	 * 
+	 * @param filters
+	 */
+	public void subscribe(Collection<Filter> filters) {
+		this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+	}
+	
+	public void unsubscribe() {
+		this.filters = null;
+	}
+	
+	public void close() {
+		this.closed = true;
+		this.filters = null;
+	}
+	
+	public boolean isSubscribed() {
+		return this.filters != null;
+	}
+	
+	/**
+	 * Returns {@code true} if subscribed and matches filters.
+	 * 
+	 * @param strm
+	 * @param func
+	 * @return {@code true} if subscribed and matches filters
+	 */
+	public boolean subscribed(int strm, int func) {
+		
+		final List<Filter> ff = this.filters;
+		
+		if ( ff == null ) {
+			return false;
+		}
+		
+		if ( ff.isEmpty() ) {
+			return true;
+		}
+		
+		for ( Filter f : ff ) {
+			if ( f.matches(strm, func) ) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * This class is Stream-Function filter of subscription.
+	 * 
+	 * <p>
+	 * Negative value is wildcard.<br />
+	 * </p>
+	 *
+	 */
+	public static final class Filter {
+		
+		private final int strm;
+		private final int func;
+		
+		public Filter(int strm, int func) {
+			this.strm = strm;
+			this.func = func;
+		}
+		
+		public boolean matches(int strm, int func) {
+			return (this.strm < 0 || this.strm == strm)
+					&& (this.func < 0 || this.func == func);
+		}
+		
+		/**
+		 * Parse from JSON, e.g. {@code {"strm":6,"func":11}}, {@code {"strm":1}}.
+		 * 
+		 * @param jh
+		 * @return filter
+		 */
+		public static Filter from(JsonHub jh) {
+			return new Filter(
+					jh.getOrDefault("strm").optionalInt().orElse(-1),
+					jh.getOrDefault("func").optionalInt().orElse(-1));
+		}
+	}
+	
+}
@@ -3,11 +3,9 @@ package com.shimizukenta.secssimulator.jsoncommunicator;
 public class JsonCommunicatorReportJson {
 	
 	public Boolean communicating;
-	public String receive;
 	
 	public JsonCommunicatorReportJson() {
 		this.communicating = null;
-		this.receive = null;
 	}
 	
 }
@@ -10,6 +10,16 @@ public enum JsonCommunicatorRequestCommand {
 	OPEN("open"),
 	CLOSE("close"),
 	
+	SUBSCRIBE("subscribe"),
+	UNSUBSCRIBE("unsubscribe"),
+	
+	SEND_SML("send-sml"),
+	SEND_ALIAS("send-alias"),
+	SEND_SECS2_JSON("send-secs2-json"),
+	SEND_EVENT("send-event"),
+	
+	SET_VARIABLE("set-variable"),
+	
 	;
 	
 	private final String[] commands;
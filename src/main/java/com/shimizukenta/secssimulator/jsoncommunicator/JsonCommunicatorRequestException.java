@@ -0,0 +1,23 @@
+package com.shimizukenta.secssimulator.jsoncommunicator;
+
+public class JsonCommunicatorRequestException extends Exception {
+	
+	private static final long serialVersionUID = -3461781870129785216L;
+	
+	public JsonCommunicatorRequestException() {
+		super();
+	}
+	
+	public JsonCommunicatorRequestException(String message) {
+		super(message);
+	}
+	
+	public JsonCommunicatorRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	public JsonCommunicatorRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+}
@@ -0,0 +1,253 @@
+package com.shimizukenta.secssimulator.jsoncommunicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.shimizukenta.jsonhub.JsonHub;
+import com.shimizukenta.jsonhub.JsonHubBuilder;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2Exception;
+import com.shimizukenta.secs.secs2.Secs2Item;
+import com.shimizukenta.secs.secs2.Secs2JsonCodec;
+import com.shimizukenta.secs.secs2.Secs2JsonParseException;
+
+/**
+ * This class is parser of SECS-II JSON, format is same as {@link Secs2#toJson()}.
+ * 
+ * <p>
+ * e.g. {@code {"f":"L","v":[{"f":"A","v":"MDLN"},{"f":"U4","v":[1,2]}]}}<br />
+ * {@code {}} or {@code null} is empty body.<br />
+ * J and UNICODE are not supported.<br />
+ * </p>
+ * <p>
+ * Converts parsed JsonHub directly, JSON is not written again.<br />
+ * Numbers are checked by {@link Secs2JsonCodec#numbers(Secs2Item, Iterable)}, same as parsing JSON.<br />
+ * To build JsonHub from Secs2, {@link #toJsonHub(Secs2)}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public final class JsonCommunicatorSecs2Parser {
+	
+	private JsonCommunicatorSecs2Parser() {
+		/* Nothing */
+	}
+	
+	/**
+	 * Parse to Secs2.
+	 * 
+	 * @param jh
+	 * @return Secs2
+	 * @throws JsonCommunicatorRequestException if parse failed
+	 */
+	public static Secs2 parse(JsonHub jh) throws JsonCommunicatorRequestException {
+		try {
+			return toSecs2(jh);
+		}
+		catch ( Secs2JsonParseException e ) {
+			throw new JsonCommunicatorRequestException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Convert to Secs2.
+	 * 
+	 * @param jh
+	 * @return Secs2
+	 * @throws Secs2JsonParseException if convert failed
+	 */
+	public static Secs2 toSecs2(JsonHub jh) throws Secs2JsonParseException {
+		
+		if ( jh.isNull() || (jh.isObject() && jh.isEmpty()) ) {
+			return Secs2.empty();
+		}
+		
+		if ( ! jh.isObject() ) {
+			throw new Secs2JsonParseException("SECS-II is not object: " + jh.toJson());
+		}
+		
+		final String f = jh.getOrDefault("f").optionalString()
+				.orElseThrow(() -> new Secs2JsonParseException("SECS-II \"f\" not found"));
+		
+		if ( ! jh.containsKey("v") ) {
+			throw new Secs2JsonParseException("SECS-II \"v\" not found");
+		}
+		
+		final JsonHub v = jh.getOrDefault("v");
+		
+		final Secs2Item item = Secs2Item.symbol(f);
+		
+		switch ( item ) {
+		case LIST: {
+			
+			final List<Secs2> ss = new ArrayList<>();
+			
+			for ( JsonHub x : array(v) ) {
+				ss.add(toSecs2(x));
+			}
+			
+			return Secs2.list(ss);
+		}
+		case ASCII: {
+			
+			return Secs2.ascii(v.optionalString()
+					.orElseThrow(() -> new Secs2JsonParseException("ASCII \"v\" is not string")));
+		}
+		case BOOLEAN: {
+			
+			final List<Boolean> bb = new ArrayList<>();
+			
+			for ( JsonHub x : array(v) ) {
+				bb.add(x.optionalBoolean()
+						.orElseThrow(() -> new Secs2JsonParseException("BOOLEAN \"v\" is not boolean")));
+			}
+			
+			return Secs2.bool(bb);
+		}
+		case BINARY:
+		case INT1:
+		case INT2:
+		case INT4:
+		case INT8:
+		case UINT1:
+		case UINT2:
+		case UINT4:
+		case UINT8:
+		case FLOAT4:
+		case FLOAT8: {
+			
+			final List<String> literals = new ArrayList<>();
+			
+			for ( JsonHub x : array(v) ) {
+				
+				if ( ! x.isNumber() ) {
+					throw new Secs2JsonParseException(item + " \"v\" is not number");
+				}
+				
+				/* literal as parsed */
+				literals.add(x.toJson());
+			}
+			
+			return Secs2JsonCodec.numbers(item, literals);
+		}
+		default: {
+			throw new Secs2JsonParseException("Not support SECS-II \"f\": " + f);
+		}
+		}
+	}
+	
+	/**
+	 * Convert Secs2 to JsonHub, same JSON as {@link Secs2#toJson()}.
+	 * 
+	 * @param ss
+	 * @return JsonHub
+	 */
+	public static JsonHub toJsonHub(Secs2 ss) {
+		
+		final JsonHubBuilder jhb = JsonHub.getBuilder();
+		final Secs2Item item = ss.secs2Item();
+		
+		if ( item == Secs2Item.UNDEFINED ) {
+			return jhb.emptyObject();
+		}
+		
+		return jhb.object(
+				jhb.pair("f", item.symbol()),
+				jhb.pair("v", toJsonHubValue(jhb, item, ss)));
+	}
+	
+	private static JsonHub toJsonHubValue(JsonHubBuilder jhb, Secs2Item item, Secs2 ss) {
+		
+		try {
+			
+			if ( item == Secs2Item.ASCII ) {
+				return jhb.string(toAscii(ss.getAscii()));
+			}
+			
+			final int n = ss.size();
+			final List<JsonHub> vv = new ArrayList<>(n);
+			
+			for ( int i = 0; i < n; ++i ) {
+				
+				switch ( item ) {
+				case LIST: {
+					vv.add(toJsonHub(ss.get(i)));
+					break;
+				}
+				case BOOLEAN: {
+					vv.add(jhb.build(ss.getBoolean(i)));
+					break;
+				}
+				case BINARY: {
+					vv.add(jhb.number(ss.getByte(i)));
+					break;
+				}
+				case UINT8: {
+					vv.add(jhb.number(ss.getBigInteger(i)));
+					break;
+				}
+				case FLOAT4: {
+					vv.add(jhb.number(ss.getFloat(i)));
+					break;
+				}
+				case FLOAT8: {
+					vv.add(jhb.number(ss.getDouble(i)));
+					break;
+				}
+				case INT1:
+				case INT2:
+				case INT4:
+				case INT8:
+				case UINT1:
+				case UINT2:
+				case UINT4: {
+					vv.add(jhb.number(ss.getLong(i)));
+					break;
+				}
+				default: {
+					/* J, UNICODE */
+					return jhb.falseValue();
+				}
+				}
+			}
+			
+			return jhb.array(vv);
+		}
+		catch ( Secs2Exception e ) {
+			
+			/* broken bytes, same as Secs2#toJson() */
+			return jhb.falseValue();
+		}
+	}
+	
+	/* not ASCII is '?', same as Secs2#toJson() */
+	private static String toAscii(String s) {
+		
+		for ( int i = 0, m = s.length(); i < m; ++i ) {
+			
+			if ( s.charAt(i) >= 0x80 ) {
+				
+				final char[] cc = s.toCharArray();
+				
+				for ( int j = i; j < m; ++j ) {
+					if ( cc[j] >= 0x80 ) {
+						cc[j] = '?';
+					}
+				}
+				
+				return new String(cc);
+			}
+		}
+		
+		return s;
+	}
+	
+	private static JsonHub array(JsonHub v) throws Secs2JsonParseException {
+		if ( v.isArray() ) {
+			return v;
+		}
+		throw new Secs2JsonParseException("SECS-II \"v\" is not array: " + v.toJson());
+	}
+	
+}
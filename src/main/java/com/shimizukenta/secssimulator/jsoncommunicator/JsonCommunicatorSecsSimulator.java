@@ -3,19 +3,72 @@ package com.shimizukenta.secssimulator.jsoncommunicator;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import com.shimizukenta.jsoncommunicator.JsonCommunicator;
 import com.shimizukenta.jsoncommunicator.JsonCommunicatorConnectionState;
 import com.shimizukenta.jsoncommunicator.JsonCommunicatorParseException;
 import com.shimizukenta.jsoncommunicator.JsonCommunicators;
 import com.shimizukenta.jsonhub.JsonHub;
+import com.shimizukenta.jsonhub.JsonHubBuilder;
 import com.shimizukenta.jsonhub.JsonHubParseException;
+import com.shimizukenta.jsonhub.JsonHubUtf8Writer;
+import com.shimizukenta.secs.SecsCommunicator;
+import com.shimizukenta.secs.SecsMessage;
+import com.shimizukenta.secs.hsmsss.HsmsSsMessage;
+import com.shimizukenta.secs.hsmsss.HsmsSsMessageType;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.sml.SmlParseException;
 import com.shimizukenta.secssimulator.AbstractSecsSimulator;
+import com.shimizukenta.secssimulator.SecsSimulatorException;
 
+/**
+ * This class is SECS-Simulator controlled by JSON-Communicator.
+ * 
+ * <p>
+ * Requests: {@code {"request":"open"}}, {@code "close"}, {@code "quit"}, {@code "reboot"}.<br />
+ * To subscribe SECS-Messages, {@code {"request":"subscribe","filters":[{"strm":6,"func":11},{"strm":1}]}},
+ * if filters is empty or absent, subscribe all. To stop, {@code {"request":"unsubscribe"}}.<br />
+ * Subscribed SECS-Messages are pushed as {@code {"receive":message}} or {@code {"send":message}},
+ * message is {@link SecsMessage#toJson()}.<br />
+ * To send SECS-Message, {@code {"request":"send-sml","id":1,"sml":"S1F1 W."}},
+ * {@code {"request":"send-alias","id":2,"alias":"s1f1"}},
+ * {@code {"request":"send-secs2-json","id":3,"strm":1,"func":1,"wbit":true,"secs2":{}}}.<br />
+ * Send requests run asynchronously, many transactions can be in flight,
+ * result is {@code {"id":1,"reply":message}} ({@code null} if no reply) or {@code {"id":1,"error":"..."}}.<br />
+ * Requests in flight are limited by {@link JsonCommunicatorSecsSimulatorConfig#maxSendRequests(int)},
+ * if over, request is answered by error at once.<br />
+ * Each SECS-Message is encoded once and shared by subscribed clients,
+ * each client has bounded outbound queue, see {@link JsonCommunicatorClient}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
 public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator implements Closeable {
 	
+	private final ExecutorService execServ = Executors.newCachedThreadPool(r -> {
+		Thread th = new Thread(r);
+		th.setDaemon(true);
+		return th;
+	});
+	
 	private final JsonCommunicatorSecsSimulatorConfig config;
 	private final JsonCommunicator<?> jsonComm;
+	private final Semaphore sendPermits;
+	
+	private final Map<AsynchronousSocketChannel, JsonCommunicatorClient> clients = new ConcurrentHashMap<>();
+	private final Map<AsynchronousSocketChannel, Future<?>> clientTasks = new ConcurrentHashMap<>();
 	
 	private boolean opened;
 	private boolean closed;
@@ -27,6 +80,7 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 		super(config);
 		this.config = config;
 		this.jsonComm = JsonCommunicators.newInstance(config.jsonCommunicator());
+		this.sendPermits = new Semaphore(config.maxSendRequests());
 		this.opened = false;
 		this.closed = false;
 		this.rebootCommunicator = false;
@@ -50,24 +104,38 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 		
 		this.jsonComm.addLogListener(this::echo);
 		
-		this.jsonComm.addJsonReceiveListener((channel, json) -> {
+		this.jsonComm.addJsonHubReceiveListener((channel, jh) -> {
 			try {
-				receiveJson(channel, JsonHub.fromJson(json));
+				receiveJson(channel, jh);
 			}
-			catch ( JsonHubParseException | JsonCommunicatorParseException | IOException e ) {
+			catch ( JsonHubParseException | JsonCommunicatorParseException | JsonCommunicatorRequestException | IOException e ) {
 				echo(e);
 			}
 		});
 		
 		this.jsonComm.addConnectionStateChangeListener((channel, state) -> {
+			
 			if ( state == JsonCommunicatorConnectionState.CONNECTED ) {
-				try {
-					jsonComm.send(channel, reportCache);
+				
+				final JsonCommunicatorClient client = new JsonCommunicatorClient(channel, config.clientQueueCapacity());
+				
+				synchronized ( this ) {
+					client.offer(toJsonBytes(reportCache));
+					clients.put(channel, client);
 				}
-				catch ( InterruptedException ignore ) {
+				
+				clientTasks.put(channel, execServ.submit(createClientTask(client)));
+				
+			} else {
+				
+				JsonCommunicatorClient client = clients.remove(channel);
+				if ( client != null ) {
+					client.close();
 				}
-				catch ( JsonCommunicatorParseException | IOException e ) {
-					echo(e);
+				
+				Future<?> f = clientTasks.remove(channel);
+				if ( f != null ) {
+					f.cancel(true);
 				}
 			}
 		});
@@ -83,12 +151,86 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 				JsonCommunicatorReportJson report = new JsonCommunicatorReportJson();
 				report.communicating = Boolean.valueOf(communicating);
 				
-				//TODO
+				final byte[] bs = toJsonBytes(report);
+				
+				clients.values().forEach(c -> {
+					c.offer(bs);
+				});
 			}
 		});
 		
 	}
 	
+	@Override
+	public SecsCommunicator openCommunicator() throws IOException {
+		
+		synchronized ( this ) {
+			
+			final SecsCommunicator comm = super.openCommunicator();
+			
+			comm.addReceiveMessagePassThroughListener(msg -> {
+				pushSecsMessage("receive", msg);
+			});
+			
+			comm.addSendedMessagePassThroughListener(msg -> {
+				pushSecsMessage("send", msg);
+			});
+			
+			return comm;
+		}
+	}
+	
+	private void pushSecsMessage(String direction, SecsMessage msg) {
+		
+		if ( msg instanceof HsmsSsMessage ) {
+			if ( HsmsSsMessageType.get((HsmsSsMessage)msg) != HsmsSsMessageType.DATA ) {
+				return;
+			}
+		}
+		
+		final int strm = msg.getStream();
+		final int func = msg.getFunction();
+		
+		/* encoded once, shared by subscribed clients */
+		byte[] bs = null;
+		
+		for ( JsonCommunicatorClient c : clients.values() ) {
+			
+			if ( c.subscribed(strm, func) ) {
+				
+				if ( bs == null ) {
+					bs = JsonHubUtf8Writer.encode("{\"" + direction + "\":" + msg.toJson() + "}");
+				}
+				
+				c.offer(bs);
+			}
+		}
+	}
+	
+	private Runnable createClientTask(JsonCommunicatorClient client) {
+		return () -> {
+			try {
+				for ( ;; ) {
+					
+					final byte[] bs = client.take();
+					
+					try {
+						jsonComm.send(client.channel(), bs);
+					}
+					catch ( IOException e ) {
+						echo(e);
+					}
+				}
+			}
+			catch ( InterruptedException ignore ) {
+			}
+		};
+	}
+	
+	private static byte[] toJsonBytes(JsonCommunicatorReportJson report) {
+		return JsonHubUtf8Writer.encode(JsonHub.fromPojo(report).toJsonExcludedNullValueInObject());
+	}
+	
 	@Override
 	public void close() throws IOException {
 		
@@ -101,7 +243,19 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 			this.closed = true;
 		}
 		
-		this.jsonComm.close();
+		try {
+			this.jsonComm.close();
+		}
+		finally {
+			try {
+				execServ.shutdownNow();
+				if ( ! execServ.awaitTermination(5L, TimeUnit.SECONDS) ) {
+					throw new IOException("ExecutorService#shutdown failed");
+				}
+			}
+			catch ( InterruptedException giveup ) {
+			}
+		}
 	}
 	
 	
@@ -145,7 +299,7 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 	}
 	
 	private void receiveJson(AsynchronousSocketChannel channel, JsonHub jh)
-			throws JsonHubParseException, JsonCommunicatorParseException, IOException {
+			throws JsonHubParseException, JsonCommunicatorParseException, JsonCommunicatorRequestException, IOException {
 		
 		JsonCommunicatorRequestCommand reqCmd = JsonCommunicatorRequestCommand.get(
 				jh.getOrDefault("request").optionalString().orElse(null));
@@ -167,12 +321,179 @@ public class JsonCommunicatorSecsSimulator extends AbstractSecsSimulator impleme
 			this.closeCommunicator();
 			break;
 		}
+		case SUBSCRIBE: {
+			
+			final JsonCommunicatorClient client = clients.get(channel);
+			
+			if ( client != null ) {
+				
+				final List<JsonCommunicatorClient.Filter> filters = new ArrayList<>();
+				final JsonHub jhFilters = jh.getOrDefault("filters");
+				
+				if ( jhFilters.isArray() ) {
+					for ( JsonHub f : jhFilters ) {
+						filters.add(JsonCommunicatorClient.Filter.from(f));
+					}
+				}
+				
+				client.subscribe(filters);
+			}
+			break;
+		}
+		case UNSUBSCRIBE: {
+			
+			final JsonCommunicatorClient client = clients.get(channel);
+			
+			if ( client != null ) {
+				client.unsubscribe();
+			}
+			break;
+		}
+		case SET_VARIABLE: {
+			
+			final long vid = jh.getOrDefault("vid").optionalLong()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"vid\" not found"));
+			
+			this.equipmentGemModel().variables().set(vid, JsonCommunicatorSecs2Parser.parse(jh.getOrDefault("value")));
+			break;
+		}
+		case SEND_SML:
+		case SEND_ALIAS:
+		case SEND_SECS2_JSON:
+		case SEND_EVENT: {
+			
+			final JsonCommunicatorClient client = clients.get(channel);
+			
+			if ( client != null ) {
+				
+				if ( ! sendPermits.tryAcquire() ) {
+					client.offer(toReplyBytes(jh.getOrDefault("id"), "error",
+							JsonHub.getBuilder().string("Too many send requests in flight")));
+					break;
+				}
+				
+				try {
+					execServ.execute(createSendTask(client, reqCmd, jh));
+				}
+				catch ( RejectedExecutionException e ) {
+					sendPermits.release();
+				}
+			}
+			break;
+		}
 		default: {
 			/* Nothing */
 		}
 		}
 	}
 	
+	private Runnable createSendTask(
+			JsonCommunicatorClient client,
+			JsonCommunicatorRequestCommand reqCmd,
+			JsonHub jh) {
+		
+		return () -> {
+			
+			try {
+				
+				final JsonHub id = jh.getOrDefault("id");
+				
+				byte[] bs;
+				
+				try {
+					SecsMessage reply = send(reqCmd, jh).orElse(null);
+					
+					bs = toReplyBytes(id, "reply", toJsonHub(reply));
+				}
+				catch ( JsonCommunicatorRequestException | SmlParseException | SecsSimulatorException | RuntimeException e ) {
+					
+					bs = toReplyBytes(id, "error", JsonHub.getBuilder().string(e.toString()));
+				}
+				
+				client.put(bs);
+			}
+			catch ( InterruptedException ignore ) {
+			}
+			finally {
+				sendPermits.release();
+			}
+		};
+	}
+	
+	private static byte[] toReplyBytes(JsonHub id, String name, JsonHub value) {
+		final JsonHubBuilder jhb = JsonHub.getBuilder();
+		return JsonHubUtf8Writer.toBytes(jhb.object(jhb.pair("id", id), jhb.pair(name, value)));
+	}
+	
+	/* same JSON as SecsMessage#toJson() */
+	private static JsonHub toJsonHub(SecsMessage msg) {
+		
+		final JsonHubBuilder jhb = JsonHub.getBuilder();
+		
+		if ( msg == null ) {
+			return jhb.nullValue();
+		}
+		
+		return jhb.object(
+				jhb.pair("strm", msg.getStream()),
+				jhb.pair("func", msg.getFunction()),
+				jhb.pair("wbit", msg.wbit()),
+				jhb.pair("deviceId", msg.deviceId()),
+				jhb.pair("systemBytes", systemBytes(msg.header10Bytes())),
+				jhb.pair("secs2", JsonCommunicatorSecs2Parser.toJsonHub(msg.secs2())));
+	}
+	
+	private static int systemBytes(byte[] head) {
+		return ((head[6] & 0xFF) << 24)
+				| ((head[7] & 0xFF) << 16)
+				| ((head[8] & 0xFF) << 8)
+				| (head[9] & 0xFF);
+	}
+	
+	private Optional<SecsMessage> send(JsonCommunicatorRequestCommand reqCmd, JsonHub jh)
+			throws JsonCommunicatorRequestException, SmlParseException, SecsSimulatorException, InterruptedException {
+		
+		switch ( reqCmd ) {
+		case SEND_SML: {
+			
+			String sml = jh.getOrDefault("sml").optionalString()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"sml\" not found"));
+			
+			return this.send(this.parseSml(sml));
+		}
+		case SEND_ALIAS: {
+			
+			String alias = jh.getOrDefault("alias").optionalString()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"alias\" not found"));
+			
+			return this.send(this.optionalSmlAlias(alias)
+					.orElseThrow(() -> new JsonCommunicatorRequestException("Alias not found: " + alias)));
+		}
+		case SEND_SECS2_JSON: {
+			
+			int strm = jh.getOrDefault("strm").optionalInt()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"strm\" not found"));
+			
+			int func = jh.getOrDefault("func").optionalInt()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"func\" not found"));
+			
+			boolean wbit = jh.getOrDefault("wbit").optionalBoolean().orElse(Boolean.FALSE).booleanValue();
+			
+			return this.send(strm, func, wbit, JsonCommunicatorSecs2Parser.parse(jh.getOrDefault("secs2")));
+		}
+		case SEND_EVENT: {
+			
+			long ceid = jh.getOrDefault("ceid").optionalLong()
+					.orElseThrow(() -> new JsonCommunicatorRequestException("\"ceid\" not found"));
+			
+			return this.sendEvent(Secs2.uint4(ceid));
+		}
+		default: {
+			throw new JsonCommunicatorRequestException("Not send request: " + reqCmd);
+		}
+		}
+	}
+	
 	private void echo(Object o) {
 		if ( config.isEcho() ) {
 			staticEcho(o);
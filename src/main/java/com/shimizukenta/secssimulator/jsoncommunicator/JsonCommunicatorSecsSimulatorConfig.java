@@ -16,10 +16,14 @@ public class JsonCommunicatorSecsSimulatorConfig extends AbstractSecsSimulatorCo
 	private final JsonCommunicatorConfig jsonCommConfig = new JsonCommunicatorConfig();
 	
 	private boolean isEcho;
+	private int clientQueueCapacity;
+	private int maxSendRequests;
 	
 	public JsonCommunicatorSecsSimulatorConfig() {
 		super();
 		this.isEcho = false;
+		this.clientQueueCapacity = 1024;
+		this.maxSendRequests = 256;
 	}
 	
 	public JsonCommunicatorConfig jsonCommunicator() {
@@ -38,6 +42,54 @@ public class JsonCommunicatorSecsSimulatorConfig extends AbstractSecsSimulatorCo
 		}
 	}
 	
+	/**
+	 * Outbound queue capacity of each JSON client setter.
+	 * 
+	 * <p>
+	 * If queue is full, SECS-Message report is dropped.<br />
+	 * </p>
+	 * 
+	 * @param capacity set value of {@code >0}
+	 */
+	public void clientQueueCapacity(int capacity) {
+		if ( capacity <= 0 ) {
+			throw new IllegalArgumentException("capacity is >0");
+		}
+		synchronized ( this ) {
+			this.clientQueueCapacity = capacity;
+		}
+	}
+	
+	public int clientQueueCapacity() {
+		synchronized ( this ) {
+			return this.clientQueueCapacity;
+		}
+	}
+	
+	/**
+	 * Max count of send requests in flight setter.
+	 * 
+	 * <p>
+	 * If over, send request is answered by error immediately.<br />
+	 * </p>
+	 * 
+	 * @param max set value of {@code >0}
+	 */
+	public void maxSendRequests(int max) {
+		if ( max <= 0 ) {
+			throw new IllegalArgumentException("max is >0");
+		}
+		synchronized ( this ) {
+			this.maxSendRequests = max;
+		}
+	}
+	
+	public int maxSendRequests() {
+		synchronized ( this ) {
+			return this.maxSendRequests;
+		}
+	}
+	
 	public static JsonCommunicatorSecsSimulatorConfig get(String[] args) {
 		
 		final JsonCommunicatorSecsSimulatorConfig config = new JsonCommunicatorSecsSimulatorConfig();
@@ -64,6 +116,14 @@ public class JsonCommunicatorSecsSimulatorConfig extends AbstractSecsSimulatorCo
 			config.isEcho(Boolean.parseBoolean(v));
 		}
 		
+		for ( String v : map.getOrDefault("--client-queue-capacity", Collections.emptyList())) {
+			config.clientQueueCapacity(Integer.parseInt(v));
+		}
+		
+		for ( String v : map.getOrDefault("--max-send-requests", Collections.emptyList())) {
+			config.maxSendRequests(Integer.parseInt(v));
+		}
+		
 		return config;
 	}
 	
@@ -0,0 +1,347 @@
+package com.shimizukenta.secssimulator.loopback;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.shimizukenta.secs.SecsCommunicator;
+import com.shimizukenta.secs.SecsException;
+import com.shimizukenta.secs.SecsLatencyHistogram;
+import com.shimizukenta.secs.hsmsss.HsmsSsCommunicator;
+import com.shimizukenta.secs.hsmsss.HsmsSsCommunicatorConfig;
+import com.shimizukenta.secs.hsmsss.HsmsSsProtocol;
+import com.shimizukenta.secs.hsmsss.HsmsSsTransport;
+import com.shimizukenta.secs.secs1ontcpip.Secs1OnTcpIpCommunicator;
+import com.shimizukenta.secs.secs1ontcpip.Secs1OnTcpIpCommunicatorConfig;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secssimulator.TcpIpAdapter;
+
+/**
+ * This class is loopback throughput and latency harness, needs no equipment.
+ * 
+ * <p>
+ * HSMS-SS: Passive(Equip) and Active(Host) on 127.0.0.1.<br />
+ * SECS-I-on-TCP/IP: Equip(Master) and Host(Slave) connect through {@link TcpIpAdapter}.<br />
+ * Host sends S1F1 W with binary body by concurrent threads, Equip replies S1F2 with empty body.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class LoopbackBenchmark {
+	
+	private static final long COMMUNICATING_TIMEOUT_SECONDS = 30L;
+	private static final int DEVICE_ID = 10;
+	
+	private LoopbackBenchmark() {
+		/* Nothing */
+	}
+	
+	/**
+	 * Run loopback benchmark, blocking-method.
+	 * 
+	 * @param config
+	 * @return result
+	 * @throws IOException if open failed or not communicating
+	 * @throws InterruptedException
+	 */
+	public static LoopbackBenchmarkResult run(LoopbackBenchmarkConfig config)
+			throws IOException, InterruptedException {
+		
+		final List<Closeable> closeables = new ArrayList<>();
+		
+		final ExecutorService execServ = Executors.newCachedThreadPool(r -> {
+			Thread th = new Thread(r);
+			th.setDaemon(true);
+			return th;
+		});
+		
+		try {
+			final SecsCommunicator equip;
+			final SecsCommunicator host;
+			
+			switch ( config.protocol() ) {
+			case SECS1_ON_TCP_IP: {
+				
+				TcpIpAdapter adapter = TcpIpAdapter.open(
+						new InetSocketAddress("127.0.0.1", 0),
+						new InetSocketAddress("127.0.0.1", 0));
+				
+				closeables.add(adapter);
+				
+				equip = Secs1OnTcpIpCommunicator.newInstance(
+						secs1Config(adapter.socketAddressA(), true, config.tcpNoDelay()));
+				
+				host = Secs1OnTcpIpCommunicator.newInstance(
+						secs1Config(adapter.socketAddressB(), false, config.tcpNoDelay()));
+				break;
+			}
+			case HSMS_SS:
+			default: {
+				
+				InetSocketAddress addr = new InetSocketAddress("127.0.0.1", config.port());
+				
+				equip = HsmsSsCommunicator.newInstance(hsmsSsConfig(addr, HsmsSsProtocol.PASSIVE, true, config.transport(), config.tcpNoDelay()));
+				host = HsmsSsCommunicator.newInstance(hsmsSsConfig(addr, HsmsSsProtocol.ACTIVE, false, config.transport(), config.tcpNoDelay()));
+			}
+			}
+			
+			closeables.add(0, equip);
+			closeables.add(0, host);
+			
+			equip.addSecsMessageReceiveListener(msg -> {
+				if ( msg.wbit() ) {
+					try {
+						equip.send(msg, msg.getStream(), msg.getFunction() + 1, false, Secs2.empty());
+					}
+					catch ( SecsException giveup ) {
+					}
+					catch ( InterruptedException ignore ) {
+					}
+				}
+			});
+			
+			equip.open();
+			host.open();
+			
+			waitUntilCommunicating(execServ, equip, host);
+			
+			return measure(execServ, config, host);
+		}
+		finally {
+			
+			IOException ioExcept = null;
+			
+			for ( Closeable c : closeables ) {
+				try {
+					c.close();
+				}
+				catch ( IOException e ) {
+					ioExcept = e;
+				}
+			}
+			
+			execServ.shutdownNow();
+			
+			if ( ioExcept != null ) {
+				throw ioExcept;
+			}
+		}
+	}
+	
+	private static HsmsSsCommunicatorConfig hsmsSsConfig(
+			InetSocketAddress addr,
+			HsmsSsProtocol protocol,
+			boolean isEquip,
+			HsmsSsTransport transport,
+			boolean tcpNoDelay) {
+		
+		HsmsSsCommunicatorConfig config = new HsmsSsCommunicatorConfig();
+		config.protocol(protocol);
+		config.socketAddress(addr);
+		config.sessionId(DEVICE_ID);
+		config.isEquip(isEquip);
+		config.notLinktest();
+		config.transport(transport);
+		config.socketOptions().tcpNoDelay(tcpNoDelay);
+		config.logSubjectHeader(isEquip ? "Loopback-Equip: " : "Loopback-Host: ");
+		
+		/* Active may try-connect before Passive binded */
+		config.timeout().t5(1.0F);
+		
+		return config;
+	}
+	
+	private static Secs1OnTcpIpCommunicatorConfig secs1Config(
+			SocketAddress addr,
+			boolean isEquip,
+			boolean tcpNoDelay) {
+		
+		Secs1OnTcpIpCommunicatorConfig config = new Secs1OnTcpIpCommunicatorConfig();
+		config.socketAddress(addr);
+		config.deviceId(DEVICE_ID);
+		config.isEquip(isEquip);
+		config.isMaster(isEquip);
+		config.reconnectSeconds(1.0F);
+		config.socketOptions().tcpNoDelay(tcpNoDelay);
+		config.logSubjectHeader(isEquip ? "Loopback-Equip: " : "Loopback-Host: ");
+		return config;
+	}
+	
+	private static void waitUntilCommunicating(
+			ExecutorService execServ,
+			SecsCommunicator... comms)
+					throws IOException, InterruptedException {
+		
+		final List<Future<?>> ff = new ArrayList<>();
+		
+		for ( SecsCommunicator comm : comms ) {
+			ff.add(execServ.submit(() -> {
+				comm.openAndWaitUntilCommunicating();
+				return null;
+			}));
+		}
+		
+		final long limit = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(COMMUNICATING_TIMEOUT_SECONDS);
+		
+		try {
+			for ( Future<?> f : ff ) {
+				long r = limit - System.currentTimeMillis();
+				f.get((r > 0L ? r : 0L), TimeUnit.MILLISECONDS);
+			}
+		}
+		catch ( TimeoutException e ) {
+			throw new IOException("Not communicating", e);
+		}
+		catch ( ExecutionException e ) {
+			throw new IOException("Not communicating", e.getCause());
+		}
+		finally {
+			ff.forEach(f -> {f.cancel(true);});
+		}
+	}
+	
+	private static LoopbackBenchmarkResult measure(
+			ExecutorService execServ,
+			LoopbackBenchmarkConfig config,
+			SecsCommunicator host)
+					throws InterruptedException {
+		
+		final Secs2 body = config.bodySize() > 0 ? Secs2.binary(new byte[config.bodySize()]) : Secs2.empty();
+		final SecsLatencyHistogram latency = new SecsLatencyHistogram();
+		final AtomicLong errors = new AtomicLong(0L);
+		final Phase phase = new Phase();
+		final List<Future<?>> ff = new ArrayList<>();
+		
+		for ( int i = 0, m = config.concurrency(); i < m; ++i ) {
+			ff.add(execServ.submit(() -> {
+				
+				for ( ;; ) {
+					
+					final boolean measuring = phase.measuring();
+					
+					if ( phase.stopped() ) {
+						return null;
+					}
+					
+					final long t0 = System.nanoTime();
+					
+					try {
+						host.send(1, 1, true, body);
+						
+						if ( measuring && phase.measuring() ) {
+							latency.record(System.nanoTime() - t0);
+						}
+					}
+					catch ( SecsException e ) {
+						if ( measuring ) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			}));
+		}
+		
+		try {
+			TimeUnit.MILLISECONDS.sleep((long)(config.warmupSeconds() * 1000.0F));
+			
+			final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			bean.resetPeakThreadCount();
+			
+			final long alloc0 = allocatedBytes(bean);
+			final long t0 = System.nanoTime();
+			
+			phase.measure();
+			
+			TimeUnit.MILLISECONDS.sleep((long)(config.seconds() * 1000.0F));
+			
+			phase.stop();
+			
+			final long elapsed = System.nanoTime() - t0;
+			final long alloc1 = allocatedBytes(bean);
+			final int threads = bean.getThreadCount();
+			final int peakThreads = bean.getPeakThreadCount();
+			
+			for ( Future<?> f : ff ) {
+				try {
+					f.get(COMMUNICATING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				}
+				catch ( ExecutionException | TimeoutException giveup ) {
+				}
+			}
+			
+			return new LoopbackBenchmarkResult(
+					config,
+					errors.get(),
+					elapsed,
+					latency,
+					((alloc0 < 0L || alloc1 < 0L) ? -1L : (alloc1 - alloc0)),
+					threads,
+					peakThreads);
+		}
+		finally {
+			phase.stop();
+			ff.forEach(f -> {f.cancel(true);});
+		}
+	}
+	
+	/* sum of alive threads, bytes of dead threads are not counted */
+	private static long allocatedBytes(ThreadMXBean bean) {
+		
+		if ( bean instanceof com.sun.management.ThreadMXBean ) {
+			
+			long sum = 0L;
+			
+			for ( long v : ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(bean.getAllThreadIds()) ) {
+				if ( v > 0L ) {
+					sum += v;
+				}
+			}
+			
+			return sum;
+		}
+		
+		return -1L;
+	}
+	
+	private static class Phase {
+		
+		private volatile boolean measuring;
+		private volatile boolean stopped;
+		
+		private Phase() {
+			this.measuring = false;
+			this.stopped = false;
+		}
+		
+		private boolean measuring() {
+			return measuring;
+		}
+		
+		private boolean stopped() {
+			return stopped;
+		}
+		
+		private void measure() {
+			this.measuring = true;
+		}
+		
+		private void stop() {
+			this.measuring = false;
+			this.stopped = true;
+		}
+	}
+	
+}
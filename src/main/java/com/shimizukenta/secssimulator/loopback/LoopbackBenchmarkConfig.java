@@ -0,0 +1,269 @@
+package com.shimizukenta.secssimulator.loopback;
+
+import com.shimizukenta.secs.hsmsss.HsmsSsTransport;
+
+/**
+ * This class is config of {@link LoopbackBenchmark}.
+ * 
+ * <p>
+ * Parse from CLI option, e.g. {@code "hsms concurrency=4 size=1024 seconds=10 warmup=3 port=25200 transport=selector nodelay=false"}.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class LoopbackBenchmarkConfig {
+	
+	/**
+	 * Loopback protocol.
+	 *
+	 */
+	public static enum Protocol {
+		HSMS_SS,
+		SECS1_ON_TCP_IP,
+		;
+	}
+	
+	private Protocol protocol;
+	private int concurrency;
+	private int bodySize;
+	private float seconds;
+	private float warmupSeconds;
+	private int port;
+	private HsmsSsTransport transport;
+	private boolean tcpNoDelay;
+	
+	public LoopbackBenchmarkConfig() {
+		this.protocol = Protocol.HSMS_SS;
+		this.concurrency = 1;
+		this.bodySize = 0;
+		this.seconds = 10.0F;
+		this.warmupSeconds = 3.0F;
+		this.port = 25200;
+		this.transport = HsmsSsTransport.ASYNCHRONOUS_CHANNEL;
+		this.tcpNoDelay = true;
+	}
+	
+	public void protocol(Protocol protocol) {
+		this.protocol = protocol;
+	}
+	
+	public Protocol protocol() {
+		return protocol;
+	}
+	
+	/**
+	 * Concurrency setter.
+	 * 
+	 * @param n count of sending threads, set value of {@code >0}
+	 */
+	public void concurrency(int n) {
+		if ( n <= 0 ) {
+			throw new IllegalArgumentException("concurrency is >0");
+		}
+		this.concurrency = n;
+	}
+	
+	public int concurrency() {
+		return concurrency;
+	}
+	
+	/**
+	 * Body size setter.
+	 * 
+	 * @param size bytes of primary-message binary body, if 0, empty body
+	 */
+	public void bodySize(int size) {
+		if ( size < 0 ) {
+			throw new IllegalArgumentException("size is >=0");
+		}
+		this.bodySize = size;
+	}
+	
+	public int bodySize() {
+		return bodySize;
+	}
+	
+	public void seconds(float v) {
+		if ( v <= 0.0F ) {
+			throw new IllegalArgumentException("seconds is >0");
+		}
+		this.seconds = v;
+	}
+	
+	public float seconds() {
+		return seconds;
+	}
+	
+	public void warmupSeconds(float v) {
+		if ( v < 0.0F ) {
+			throw new IllegalArgumentException("warmup is >=0");
+		}
+		this.warmupSeconds = v;
+	}
+	
+	public float warmupSeconds() {
+		return warmupSeconds;
+	}
+	
+	/**
+	 * HSMS-SS passive port setter, SECS-I uses ephemeral ports of TcpIpAdapter.
+	 * 
+	 * @param port
+	 */
+	public void port(int port) {
+		this.port = port;
+	}
+	
+	public int port() {
+		return port;
+	}
+	
+	/**
+	 * HSMS-SS socket transport setter.
+	 * 
+	 * @param transport
+	 */
+	public void transport(HsmsSsTransport transport) {
+		this.transport = transport;
+	}
+	
+	public HsmsSsTransport transport() {
+		return transport;
+	}
+	
+	/**
+	 * TCP_NODELAY setter of both communicators.
+	 * 
+	 * @param f set {@code false} to measure with Nagle algorithm
+	 */
+	public void tcpNoDelay(boolean f) {
+		this.tcpNoDelay = f;
+	}
+	
+	public boolean tcpNoDelay() {
+		return tcpNoDelay;
+	}
+	
+	/**
+	 * Parse from CLI option.
+	 * 
+	 * @param cs
+	 * @return config
+	 * @throws IllegalArgumentException if parse failed
+	 */
+	public static LoopbackBenchmarkConfig parse(CharSequence cs) {
+		
+		final LoopbackBenchmarkConfig config = new LoopbackBenchmarkConfig();
+		
+		if ( cs == null ) {
+			return config;
+		}
+		
+		for ( String v : cs.toString().trim().split("\\s+") ) {
+			
+			if ( v.isEmpty() ) {
+				continue;
+			}
+			
+			String[] kv = v.split("=", 2);
+			String k = kv[0].toLowerCase();
+			
+			if ( kv.length == 1 ) {
+				
+				if ( k.equals("hsms") || k.equals("hsms-ss") ) {
+					config.protocol(Protocol.HSMS_SS);
+				} else if ( k.equals("secs1") || k.equals("secs1-on-tcp/ip") ) {
+					config.protocol(Protocol.SECS1_ON_TCP_IP);
+				} else {
+					throw new IllegalArgumentException("Unknown option: " + v);
+				}
+				
+				continue;
+			}
+			
+			try {
+				switch ( k ) {
+				case "concurrency":
+				case "c": {
+					config.concurrency(Integer.parseInt(kv[1]));
+					break;
+				}
+				case "size": {
+					config.bodySize(Integer.parseInt(kv[1]));
+					break;
+				}
+				case "seconds":
+				case "sec": {
+					config.seconds(Float.parseFloat(kv[1]));
+					break;
+				}
+				case "warmup": {
+					config.warmupSeconds(Float.parseFloat(kv[1]));
+					break;
+				}
+				case "port": {
+					config.port(Integer.parseInt(kv[1]));
+					break;
+				}
+				case "transport": {
+					config.transport(parseTransport(kv[1]));
+					break;
+				}
+				case "nodelay": {
+					config.tcpNoDelay(parseBoolean(kv[1]));
+					break;
+				}
+				default: {
+					throw new IllegalArgumentException("Unknown option: " + v);
+				}
+				}
+			}
+			catch ( NumberFormatException e ) {
+				throw new IllegalArgumentException("Number format failed: " + v, e);
+			}
+		}
+		
+		return config;
+	}
+	
+	private static HsmsSsTransport parseTransport(String v) {
+		
+		for ( HsmsSsTransport t : HsmsSsTransport.values() ) {
+			if ( t.name().replace("_", "-").equalsIgnoreCase(v) || t.name().equalsIgnoreCase(v) ) {
+				return t;
+			}
+		}
+		
+		if ( v.equalsIgnoreCase("async") ) {
+			return HsmsSsTransport.ASYNCHRONOUS_CHANNEL;
+		}
+		
+		throw new IllegalArgumentException("Unknown transport: " + v);
+	}
+	
+	private static boolean parseBoolean(String v) {
+		
+		if ( v.equalsIgnoreCase("true") || v.equals("1") ) {
+			return true;
+		}
+		
+		if ( v.equalsIgnoreCase("false") || v.equals("0") ) {
+			return false;
+		}
+		
+		throw new IllegalArgumentException("Unknown boolean: " + v);
+	}
+	
+	@Override
+	public String toString() {
+		return "protocol: " + protocol
+				+ ", concurrency: " + concurrency
+				+ ", size: " + bodySize
+				+ ", seconds: " + seconds
+				+ ", warmup: " + warmupSeconds
+				+ ", transport: " + transport
+				+ ", nodelay: " + tcpNoDelay;
+	}
+	
+}
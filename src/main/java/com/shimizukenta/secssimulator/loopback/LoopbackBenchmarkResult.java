@@ -0,0 +1,136 @@
+package com.shimizukenta.secssimulator.loopback;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.shimizukenta.secs.SecsLatencyHistogram;
+
+/**
+ * This class is result of {@link LoopbackBenchmark}.
+ * 
+ * <p>
+ * Instances of this class are immutable.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class LoopbackBenchmarkResult {
+	
+	private final LoopbackBenchmarkConfig config;
+	private final long messages;
+	private final long errors;
+	private final long elapsedNanos;
+	private final long p50Nanos;
+	private final long p99Nanos;
+	private final long maxNanos;
+	private final long allocatedBytes;
+	private final int threads;
+	private final int peakThreads;
+	
+	protected LoopbackBenchmarkResult(
+			LoopbackBenchmarkConfig config,
+			long errors,
+			long elapsedNanos,
+			SecsLatencyHistogram latency,
+			long allocatedBytes,
+			int threads,
+			int peakThreads) {
+		
+		this.config = config;
+		this.messages = latency.count();
+		this.errors = errors;
+		this.elapsedNanos = elapsedNanos;
+		this.p50Nanos = latency.percentileNanos(50.0D);
+		this.p99Nanos = latency.percentileNanos(99.0D);
+		this.maxNanos = latency.maxNanos();
+		this.allocatedBytes = allocatedBytes;
+		this.threads = threads;
+		this.peakThreads = peakThreads;
+	}
+	
+	public long messages() {
+		return messages;
+	}
+	
+	public long errors() {
+		return errors;
+	}
+	
+	public double messagesPerSecond() {
+		return elapsedNanos > 0L ? ((double)messages * 1000000000.0D / (double)elapsedNanos) : 0.0D;
+	}
+	
+	public long p50Nanos() {
+		return p50Nanos;
+	}
+	
+	public long p99Nanos() {
+		return p99Nanos;
+	}
+	
+	public long maxNanos() {
+		return maxNanos;
+	}
+	
+	/**
+	 * Returns allocation rate of JVM threads alive at end of measurement.
+	 * 
+	 * @return bytes per second, negative if JVM not supported
+	 */
+	public double allocatedBytesPerSecond() {
+		if ( allocatedBytes < 0L ) {
+			return -1.0D;
+		}
+		return elapsedNanos > 0L ? ((double)allocatedBytes * 1000000000.0D / (double)elapsedNanos) : 0.0D;
+	}
+	
+	public int threads() {
+		return threads;
+	}
+	
+	public int peakThreads() {
+		return peakThreads;
+	}
+	
+	private static String ms(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", ((double)nanos / 1000000.0D));
+	}
+	
+	public List<String> toLines() {
+		return Collections.unmodifiableList(Arrays.asList(
+				"Loopback: " + config,
+				"Messages: " + messages + " (errors: " + errors + ")",
+				String.format(Locale.ROOT, "Throughput: %.1f msgs/s", messagesPerSecond()),
+				"Reply-Latency: p50 " + ms(p50Nanos) + " ms, p99 " + ms(p99Nanos) + " ms, max " + ms(maxNanos) + " ms",
+				String.format(Locale.ROOT, "Allocation: %.1f MB/s", (allocatedBytesPerSecond() / 1000000.0D)),
+				"Threads: " + threads + " (peak: " + peakThreads + ")"
+				));
+	}
+	
+	public String toJson() {
+		return new StringBuilder()
+				.append("{\"protocol\":\"").append(config.protocol()).append("\"")
+				.append(",\"concurrency\":").append(config.concurrency())
+				.append(",\"size\":").append(config.bodySize())
+				.append(",\"messages\":").append(messages)
+				.append(",\"errors\":").append(errors)
+				.append(",\"msgsPerSec\":").append(String.format(Locale.ROOT, "%.1f", messagesPerSecond()))
+				.append(",\"p50\":").append(ms(p50Nanos))
+				.append(",\"p99\":").append(ms(p99Nanos))
+				.append(",\"max\":").append(ms(maxNanos))
+				.append(",\"allocBytesPerSec\":").append(String.format(Locale.ROOT, "%.1f", allocatedBytesPerSecond()))
+				.append(",\"threads\":").append(threads)
+				.append(",\"peakThreads\":").append(peakThreads)
+				.append("}")
+				.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return toJson();
+	}
+	
+}
@@ -7,25 +7,21 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.shimizukenta.secs.NumberProperty;
 import com.shimizukenta.secs.PropertyChangeListener;
+import com.shimizukenta.secs.ReadOnlyNumberProperty;
 import com.shimizukenta.secssimulator.AbstractSecsSimulator;
+import com.shimizukenta.secssimulator.AbstractSecsSimulatorConfig;
 
 public abstract class AbstractMacroEngine implements MacroEngine {
 	
-	private final ExecutorService execServ = Executors.newCachedThreadPool(r -> {
-		Thread th = new Thread(r);
-		th.setDaemon(true);
-		return th;
-	});
+	private final MacroWorkerScheduler scheduler;
 	
 	protected ExecutorService executorService() {
-		return execServ;
+		return scheduler.executorService();
 	}
 	
 	private final Collection<MacroWorker> workers = new ArrayList<>();
@@ -34,8 +30,19 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 	private boolean closed;
 	
 	public AbstractMacroEngine(AbstractSecsSimulator simm) {
+		this(simm, NumberProperty.newInstance(AbstractSecsSimulatorConfig.defaultMacroParallelism()));
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param simm
+	 * @param parallelism limit of running workers, if {@code <= 0}, not limited
+	 */
+	public AbstractMacroEngine(AbstractSecsSimulator simm, ReadOnlyNumberProperty parallelism) {
 		this.simm = simm;
 		this.closed = false;
+		this.scheduler = new MacroWorkerScheduler(parallelism);
 	}
 	
 	@Override
@@ -48,19 +55,9 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 			}
 			
 			this.closed = true;
-			
-			try {
-				execServ.shutdown();
-				if ( ! execServ.awaitTermination(1L, TimeUnit.MILLISECONDS) ) {
-					execServ.shutdownNow();
-					if ( ! execServ.awaitTermination(10L, TimeUnit.SECONDS) ) {
-						throw new IOException("ExecutorService#shutdown failed");
-					}
-				}
-			}
-			catch ( InterruptedException ignore ) {
-			}
 		}
+		
+		scheduler.close();
 	}
 	
 	/**
@@ -70,7 +67,7 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 	 * @param recipe
 	 * @return worker
 	 */
-	protected MacroWorker createWorker(int id, MacroRecipe recipe) {
+	protected AbstractMacroWorker createWorker(int id, MacroRecipe recipe) {
 		return new AbstractMacroWorker(id, recipe, this) {};
 	}
 	
@@ -89,7 +86,7 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 			}
 		}
 		
-		final MacroWorker w = createWorker(autoNumber.incrementAndGet(), recipe);
+		final AbstractMacroWorker w = createWorker(autoNumber.incrementAndGet(), recipe);
 		
 		synchronized ( this.workers ) {
 			this.workers.add(w);
@@ -97,32 +94,19 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 		
 		w.addStateChangeListener(this::notifyStateChanged);
 		
-		execServ.execute(() -> {
-			
-			try {
-				w.get();
-			}
-			catch ( InterruptedException ignore ) {
-			}
-			catch ( ExecutionException e ) {
-				Throwable t = e.getCause();
-				
-				if ( t instanceof Error ) {
-					throw (Error)t;
-				}
-				
-				if ( t instanceof RuntimeException ) {
-					throw (RuntimeException)t;
-				}
-				
-			}
-			finally {
-				synchronized ( this.workers ) {
-					this.workers.remove(w);
-				}
+		boolean f = scheduler.schedule(w, () -> {
+			synchronized ( this.workers ) {
+				this.workers.remove(w);
 			}
 		});
 		
+		if ( ! f ) {
+			synchronized ( this.workers ) {
+				this.workers.remove(w);
+			}
+			return Optional.empty();
+		}
+		
 		return Optional.of(w);
 	}
 	
@@ -184,4 +168,14 @@ public abstract class AbstractMacroEngine implements MacroEngine {
 		listeners.forEach(l -> {l.changed(w);});
 	}
 	
+	@Override
+	public int runningCount() {
+		return scheduler.runningCount();
+	}
+	
+	@Override
+	public int pendingCount() {
+		return scheduler.pendingCount();
+	}
+	
 }
@@ -1,24 +1,22 @@
 package com.shimizukenta.secssimulator.macro;
 
-import java.util.Arrays;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Collection;
 import java.util.Optional;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import com.shimizukenta.secs.Property;
 import com.shimizukenta.secs.PropertyChangeListener;
-import com.shimizukenta.secs.ReadOnlyProperty;
+import com.shimizukenta.secs.SecsMessage;
 import com.shimizukenta.secssimulator.AbstractSecsSimulator;
+import com.shimizukenta.secssimulator.SecsMessageWaitDispatcher;
 
 public abstract class AbstractMacroWorker implements MacroWorker {
 	
-	private final Object abortTask = new Object();
-	
 	private final int id;
 	private final MacroRecipe recipe;
 	private final AbstractMacroEngine engine;
@@ -28,7 +26,14 @@ public abstract class AbstractMacroWorker implements MacroWorker {
 	private boolean failed;
 	private Exception failedException;
 	private int step;
-	private Property<Integer> lastRecvSxFy;
+	private final long recvPosition;
+	private SecsMessageWaitDispatcher.Cursor recvCursor;
+	
+	private Thread runner;
+	private long queuedNanos;
+	private long startedNanos;
+	private long finishedNanos;
+	private long cpuNanos;
 	
 	public AbstractMacroWorker(int id, MacroRecipe recipe, AbstractMacroEngine engine) {
 		
@@ -40,34 +45,47 @@ public abstract class AbstractMacroWorker implements MacroWorker {
 		this.failed = false;
 		this.failedException = null;
 		this.step = -1;
-		this.lastRecvSxFy = Property.newInstance(Integer.valueOf(-1));
-		
-		simulator().addSecsCommunicatableStateChangeListener(f -> {
-			this.lastRecvSxFy.set(Integer.valueOf(-1));
-		});
+		this.recvPosition = simulator().secsMessageWaitDispatcher().position();
+		this.recvCursor = null;
 		
-		simulator().addSecsMessageReceiveListener(msg -> {
-			int strm = msg.getStream();
-			if ( strm >= 0) {
-				int func = msg.getFunction();
-				this.lastRecvSxFy.set(Integer.valueOf((strm * 256) + func));
-			}
-		});
+		this.runner = null;
+		this.queuedNanos = -1L;
+		this.startedNanos = -1L;
+		this.finishedNanos = -1L;
+		this.cpuNanos = -1L;
 	}
 	
 	@Override
 	public boolean cancel(boolean mayInterruptIfRunning) {
+		
 		synchronized ( this ) {
-			synchronized ( this.abortTask ) {
-				if ( ! cancelled && ! done ) {
-					this.cancelled = true;
-					this.abortTask.notifyAll();
-					return true;
-				} else {
-					return false;
+			
+			if ( this.cancelled || this.done ) {
+				return false;
+			}
+			
+			this.cancelled = true;
+			
+			if ( this.runner != null ) {
+				
+				if ( mayInterruptIfRunning ) {
+					this.runner.interrupt();
 				}
+				
+				return true;
+			}
+			
+			if ( this.startedNanos < 0L ) {
+				
+				/* cancelled while pending */
+				this.finishedNanos = System.nanoTime();
+				this.done = true;
+				this.notifyAll();
 			}
 		}
+		
+		notifyStateChanged(this);
+		return true;
 	}
 	
 	@Override
@@ -86,12 +104,33 @@ public abstract class AbstractMacroWorker implements MacroWorker {
 	
 	@Override
 	public Void get() throws InterruptedException, ExecutionException {
-		return executorService().invokeAny(createTasks());
+		synchronized ( this ) {
+			while ( ! this.done ) {
+				this.wait();
+			}
+			return null;
+		}
 	}
 	
 	@Override
 	public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-		return executorService().invokeAny(createTasks(), timeout, unit);
+		synchronized ( this ) {
+			
+			final long limit = System.nanoTime() + unit.toNanos(timeout);
+			
+			while ( ! this.done ) {
+				
+				long r = limit - System.nanoTime();
+				
+				if ( r <= 0L ) {
+					throw new TimeoutException();
+				}
+				
+				TimeUnit.NANOSECONDS.timedWait(this, r);
+			}
+			
+			return null;
+		}
 	}
 	
 	protected AbstractSecsSimulator simulator() {
@@ -102,61 +141,148 @@ public abstract class AbstractMacroWorker implements MacroWorker {
 		return engine.executorService();
 	}
 	
-	protected ReadOnlyProperty<Integer> lastRecvSxFy() {
-		return lastRecvSxFy;
+	/**
+	 * Wait until received SxFy, blocking-method.
+	 * 
+	 * @param strm
+	 * @param func
+	 * @param timeout if {@code <= 0}, wait forever
+	 * @param unit
+	 * @return received message
+	 * @throws InterruptedException
+	 * @throws TimeoutException
+	 */
+	protected SecsMessage waitSxFy(int strm, int func, long timeout, TimeUnit unit)
+			throws InterruptedException, TimeoutException {
+		
+		/* open cursor on first wait, from position at created */
+		if ( this.recvCursor == null ) {
+			this.recvCursor = simulator().secsMessageWaitDispatcher().newCursor(this.recvPosition);
+		}
+		
+		return this.recvCursor.waitUntil(strm, func, timeout, unit);
 	}
 	
-	private Collection<Callable<Void>> createTasks() {
+	/**
+	 * Mark queued time, called by scheduler.
+	 */
+	protected void queued() {
+		synchronized ( this ) {
+			this.queuedNanos = System.nanoTime();
+		}
+	}
+	
+	/**
+	 * Execute tasks on present thread, called by scheduler.
+	 * 
+	 * <p>
+	 * Returns immediately if already cancelled.<br />
+	 * Cancel is checked before each task, running task is interrupted if {@code mayInterruptIfRunning}.<br />
+	 * </p>
+	 */
+	protected void run() {
 		
-		return Arrays.asList(
-				() -> {
-					
-					try {
-						int m = recipe.tasks().size();
-						
-						for ( ;; ) {
-							
-							synchronized ( this ) {
-								this.step += 1;
-								if ( this.step >= m ) {
-									break;
-								}
-							}
-							notifyStateChanged(this);
-							
-							this.presentTask().get().execute(this);
-						}
-					}
-					catch ( InterruptedException ignore ) {
-					}
-					catch ( Exception e ) {
-						synchronized ( this ) {
-							this.failed = true;
-							this.failedException = e;
-						}
-					}
-					finally {
-						
-						synchronized ( this ) {
-							this.done = true;
-						}
-						notifyStateChanged(this);
-					}
-					
-					return null;
-				},
-				() -> {
-					
-					try {
-						synchronized ( this.abortTask ) {
-							this.abortTask.wait();
-						}
+		synchronized ( this ) {
+			
+			if ( this.cancelled || this.done ) {
+				return;
+			}
+			
+			this.runner = Thread.currentThread();
+			this.startedNanos = System.nanoTime();
+		}
+		
+		final long cpuStart = currentThreadCpuTime();
+		
+		try {
+			int m = recipe.tasks().size();
+			
+			for ( ;; ) {
+				
+				synchronized ( this ) {
+					if ( this.cancelled ) {
+						break;
 					}
-					catch ( InterruptedException ignore ) {
+					this.step += 1;
+					if ( this.step >= m ) {
+						break;
 					}
-					
-					return null;
-				});
+				}
+				notifyStateChanged(this);
+				
+				this.presentTask().get().execute(this);
+			}
+		}
+		catch ( InterruptedException ignore ) {
+		}
+		catch ( Exception e ) {
+			synchronized ( this ) {
+				if ( ! this.cancelled ) {
+					this.failed = true;
+					this.failedException = e;
+				}
+			}
+		}
+		finally {
+			
+			final long cpuEnd = currentThreadCpuTime();
+			
+			synchronized ( this ) {
+				this.runner = null;
+				Thread.interrupted();
+				
+				this.finishedNanos = System.nanoTime();
+				this.cpuNanos = (cpuStart >= 0L && cpuEnd >= 0L) ? (cpuEnd - cpuStart) : -1L;
+				this.done = true;
+				this.notifyAll();
+			}
+			notifyStateChanged(this);
+		}
+	}
+	
+	private static long currentThreadCpuTime() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if ( bean.isCurrentThreadCpuTimeSupported() ) {
+				return bean.getCurrentThreadCpuTime();
+			}
+		}
+		catch ( UnsupportedOperationException ignore ) {
+		}
+		return -1L;
+	}
+	
+	@Override
+	public long queuedNanos() {
+		synchronized ( this ) {
+			if ( this.queuedNanos < 0L ) {
+				return 0L;
+			}
+			if ( this.startedNanos < 0L ) {
+				return (this.finishedNanos < 0L ? System.nanoTime() : this.finishedNanos) - this.queuedNanos;
+			}
+			return this.startedNanos - this.queuedNanos;
+		}
+	}
+	
+	@Override
+	public long runningNanos() {
+		synchronized ( this ) {
+			if ( this.startedNanos < 0L ) {
+				return 0L;
+			}
+			if ( this.finishedNanos < 0L ) {
+				return System.nanoTime() - this.startedNanos;
+			}
+			return this.finishedNanos - this.startedNanos;
+		}
+	}
+	
+	@Override
+	public long cpuNanos() {
+		synchronized ( this ) {
+			return this.cpuNanos;
+		}
 	}
 	
 	@Override
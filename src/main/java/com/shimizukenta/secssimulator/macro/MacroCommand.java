@@ -14,6 +14,9 @@ public enum MacroCommand {
 	
 	SLEEP("sleep"),
 	
+	SET_VARIABLE("set-variable", "setvariable"),
+	SEND_EVENT("send-event", "sendevent"),
+	
 	;
 	
 	private final String[] commands;
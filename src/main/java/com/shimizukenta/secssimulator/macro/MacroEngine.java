@@ -49,6 +49,20 @@ public interface MacroEngine extends Closeable {
 	 */
 	public List<MacroWorker> stop() throws InterruptedException;
 	
+	/**
+	 * Returns count of running workers.
+	 * 
+	 * @return count of running workers
+	 */
+	public int runningCount();
+	
+	/**
+	 * Returns count of workers waiting in pending-queue.
+	 * 
+	 * @return count of pending workers
+	 */
+	public int pendingCount();
+	
 	/**
 	 * Add listener.
 	 * 
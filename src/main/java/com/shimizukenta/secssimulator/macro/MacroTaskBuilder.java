@@ -4,18 +4,19 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.shimizukenta.jsonhub.JsonHub;
 import com.shimizukenta.jsonhub.JsonHubParseException;
+import com.shimizukenta.secs.secs2.Secs2;
+import com.shimizukenta.secs.secs2.Secs2JsonParseException;
 import com.shimizukenta.secs.sml.SmlMessage;
 import com.shimizukenta.secs.sml.SmlParseException;
 import com.shimizukenta.secssimulator.SecsSimulatorException;
 import com.shimizukenta.secssimulator.extendsml.ExtendSmlMessageParser;
+import com.shimizukenta.secssimulator.jsoncommunicator.JsonCommunicatorSecs2Parser;
 
 /**
  * Macro-Tasks builder, Singleton-pattern.
@@ -76,6 +77,14 @@ public class MacroTaskBuilder {
 					tasks.add(buildSleep(jht));
 					break;
 				}
+				case SET_VARIABLE: {
+					tasks.add(buildSetVariable(jht));
+					break;
+				}
+				case SEND_EVENT: {
+					tasks.add(buildSendEvent(jht));
+					break;
+				}
 				default: {
 					throw new MacroRecipeParseException("\"" + s + "\" not undefined");
 				}
@@ -207,8 +216,6 @@ public class MacroTaskBuilder {
 		final int x = Integer.parseInt(m.group(GROUP_STREAM));
 		final int y = Integer.parseInt(m.group(GROUP_FUNCTION));
 		
-		final Integer sxfy = Integer.valueOf((x * 256) + y);
-		
 		final float timeout = jh.getOrDefault("timeout").optionalNubmer()
 				.map(Number::floatValue)
 				.orElse(-1.0F);
@@ -221,29 +228,7 @@ public class MacroTaskBuilder {
 			public void execute(AbstractMacroWorker worker)
 					throws InterruptedException, Exception {
 				
-				final Future<Void> future = worker.executorService().submit(() -> {
-					worker.lastRecvSxFy().waitUntil(sxfy);
-					return null;
-				});
-				
-				try {
-					if ( ms > 0 ) {
-						future.get(ms, TimeUnit.MILLISECONDS);
-					} else {
-						future.get();
-					}
-				}
-				catch ( ExecutionException e ) {
-					Throwable t = e.getCause();
-					
-					if ( t instanceof Error ) {
-						throw (Error)t;
-					}
-					
-					if ( t instanceof Exception ) {
-						throw (Exception)t;
-					}
-				}
+				worker.waitSxFy(x, y, ms, TimeUnit.MILLISECONDS);
 			}
 			
 			@Override
@@ -290,4 +275,66 @@ public class MacroTaskBuilder {
 			}
 		};
 	}
+	
+	protected MacroTask buildSetVariable(JsonHub jh) throws MacroRecipeParseException {
+		
+		final long vid = jh.getOrDefault("vid").optionalLong()
+				.orElseThrow(() -> new MacroRecipeParseException("vid is not number"));
+		
+		final JsonHub jhv = jh.getOrDefault("value");
+		
+		if ( ! jhv.isObject() ) {
+			throw new MacroRecipeParseException("value is not SECS-II JSON");
+		}
+		
+		try {
+			final Secs2 value = JsonCommunicatorSecs2Parser.toSecs2(jhv);
+			
+			return new MacroTask() {
+				
+				@Override
+				public void execute(AbstractMacroWorker worker)
+						throws InterruptedException, Exception {
+					
+					worker.simulator().equipmentGemModel().variables().set(vid, value);
+				}
+				
+				@Override
+				public String toString() {
+					return "Set-Variable " + vid;
+				}
+			};
+		}
+		catch ( Secs2JsonParseException e ) {
+			String msg = e.getMessage();
+			if ( msg == null ) {
+				throw new MacroRecipeParseException(e.getClass().getSimpleName(), e);
+			} else {
+				throw new MacroRecipeParseException(msg, e);
+			}
+		}
+	}
+	
+	protected MacroTask buildSendEvent(JsonHub jh) throws MacroRecipeParseException {
+		
+		final long ceid = jh.getOrDefault("ceid").optionalLong()
+				.orElseThrow(() -> new MacroRecipeParseException("ceid is not number"));
+		
+		final Secs2 ss = Secs2.uint4(ceid);
+		
+		return new MacroTask() {
+			
+			@Override
+			public void execute(AbstractMacroWorker worker)
+					throws InterruptedException, Exception {
+				
+				worker.simulator().sendEvent(ss);
+			}
+			
+			@Override
+			public String toString() {
+				return "Send-Event CEID " + ceid;
+			}
+		};
+	}
 }
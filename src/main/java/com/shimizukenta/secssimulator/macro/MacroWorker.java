@@ -62,6 +62,27 @@ public interface MacroWorker extends Future<Void>, Comparable<MacroWorker> {
 	 */
 	public Optional<MacroTask> presentTask();
 	
+	/**
+	 * Returns waiting time in scheduler pending-queue.
+	 * 
+	 * @return nano-seconds, 0 if not queued
+	 */
+	public long queuedNanos();
+	
+	/**
+	 * Returns running time from start of first task.
+	 * 
+	 * @return nano-seconds, 0 if not started
+	 */
+	public long runningNanos();
+	
+	/**
+	 * Returns CPU time spent by tasks.
+	 * 
+	 * @return nano-seconds, -1 if not finished or not supported
+	 */
+	public long cpuNanos();
+	
 	/**
 	 * Add listener.
 	 * 
@@ -0,0 +1,194 @@
+package com.shimizukenta.secssimulator.macro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.shimizukenta.secs.ReadOnlyNumberProperty;
+
+/**
+ * This class is Macro-worker scheduler, bounded parallelism, FIFO pending-queue.
+ * 
+ * <p>
+ * Running workers are limited to parallelism, others wait in pending-queue by started order.<br />
+ * If parallelism {@code <= 0}, not limited.<br />
+ * Each running worker costs one thread, cancellation is cooperative and needs no abort thread.<br />
+ * </p>
+ * 
+ * @author kenta-shimizu
+ *
+ */
+public class MacroWorkerScheduler implements Closeable {
+	
+	private final ExecutorService execServ = Executors.newCachedThreadPool(r -> {
+		Thread th = new Thread(r);
+		th.setDaemon(true);
+		return th;
+	});
+	
+	private final ReadOnlyNumberProperty parallelism;
+	private final Deque<Entry> pending = new ArrayDeque<>();
+	private int running;
+	private boolean closed;
+	
+	public MacroWorkerScheduler(ReadOnlyNumberProperty parallelism) {
+		this.parallelism = parallelism;
+		this.running = 0;
+		this.closed = false;
+		
+		this.parallelism.addChangeListener(v -> {
+			drain();
+		});
+	}
+	
+	protected ExecutorService executorService() {
+		return execServ;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		
+		final List<Entry> ee;
+		
+		synchronized ( this ) {
+			
+			if ( this.closed ) {
+				return;
+			}
+			
+			this.closed = true;
+			ee = new ArrayList<>(this.pending);
+			this.pending.clear();
+		}
+		
+		/* complete pending workers, waiting callers of get() are released */
+		for ( Entry e : ee ) {
+			e.worker.cancel(false);
+			e.finished.run();
+		}
+		
+		try {
+			execServ.shutdown();
+			if ( ! execServ.awaitTermination(1L, TimeUnit.MILLISECONDS) ) {
+				execServ.shutdownNow();
+				if ( ! execServ.awaitTermination(10L, TimeUnit.SECONDS) ) {
+					throw new IOException("ExecutorService#shutdown failed");
+				}
+			}
+		}
+		catch ( InterruptedException ignore ) {
+		}
+	}
+	
+	/**
+	 * Add worker to pending-queue.
+	 * 
+	 * @param worker
+	 * @param finished called when worker finished or skipped by cancel
+	 * @return {@code true} if scheduled
+	 */
+	public boolean schedule(AbstractMacroWorker worker, Runnable finished) {
+		
+		synchronized ( this ) {
+			
+			if ( this.closed ) {
+				return false;
+			}
+			
+			worker.queued();
+			this.pending.addLast(new Entry(worker, finished));
+		}
+		
+		drain();
+		return true;
+	}
+	
+	/**
+	 * Returns count of running workers.
+	 * 
+	 * @return count of running workers
+	 */
+	public int runningCount() {
+		synchronized ( this ) {
+			return this.running;
+		}
+	}
+	
+	/**
+	 * Returns count of pending workers.
+	 * 
+	 * @return count of pending workers
+	 */
+	public int pendingCount() {
+		synchronized ( this ) {
+			return this.pending.size();
+		}
+	}
+	
+	private void drain() {
+		
+		final int limit = parallelism.intValue();
+		
+		synchronized ( this ) {
+			
+			for ( ;; ) {
+				
+				if ( this.closed ) {
+					return;
+				}
+				
+				if ( limit > 0 && this.running >= limit ) {
+					return;
+				}
+				
+				final Entry e = this.pending.pollFirst();
+				
+				if ( e == null ) {
+					return;
+				}
+				
+				if ( e.worker.isDone() ) {
+					
+					/* cancelled while pending */
+					e.finished.run();
+					
+				} else {
+					
+					this.running += 1;
+					execServ.execute(() -> {
+						try {
+							e.worker.run();
+						}
+						finally {
+							e.finished.run();
+							
+							synchronized ( this ) {
+								this.running -= 1;
+							}
+							
+							drain();
+						}
+					});
+				}
+			}
+		}
+	}
+	
+	private static class Entry {
+		
+		private final AbstractMacroWorker worker;
+		private final Runnable finished;
+		
+		private Entry(AbstractMacroWorker worker, Runnable finished) {
+			this.worker = worker;
+			this.finished = finished;
+		}
+	}
+	
+}
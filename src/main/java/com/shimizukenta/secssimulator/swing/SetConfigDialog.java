@@ -121,6 +121,11 @@ public class SetConfigDialog extends AbstractSwingDialog {
 	private final NumberTextField retryText;
 	private final JCheckBox linktestCheck;
 	private final NumberTextField linktestText;
+	
+	private final JCheckBox tcpNoDelayCheck;
+	private final JCheckBox keepAliveCheck;
+	private final NumberTextField sendBufferText;
+	private final NumberTextField receiveBufferText;
 
 	private final JCheckBox autoReply;
 	private final JCheckBox autoReplyS9Fy;
@@ -180,6 +185,11 @@ public class SetConfigDialog extends AbstractSwingDialog {
 			this.linktestText.setEnabled(this.linktestCheck.isSelected());
 		});
 		
+		this.tcpNoDelayCheck = defaultCheckBox("TCP_NODELAY", true);
+		this.keepAliveCheck = defaultCheckBox("SO_KEEPALIVE", false);
+		this.sendBufferText = new NumberTextField("-1", 8);
+		this.receiveBufferText = new NumberTextField("-1", 8);
+		
 		this.autoReply = defaultCheckBox("Auto-reply", true);
 		this.autoReplyS9Fy = defaultCheckBox("Auto-reply-S9Fy", false);
 		this.autoReplySxF0 = defaultCheckBox("Auto-reply-SxF0", false);
@@ -333,6 +343,45 @@ public class SetConfigDialog extends AbstractSwingDialog {
 			{
 				List<Component> comps = new ArrayList<>();
 				
+				{
+					JPanel p = borderPanel();
+					p.setBorder(defaultTitledBorder("Socket-Options"));
+					
+					{
+						JPanel pp = gridPanel(2, 1);
+						
+						pp.add(this.tcpNoDelayCheck);
+						pp.add(this.keepAliveCheck);
+						
+						p.add(pp, BorderLayout.WEST);
+					}
+					
+					comps.add(p);
+				}
+				{
+					JPanel p = flowPanel(FlowLayout.LEFT);
+					
+					p.add(defaultLabel("SO_SNDBUF: ", JLabel.RIGHT));
+					p.add(this.sendBufferText);
+					p.add(defaultLabel("bytes (<= 0: system default)", JLabel.LEFT));
+					
+					comps.add(p);
+				}
+				{
+					JPanel p = flowPanel(FlowLayout.LEFT);
+					
+					p.add(defaultLabel("SO_RCVBUF: ", JLabel.RIGHT));
+					p.add(this.receiveBufferText);
+					p.add(defaultLabel("bytes (<= 0: system default)", JLabel.LEFT));
+					
+					comps.add(p);
+				}
+				
+				tabbedpane.add("Socket", defaultTabComponent(comps));
+			}
+			{
+				List<Component> comps = new ArrayList<>();
+				
 				{
 					JPanel p = borderPanel();
 					p.setBorder(defaultTitledBorder("Auto-Replies"));
@@ -506,6 +555,11 @@ public class SetConfigDialog extends AbstractSwingDialog {
 			}
 		}
 		
+		this.tcpNoDelayCheck.setSelected(hsmsSs.socketOptions().tcpNoDelay().booleanValue());
+		this.keepAliveCheck.setSelected(hsmsSs.socketOptions().keepAlive().booleanValue());
+		this.sendBufferText.setValue(hsmsSs.socketOptions().sendBufferSize().intValue());
+		this.receiveBufferText.setValue(hsmsSs.socketOptions().receiveBufferSize().intValue());
+		
 		this.autoReply.setSelected(config().autoReply().booleanValue());
 		this.autoReplyS9Fy.setSelected(config().autoReplyS9Fy().booleanValue());
 		this.autoReplySxF0.setSelected(config().autoReplySxF0().booleanValue());
@@ -617,6 +671,29 @@ public class SetConfigDialog extends AbstractSwingDialog {
 			config().notLinktest();
 		}
 		
+		config().tcpNoDelay(this.tcpNoDelayCheck.isSelected());
+		config().keepAlive(this.keepAliveCheck.isSelected());
+		
+		try {
+			int v = this.sendBufferText.optionalInt()
+					.orElseThrow(() -> new SecsSimulatorException("Config SO_SNDBUF invalid"));
+			
+			config().sendBufferSize(v);
+		}
+		catch ( SecsSimulatorException e ) {
+			simulator().putFailure(e);
+		}
+		
+		try {
+			int v = this.receiveBufferText.optionalInt()
+					.orElseThrow(() -> new SecsSimulatorException("Config SO_RCVBUF invalid"));
+			
+			config().receiveBufferSize(v);
+		}
+		catch ( SecsSimulatorException e ) {
+			simulator().putFailure(e);
+		}
+		
 		config().autoReply().set(this.autoReply.isSelected());
 		config().autoReplyS9Fy().set(this.autoReplyS9Fy.isSelected());
 		config().autoReplySxF0().set(this.autoReplySxF0.isSelected());
@@ -10,4 +10,7 @@ module com.shimizukenta.secssimulator {
 	exports com.shimizukenta.secs.sml;
 	exports com.shimizukenta.jsonhub;
 	
+	requires java.management;
+	requires jdk.management;
+	
 }